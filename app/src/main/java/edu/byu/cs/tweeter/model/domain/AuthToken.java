@@ -3,7 +3,63 @@ package edu.byu.cs.tweeter.model.domain;
 import java.io.Serializable;
 
 /**
- * Represents an auth token in the system.
+ * Represents an auth token in the system. The token is a random 128-bit value issued by the
+ * server at login, which identifies the session in the server's session table, along with the
+ * time after which the server will no longer accept it.
  */
 public class AuthToken implements Serializable {
+
+    private final String token;
+    private final long expiresAtMillis;
+
+    /**
+     * Creates an instance.
+     *
+     * @param token the token value.
+     * @param expiresAtMillis the time the token expires, in milliseconds since the epoch.
+     */
+    public AuthToken(String token, long expiresAtMillis) {
+        this.token = token;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    /**
+     * Indicates whether the token has expired at the specified time.
+     *
+     * @param nowMillis the time, in milliseconds since the epoch.
+     * @return true if the token has expired; otherwise, false.
+     */
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AuthToken authToken = (AuthToken) o;
+        return token.equals(authToken.token);
+    }
+
+    @Override
+    public int hashCode() {
+        return token.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        // The token is a credential, so only enough of it to tell tokens apart is shown
+        return "AuthToken{" +
+                "token='" + token.substring(0, Math.min(4, token.length())) + "...'" +
+                ", expiresAtMillis=" + expiresAtMillis +
+                '}';
+    }
 }
@@ -0,0 +1,40 @@
+package edu.byu.cs.tweeter.model.domain;
+
+/**
+ * Represents a logged in user's session: the user and the auth token that authorizes their
+ * requests. Sessions are kept in memory by the
+ * {@link edu.byu.cs.tweeter.model.service.SessionHolder} and referred to elsewhere by id, so
+ * screens pass a number between them instead of serializing the user and token.
+ */
+public class Session {
+
+    private final long id;
+    private final User user;
+    private final AuthToken authToken;
+
+    public Session(long id, User user, AuthToken authToken) {
+        this.id = id;
+        this.user = user;
+        this.authToken = authToken;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public AuthToken getAuthToken() {
+        return authToken;
+    }
+
+    @Override
+    public String toString() {
+        return "Session{" +
+                "id=" + id +
+                ", user=" + user +
+                '}';
+    }
+}
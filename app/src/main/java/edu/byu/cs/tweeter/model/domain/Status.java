@@ -0,0 +1,64 @@
+package edu.byu.cs.tweeter.model.domain;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+
+/**
+ * Represents a status posted by a user. Statuses are identified by an id that the server assigns
+ * in posting order, so a later status always has a larger id, and feeds and stories are ordered
+ * and paged by id.
+ */
+public class Status implements Serializable {
+
+    private final long id;
+    private final User user;
+    private final String post;
+    private final long postedAtMillis;
+
+    public Status(long id, @NotNull User user, @NotNull String post, long postedAtMillis) {
+        this.id = id;
+        this.user = user;
+        this.post = post;
+        this.postedAtMillis = postedAtMillis;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public String getPost() {
+        return post;
+    }
+
+    public long getPostedAtMillis() {
+        return postedAtMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Status status = (Status) o;
+        return id == status.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (id ^ (id >>> 32));
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "Status{" +
+                "id=" + id +
+                ", user=" + user.getAlias() +
+                ", post='" + post + '\'' +
+                '}';
+    }
+}
@@ -1,10 +1,15 @@
 package edu.byu.cs.tweeter.model.domain;
 
 import java.io.Serializable;
-import java.util.Objects;
 
 /**
- * Represents a user in the system.
+ * Represents a user in the system. The profile image is referenced by URL; its bytes are held
+ * once per URL in the {@link edu.byu.cs.tweeter.util.ImageStore} rather than by each user.
+ * <p>
+ * Users are created in large numbers and their names are read on every row bind, so the
+ * representation is kept compact: first names, last names and image URLs come from small
+ * dictionaries and are interned so every user shares one copy of each, and the display name is
+ * built once rather than formatted on each call.
  */
 public class User implements Comparable<User>, Serializable {
 
@@ -12,17 +17,21 @@ public class User implements Comparable<User>, Serializable {
     private final String lastName;
     private final String alias;
     private final String imageUrl;
-    private byte [] imageBytes;
+
+    /**
+     * The display name, built on first use. Not serialized, since it can be derived.
+     */
+    private transient String name;
 
     public User(String firstName, String lastName, String imageURL) {
-        this(firstName, lastName, String.format("@%s%s", firstName, lastName), imageURL);
+        this(firstName, lastName, "@" + firstName + lastName, imageURL);
     }
 
     public User(String firstName, String lastName, String alias, String imageURL) {
-        this.firstName = firstName;
-        this.lastName = lastName;
+        this.firstName = intern(firstName);
+        this.lastName = intern(lastName);
         this.alias = alias;
-        this.imageUrl = imageURL;
+        this.imageUrl = intern(imageURL);
     }
 
     public String getFirstName() {
@@ -34,7 +43,11 @@ public class User implements Comparable<User>, Serializable {
     }
 
     public String getName() {
-        return String.format("%s %s", firstName, lastName);
+        if(name == null) {
+            name = firstName + " " + lastName;
+        }
+
+        return name;
     }
 
     public String getAlias() {
@@ -45,14 +58,6 @@ public class User implements Comparable<User>, Serializable {
         return imageUrl;
     }
 
-    public byte [] getImageBytes() {
-        return imageBytes;
-    }
-
-    public void setImageBytes(byte[] imageBytes) {
-        this.imageBytes = imageBytes;
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -63,7 +68,8 @@ public class User implements Comparable<User>, Serializable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(alias);
+        // String caches its own hash, so this neither allocates nor rehashes the alias
+        return alias.hashCode();
     }
 
     @Override
@@ -80,4 +86,17 @@ public class User implements Comparable<User>, Serializable {
     public int compareTo(User user) {
         return this.getAlias().compareTo(user.getAlias());
     }
+
+    /**
+     * Replaces a deserialized user with one whose name components are shared.
+     *
+     * @return the replacement.
+     */
+    private Object readResolve() {
+        return new User(firstName, lastName, alias, imageUrl);
+    }
+
+    private static String intern(String string) {
+        return string == null ? null : string.intern();
+    }
 }
@@ -0,0 +1,40 @@
+package edu.byu.cs.tweeter.model.net;
+
+import edu.byu.cs.tweeter.model.service.request.FollowerRequest;
+import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
+import edu.byu.cs.tweeter.model.service.request.LoginRequest;
+import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
+import edu.byu.cs.tweeter.model.service.response.LoginResponse;
+
+/**
+ * The requests a Tweeter server answers over HTTP: logins and pages of followees and followers.
+ * The {@link ServerFacade} answers them in the app's process and the {@link HttpServerFacade}
+ * sends them to a server that answers them with a {@link ServerFacade} of its own.
+ */
+public interface FollowServer {
+
+    /**
+     * Performs a login and if successful, returns the logged in user and an auth token.
+     *
+     * @param request contains all information needed to perform a login.
+     * @return the login response.
+     */
+    LoginResponse login(LoginRequest request);
+
+    /**
+     * Returns a page of the users the user specified in the request is following.
+     *
+     * @param request contains the follower and the page to return.
+     * @return the following response.
+     */
+    FollowingResponse getFollowees(FollowingRequest request);
+
+    /**
+     * Returns a page of the followers of the user specified in the request.
+     *
+     * @param request contains the followee and the page to return.
+     * @return the follower response.
+     */
+    FollowerResponse getFollowers(FollowerRequest request);
+}
@@ -0,0 +1,208 @@
+package edu.byu.cs.tweeter.model.net;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+
+import edu.byu.cs.tweeter.model.service.request.FollowerRequest;
+import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
+import edu.byu.cs.tweeter.model.service.request.LoginRequest;
+import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
+import edu.byu.cs.tweeter.model.service.response.LoginResponse;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * A {@link FollowServer} that sends logins and followee and follower requests to a Tweeter server
+ * over HTTP rather than answering them in the app's process. Each request is POSTed to its path as
+ * JSON and the server answers with the JSON of the response its {@link ServerFacade} returned, so
+ * a request that fails on the server, such as one with an expired auth token, comes back as an
+ * unsuccessful response with the server's message.
+ * <p>
+ * Connections are not disconnected after a response is read, so the platform keeps them alive and
+ * reuses them, and a steady stream of requests doesn't pay for a new TCP connection each.
+ */
+public class HttpServerFacade implements FollowServer {
+
+    public static final String LOGIN_PATH = "/login";
+    public static final String FOLLOWEES_PATH = "/followees";
+    public static final String FOLLOWERS_PATH = "/followers";
+
+    public static final int DEFAULT_TIMEOUT_MILLIS = 10000;
+
+    static final String SERVER_UNAVAILABLE_MESSAGE = "The server is unavailable";
+
+    private static final Histogram LOGIN_LATENCY =
+            MetricsRegistry.getInstance().histogram("HttpServerFacade.login");
+    private static final Histogram GET_FOLLOWEES_LATENCY =
+            MetricsRegistry.getInstance().histogram("HttpServerFacade.getFollowees");
+    private static final Histogram GET_FOLLOWERS_LATENCY =
+            MetricsRegistry.getInstance().histogram("HttpServerFacade.getFollowers");
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final String serverUrl;
+    private final int timeoutMillis;
+    private final Gson gson = new Gson();
+
+    /**
+     * Creates an instance that waits up to {@link #DEFAULT_TIMEOUT_MILLIS} to connect and for each
+     * response.
+     *
+     * @param serverUrl the URL of the server, e.g. "http://10.0.2.2:8080".
+     */
+    public HttpServerFacade(String serverUrl) {
+        this(serverUrl, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param serverUrl the URL of the server, e.g. "http://10.0.2.2:8080".
+     * @param timeoutMillis how long to wait to connect to the server and for each response.
+     */
+    public HttpServerFacade(String serverUrl, int timeoutMillis) {
+        if(timeoutMillis < 0) {
+            throw new IllegalArgumentException("Invalid timeout: " + timeoutMillis);
+        }
+
+        this.serverUrl = serverUrl.endsWith("/") ? serverUrl.substring(0, serverUrl.length() - 1) : serverUrl;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Performs a login on the server and if successful, returns the logged in user and an auth
+     * token for the session the server opened.
+     *
+     * @param request contains all information needed to perform a login.
+     * @return the login response.
+     */
+    @Override
+    public LoginResponse login(LoginRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("HttpServerFacade.login");
+
+        try {
+            return post(LOGIN_PATH, request, LoginResponse.class);
+        } catch (IOException ex) {
+            return new LoginResponse(SERVER_UNAVAILABLE_MESSAGE);
+        } finally {
+            span.end();
+            LOGIN_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns a page of the followers of the user specified in the request, read from the server.
+     *
+     * @param request contains the followee and the page to return.
+     * @return the follower response.
+     */
+    @Override
+    public FollowerResponse getFollowers(FollowerRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("HttpServerFacade.getFollowers");
+
+        try {
+            return post(FOLLOWERS_PATH, request, FollowerResponse.class);
+        } catch (IOException ex) {
+            return new FollowerResponse(SERVER_UNAVAILABLE_MESSAGE);
+        } finally {
+            span.end();
+            GET_FOLLOWERS_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns a page of the users the user specified in the request is following, read from the
+     * server.
+     *
+     * @param request contains the follower and the page to return.
+     * @return the following response.
+     */
+    @Override
+    public FollowingResponse getFollowees(FollowingRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("HttpServerFacade.getFollowees");
+
+        try {
+            return post(FOLLOWEES_PATH, request, FollowingResponse.class);
+        } catch (IOException ex) {
+            return new FollowingResponse(SERVER_UNAVAILABLE_MESSAGE);
+        } finally {
+            span.end();
+            GET_FOLLOWEES_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Sends a request to the server and reads its response.
+     *
+     * @param path the path of the request.
+     * @param request the request, sent as JSON.
+     * @param responseClass the class of the response.
+     * @return the response.
+     * @throws IOException if the server couldn't be reached, didn't answer in time, or answered
+     *                     with an error status or a body that isn't a response.
+     */
+    private <T> T post(String path, Object request, Class<T> responseClass) throws IOException {
+        byte [] body = gson.toJson(request).getBytes(UTF_8);
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(serverUrl + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setConnectTimeout(timeoutMillis);
+        connection.setReadTimeout(timeoutMillis);
+        // The body is left for the connection to buffer rather than streamed with a fixed length,
+        // so it is sent in one write with the headers instead of in a second packet behind them
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(body);
+        }
+
+        int responseCode = connection.getResponseCode();
+        if(responseCode != HttpURLConnection.HTTP_OK) {
+            // Reading the error body to the end lets the connection be reused
+            InputStream errorStream = connection.getErrorStream();
+            if(errorStream != null) {
+                drain(errorStream);
+            }
+            throw new IOException("Unexpected response code from " + path + ": " + responseCode);
+        }
+
+        try (Reader reader = new InputStreamReader(connection.getInputStream(), UTF_8)) {
+            T response = gson.fromJson(reader, responseClass);
+
+            if(response == null) {
+                throw new IOException("Empty response from " + path);
+            }
+
+            return response;
+        } catch (JsonParseException ex) {
+            throw new IOException("Malformed response from " + path, ex);
+        }
+    }
+
+    private static void drain(InputStream inputStream) throws IOException {
+        try {
+            byte [] buffer = new byte[1024];
+            while(inputStream.read(buffer) != -1) {
+                // Discard the body
+            }
+        } finally {
+            inputStream.close();
+        }
+    }
+}
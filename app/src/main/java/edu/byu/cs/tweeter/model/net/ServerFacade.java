@@ -1,44 +1,143 @@
 package edu.byu.cs.tweeter.model.net;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import edu.byu.cs.tweeter.BuildConfig;
 import edu.byu.cs.tweeter.model.domain.AuthToken;
 import edu.byu.cs.tweeter.model.domain.Follow;
+import edu.byu.cs.tweeter.model.domain.Status;
 import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.service.request.FollowCountRequest;
+import edu.byu.cs.tweeter.model.service.request.FollowIntersectionRequest;
 import edu.byu.cs.tweeter.model.service.request.FollowerRequest;
 import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
+import edu.byu.cs.tweeter.model.service.request.IsFollowingRequest;
 import edu.byu.cs.tweeter.model.service.request.LoginRequest;
+import edu.byu.cs.tweeter.model.service.request.PostStatusRequest;
+import edu.byu.cs.tweeter.model.service.request.RecommendationRequest;
+import edu.byu.cs.tweeter.model.service.request.TimelineRequest;
+import edu.byu.cs.tweeter.model.service.request.UserSearchRequest;
+import edu.byu.cs.tweeter.model.service.response.ErrorCode;
+import edu.byu.cs.tweeter.model.service.response.FollowCountResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowIntersectionResponse;
 import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
 import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
+import edu.byu.cs.tweeter.model.service.response.IsFollowingResponse;
 import edu.byu.cs.tweeter.model.service.response.LoginResponse;
+import edu.byu.cs.tweeter.model.service.response.PostStatusResponse;
+import edu.byu.cs.tweeter.model.service.response.RecommendationResponse;
+import edu.byu.cs.tweeter.model.service.response.TimelineResponse;
+import edu.byu.cs.tweeter.model.service.response.UserSearchResponse;
+import edu.byu.cs.tweeter.server.auth.CredentialVerifier;
+import edu.byu.cs.tweeter.server.auth.SessionTable;
+import edu.byu.cs.tweeter.server.follow.FollowRecommender;
+import edu.byu.cs.tweeter.server.follow.FollowGraph;
+import edu.byu.cs.tweeter.server.follow.ShardedFollowGraph;
+import edu.byu.cs.tweeter.server.search.UserSearchIndex;
+import edu.byu.cs.tweeter.server.search.UserSearcher;
+import edu.byu.cs.tweeter.server.timeline.TimelineEngine;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
 
 /**
  * Acts as a Facade to the Tweeter server. All network requests to the server should go through
  * this class.
  */
-public class ServerFacade {
+public class ServerFacade implements FollowServer {
+
+    private static final Histogram LOGIN_LATENCY =
+            MetricsRegistry.getInstance().histogram("ServerFacade.login");
+    private static final Histogram GET_FOLLOWEES_LATENCY =
+            MetricsRegistry.getInstance().histogram("ServerFacade.getFollowees");
+    private static final Histogram GET_FOLLOWERS_LATENCY =
+            MetricsRegistry.getInstance().histogram("ServerFacade.getFollowers");
+    private static final Histogram GET_FOLLOW_COUNT_LATENCY =
+            MetricsRegistry.getInstance().histogram("ServerFacade.getFollowCount");
+    private static final Histogram IS_FOLLOWING_LATENCY =
+            MetricsRegistry.getInstance().histogram("ServerFacade.isFollowing");
+    private static final Histogram GET_MUTUAL_FOLLOWS_LATENCY =
+            MetricsRegistry.getInstance().histogram("ServerFacade.getMutualFollows");
+    private static final Histogram GET_FOLLOWERS_YOU_FOLLOW_LATENCY =
+            MetricsRegistry.getInstance().histogram("ServerFacade.getFollowersYouFollow");
+    private static final Histogram GET_RECOMMENDATIONS_LATENCY =
+            MetricsRegistry.getInstance().histogram("ServerFacade.getRecommendations");
+    private static final Histogram SEARCH_USERS_LATENCY =
+            MetricsRegistry.getInstance().histogram("ServerFacade.searchUsers");
+    private static final Histogram POST_STATUS_LATENCY =
+            MetricsRegistry.getInstance().histogram("ServerFacade.postStatus");
+    private static final Histogram GET_TIMELINE_LATENCY =
+            MetricsRegistry.getInstance().histogram("ServerFacade.getTimeline");
+
+    static final String INVALID_AUTH_TOKEN_MESSAGE = "Invalid or expired auth token";
+    static final String INVALID_CREDENTIALS_MESSAGE = "Invalid username or password";
+    static final String SERVER_BUSY_MESSAGE = "Too many logins in progress; try again later";
+    static final String FOLLOW_STORE_UNAVAILABLE_MESSAGE = "Follow data is unavailable";
+    static final String INTERRUPTED_MESSAGE = "The request was interrupted";
 
-    private static Map<User, List<User>> followeesByFollower;
+    /**
+     * The graph last found to be filled, so requests after the first read it without taking the
+     * lock that filling it needs.
+     */
+    private static volatile FollowGraph initializedFollowGraph;
 
     /**
-     * Performs a login and if successful, returns the logged in user and an auth token. The current
-     * implementation is hard-coded to return a dummy user and doesn't actually make a network
+     * Performs a login and if successful, returns the logged in user and an auth token. The
+     * credentials are verified against the {@link edu.byu.cs.tweeter.server.auth.CredentialStore}
+     * and a successful login opens a session in the {@link SessionTable}, which other requests
+     * must present the token of. The current implementation doesn't actually make a network
      * request.
      *
      * @param request contains all information needed to perform a login.
      * @return the login response.
      */
+    @Override
     public LoginResponse login(LoginRequest request) {
-        User user = new User("Test", "User",
-                "https://faculty.cs.byu.edu/~jwilkerson/cs340/tweeter/images/donald_duck.png");
-        return new LoginResponse(user, new AuthToken());
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("ServerFacade.login");
+
+        try {
+            User user = getCredentialVerifier().verify(request.getUsername(), request.getPassword());
+
+            if(user == null) {
+                return new LoginResponse(INVALID_CREDENTIALS_MESSAGE);
+            }
+
+            AuthToken authToken = getSessionTable().create(user);
+            return new LoginResponse(user, authToken);
+        } catch (RejectedExecutionException ex) {
+            return new LoginResponse(SERVER_BUSY_MESSAGE);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new LoginResponse(SERVER_BUSY_MESSAGE);
+        } finally {
+            span.end();
+            LOGIN_LATENCY.recordSince(start);
+        }
     }
 
+    @Override
     public FollowerResponse getFollowers(FollowerRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("ServerFacade.getFollowers");
+
+        try {
+            return doGetFollowers(request);
+        } finally {
+            span.end();
+            GET_FOLLOWERS_LATENCY.recordSince(start);
+        }
+    }
+
+    private FollowerResponse doGetFollowers(FollowerRequest request) {
+        if(getSessionTable().validate(request.getAuthToken()) == null) {
+            return new FollowerResponse(ErrorCode.INVALID_AUTH_TOKEN, INVALID_AUTH_TOKEN_MESSAGE);
+        }
+
         if(BuildConfig.DEBUG) {
             if(request.getLimit() < 0) {
                 throw new AssertionError();
@@ -49,25 +148,25 @@ public class ServerFacade {
             }
         }
 
-        if(followeesByFollower == null) {
-            followeesByFollower = initializeFollowees();
+        List<User> allFollowers;
+        try {
+            allFollowers = getInitializedFollowGraph().getFollowers(request.getFollowee());
+        } catch (IOException ex) {
+            return new FollowerResponse(FOLLOW_STORE_UNAVAILABLE_MESSAGE);
         }
 
-        List<User> allFollowers = followeesByFollower.get(request.getFollowee());
         List<User> responseFollowers = new ArrayList<>(request.getLimit());
 
         boolean hasMorePages = false;
 
         if(request.getLimit() > 0) {
-            if (allFollowers != null) {
-                int followeesIndex = getFolloweesStartingIndex(request.getLastFollower(), allFollowers);
-
-                for(int limitCounter = 0; followeesIndex < allFollowers.size() && limitCounter < request.getLimit(); followeesIndex++, limitCounter++) {
-                    responseFollowers.add(allFollowers.get(followeesIndex));
-                }
+            int followersIndex = getFolloweesStartingIndex(request.getLastFollower(), allFollowers);
 
-                hasMorePages = followeesIndex < allFollowers.size();
+            for(int limitCounter = 0; followersIndex < allFollowers.size() && limitCounter < request.getLimit(); followersIndex++, limitCounter++) {
+                responseFollowers.add(allFollowers.get(followersIndex));
             }
+
+            hasMorePages = followersIndex < allFollowers.size();
         }
 
         return new FollowerResponse(responseFollowers, hasMorePages);
@@ -77,13 +176,30 @@ public class ServerFacade {
      * Returns the users that the user specified in the request is following. Uses information in
      * the request object to limit the number of followees returned and to return the next set of
      * followees after any that were returned in a previous request. The current implementation
-     * returns generated data and doesn't actually make a network request.
+     * reads the {@link FollowGraph}, which starts out holding generated data, and doesn't actually
+     * make a network request.
      *
      * @param request contains information about the user whose followees are to be returned and any
      *                other information required to satisfy the request.
      * @return the following response.
      */
+    @Override
     public FollowingResponse getFollowees(FollowingRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("ServerFacade.getFollowees");
+
+        try {
+            return doGetFollowees(request);
+        } finally {
+            span.end();
+            GET_FOLLOWEES_LATENCY.recordSince(start);
+        }
+    }
+
+    private FollowingResponse doGetFollowees(FollowingRequest request) {
+        if(getSessionTable().validate(request.getAuthToken()) == null) {
+            return new FollowingResponse(ErrorCode.INVALID_AUTH_TOKEN, INVALID_AUTH_TOKEN_MESSAGE);
+        }
 
         // Used in place of assert statements because Android does not support them
         if(BuildConfig.DEBUG) {
@@ -96,28 +212,327 @@ public class ServerFacade {
             }
         }
 
-        if(followeesByFollower == null) {
-            followeesByFollower = initializeFollowees();
+        List<User> allFollowees;
+        try {
+            allFollowees = getInitializedFollowGraph().getFollowees(request.getFollower());
+        } catch (IOException ex) {
+            return new FollowingResponse(FOLLOW_STORE_UNAVAILABLE_MESSAGE);
         }
 
-        List<User> allFollowees = followeesByFollower.get(request.getFollower());
         List<User> responseFollowees = new ArrayList<>(request.getLimit());
 
         boolean hasMorePages = false;
 
         if(request.getLimit() > 0) {
-            if (allFollowees != null) {
-                int followeesIndex = getFolloweesStartingIndex(request.getLastFollowee(), allFollowees);
+            int followeesIndex = getFolloweesStartingIndex(request.getLastFollowee(), allFollowees);
+
+            for(int limitCounter = 0; followeesIndex < allFollowees.size() && limitCounter < request.getLimit(); followeesIndex++, limitCounter++) {
+                responseFollowees.add(allFollowees.get(followeesIndex));
+            }
 
-                for(int limitCounter = 0; followeesIndex < allFollowees.size() && limitCounter < request.getLimit(); followeesIndex++, limitCounter++) {
-                    responseFollowees.add(allFollowees.get(followeesIndex));
+            hasMorePages = followeesIndex < allFollowees.size();
+        }
+
+        return new FollowingResponse(responseFollowees, hasMorePages);
+    }
+
+    /**
+     * Returns the number of users the user specified in the request follows and is followed by.
+     * The current implementation reads the {@link FollowGraph} and doesn't actually make a network
+     * request.
+     *
+     * @param request contains the user whose counts are to be returned.
+     * @return the follow count response.
+     */
+    public FollowCountResponse getFollowCount(FollowCountRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("ServerFacade.getFollowCount");
+
+        try {
+            if(getSessionTable().validate(request.getAuthToken()) == null) {
+                return new FollowCountResponse(ErrorCode.INVALID_AUTH_TOKEN, INVALID_AUTH_TOKEN_MESSAGE);
+            }
+
+            if(BuildConfig.DEBUG) {
+                if(request.getUser() == null) {
+                    throw new AssertionError();
                 }
+            }
+
+            FollowGraph followGraph = getInitializedFollowGraph();
+
+            return new FollowCountResponse(followGraph.getFollowees(request.getUser()).size(),
+                    followGraph.getFollowers(request.getUser()).size());
+        } catch (IOException ex) {
+            return new FollowCountResponse(FOLLOW_STORE_UNAVAILABLE_MESSAGE);
+        } finally {
+            span.end();
+            GET_FOLLOW_COUNT_LATENCY.recordSince(start);
+        }
+    }
 
-                hasMorePages = followeesIndex < allFollowees.size();
+    /**
+     * Returns whether the follower specified in the request follows each of the users in the
+     * request. Each check is a lookup in the {@link FollowGraph}'s index rather than a scan of the
+     * follower's followees. The current implementation doesn't actually make a network request.
+     *
+     * @param request contains the follower and the users to check.
+     * @return the is following response.
+     */
+    public IsFollowingResponse isFollowing(IsFollowingRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("ServerFacade.isFollowing");
+
+        try {
+            if(getSessionTable().validate(request.getAuthToken()) == null) {
+                return new IsFollowingResponse(ErrorCode.INVALID_AUTH_TOKEN, INVALID_AUTH_TOKEN_MESSAGE);
             }
+
+            if(BuildConfig.DEBUG) {
+                if(request.getFollower() == null || request.getFollowees() == null) {
+                    throw new AssertionError();
+                }
+            }
+
+            return new IsFollowingResponse(getInitializedFollowGraph().isFollowing(request.getFollower(), request.getFollowees()));
+        } catch (IOException ex) {
+            return new IsFollowingResponse(FOLLOW_STORE_UNAVAILABLE_MESSAGE);
+        } finally {
+            span.end();
+            IS_FOLLOWING_LATENCY.recordSince(start);
         }
+    }
 
-        return new FollowingResponse(responseFollowees, hasMorePages);
+    /**
+     * Returns a page of the users who follow the user specified in the request and whom that user
+     * follows back. The current implementation intersects the user's followers and followees in
+     * the {@link FollowGraph} and doesn't actually make a network request.
+     *
+     * @param request contains the user and the paging information.
+     * @return the follow intersection response.
+     */
+    public FollowIntersectionResponse getMutualFollows(FollowIntersectionRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("ServerFacade.getMutualFollows");
+
+        try {
+            if(getSessionTable().validate(request.getAuthToken()) == null) {
+                return new FollowIntersectionResponse(ErrorCode.INVALID_AUTH_TOKEN, INVALID_AUTH_TOKEN_MESSAGE);
+            }
+
+            if(BuildConfig.DEBUG) {
+                if(request.getLimit() < 0 || request.getUser() == null) {
+                    throw new AssertionError();
+                }
+            }
+
+            FollowGraph.Page page = getInitializedFollowGraph().getMutualFollows(request.getUser(),
+                    request.getLastUser(), request.getLimit());
+            return new FollowIntersectionResponse(page.getUsers(), page.getHasMorePages());
+        } catch (IOException ex) {
+            return new FollowIntersectionResponse(FOLLOW_STORE_UNAVAILABLE_MESSAGE);
+        } finally {
+            span.end();
+            GET_MUTUAL_FOLLOWS_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns a page of the users who follow the user specified in the request and are followed by
+     * the logged in user, who is identified by the request's auth token. The current
+     * implementation intersects the two lists in the {@link FollowGraph} and doesn't actually make
+     * a network request.
+     *
+     * @param request contains the user and the paging information.
+     * @return the follow intersection response.
+     */
+    public FollowIntersectionResponse getFollowersYouFollow(FollowIntersectionRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("ServerFacade.getFollowersYouFollow");
+
+        try {
+            User viewer = getSessionTable().validate(request.getAuthToken());
+
+            if(viewer == null) {
+                return new FollowIntersectionResponse(ErrorCode.INVALID_AUTH_TOKEN, INVALID_AUTH_TOKEN_MESSAGE);
+            }
+
+            if(BuildConfig.DEBUG) {
+                if(request.getLimit() < 0 || request.getUser() == null) {
+                    throw new AssertionError();
+                }
+            }
+
+            FollowGraph.Page page = getInitializedFollowGraph().getFollowersFollowedBy(request.getUser(),
+                    viewer, request.getLastUser(), request.getLimit());
+            return new FollowIntersectionResponse(page.getUsers(), page.getHasMorePages());
+        } catch (IOException ex) {
+            return new FollowIntersectionResponse(FOLLOW_STORE_UNAVAILABLE_MESSAGE);
+        } finally {
+            span.end();
+            GET_FOLLOWERS_YOU_FOLLOW_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns users for the logged in user, who is identified by the request's auth token, to
+     * follow: the users most followed by the users the logged in user follows. The current
+     * implementation computes them with the {@link FollowRecommender} and doesn't actually make a
+     * network request.
+     *
+     * @param request contains the auth token and the number of users to return.
+     * @return the recommendation response.
+     */
+    public RecommendationResponse getRecommendations(RecommendationRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("ServerFacade.getRecommendations");
+
+        try {
+            User user = getSessionTable().validate(request.getAuthToken());
+
+            if(user == null) {
+                return new RecommendationResponse(ErrorCode.INVALID_AUTH_TOKEN, INVALID_AUTH_TOKEN_MESSAGE);
+            }
+
+            if(BuildConfig.DEBUG) {
+                if(request.getLimit() < 0) {
+                    throw new AssertionError();
+                }
+            }
+
+            List<FollowRecommender.Recommendation> recommendations =
+                    getFollowRecommender().recommend(getInitializedFollowGraph(), user, request.getLimit());
+
+            List<User> users = new ArrayList<>(recommendations.size());
+            int [] followedByCounts = new int[recommendations.size()];
+            for(int i = 0; i < followedByCounts.length; i++) {
+                users.add(recommendations.get(i).getUser());
+                followedByCounts[i] = recommendations.get(i).getFollowedByCount();
+            }
+
+            return new RecommendationResponse(users, followedByCounts);
+        } catch (IOException ex) {
+            return new RecommendationResponse(FOLLOW_STORE_UNAVAILABLE_MESSAGE);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new RecommendationResponse(INTERRUPTED_MESSAGE);
+        } finally {
+            span.end();
+            GET_RECOMMENDATIONS_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns a page of the users whose alias, first name or last name starts with the query in
+     * the request, most followed first. The current implementation searches an index of the users
+     * in the {@link FollowGraph}, which may lag the graph by up to
+     * {@link UserSearcher#DEFAULT_REFRESH_INTERVAL_MILLIS}, and doesn't actually make a network
+     * request.
+     *
+     * @param request contains the query and the paging information.
+     * @return the user search response.
+     */
+    public UserSearchResponse searchUsers(UserSearchRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("ServerFacade.searchUsers");
+
+        try {
+            if(getSessionTable().validate(request.getAuthToken()) == null) {
+                return new UserSearchResponse(ErrorCode.INVALID_AUTH_TOKEN, INVALID_AUTH_TOKEN_MESSAGE);
+            }
+
+            if(BuildConfig.DEBUG) {
+                if(request.getLimit() < 0 || request.getOffset() < 0) {
+                    throw new AssertionError();
+                }
+            }
+
+            UserSearchIndex.Result result = getUserSearcher().search(getInitializedFollowGraph(),
+                    request.getQuery(), request.getOffset(), request.getLimit());
+            return new UserSearchResponse(result.getUsers(), result.getHasMorePages());
+        } catch (IOException ex) {
+            return new UserSearchResponse(FOLLOW_STORE_UNAVAILABLE_MESSAGE);
+        } finally {
+            span.end();
+            SEARCH_USERS_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Posts a status as the logged in user, who is identified by the request's auth token. The
+     * current implementation hands the status to the {@link TimelineEngine}, which adds it to the
+     * user's story and delivers it to the feeds of the user's followers in the background, and
+     * doesn't actually make a network request.
+     *
+     * @param request contains the auth token and the text of the status.
+     * @return the post status response.
+     */
+    public PostStatusResponse postStatus(PostStatusRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("ServerFacade.postStatus");
+
+        try {
+            User user = getSessionTable().validate(request.getAuthToken());
+
+            if(user == null) {
+                return new PostStatusResponse(ErrorCode.INVALID_AUTH_TOKEN, INVALID_AUTH_TOKEN_MESSAGE);
+            }
+
+            if(BuildConfig.DEBUG) {
+                if(request.getPost() == null) {
+                    throw new AssertionError();
+                }
+            }
+
+            Status status = getTimelineEngine().post(getInitializedFollowGraph(), user, request.getPost());
+            return new PostStatusResponse(status);
+        } catch (IOException ex) {
+            return new PostStatusResponse(FOLLOW_STORE_UNAVAILABLE_MESSAGE);
+        } finally {
+            span.end();
+            POST_STATUS_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns a page of the timeline of the user specified in the request, newest first. A feed is
+     * read from the feed the {@link TimelineEngine} keeps for the user, merged with the stories of
+     * the celebrities the user follows, and a story from the story the engine keeps for the user.
+     * The current implementation doesn't actually make a network request.
+     *
+     * @param request contains the user and timeline to be returned and the paging information.
+     * @return the timeline response.
+     */
+    public TimelineResponse getTimeline(TimelineRequest request) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("ServerFacade.getTimeline");
+
+        try {
+            if(getSessionTable().validate(request.getAuthToken()) == null) {
+                return new TimelineResponse(ErrorCode.INVALID_AUTH_TOKEN, INVALID_AUTH_TOKEN_MESSAGE);
+            }
+
+            if(BuildConfig.DEBUG) {
+                if(request.getKind() == null || request.getLimit() < 0 || request.getUser() == null) {
+                    throw new AssertionError();
+                }
+            }
+
+            TimelineEngine.Page page;
+            if(request.getKind() == TimelineRequest.Kind.FEED) {
+                page = getTimelineEngine().getFeed(getInitializedFollowGraph(), request.getUser(),
+                        request.getLastStatus(), request.getLimit());
+            } else {
+                page = getTimelineEngine().getStory(request.getUser(), request.getLastStatus(), request.getLimit());
+            }
+
+            return new TimelineResponse(page.getStatuses(), page.getHasMorePages());
+        } catch (IOException ex) {
+            return new TimelineResponse(FOLLOW_STORE_UNAVAILABLE_MESSAGE);
+        } finally {
+            span.end();
+            GET_TIMELINE_LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -150,28 +565,31 @@ public class ServerFacade {
     }
 
     /**
-     * Generates the followee data.
+     * Returns the follow graph, first filling it with generated data if it is empty, as it is the
+     * first time the server runs. Only the first request for a graph checks whether it is empty,
+     * under a lock; later requests find it already checked and take no lock.
+     *
+     * @return the graph.
+     * @throws IOException if the generated data could not be stored.
      */
-    private Map<User, List<User>> initializeFollowees() {
-
-        Map<User, List<User>> followeesByFollower = new HashMap<>();
+    private FollowGraph getInitializedFollowGraph() throws IOException {
+        FollowGraph followGraph = getFollowGraph();
 
-        List<Follow> follows = getFollowGenerator().generateUsersAndFollows(100,
-                0, 50, FollowGenerator.Sort.FOLLOWER_FOLLOWEE);
-
-        // Populate a map of followees, keyed by follower so we can easily handle followee requests
-        for(Follow follow : follows) {
-            List<User> followees = followeesByFollower.get(follow.getFollower());
+        if(followGraph == initializedFollowGraph) {
+            return followGraph;
+        }
 
-            if(followees == null) {
-                followees = new ArrayList<>();
-                followeesByFollower.put(follow.getFollower(), followees);
+        synchronized (ServerFacade.class) {
+            if(followGraph.isEmpty()) {
+                List<Follow> follows = getFollowGenerator().generateUsersAndFollows(100,
+                        0, 50, FollowGenerator.Sort.FOLLOWER_FOLLOWEE);
+                followGraph.followAll(follows);
             }
 
-            followees.add(follow.getFollowee());
+            initializedFollowGraph = followGraph;
         }
 
-        return followeesByFollower;
+        return followGraph;
     }
 
     /**
@@ -183,4 +601,64 @@ public class ServerFacade {
     FollowGenerator getFollowGenerator() {
         return FollowGenerator.getInstance();
     }
+
+    /**
+     * Returns the table of logged in sessions. This is written as a separate method to allow
+     * mocking of the table.
+     *
+     * @return the session table.
+     */
+    SessionTable getSessionTable() {
+        return SessionTable.getInstance();
+    }
+
+    /**
+     * Returns the verifier that checks login credentials. This is written as a separate method to
+     * allow mocking of the verifier.
+     *
+     * @return the credential verifier.
+     */
+    CredentialVerifier getCredentialVerifier() {
+        return CredentialVerifier.getInstance();
+    }
+
+    /**
+     * Returns the engine that recommends users to follow. This is written as a separate method to
+     * allow mocking of the engine.
+     *
+     * @return the follow recommender.
+     */
+    FollowRecommender getFollowRecommender() {
+        return FollowRecommender.getInstance();
+    }
+
+    /**
+     * Returns the searcher that finds users by name. This is written as a separate method to allow
+     * mocking of the searcher.
+     *
+     * @return the user searcher.
+     */
+    UserSearcher getUserSearcher() {
+        return UserSearcher.getInstance();
+    }
+
+    /**
+     * Returns the engine that holds feeds and stories. This is written as a separate method to
+     * allow tests to use an engine of their own.
+     *
+     * @return the timeline engine.
+     */
+    TimelineEngine getTimelineEngine() {
+        return TimelineEngine.getInstance();
+    }
+
+    /**
+     * Returns the graph that holds follow relationships, partitioned across shards. This is
+     * written as a separate method to allow tests to use a graph of their own.
+     *
+     * @return the follow graph.
+     */
+    FollowGraph getFollowGraph() {
+        return ShardedFollowGraph.getInstance();
+    }
 }
@@ -9,8 +9,10 @@ import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 import edu.byu.cs.tweeter.model.domain.User;
 
@@ -116,6 +118,7 @@ public class UserGenerator {
     public List<User> generateUsers(int count) {
 
         List<User> users = new ArrayList<>(count);
+        Set<User> generatedUsers = new HashSet<>(count * 2);
 
         Random random = new Random();
 
@@ -135,7 +138,7 @@ public class UserGenerator {
             String lastName = surnames[random.nextInt(surnames.length)];
             User user = new User(firstName, lastName, imageULR);
 
-            if(!users.contains(user)) {
+            if(generatedUsers.add(user)) {
                 users.add(user);
             }
         }
@@ -0,0 +1,51 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.io.IOException;
+
+import edu.byu.cs.tweeter.model.net.ServerFacade;
+import edu.byu.cs.tweeter.model.service.request.FollowCountRequest;
+import edu.byu.cs.tweeter.model.service.response.FollowCountResponse;
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * Contains the business logic for getting the number of users a user follows and is followed by.
+ */
+public class FollowCountService {
+
+    private static final Histogram GET_FOLLOW_COUNT_LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowCountService.getFollowCount");
+
+    /**
+     * Returns the followee and follower counts of the user specified in the request.
+     *
+     * @param request contains the data required to fulfill the request.
+     * @return the counts.
+     */
+    public FollowCountResponse getFollowCount(FollowCountRequest request) throws IOException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("FollowCountService.getFollowCount");
+
+        try {
+            CancellationToken.throwIfCurrentCancelled();
+            return getServerFacade().getFollowCount(request);
+        } finally {
+            span.end();
+            GET_FOLLOW_COUNT_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns an instance of {@link ServerFacade}. Allows mocking of the ServerFacade class for
+     * testing purposes. All usages of ServerFacade should get their ServerFacade instance from this
+     * method to allow for proper mocking.
+     *
+     * @return the instance.
+     */
+    ServerFacade getServerFacade() {
+        return new ServerFacade();
+    }
+}
@@ -0,0 +1,75 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.io.IOException;
+
+import edu.byu.cs.tweeter.model.net.ServerFacade;
+import edu.byu.cs.tweeter.model.service.request.FollowIntersectionRequest;
+import edu.byu.cs.tweeter.model.service.response.FollowIntersectionResponse;
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * Contains the business logic for getting the users two follow lists have in common, as shown on
+ * a profile.
+ */
+public class FollowIntersectionService {
+
+    private static final Histogram GET_MUTUAL_FOLLOWS_LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowIntersectionService.getMutualFollows");
+    private static final Histogram GET_FOLLOWERS_YOU_FOLLOW_LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowIntersectionService.getFollowersYouFollow");
+
+    /**
+     * Returns a page of the users who follow the user specified in the request and whom that user
+     * follows back.
+     *
+     * @param request contains the data required to fulfill the request.
+     * @return the users.
+     */
+    public FollowIntersectionResponse getMutualFollows(FollowIntersectionRequest request) throws IOException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("FollowIntersectionService.getMutualFollows");
+
+        try {
+            CancellationToken.throwIfCurrentCancelled();
+            return getServerFacade().getMutualFollows(request);
+        } finally {
+            span.end();
+            GET_MUTUAL_FOLLOWS_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns a page of the users who follow the user specified in the request and are followed by
+     * the logged in user.
+     *
+     * @param request contains the data required to fulfill the request.
+     * @return the users.
+     */
+    public FollowIntersectionResponse getFollowersYouFollow(FollowIntersectionRequest request) throws IOException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("FollowIntersectionService.getFollowersYouFollow");
+
+        try {
+            CancellationToken.throwIfCurrentCancelled();
+            return getServerFacade().getFollowersYouFollow(request);
+        } finally {
+            span.end();
+            GET_FOLLOWERS_YOU_FOLLOW_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns an instance of {@link ServerFacade}. Allows mocking of the ServerFacade class for
+     * testing purposes. All usages of ServerFacade should get their ServerFacade instance from this
+     * method to allow for proper mocking.
+     *
+     * @return the instance.
+     */
+    ServerFacade getServerFacade() {
+        return new ServerFacade();
+    }
+}
@@ -0,0 +1,68 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.net.ServerFacade;
+import edu.byu.cs.tweeter.model.service.request.IsFollowingRequest;
+import edu.byu.cs.tweeter.model.service.response.IsFollowingResponse;
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * Contains the business logic for finding out whether a user follows other users.
+ */
+public class FollowStatusService {
+
+    private static final Histogram IS_FOLLOWING_LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowStatusService.isFollowing");
+
+    /**
+     * Returns whether the follower specified in the request follows each of the users in the
+     * request. Checking a whole page of users in one request costs one round trip rather than one
+     * per user.
+     *
+     * @param request contains the data required to fulfill the request.
+     * @return whether the follower follows each user.
+     */
+    public IsFollowingResponse isFollowing(IsFollowingRequest request) throws IOException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("FollowStatusService.isFollowing");
+
+        try {
+            CancellationToken.throwIfCurrentCancelled();
+            return getServerFacade().isFollowing(request);
+        } finally {
+            span.end();
+            IS_FOLLOWING_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns whether one user follows another.
+     *
+     * @param authToken the auth token of the logged in user.
+     * @param follower the follower.
+     * @param followee the followee.
+     * @return a response for a request for the single followee.
+     */
+    public IsFollowingResponse isFollowing(AuthToken authToken, User follower, User followee) throws IOException {
+        return isFollowing(new IsFollowingRequest(authToken, follower, Collections.singletonList(followee)));
+    }
+
+    /**
+     * Returns an instance of {@link ServerFacade}. Allows mocking of the ServerFacade class for
+     * testing purposes. All usages of ServerFacade should get their ServerFacade instance from this
+     * method to allow for proper mocking.
+     *
+     * @return the instance.
+     */
+    ServerFacade getServerFacade() {
+        return new ServerFacade();
+    }
+}
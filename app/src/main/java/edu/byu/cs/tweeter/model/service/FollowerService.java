@@ -6,24 +6,51 @@ import edu.byu.cs.tweeter.model.domain.User;
 import edu.byu.cs.tweeter.model.net.ServerFacade;
 import edu.byu.cs.tweeter.model.service.request.FollowerRequest;
 import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
-import edu.byu.cs.tweeter.util.ByteArrayUtils;
+import edu.byu.cs.tweeter.util.ImageStore;
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
 
 public class FollowerService {
 
-    public FollowerResponse getFollowers(FollowerRequest request) throws IOException {
-        FollowerResponse response = getServerFacade().getFollowers(request);
+    private static final Histogram GET_FOLLOWERS_LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowerService.getFollowers");
+    private static final Histogram LOAD_IMAGES_LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowerService.loadImages");
 
-        if (response.isSuccess()) {
-            loadImages(response);
+    public FollowerResponse getFollowers(FollowerRequest request) throws IOException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("FollowerService.getFollowers");
+
+        try {
+            CancellationToken.throwIfCurrentCancelled();
+            FollowerResponse response = getServerFacade().getFollowers(request);
+            CancellationToken.throwIfCurrentCancelled();
+
+            if (response.isSuccess()) {
+                loadImages(response);
+            }
+
+            return response;
+        } finally {
+            span.end();
+            GET_FOLLOWERS_LATENCY.recordSince(start);
         }
-
-        return response;
     }
 
     private void loadImages(FollowerResponse response) throws IOException {
-        for (User user : response.getFollowers()) {
-            byte [] bytes = ByteArrayUtils.bytesFromUrl(user.getImageUrl());
-            user.setImageBytes(bytes);
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("FollowerService.loadImages");
+
+        try {
+            for (User user : response.getFollowers()) {
+                ImageStore.getInstance().load(user.getImageUrl());
+            }
+        } finally {
+            span.end();
+            LOAD_IMAGES_LATENCY.recordSince(start);
         }
     }
 
@@ -6,41 +6,70 @@ import edu.byu.cs.tweeter.model.domain.User;
 import edu.byu.cs.tweeter.model.net.ServerFacade;
 import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
 import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
-import edu.byu.cs.tweeter.util.ByteArrayUtils;
+import edu.byu.cs.tweeter.util.ImageStore;
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
 
 /**
  * Contains the business logic for getting the users a user is following.
  */
 public class FollowingService {
 
+    private static final Histogram GET_FOLLOWEES_LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowingService.getFollowees");
+    private static final Histogram LOAD_IMAGES_LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowingService.loadImages");
+
     /**
      * Returns the users that the user specified in the request is following. Uses information in
      * the request object to limit the number of followees returned and to return the next set of
      * followees after any that were returned in a previous request. Uses the {@link ServerFacade} to
-     * get the followees from the server.
+     * get the followees from the server. Stops early if the current task is cancelled (see
+     * {@link CancellationToken#current()}).
      *
      * @param request contains the data required to fulfill the request.
      * @return the followees.
      */
     public FollowingResponse getFollowees(FollowingRequest request) throws IOException {
-        FollowingResponse response = getServerFacade().getFollowees(request);
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("FollowingService.getFollowees");
 
-        if(response.isSuccess()) {
-            loadImages(response);
-        }
+        try {
+            CancellationToken.throwIfCurrentCancelled();
+            FollowingResponse response = getServerFacade().getFollowees(request);
+            CancellationToken.throwIfCurrentCancelled();
+
+            if(response.isSuccess()) {
+                loadImages(response);
+            }
 
-        return response;
+            return response;
+        } finally {
+            span.end();
+            GET_FOLLOWEES_LATENCY.recordSince(start);
+        }
     }
 
     /**
-     * Loads the profile image data for each followee included in the response.
+     * Loads the profile image data for each followee included in the response into the
+     * {@link ImageStore}.
      *
      * @param response the response from the followee request.
      */
     private void loadImages(FollowingResponse response) throws IOException {
-        for(User user : response.getFollowees()) {
-            byte [] bytes = ByteArrayUtils.bytesFromUrl(user.getImageUrl());
-            user.setImageBytes(bytes);
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("FollowingService.loadImages");
+
+        try {
+            for(User user : response.getFollowees()) {
+                ImageStore.getInstance().load(user.getImageUrl());
+            }
+        } finally {
+            span.end();
+            LOAD_IMAGES_LATENCY.recordSince(start);
         }
     }
 
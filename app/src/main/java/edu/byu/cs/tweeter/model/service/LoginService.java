@@ -1,37 +1,158 @@
 package edu.byu.cs.tweeter.model.service;
 
 import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
+import edu.byu.cs.tweeter.model.domain.AuthToken;
 import edu.byu.cs.tweeter.model.domain.User;
 import edu.byu.cs.tweeter.model.net.ServerFacade;
 import edu.byu.cs.tweeter.model.service.request.LoginRequest;
+import edu.byu.cs.tweeter.model.service.response.FollowCountResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
 import edu.byu.cs.tweeter.model.service.response.LoginResponse;
-import edu.byu.cs.tweeter.util.ByteArrayUtils;
+import edu.byu.cs.tweeter.util.ImageStore;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
 
 /**
  * Contains the business logic to support the login operation.
  */
 public class LoginService {
 
+    private static final Histogram LOGIN_LATENCY =
+            MetricsRegistry.getInstance().histogram("LoginService.login");
+    private static final Histogram RESTORE_SESSION_LATENCY =
+            MetricsRegistry.getInstance().histogram("LoginService.restoreSession");
+
+    /**
+     * Logs the user in. The user's profile image and the data on the main screen are loaded
+     * afterwards, in parallel, by a {@link SessionWarmer}.
+     *
+     * @param request contains the data required to fulfill the request.
+     * @return the login response.
+     */
     public LoginResponse login(LoginRequest request) throws IOException {
-        ServerFacade serverFacade = getServerFacade();
-        LoginResponse loginResponse = serverFacade.login(request);
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("LoginService.login");
+
+        try {
+            ServerFacade serverFacade = getServerFacade();
+            return serverFacade.login(request);
+        } finally {
+            span.end();
+            LOGIN_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Saves the user's session, along with the data prefetched for the main screen, so the next
+     * cold start can skip logging in.
+     *
+     * @param sessionStore the store in which the session is saved.
+     * @param user the logged in user.
+     * @param authToken the auth token for the user's session.
+     * @throws IOException if the session could not be saved.
+     */
+    public void saveSession(SessionStore sessionStore, User user, AuthToken authToken) throws IOException {
+        PrefetchCache prefetchCache = PrefetchCache.getInstance();
+        SessionSnapshot snapshot = new SessionSnapshot(user, authToken, System.currentTimeMillis());
+
+        FollowingResponse followees = prefetchCache.peekFirstFolloweePage(user);
+        if(followees != null) {
+            snapshot.setFollowees(followees.getFollowees(), followees.getHasMorePages());
+        }
+
+        FollowerResponse followers = prefetchCache.peekFirstFollowerPage(user);
+        if(followers != null) {
+            snapshot.setFollowers(followers.getFollowers(), followers.getHasMorePages());
+        }
 
-        if(loginResponse.isSuccess()) {
-            loadImage(loginResponse.getUser());
+        FollowCountResponse followCount = prefetchCache.getFollowCount(user);
+        if(followCount != null) {
+            snapshot.setFollowCounts(followCount.getFolloweeCount(), followCount.getFollowerCount());
         }
 
-        return loginResponse;
+        sessionStore.save(snapshot);
+    }
+
+    /**
+     * Deletes the saved session, so the next cold start shows the login screen.
+     *
+     * @param sessionStore the store in which the session is saved.
+     */
+    public void discardSession(SessionStore sessionStore) {
+        sessionStore.clear();
     }
 
     /**
-     * Loads the profile image data for the user.
+     * Restores the session saved by {@link #saveSession(SessionStore, User, AuthToken)}, if there
+     * is one that hasn't expired. The saved data for the main screen is placed in the
+     * {@link PrefetchCache}, and the profile images it refers to are loaded, so the main screen
+     * opens populated without a login round trip.
      *
-     * @param user the user whose profile image data is to be loaded.
+     * @param sessionStore the store from which the session is restored.
+     * @return the saved session, or null if the user must log in.
      */
-    private void loadImage(User user) throws IOException {
-        byte [] bytes = ByteArrayUtils.bytesFromUrl(user.getImageUrl());
-        user.setImageBytes(bytes);
+    public SessionSnapshot restoreSession(SessionStore sessionStore) {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("LoginService.restoreSession");
+
+        try {
+            SessionSnapshot snapshot = sessionStore.load(System.currentTimeMillis());
+
+            if(snapshot == null) {
+                return null;
+            }
+
+            User user = snapshot.getUser();
+            PrefetchCache prefetchCache = PrefetchCache.getInstance();
+            Set<String> imageUrls = new LinkedHashSet<>();
+            imageUrls.add(user.getImageUrl());
+
+            if(snapshot.getFollowees() != null) {
+                prefetchCache.putFirstFolloweePage(user,
+                        new FollowingResponse(snapshot.getFollowees(), snapshot.getFolloweesHasMorePages()));
+                addImageUrls(snapshot.getFollowees(), imageUrls);
+            }
+
+            if(snapshot.getFollowers() != null) {
+                prefetchCache.putFirstFollowerPage(user,
+                        new FollowerResponse(snapshot.getFollowers(), snapshot.getFollowersHasMorePages()));
+                addImageUrls(snapshot.getFollowers(), imageUrls);
+            }
+
+            if(snapshot.getFolloweeCount() != null && snapshot.getFollowerCount() != null) {
+                prefetchCache.putFollowCount(user,
+                        new FollowCountResponse(snapshot.getFolloweeCount(), snapshot.getFollowerCount()));
+            }
+
+            // Users share a handful of avatars, so this is usually one or two downloads
+            for(String imageUrl : imageUrls) {
+                try {
+                    if(imageUrl != null) {
+                        ImageStore.getInstance().load(imageUrl);
+                    }
+                } catch (IOException ex) {
+                    // Rows without an image are filled in when their page is next loaded
+                }
+            }
+
+            return snapshot;
+        } finally {
+            span.end();
+            RESTORE_SESSION_LATENCY.recordSince(start);
+        }
+    }
+
+    private static void addImageUrls(List<User> users, Set<String> imageUrls) {
+        for(User user : users) {
+            imageUrls.add(user.getImageUrl());
+        }
     }
 
     /**
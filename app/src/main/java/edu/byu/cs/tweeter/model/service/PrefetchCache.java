@@ -0,0 +1,100 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.service.response.FollowCountResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
+
+/**
+ * Holds responses loaded ahead of time by the {@link SessionWarmer} until the screens that show
+ * them ask for them. First pages are handed out once and then forgotten, so a list that is
+ * reopened later loads fresh data rather than the page fetched at login.
+ */
+public class PrefetchCache {
+
+    private static final PrefetchCache instance = new PrefetchCache();
+
+    private final ConcurrentMap<User, FollowingResponse> firstFolloweePages = new ConcurrentHashMap<>();
+    private final ConcurrentMap<User, FollowerResponse> firstFollowerPages = new ConcurrentHashMap<>();
+    private final ConcurrentMap<User, FollowCountResponse> followCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an instance. Production code should use {@link #getInstance()}; separate instances
+     * are only useful in tests.
+     */
+    PrefetchCache() {}
+
+    /**
+     * Returns the singleton instance of the class
+     *
+     * @return the instance.
+     */
+    public static PrefetchCache getInstance() {
+        return instance;
+    }
+
+    public void putFirstFolloweePage(User user, FollowingResponse response) {
+        firstFolloweePages.put(user, response);
+    }
+
+    /**
+     * Removes and returns the prefetched first page of the user's followees.
+     *
+     * @param user the user.
+     * @return the page, or null if none was prefetched.
+     */
+    public FollowingResponse takeFirstFolloweePage(User user) {
+        return firstFolloweePages.remove(user);
+    }
+
+    /**
+     * Returns the prefetched first page of the user's followees without removing it.
+     *
+     * @param user the user.
+     * @return the page, or null if none was prefetched.
+     */
+    public FollowingResponse peekFirstFolloweePage(User user) {
+        return firstFolloweePages.get(user);
+    }
+
+    public void putFirstFollowerPage(User user, FollowerResponse response) {
+        firstFollowerPages.put(user, response);
+    }
+
+    /**
+     * Removes and returns the prefetched first page of the user's followers.
+     *
+     * @param user the user.
+     * @return the page, or null if none was prefetched.
+     */
+    public FollowerResponse takeFirstFollowerPage(User user) {
+        return firstFollowerPages.remove(user);
+    }
+
+    /**
+     * Returns the prefetched first page of the user's followers without removing it.
+     *
+     * @param user the user.
+     * @return the page, or null if none was prefetched.
+     */
+    public FollowerResponse peekFirstFollowerPage(User user) {
+        return firstFollowerPages.get(user);
+    }
+
+    public void putFollowCount(User user, FollowCountResponse response) {
+        followCounts.put(user, response);
+    }
+
+    /**
+     * Returns the prefetched followee and follower counts of the user.
+     *
+     * @param user the user.
+     * @return the counts, or null if none were prefetched.
+     */
+    public FollowCountResponse getFollowCount(User user) {
+        return followCounts.get(user);
+    }
+}
@@ -0,0 +1,51 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.io.IOException;
+
+import edu.byu.cs.tweeter.model.net.ServerFacade;
+import edu.byu.cs.tweeter.model.service.request.RecommendationRequest;
+import edu.byu.cs.tweeter.model.service.response.RecommendationResponse;
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * Contains the business logic for getting recommendations of users to follow.
+ */
+public class RecommendationService {
+
+    private static final Histogram GET_RECOMMENDATIONS_LATENCY =
+            MetricsRegistry.getInstance().histogram("RecommendationService.getRecommendations");
+
+    /**
+     * Returns users for the logged in user to follow.
+     *
+     * @param request contains the data required to fulfill the request.
+     * @return the recommended users.
+     */
+    public RecommendationResponse getRecommendations(RecommendationRequest request) throws IOException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("RecommendationService.getRecommendations");
+
+        try {
+            CancellationToken.throwIfCurrentCancelled();
+            return getServerFacade().getRecommendations(request);
+        } finally {
+            span.end();
+            GET_RECOMMENDATIONS_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns an instance of {@link ServerFacade}. Allows mocking of the ServerFacade class for
+     * testing purposes. All usages of ServerFacade should get their ServerFacade instance from this
+     * method to allow for proper mocking.
+     *
+     * @return the instance.
+     */
+    ServerFacade getServerFacade() {
+        return new ServerFacade();
+    }
+}
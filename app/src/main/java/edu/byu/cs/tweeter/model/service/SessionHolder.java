@@ -0,0 +1,72 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.Session;
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * Holds the sessions of logged in users in memory. A session is opened once at login, and
+ * activities and fragments receive only its id, which they resolve here. Nothing larger than a
+ * long crosses an Intent or a fragment's arguments.
+ * <p>
+ * The holder does not survive the process. After the process is restarted, an id refers to no
+ * session, and callers must treat the user as logged out.
+ */
+public class SessionHolder {
+
+    private static final SessionHolder instance = new SessionHolder();
+
+    private final ConcurrentMap<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /**
+     * Creates an instance. Production code should use {@link #getInstance()}; separate instances
+     * are only useful in tests.
+     */
+    SessionHolder() {}
+
+    /**
+     * Returns the singleton instance of the class
+     *
+     * @return the instance.
+     */
+    public static SessionHolder getInstance() {
+        return instance;
+    }
+
+    /**
+     * Opens a session for a user who has just logged in.
+     *
+     * @param user the logged in user.
+     * @param authToken the auth token for the user's session.
+     * @return the session.
+     */
+    public Session open(User user, AuthToken authToken) {
+        Session session = new Session(nextId.getAndIncrement(), user, authToken);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * Returns the session with the specified id.
+     *
+     * @param id the session id.
+     * @return the session, or null if there is no such session (or it has been closed).
+     */
+    public Session get(long id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * Closes the session with the specified id.
+     *
+     * @param id the session id.
+     */
+    public void close(long id) {
+        sessions.remove(id);
+    }
+}
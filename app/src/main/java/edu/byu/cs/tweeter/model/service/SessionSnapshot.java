@@ -0,0 +1,108 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * The state persisted by a {@link SessionStore} so the app can start without logging in again:
+ * the logged in user, their auth token and the data last shown on the main screen.
+ */
+public class SessionSnapshot {
+
+    private final User user;
+    private final AuthToken authToken;
+    private final long savedAtMillis;
+
+    private List<User> followees;
+    private boolean followeesHasMorePages;
+    private List<User> followers;
+    private boolean followersHasMorePages;
+    private Integer followeeCount;
+    private Integer followerCount;
+
+    /**
+     * Creates an instance.
+     *
+     * @param user the logged in user.
+     * @param authToken the auth token for the user's session.
+     * @param savedAtMillis the time the snapshot was taken, in milliseconds since the epoch.
+     */
+    public SessionSnapshot(User user, AuthToken authToken, long savedAtMillis) {
+        this.user = user;
+        this.authToken = authToken;
+        this.savedAtMillis = savedAtMillis;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public AuthToken getAuthToken() {
+        return authToken;
+    }
+
+    public long getSavedAtMillis() {
+        return savedAtMillis;
+    }
+
+    /**
+     * Returns the first page of the user's followees, if one was saved.
+     *
+     * @return the followees, or null.
+     */
+    public List<User> getFollowees() {
+        return followees;
+    }
+
+    public boolean getFolloweesHasMorePages() {
+        return followeesHasMorePages;
+    }
+
+    public void setFollowees(List<User> followees, boolean hasMorePages) {
+        this.followees = followees;
+        this.followeesHasMorePages = hasMorePages;
+    }
+
+    /**
+     * Returns the first page of the user's followers, if one was saved.
+     *
+     * @return the followers, or null.
+     */
+    public List<User> getFollowers() {
+        return followers;
+    }
+
+    public boolean getFollowersHasMorePages() {
+        return followersHasMorePages;
+    }
+
+    public void setFollowers(List<User> followers, boolean hasMorePages) {
+        this.followers = followers;
+        this.followersHasMorePages = hasMorePages;
+    }
+
+    /**
+     * Returns the number of users the user follows, if it was saved.
+     *
+     * @return the count, or null.
+     */
+    public Integer getFolloweeCount() {
+        return followeeCount;
+    }
+
+    /**
+     * Returns the number of users who follow the user, if it was saved.
+     *
+     * @return the count, or null.
+     */
+    public Integer getFollowerCount() {
+        return followerCount;
+    }
+
+    public void setFollowCounts(int followeeCount, int followerCount) {
+        this.followeeCount = followeeCount;
+        this.followerCount = followerCount;
+    }
+}
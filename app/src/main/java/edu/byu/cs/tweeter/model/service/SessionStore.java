@@ -0,0 +1,186 @@
+package edu.byu.cs.tweeter.model.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * Persists a {@link SessionSnapshot} to a file, encrypted with AES-GCM, so a later cold start can
+ * skip logging in. GCM authenticates the data as well as encrypting it, so a file that has been
+ * modified, truncated or encrypted with a different key is rejected rather than misread.
+ * <p>
+ * The file holds a format version, the IV and the ciphertext of the snapshot's JSON. It is written
+ * to a temporary file and renamed into place, so a crash mid-write leaves the previous snapshot
+ * intact. A snapshot older than the store's maximum age, or whose auth token the server would no
+ * longer accept, is treated as expired and deleted.
+ */
+public class SessionStore {
+
+    /**
+     * Supplies the key used to encrypt and decrypt the file. On Android the key is kept in the
+     * platform key store, so it never appears in the app's storage.
+     */
+    public interface KeyProvider {
+        SecretKey getKey() throws GeneralSecurityException, IOException;
+    }
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final int MAX_IV_LENGTH = 32;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Counter LOAD_FAILURES =
+            MetricsRegistry.getInstance().counter("SessionStore.loadFailures");
+
+    private final File file;
+    private final KeyProvider keyProvider;
+    private final long maxAgeMillis;
+    private final Gson gson = new Gson();
+
+    /**
+     * Creates an instance.
+     *
+     * @param file the file in which the snapshot is stored.
+     * @param keyProvider supplies the encryption key.
+     * @param maxAgeMillis how long after being saved a snapshot can still be used.
+     */
+    public SessionStore(File file, KeyProvider keyProvider, long maxAgeMillis) {
+        this.file = file;
+        this.keyProvider = keyProvider;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Encrypts and saves the snapshot, replacing any snapshot saved before.
+     *
+     * @param snapshot the snapshot.
+     * @throws IOException if the snapshot could not be encrypted or written.
+     */
+    public synchronized void save(SessionSnapshot snapshot) throws IOException {
+        byte [] plaintext = gson.toJson(snapshot).getBytes(UTF_8);
+        byte [] iv;
+        byte [] ciphertext;
+
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            // The cipher generates a random IV. Keys in the Android key store require this.
+            cipher.init(Cipher.ENCRYPT_MODE, keyProvider.getKey());
+            iv = cipher.getIV();
+            ciphertext = cipher.doFinal(plaintext);
+        } catch (GeneralSecurityException ex) {
+            throw new IOException("Unable to encrypt session", ex);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(ciphertext.length + iv.length + 8);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(iv.length);
+        out.write(iv);
+        out.write(ciphertext);
+        out.flush();
+
+        File temporaryFile = new File(file.getPath() + ".tmp");
+
+        try (FileOutputStream fileOut = new FileOutputStream(temporaryFile)) {
+            bytes.writeTo(fileOut);
+            fileOut.getFD().sync();
+        }
+
+        if(!temporaryFile.renameTo(file)) {
+            temporaryFile.delete();
+            throw new IOException("Unable to replace " + file);
+        }
+    }
+
+    /**
+     * Loads and decrypts the saved snapshot. A snapshot that is missing, expired, or can't be
+     * decrypted is treated the same way, since in every case the user has to log in again.
+     * Expired or unreadable files are deleted.
+     *
+     * @param nowMillis the current time, in milliseconds since the epoch.
+     * @return the snapshot, or null if there is no usable snapshot.
+     */
+    public synchronized SessionSnapshot load(long nowMillis) {
+        if(!file.exists()) {
+            return null;
+        }
+
+        SessionSnapshot snapshot;
+
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if(in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported session format");
+            }
+
+            int ivLength = in.readInt();
+            if(ivLength <= 0 || ivLength > MAX_IV_LENGTH) {
+                throw new IOException("Invalid IV length: " + ivLength);
+            }
+
+            byte [] iv = new byte[ivLength];
+            in.readFully(iv);
+            byte [] ciphertext = readRemaining(in);
+
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, keyProvider.getKey(), new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            byte [] plaintext = cipher.doFinal(ciphertext);
+
+            snapshot = gson.fromJson(new String(plaintext, UTF_8), SessionSnapshot.class);
+        } catch (IOException | GeneralSecurityException | JsonParseException ex) {
+            LOAD_FAILURES.increment();
+            clear();
+            return null;
+        }
+
+        if(snapshot == null || snapshot.getUser() == null || isExpired(snapshot, nowMillis)) {
+            clear();
+            return null;
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Deletes the saved snapshot, if there is one.
+     */
+    public synchronized void clear() {
+        file.delete();
+    }
+
+    private boolean isExpired(SessionSnapshot snapshot, long nowMillis) {
+        return nowMillis - snapshot.getSavedAtMillis() > maxAgeMillis
+                || snapshot.getSavedAtMillis() > nowMillis
+                || snapshot.getAuthToken() == null
+                || snapshot.getAuthToken().isExpired(nowMillis);
+    }
+
+    private static byte [] readRemaining(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte [] buffer = new byte[4096];
+        int count;
+
+        while((count = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, count);
+        }
+
+        return bytes.toByteArray();
+    }
+}
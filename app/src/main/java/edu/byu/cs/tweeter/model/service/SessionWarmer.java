@@ -0,0 +1,202 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.service.request.FollowCountRequest;
+import edu.byu.cs.tweeter.model.service.request.FollowerRequest;
+import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
+import edu.byu.cs.tweeter.model.service.response.ErrorCode;
+import edu.byu.cs.tweeter.model.service.response.FollowCountResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
+import edu.byu.cs.tweeter.util.ImageStore;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * Loads the data shown on the main screen as soon as a user has logged in, so the screen opens
+ * fully populated. The user's profile image, the first page of followees (with their images), the
+ * first page of followers (with their images) and the follow counts are loaded in parallel, and
+ * the results are placed in the {@link ImageStore} and the {@link PrefetchCache}, where the screens
+ * look for them before making their own requests.
+ * <p>
+ * Warming up is best effort. A step that fails is skipped, and the screen that needed its result
+ * loads it itself. A step the server answers by rejecting the auth token is recorded, though, since
+ * a session restored from disk may have outlived the server's record of it; see
+ * {@link #isAuthTokenRejected()}.
+ */
+public class SessionWarmer {
+
+    public static final long DEFAULT_TIMEOUT_MILLIS = 3000;
+
+    private static final Histogram WARM_UP_LATENCY =
+            MetricsRegistry.getInstance().histogram("SessionWarmer.warmUp");
+    private static final Counter WARM_UP_FAILURES =
+            MetricsRegistry.getInstance().counter("SessionWarmer.failures");
+
+    private final Executor executor;
+
+    private volatile boolean authTokenRejected;
+
+    /**
+     * Creates an instance.
+     *
+     * @param executor the executor that runs the steps that are loaded in parallel.
+     */
+    public SessionWarmer(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Loads the user's data in parallel and waits for it. One step runs on the calling thread and
+     * the rest on the executor, so a caller that is itself running on the executor occupies only
+     * one of its threads. Steps that haven't finished by the timeout keep running and store their
+     * results when they finish.
+     *
+     * @param user the logged in user.
+     * @param authToken the auth token for the user's session.
+     * @param pageSize the number of users to load in each first page.
+     * @param timeoutMillis how long to wait for the steps to finish.
+     * @return true if every step finished within the timeout, whether or not it succeeded.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public boolean warmUp(final User user, final AuthToken authToken, final int pageSize, long timeoutMillis) throws InterruptedException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("SessionWarmer.warmUp");
+
+        try {
+            final CountDownLatch remaining = new CountDownLatch(3);
+            final Span parent = span;
+
+            executor.execute(new Step("SessionWarmer.followees", parent, remaining) {
+                @Override
+                void load() throws IOException {
+                    FollowingResponse response = getFollowingService().getFollowees(new FollowingRequest(authToken, user, pageSize, null));
+                    if(response.isSuccess()) {
+                        PrefetchCache.getInstance().putFirstFolloweePage(user, response);
+                    } else {
+                        checkAuthToken(response.getErrorCode());
+                    }
+                }
+            });
+
+            executor.execute(new Step("SessionWarmer.followers", parent, remaining) {
+                @Override
+                void load() throws IOException {
+                    FollowerResponse response = getFollowerService().getFollowers(new FollowerRequest(authToken, user, pageSize, null));
+                    if(response.isSuccess()) {
+                        PrefetchCache.getInstance().putFirstFollowerPage(user, response);
+                    } else {
+                        checkAuthToken(response.getErrorCode());
+                    }
+                }
+            });
+
+            executor.execute(new Step("SessionWarmer.followCount", parent, remaining) {
+                @Override
+                void load() throws IOException {
+                    FollowCountResponse response = getFollowCountService().getFollowCount(new FollowCountRequest(authToken, user));
+                    if(response.isSuccess()) {
+                        PrefetchCache.getInstance().putFollowCount(user, response);
+                    } else {
+                        checkAuthToken(response.getErrorCode());
+                    }
+                }
+            });
+
+            new Step("SessionWarmer.userImage", parent, null) {
+                @Override
+                void load() throws IOException {
+                    loadImage(user.getImageUrl());
+                }
+            }.run();
+
+            return remaining.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            span.end();
+            WARM_UP_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Indicates whether the server rejected the auth token in any step that has finished. The
+     * session is then no longer valid and the user must log in again.
+     *
+     * @return true if the auth token was rejected; otherwise, false.
+     */
+    public boolean isAuthTokenRejected() {
+        return authTokenRejected;
+    }
+
+    private void checkAuthToken(ErrorCode errorCode) {
+        if(errorCode == ErrorCode.INVALID_AUTH_TOKEN) {
+            authTokenRejected = true;
+        }
+    }
+
+    FollowingService getFollowingService() {
+        return new FollowingService();
+    }
+
+    FollowerService getFollowerService() {
+        return new FollowerService();
+    }
+
+    FollowCountService getFollowCountService() {
+        return new FollowCountService();
+    }
+
+    /**
+     * Loads an image into the {@link ImageStore}. Allows tests to load images without a network.
+     *
+     * @param url the image URL.
+     * @throws IOException if the image could not be loaded.
+     */
+    void loadImage(String url) throws IOException {
+        ImageStore.getInstance().load(url);
+    }
+
+    /**
+     * A step of the warm up. Records a span under the warm up's span, counts failures and counts
+     * down the latch when it finishes.
+     */
+    private static abstract class Step implements Runnable {
+
+        private final String name;
+        private final Span parent;
+        private final CountDownLatch latch;
+
+        Step(String name, Span parent, CountDownLatch latch) {
+            this.name = name;
+            this.parent = parent;
+            this.latch = latch;
+        }
+
+        abstract void load() throws IOException;
+
+        @Override
+        public void run() {
+            Span span = Tracer.getInstance().startSpan(name, parent);
+
+            try {
+                load();
+            } catch (IOException | RuntimeException ex) {
+                WARM_UP_FAILURES.increment();
+            } finally {
+                span.end();
+
+                if(latch != null) {
+                    latch.countDown();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.io.IOException;
+
+import edu.byu.cs.tweeter.model.net.ServerFacade;
+import edu.byu.cs.tweeter.model.service.request.PostStatusRequest;
+import edu.byu.cs.tweeter.model.service.response.PostStatusResponse;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * Contains the business logic for posting statuses.
+ */
+public class StatusService {
+
+    private static final Histogram POST_STATUS_LATENCY =
+            MetricsRegistry.getInstance().histogram("StatusService.postStatus");
+
+    /**
+     * Posts a status as the logged in user. The status appears in the user's story at once and in
+     * the feeds of the user's followers shortly afterwards. Unlike reads, a post is not abandoned
+     * when the current task is cancelled, since the server may already have accepted it.
+     *
+     * @param request contains the data required to fulfill the request.
+     * @return the posted status.
+     */
+    public PostStatusResponse postStatus(PostStatusRequest request) throws IOException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("StatusService.postStatus");
+
+        try {
+            return getServerFacade().postStatus(request);
+        } finally {
+            span.end();
+            POST_STATUS_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns an instance of {@link ServerFacade}. Allows mocking of the ServerFacade class for
+     * testing purposes. All usages of ServerFacade should get their ServerFacade instance from this
+     * method to allow for proper mocking.
+     *
+     * @return the instance.
+     */
+    ServerFacade getServerFacade() {
+        return new ServerFacade();
+    }
+}
@@ -0,0 +1,92 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.net.ServerFacade;
+import edu.byu.cs.tweeter.model.service.request.TimelineRequest;
+import edu.byu.cs.tweeter.model.service.response.TimelineResponse;
+import edu.byu.cs.tweeter.util.ImageStore;
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * Contains the business logic for getting a user's timelines: their feed, the statuses posted by
+ * the users they follow, and their story, the statuses they have posted.
+ */
+public class TimelineService {
+
+    private static final Histogram GET_TIMELINE_LATENCY =
+            MetricsRegistry.getInstance().histogram("TimelineService.getTimeline");
+    private static final Histogram LOAD_IMAGES_LATENCY =
+            MetricsRegistry.getInstance().histogram("TimelineService.loadImages");
+
+    /**
+     * Returns the statuses in the timeline specified in the request, newest first. Uses information
+     * in the request object to limit the number of statuses returned and to return the next set of
+     * statuses after any that were returned in a previous request. Uses the {@link ServerFacade} to
+     * get the statuses from the server. Stops early if the current task is cancelled (see
+     * {@link CancellationToken#current()}).
+     *
+     * @param request contains the data required to fulfill the request.
+     * @return the statuses.
+     */
+    public TimelineResponse getTimeline(TimelineRequest request) throws IOException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("TimelineService.getTimeline");
+
+        try {
+            CancellationToken.throwIfCurrentCancelled();
+            TimelineResponse response = getServerFacade().getTimeline(request);
+            CancellationToken.throwIfCurrentCancelled();
+
+            if(response.isSuccess()) {
+                loadImages(response);
+            }
+
+            return response;
+        } finally {
+            span.end();
+            GET_TIMELINE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Loads the profile image data for the author of each status included in the response into
+     * the {@link ImageStore}, once per author.
+     *
+     * @param response the response from the timeline request.
+     */
+    private void loadImages(TimelineResponse response) throws IOException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("TimelineService.loadImages");
+
+        try {
+            Set<String> urls = new HashSet<>();
+            for(Status status : response.getStatuses()) {
+                if(urls.add(status.getUser().getImageUrl())) {
+                    ImageStore.getInstance().load(status.getUser().getImageUrl());
+                }
+            }
+        } finally {
+            span.end();
+            LOAD_IMAGES_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns an instance of {@link ServerFacade}. Allows mocking of the ServerFacade class for
+     * testing purposes. All usages of ServerFacade should get their ServerFacade instance from this
+     * method to allow for proper mocking.
+     *
+     * @return the instance.
+     */
+    ServerFacade getServerFacade() {
+        return new ServerFacade();
+    }
+}
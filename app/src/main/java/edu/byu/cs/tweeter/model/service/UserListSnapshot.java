@@ -0,0 +1,64 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * The state of a paged list of users persisted by a {@link UserListStore}: the users loaded so
+ * far, whether there are more pages after them, and where the list was scrolled to.
+ */
+public class UserListSnapshot {
+
+    private final User owner;
+    private final List<User> users;
+    private final boolean hasMorePages;
+    private final int firstVisiblePosition;
+    private final int firstVisibleOffset;
+    private final long savedAtMillis;
+
+    /**
+     * Creates an instance.
+     *
+     * @param owner the user whose list this is.
+     * @param users the users loaded so far.
+     * @param hasMorePages whether there are pages after the loaded users.
+     * @param firstVisiblePosition the position of the first visible row.
+     * @param firstVisibleOffset the offset in pixels of the top of the first visible row from the
+     *                           top of the list.
+     * @param savedAtMillis the time the snapshot was taken, in milliseconds since the epoch.
+     */
+    public UserListSnapshot(User owner, List<User> users, boolean hasMorePages,
+                            int firstVisiblePosition, int firstVisibleOffset, long savedAtMillis) {
+        this.owner = owner;
+        this.users = users;
+        this.hasMorePages = hasMorePages;
+        this.firstVisiblePosition = firstVisiblePosition;
+        this.firstVisibleOffset = firstVisibleOffset;
+        this.savedAtMillis = savedAtMillis;
+    }
+
+    public User getOwner() {
+        return owner;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public boolean getHasMorePages() {
+        return hasMorePages;
+    }
+
+    public int getFirstVisiblePosition() {
+        return firstVisiblePosition;
+    }
+
+    public int getFirstVisibleOffset() {
+        return firstVisibleOffset;
+    }
+
+    public long getSavedAtMillis() {
+        return savedAtMillis;
+    }
+}
@@ -0,0 +1,190 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * Persists a {@link UserListSnapshot} to a file, so a list that the user had scrolled far down can
+ * be shown at the same place after a cold start without requesting its pages again.
+ * <p>
+ * The file is compact: each user is written as its first name, last name and image URL (the alias
+ * is derived from the names), and the whole file is gzipped, which removes most of the repetition
+ * in the image URLs. It is read as a stream, one user at a time, so restoring doesn't need the
+ * whole file in memory as text or as a parse tree. At most {@link #DEFAULT_MAX_USERS} users are
+ * saved; a longer list is saved up to that point and resumes paging from there.
+ * <p>
+ * A snapshot that belongs to a different user, is older than the store's maximum age, or can't be
+ * read is deleted and treated as absent.
+ */
+public class UserListStore {
+
+    public static final int DEFAULT_MAX_USERS = 1000;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Histogram SAVED_USERS =
+            MetricsRegistry.getInstance().histogram("UserListStore.savedUsers");
+    private static final Counter LOAD_FAILURES =
+            MetricsRegistry.getInstance().counter("UserListStore.loadFailures");
+
+    private final File file;
+    private final long maxAgeMillis;
+    private final int maxUsers;
+
+    /**
+     * Creates an instance that saves up to {@link #DEFAULT_MAX_USERS} users.
+     *
+     * @param file the file in which the snapshot is stored.
+     * @param maxAgeMillis how long after being saved a snapshot can still be used.
+     */
+    public UserListStore(File file, long maxAgeMillis) {
+        this(file, maxAgeMillis, DEFAULT_MAX_USERS);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param file the file in which the snapshot is stored.
+     * @param maxAgeMillis how long after being saved a snapshot can still be used.
+     * @param maxUsers the most users that are saved.
+     */
+    public UserListStore(File file, long maxAgeMillis, int maxUsers) {
+        this.file = file;
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxUsers = maxUsers;
+    }
+
+    /**
+     * Saves the snapshot, replacing any snapshot saved before. If the snapshot has more users than
+     * the store saves, the rest are dropped and the saved list is marked as having more pages.
+     *
+     * @param snapshot the snapshot.
+     * @throws IOException if the snapshot could not be written.
+     */
+    public synchronized void save(UserListSnapshot snapshot) throws IOException {
+        List<User> users = snapshot.getUsers();
+        int count = Math.min(users.size(), maxUsers);
+        boolean hasMorePages = snapshot.getHasMorePages() || count < users.size();
+        int firstVisiblePosition = Math.max(0, Math.min(snapshot.getFirstVisiblePosition(), count - 1));
+
+        File temporaryFile = new File(file.getPath() + ".tmp");
+
+        try (FileOutputStream fileOut = new FileOutputStream(temporaryFile)) {
+            GZIPOutputStream gzipOut = new GZIPOutputStream(fileOut);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzipOut));
+
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(snapshot.getSavedAtMillis());
+            out.writeUTF(snapshot.getOwner().getAlias());
+            out.writeBoolean(hasMorePages);
+            out.writeInt(firstVisiblePosition);
+            out.writeInt(snapshot.getFirstVisibleOffset());
+            out.writeInt(count);
+
+            for(int i = 0; i < count; i++) {
+                User user = users.get(i);
+                out.writeUTF(user.getFirstName());
+                out.writeUTF(user.getLastName());
+                writeNullableUTF(out, user.getImageUrl());
+            }
+
+            // Finishes the gzip stream without closing the file, which is synced before the rename
+            out.flush();
+            gzipOut.finish();
+            fileOut.getFD().sync();
+        } catch (IOException ex) {
+            temporaryFile.delete();
+            throw ex;
+        }
+
+        if(!temporaryFile.renameTo(file)) {
+            temporaryFile.delete();
+            throw new IOException("Unable to replace " + file);
+        }
+
+        SAVED_USERS.record(count);
+    }
+
+    /**
+     * Loads the saved snapshot of the specified user's list.
+     *
+     * @param owner the user whose list is to be loaded.
+     * @param nowMillis the current time, in milliseconds since the epoch.
+     * @return the snapshot, or null if there is no usable snapshot for the user.
+     */
+    public synchronized UserListSnapshot load(User owner, long nowMillis) {
+        if(!file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            if(in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported list format");
+            }
+
+            long savedAtMillis = in.readLong();
+            String ownerAlias = in.readUTF();
+
+            if(!ownerAlias.equals(owner.getAlias()) || nowMillis - savedAtMillis > maxAgeMillis || savedAtMillis > nowMillis) {
+                clear();
+                return null;
+            }
+
+            boolean hasMorePages = in.readBoolean();
+            int firstVisiblePosition = in.readInt();
+            int firstVisibleOffset = in.readInt();
+            int count = in.readInt();
+
+            if(count < 0 || count > maxUsers) {
+                throw new IOException("Invalid user count: " + count);
+            }
+
+            List<User> users = new ArrayList<>(count);
+            for(int i = 0; i < count; i++) {
+                String firstName = in.readUTF();
+                String lastName = in.readUTF();
+                users.add(new User(firstName, lastName, readNullableUTF(in)));
+            }
+
+            return new UserListSnapshot(owner, users, hasMorePages, firstVisiblePosition,
+                    firstVisibleOffset, savedAtMillis);
+        } catch (IOException ex) {
+            LOAD_FAILURES.increment();
+            clear();
+            return null;
+        }
+    }
+
+    /**
+     * Deletes the saved snapshot, if there is one.
+     */
+    public synchronized void clear() {
+        file.delete();
+    }
+
+    private static void writeNullableUTF(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if(value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
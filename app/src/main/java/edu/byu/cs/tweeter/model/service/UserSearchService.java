@@ -0,0 +1,53 @@
+package edu.byu.cs.tweeter.model.service;
+
+import java.io.IOException;
+
+import edu.byu.cs.tweeter.model.net.ServerFacade;
+import edu.byu.cs.tweeter.model.service.request.UserSearchRequest;
+import edu.byu.cs.tweeter.model.service.response.UserSearchResponse;
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * Contains the business logic for finding users by name as the user types.
+ */
+public class UserSearchService {
+
+    private static final Histogram SEARCH_USERS_LATENCY =
+            MetricsRegistry.getInstance().histogram("UserSearchService.searchUsers");
+
+    /**
+     * Returns a page of the users whose alias, first name or last name starts with the query in
+     * the request, most followed first. A search box sends a request per keystroke and cancels the
+     * previous one, which this method honours before contacting the server.
+     *
+     * @param request contains the data required to fulfill the request.
+     * @return the matching users.
+     */
+    public UserSearchResponse searchUsers(UserSearchRequest request) throws IOException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("UserSearchService.searchUsers");
+
+        try {
+            CancellationToken.throwIfCurrentCancelled();
+            return getServerFacade().searchUsers(request);
+        } finally {
+            span.end();
+            SEARCH_USERS_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns an instance of {@link ServerFacade}. Allows mocking of the ServerFacade class for
+     * testing purposes. All usages of ServerFacade should get their ServerFacade instance from this
+     * method to allow for proper mocking.
+     *
+     * @return the instance.
+     */
+    ServerFacade getServerFacade() {
+        return new ServerFacade();
+    }
+}
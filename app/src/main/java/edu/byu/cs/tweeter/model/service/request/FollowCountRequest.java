@@ -0,0 +1,43 @@
+package edu.byu.cs.tweeter.model.service.request;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * Contains all the information needed to make a request for the number of users a user follows
+ * and is followed by.
+ */
+public class FollowCountRequest {
+
+    private final AuthToken authToken;
+    private final User user;
+
+    /**
+     * Creates an instance.
+     *
+     * @param authToken the auth token of the logged in user making the request.
+     * @param user the user whose counts are to be returned.
+     */
+    public FollowCountRequest(AuthToken authToken, User user) {
+        this.authToken = authToken;
+        this.user = user;
+    }
+
+    /**
+     * Returns the auth token of the logged in user making the request.
+     *
+     * @return the auth token.
+     */
+    public AuthToken getAuthToken() {
+        return authToken;
+    }
+
+    /**
+     * Returns the user whose counts are to be returned by this request.
+     *
+     * @return the user.
+     */
+    public User getUser() {
+        return user;
+    }
+}
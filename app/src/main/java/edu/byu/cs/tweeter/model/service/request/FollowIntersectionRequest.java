@@ -0,0 +1,69 @@
+package edu.byu.cs.tweeter.model.service.request;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * Contains all the information needed to request a page of the users shared between two follow
+ * lists of the user shown on a profile, such as the user's mutual follows or the user's followers
+ * whom the logged in user also follows.
+ */
+public class FollowIntersectionRequest {
+
+    private final AuthToken authToken;
+    private final User user;
+    private final int limit;
+    private final User lastUser;
+
+    /**
+     * Creates an instance.
+     *
+     * @param authToken the auth token of the logged in user making the request.
+     * @param user the user shown on the profile.
+     * @param limit the maximum number of users to return.
+     * @param lastUser the last user returned in the previous request, or null if this is the
+     *                 first request.
+     */
+    public FollowIntersectionRequest(AuthToken authToken, User user, int limit, User lastUser) {
+        this.authToken = authToken;
+        this.user = user;
+        this.limit = limit;
+        this.lastUser = lastUser;
+    }
+
+    /**
+     * Returns the auth token of the logged in user making the request.
+     *
+     * @return the auth token.
+     */
+    public AuthToken getAuthToken() {
+        return authToken;
+    }
+
+    /**
+     * Returns the user shown on the profile.
+     *
+     * @return the user.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Returns the maximum number of users to return.
+     *
+     * @return the limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the last user returned in the previous request.
+     *
+     * @return the last user, or null if this is the first request.
+     */
+    public User getLastUser() {
+        return lastUser;
+    }
+}
@@ -1,19 +1,24 @@
 package edu.byu.cs.tweeter.model.service.request;
 
+import edu.byu.cs.tweeter.model.domain.AuthToken;
 import edu.byu.cs.tweeter.model.domain.User;
 
 public class FollowerRequest {
 
+    private final AuthToken authToken;
     private final User followee;
     private final int limit;
     private final User lastFollower;
 
-    public FollowerRequest(User followee, int limit, User lastFollower) {
+    public FollowerRequest(AuthToken authToken, User followee, int limit, User lastFollower) {
+        this.authToken = authToken;
         this.followee = followee;
         this.limit = limit;
         this.lastFollower = lastFollower;
     }
 
+    public AuthToken getAuthToken() { return authToken; }
+
     public User getFollowee() { return followee; }
 
     public int getLimit() { return limit; }
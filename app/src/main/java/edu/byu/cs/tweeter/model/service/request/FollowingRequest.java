@@ -1,5 +1,6 @@
 package edu.byu.cs.tweeter.model.service.request;
 
+import edu.byu.cs.tweeter.model.domain.AuthToken;
 import edu.byu.cs.tweeter.model.domain.User;
 
 /**
@@ -8,6 +9,7 @@ import edu.byu.cs.tweeter.model.domain.User;
  */
 public class FollowingRequest {
 
+    private final AuthToken authToken;
     private final User follower;
     private final int limit;
     private final User lastFollowee;
@@ -15,18 +17,29 @@ public class FollowingRequest {
     /**
      * Creates an instance.
      *
+     * @param authToken the auth token of the logged in user making the request.
      * @param follower the {@link User} whose followees are to be returned.
      * @param limit the maximum number of followees to return.
      * @param lastFollowee the last followee that was returned in the previous request (null if
      *                     there was no previous request or if no followees were returned in the
      *                     previous request).
      */
-    public FollowingRequest(User follower, int limit, User lastFollowee) {
+    public FollowingRequest(AuthToken authToken, User follower, int limit, User lastFollowee) {
+        this.authToken = authToken;
         this.follower = follower;
         this.limit = limit;
         this.lastFollowee = lastFollowee;
     }
 
+    /**
+     * Returns the auth token of the logged in user making the request.
+     *
+     * @return the auth token.
+     */
+    public AuthToken getAuthToken() {
+        return authToken;
+    }
+
     /**
      * Returns the follower whose followees are to be returned by this request.
      *
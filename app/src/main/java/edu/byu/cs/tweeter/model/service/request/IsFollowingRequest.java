@@ -0,0 +1,57 @@
+package edu.byu.cs.tweeter.model.service.request;
+
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * Contains all the information needed to make a request to find out whether a user follows each
+ * of a number of other users, such as the rows of a page or the user shown on a profile.
+ */
+public class IsFollowingRequest {
+
+    private final AuthToken authToken;
+    private final User follower;
+    private final List<User> followees;
+
+    /**
+     * Creates an instance.
+     *
+     * @param authToken the auth token of the logged in user making the request.
+     * @param follower the user whose follows are to be checked.
+     * @param followees the users the follower may follow.
+     */
+    public IsFollowingRequest(AuthToken authToken, User follower, List<User> followees) {
+        this.authToken = authToken;
+        this.follower = follower;
+        this.followees = followees;
+    }
+
+    /**
+     * Returns the auth token of the logged in user making the request.
+     *
+     * @return the auth token.
+     */
+    public AuthToken getAuthToken() {
+        return authToken;
+    }
+
+    /**
+     * Returns the user whose follows are to be checked.
+     *
+     * @return the follower.
+     */
+    public User getFollower() {
+        return follower;
+    }
+
+    /**
+     * Returns the users the follower may follow.
+     *
+     * @return the followees.
+     */
+    public List<User> getFollowees() {
+        return followees;
+    }
+}
@@ -0,0 +1,41 @@
+package edu.byu.cs.tweeter.model.service.request;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+
+/**
+ * Contains all the information needed to post a status as the logged in user.
+ */
+public class PostStatusRequest {
+
+    private final AuthToken authToken;
+    private final String post;
+
+    /**
+     * Creates an instance.
+     *
+     * @param authToken the auth token of the logged in user, who is the author of the status.
+     * @param post the text of the status.
+     */
+    public PostStatusRequest(AuthToken authToken, String post) {
+        this.authToken = authToken;
+        this.post = post;
+    }
+
+    /**
+     * Returns the auth token of the logged in user, who is the author of the status.
+     *
+     * @return the auth token.
+     */
+    public AuthToken getAuthToken() {
+        return authToken;
+    }
+
+    /**
+     * Returns the text of the status.
+     *
+     * @return the text.
+     */
+    public String getPost() {
+        return post;
+    }
+}
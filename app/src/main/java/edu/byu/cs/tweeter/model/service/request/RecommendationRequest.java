@@ -0,0 +1,41 @@
+package edu.byu.cs.tweeter.model.service.request;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+
+/**
+ * Contains all the information needed to request users for the logged in user to follow.
+ */
+public class RecommendationRequest {
+
+    private final AuthToken authToken;
+    private final int limit;
+
+    /**
+     * Creates an instance.
+     *
+     * @param authToken the auth token of the logged in user, to whom users are recommended.
+     * @param limit the maximum number of users to return.
+     */
+    public RecommendationRequest(AuthToken authToken, int limit) {
+        this.authToken = authToken;
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the auth token of the logged in user making the request.
+     *
+     * @return the auth token.
+     */
+    public AuthToken getAuthToken() {
+        return authToken;
+    }
+
+    /**
+     * Returns the maximum number of users to return.
+     *
+     * @return the limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+}
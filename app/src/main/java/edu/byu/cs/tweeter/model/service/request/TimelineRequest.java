@@ -0,0 +1,98 @@
+package edu.byu.cs.tweeter.model.service.request;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * Contains all the information needed to make a request to have the server return the next page of
+ * one of a specified user's timelines, their feed or their story.
+ */
+public class TimelineRequest {
+
+    /**
+     * The timelines a user has.
+     */
+    public enum Kind {
+        /**
+         * The statuses posted by the users the user follows.
+         */
+        FEED,
+
+        /**
+         * The statuses the user has posted.
+         */
+        STORY
+    }
+
+    private final AuthToken authToken;
+    private final Kind kind;
+    private final User user;
+    private final int limit;
+    private final Status lastStatus;
+
+    /**
+     * Creates an instance.
+     *
+     * @param authToken the auth token of the logged in user making the request.
+     * @param kind the timeline to be returned.
+     * @param user the {@link User} whose timeline is to be returned.
+     * @param limit the maximum number of statuses to return.
+     * @param lastStatus the last status that was returned in the previous request (null if there
+     *                   was no previous request or if no statuses were returned in the previous
+     *                   request).
+     */
+    public TimelineRequest(AuthToken authToken, Kind kind, User user, int limit, Status lastStatus) {
+        this.authToken = authToken;
+        this.kind = kind;
+        this.user = user;
+        this.limit = limit;
+        this.lastStatus = lastStatus;
+    }
+
+    /**
+     * Returns the auth token of the logged in user making the request.
+     *
+     * @return the auth token.
+     */
+    public AuthToken getAuthToken() {
+        return authToken;
+    }
+
+    /**
+     * Returns the timeline to be returned by this request.
+     *
+     * @return the kind of timeline.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the user whose timeline is to be returned by this request.
+     *
+     * @return the user.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Returns the number representing the maximum number of statuses to be returned by this request.
+     *
+     * @return the limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the last status that was returned in the previous request or null if there was no
+     * previous request or if no statuses were returned in the previous request.
+     *
+     * @return the last status.
+     */
+    public Status getLastStatus() {
+        return lastStatus;
+    }
+}
@@ -0,0 +1,67 @@
+package edu.byu.cs.tweeter.model.service.request;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+
+/**
+ * Contains all the information needed to request a page of the users whose alias, first name or
+ * last name starts with the text typed into a search box.
+ */
+public class UserSearchRequest {
+
+    private final AuthToken authToken;
+    private final String query;
+    private final int limit;
+    private final int offset;
+
+    /**
+     * Creates an instance.
+     *
+     * @param authToken the auth token of the logged in user making the request.
+     * @param query the text typed so far.
+     * @param limit the maximum number of users to return.
+     * @param offset the number of users returned by previous requests for the same query.
+     */
+    public UserSearchRequest(AuthToken authToken, String query, int limit, int offset) {
+        this.authToken = authToken;
+        this.query = query;
+        this.limit = limit;
+        this.offset = offset;
+    }
+
+    /**
+     * Returns the auth token of the logged in user making the request.
+     *
+     * @return the auth token.
+     */
+    public AuthToken getAuthToken() {
+        return authToken;
+    }
+
+    /**
+     * Returns the text typed so far.
+     *
+     * @return the query.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Returns the maximum number of users to return.
+     *
+     * @return the limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of users returned by previous requests for the same query. Results are
+     * ranked rather than ordered by name, so a page is identified by its position.
+     *
+     * @return the offset.
+     */
+    public int getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,14 @@
+package edu.byu.cs.tweeter.model.service.response;
+
+/**
+ * Identifies a kind of failure that a client handles on its own, rather than only showing the
+ * response's message to the user.
+ */
+public enum ErrorCode {
+
+    /**
+     * The auth token doesn't identify a session, or the session has expired. The user must log
+     * in again.
+     */
+    INVALID_AUTH_TOKEN
+}
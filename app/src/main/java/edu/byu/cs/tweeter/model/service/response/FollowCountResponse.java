@@ -0,0 +1,60 @@
+package edu.byu.cs.tweeter.model.service.response;
+
+/**
+ * A response for a {@link edu.byu.cs.tweeter.model.service.request.FollowCountRequest}.
+ */
+public class FollowCountResponse extends Response {
+
+    private int followeeCount;
+    private int followerCount;
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful.
+     *
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public FollowCountResponse(String message) {
+        super(false, message);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful in a way the
+     * client handles on its own.
+     *
+     * @param errorCode the kind of failure.
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public FollowCountResponse(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was successful.
+     *
+     * @param followeeCount the number of users the user follows.
+     * @param followerCount the number of users who follow the user.
+     */
+    public FollowCountResponse(int followeeCount, int followerCount) {
+        super(true, null);
+        this.followeeCount = followeeCount;
+        this.followerCount = followerCount;
+    }
+
+    /**
+     * Returns the number of users the user follows.
+     *
+     * @return the followee count.
+     */
+    public int getFolloweeCount() {
+        return followeeCount;
+    }
+
+    /**
+     * Returns the number of users who follow the user.
+     *
+     * @return the follower count.
+     */
+    public int getFollowerCount() {
+        return followerCount;
+    }
+}
@@ -6,7 +6,6 @@ import java.util.List;
 import java.util.Objects;
 
 import edu.byu.cs.tweeter.model.domain.User;
-import edu.byu.cs.tweeter.presenter.FollowingPresenter;
 
 public class FollowerResponse extends PagedResponse {
 
@@ -14,6 +13,8 @@ public class FollowerResponse extends PagedResponse {
 
     public FollowerResponse(String message) { super(false, message, false); }
 
+    public FollowerResponse(ErrorCode errorCode, String message) { super(errorCode, message); }
+
     public FollowerResponse(List<User> followers, boolean hasMorePages) {
         super(true, hasMorePages);
         this.followers = followers;
@@ -22,6 +22,17 @@ public class FollowingResponse extends PagedResponse {
         super(false, message, false);
     }
 
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful in a way the
+     * client handles on its own. Sets the more pages indicator to false.
+     *
+     * @param errorCode the kind of failure.
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public FollowingResponse(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+
     /**
      * Creates a response indicating that the corresponding request was successful.
      *
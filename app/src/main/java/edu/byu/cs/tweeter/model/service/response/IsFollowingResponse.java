@@ -0,0 +1,59 @@
+package edu.byu.cs.tweeter.model.service.response;
+
+/**
+ * A response for a {@link edu.byu.cs.tweeter.model.service.request.IsFollowingRequest}.
+ */
+public class IsFollowingResponse extends Response {
+
+    private boolean [] following;
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful.
+     *
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public IsFollowingResponse(String message) {
+        super(false, message);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful in a way the
+     * client handles on its own.
+     *
+     * @param errorCode the kind of failure.
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public IsFollowingResponse(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was successful.
+     *
+     * @param following whether the follower follows each of the users in the request, in the
+     *                  order of the request.
+     */
+    public IsFollowingResponse(boolean [] following) {
+        super(true, null);
+        this.following = following;
+    }
+
+    /**
+     * Indicates whether the follower follows the user at the specified position in the request.
+     *
+     * @param index the position of the user in the request.
+     * @return true if the follower follows the user; otherwise, false.
+     */
+    public boolean isFollowing(int index) {
+        return following[index];
+    }
+
+    /**
+     * Returns whether the follower follows each of the users in the request.
+     *
+     * @return an array with an element for each user in the request, in order.
+     */
+    public boolean [] getFollowing() {
+        return following;
+    }
+}
@@ -0,0 +1,50 @@
+package edu.byu.cs.tweeter.model.service.response;
+
+import edu.byu.cs.tweeter.model.domain.Status;
+
+/**
+ * A response for a {@link edu.byu.cs.tweeter.model.service.request.PostStatusRequest}.
+ */
+public class PostStatusResponse extends Response {
+
+    private Status status;
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful.
+     *
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public PostStatusResponse(String message) {
+        super(false, message);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful in a way the
+     * client handles on its own.
+     *
+     * @param errorCode the kind of failure.
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public PostStatusResponse(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was successful.
+     *
+     * @param status the status that was posted, with the id and time the server assigned it.
+     */
+    public PostStatusResponse(Status status) {
+        super(true);
+        this.status = status;
+    }
+
+    /**
+     * Returns the status that was posted.
+     *
+     * @return the status, or null if the request was unsuccessful.
+     */
+    public Status getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,66 @@
+package edu.byu.cs.tweeter.model.service.response;
+
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * A response for a {@link edu.byu.cs.tweeter.model.service.request.RecommendationRequest}.
+ */
+public class RecommendationResponse extends Response {
+
+    private List<User> users;
+    private int [] followedByCounts;
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful.
+     *
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public RecommendationResponse(String message) {
+        super(false, message);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful in a way the
+     * client handles on its own.
+     *
+     * @param errorCode the kind of failure.
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public RecommendationResponse(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was successful.
+     *
+     * @param users the recommended users, best first.
+     * @param followedByCounts for each recommended user, the number of the logged in user's
+     *                         followees who follow them.
+     */
+    public RecommendationResponse(List<User> users, int [] followedByCounts) {
+        super(true, null);
+        this.users = users;
+        this.followedByCounts = followedByCounts;
+    }
+
+    /**
+     * Returns the recommended users, best first.
+     *
+     * @return the users.
+     */
+    public List<User> getUsers() {
+        return users;
+    }
+
+    /**
+     * Returns, for each recommended user, the number of the logged in user's followees who follow
+     * them, for display as "followed by N people you follow".
+     *
+     * @return the counts, in the order of {@link #getUsers()}.
+     */
+    public int [] getFollowedByCounts() {
+        return followedByCounts;
+    }
+}
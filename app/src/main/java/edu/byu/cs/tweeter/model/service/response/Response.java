@@ -7,6 +7,7 @@ class Response {
 
     private final boolean success;
     private final String message;
+    private final ErrorCode errorCode;
 
     /**
      * Creates an instance with a null message.
@@ -26,6 +27,19 @@ class Response {
     Response(boolean success, String message) {
         this.success = success;
         this.message = message;
+        this.errorCode = null;
+    }
+
+    /**
+     * Creates an instance indicating an unsuccessful result of a kind clients handle on their own.
+     *
+     * @param errorCode the kind of failure.
+     * @param message the error message.
+     */
+    Response(ErrorCode errorCode, String message) {
+        this.success = false;
+        this.message = message;
+        this.errorCode = errorCode;
     }
 
     /**
@@ -45,4 +59,15 @@ class Response {
     public String getMessage() {
         return message;
     }
+
+    /**
+     * The kind of failure for unsuccessful results that clients handle on their own, such as an
+     * auth token the server no longer accepts.
+     *
+     * @return the error code, or null if the response indicates a successful result or a failure
+     *         with no particular code.
+     */
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
 }
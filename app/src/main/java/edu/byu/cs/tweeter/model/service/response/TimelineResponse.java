@@ -0,0 +1,54 @@
+package edu.byu.cs.tweeter.model.service.response;
+
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.Status;
+
+/**
+ * A paged response for a {@link edu.byu.cs.tweeter.model.service.request.TimelineRequest}.
+ */
+public class TimelineResponse extends PagedResponse {
+
+    private List<Status> statuses;
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful. Sets the
+     * success and more pages indicators to false.
+     *
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public TimelineResponse(String message) {
+        super(false, message, false);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful in a way the
+     * client handles on its own. Sets the more pages indicator to false.
+     *
+     * @param errorCode the kind of failure.
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public TimelineResponse(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was successful.
+     *
+     * @param statuses the statuses to be included in the result, newest first.
+     * @param hasMorePages an indicator of whether more data is available for the request.
+     */
+    public TimelineResponse(List<Status> statuses, boolean hasMorePages) {
+        super(true, hasMorePages);
+        this.statuses = statuses;
+    }
+
+    /**
+     * Returns the statuses for the corresponding request, newest first.
+     *
+     * @return the statuses.
+     */
+    public List<Status> getStatuses() {
+        return statuses;
+    }
+}
@@ -0,0 +1,53 @@
+package edu.byu.cs.tweeter.model.service.response;
+
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * A response for a {@link edu.byu.cs.tweeter.model.service.request.UserSearchRequest}.
+ */
+public class UserSearchResponse extends PagedResponse {
+
+    private List<User> users;
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful.
+     *
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public UserSearchResponse(String message) {
+        super(false, message, false);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was unsuccessful in a way the
+     * client handles on its own. Sets the more pages indicator to false.
+     *
+     * @param errorCode the kind of failure.
+     * @param message a message describing why the request was unsuccessful.
+     */
+    public UserSearchResponse(ErrorCode errorCode, String message) {
+        super(errorCode, message);
+    }
+
+    /**
+     * Creates a response indicating that the corresponding request was successful.
+     *
+     * @param users the matching users, most followed first.
+     * @param hasMorePages an indicator of whether more users match.
+     */
+    public UserSearchResponse(List<User> users, boolean hasMorePages) {
+        super(true, hasMorePages);
+        this.users = users;
+    }
+
+    /**
+     * Returns the matching users, most followed first.
+     *
+     * @return the users.
+     */
+    public List<User> getUsers() {
+        return users;
+    }
+}
@@ -8,9 +8,16 @@ import edu.byu.cs.tweeter.model.service.FollowerService;
 import edu.byu.cs.tweeter.model.service.FollowingService;
 import edu.byu.cs.tweeter.model.service.request.FollowerRequest;
 import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
 
 public class FollowerPresenter {
 
+    private static final Histogram LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowerPresenter.getFollower");
+
     private final View view;
 
     public interface View {
@@ -20,8 +27,16 @@ public class FollowerPresenter {
     public FollowerPresenter(View view) { this.view = view; }
 
     public FollowerResponse getFollower(FollowerRequest request) throws IOException {
-        FollowerService followerService = getFollowerService();
-        return followerService.getFollowers(request);
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("FollowerPresenter.getFollower");
+
+        try {
+            FollowerService followerService = getFollowerService();
+            return followerService.getFollowers(request);
+        } finally {
+            span.end();
+            LATENCY.recordSince(start);
+        }
     }
 
     FollowerService getFollowerService() { return new FollowerService(); }
@@ -5,12 +5,19 @@ import java.io.IOException;
 import edu.byu.cs.tweeter.model.service.FollowingService;
 import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
 import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
 
 /**
  * The presenter for the "following" functionality of the application.
  */
 public class FollowingPresenter {
 
+    private static final Histogram LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowingPresenter.getFollowing");
+
     private final View view;
 
     /**
@@ -38,8 +45,16 @@ public class FollowingPresenter {
      * @return the followees.
      */
     public FollowingResponse getFollowing(FollowingRequest request) throws IOException {
-        FollowingService followingService = getFollowingService();
-        return followingService.getFollowees(request);
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("FollowingPresenter.getFollowing");
+
+        try {
+            FollowingService followingService = getFollowingService();
+            return followingService.getFollowees(request);
+        } finally {
+            span.end();
+            LATENCY.recordSince(start);
+        }
     }
 
     /**
@@ -1,16 +1,29 @@
 package edu.byu.cs.tweeter.presenter;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
 import edu.byu.cs.tweeter.model.service.LoginService;
+import edu.byu.cs.tweeter.model.service.SessionSnapshot;
+import edu.byu.cs.tweeter.model.service.SessionStore;
+import edu.byu.cs.tweeter.model.service.SessionWarmer;
 import edu.byu.cs.tweeter.model.service.request.LoginRequest;
 import edu.byu.cs.tweeter.model.service.response.LoginResponse;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
 
 /**
  * The presenter for the login functionality of the application.
  */
 public class LoginPresenter {
 
+    private static final Histogram LATENCY =
+            MetricsRegistry.getInstance().histogram("LoginPresenter.login");
+
     private final View view;
 
     /**
@@ -35,7 +48,89 @@ public class LoginPresenter {
      * @param loginRequest the request.
      */
     public LoginResponse login(LoginRequest loginRequest) throws IOException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("LoginPresenter.login");
+
+        try {
+            LoginService loginService = new LoginService();
+            return loginService.login(loginRequest);
+        } finally {
+            span.end();
+            LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Saves the session of a user who has logged in, so the next cold start can skip logging in.
+     *
+     * @param sessionStore the store in which the session is saved.
+     * @param user the logged in user.
+     * @param authToken the auth token for the user's session.
+     * @throws IOException if the session could not be saved.
+     */
+    public void saveSession(SessionStore sessionStore, User user, AuthToken authToken) throws IOException {
         LoginService loginService = new LoginService();
-        return loginService.login(loginRequest);
+        loginService.saveSession(sessionStore, user, authToken);
+    }
+
+    /**
+     * Restores a saved session.
+     *
+     * @param sessionStore the store from which the session is restored.
+     * @return the saved session, or null if the user must log in.
+     */
+    public SessionSnapshot restoreSession(SessionStore sessionStore) {
+        LoginService loginService = new LoginService();
+        return loginService.restoreSession(sessionStore);
+    }
+
+    /**
+     * Loads the logged in user's profile image and the data on the main screen in parallel, so the
+     * main screen opens populated.
+     *
+     * @param user the logged in user.
+     * @param authToken the auth token for the user's session.
+     * @param executor the executor that runs the loads.
+     * @param pageSize the number of users to load in the first page of each list.
+     * @return true if every load finished within {@link SessionWarmer#DEFAULT_TIMEOUT_MILLIS}.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public boolean warmUp(User user, AuthToken authToken, Executor executor, int pageSize) throws InterruptedException {
+        SessionWarmer sessionWarmer = new SessionWarmer(executor);
+        return sessionWarmer.warmUp(user, authToken, pageSize, SessionWarmer.DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Revalidates a session restored at a cold start by loading the main screen's data again with
+     * its auth token. If every load finished in time, the session is saved again with the current
+     * data. If the server rejected the auth token, as it does once it has restarted and forgotten
+     * its sessions, the saved session is deleted rather than saved.
+     *
+     * @param sessionStore the store in which the session is saved.
+     * @param user the restored user.
+     * @param authToken the restored auth token.
+     * @param executor the executor that runs the loads.
+     * @param pageSize the number of users to load in the first page of each list.
+     * @return false if the server rejected the auth token and the user must log in again;
+     *         otherwise, true.
+     * @throws IOException if the session could not be saved.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public boolean refreshSession(SessionStore sessionStore, User user, AuthToken authToken, Executor executor,
+                                  int pageSize) throws IOException, InterruptedException {
+        SessionWarmer sessionWarmer = new SessionWarmer(executor);
+        boolean warm = sessionWarmer.warmUp(user, authToken, pageSize, SessionWarmer.DEFAULT_TIMEOUT_MILLIS);
+        LoginService loginService = new LoginService();
+
+        if(sessionWarmer.isAuthTokenRejected()) {
+            loginService.discardSession(sessionStore);
+            return false;
+        }
+
+        if(warm) {
+            loginService.saveSession(sessionStore, user, authToken);
+        }
+
+        return true;
     }
 }
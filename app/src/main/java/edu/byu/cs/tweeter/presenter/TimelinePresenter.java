@@ -0,0 +1,70 @@
+package edu.byu.cs.tweeter.presenter;
+
+import java.io.IOException;
+
+import edu.byu.cs.tweeter.model.service.TimelineService;
+import edu.byu.cs.tweeter.model.service.request.TimelineRequest;
+import edu.byu.cs.tweeter.model.service.response.TimelineResponse;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * The presenter for the "feed" and "story" functionality of the application.
+ */
+public class TimelinePresenter {
+
+    private static final Histogram LATENCY =
+            MetricsRegistry.getInstance().histogram("TimelinePresenter.getTimeline");
+
+    private final View view;
+
+    /**
+     * The interface by which this presenter communicates with it's view.
+     */
+    public interface View {
+        // If needed, specify methods here that will be called on the view in response to model updates
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param view the view for which this class is the presenter.
+     */
+    public TimelinePresenter(View view) {
+        this.view = view;
+    }
+
+    /**
+     * Returns the statuses in the timeline specified in the request, newest first. Uses information
+     * in the request object to limit the number of statuses returned and to return the next set of
+     * statuses after any that were returned in a previous request.
+     *
+     * @param request contains the data required to fulfill the request.
+     * @return the statuses.
+     */
+    public TimelineResponse getTimeline(TimelineRequest request) throws IOException {
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("TimelinePresenter.getTimeline");
+
+        try {
+            TimelineService timelineService = getTimelineService();
+            return timelineService.getTimeline(request);
+        } finally {
+            span.end();
+            LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns an instance of {@link TimelineService}. Allows mocking of the TimelineService class
+     * for testing purposes. All usages of TimelineService should get their TimelineService
+     * instance from this method to allow for mocking of the instance.
+     *
+     * @return the instance.
+     */
+    TimelineService getTimelineService() {
+        return new TimelineService();
+    }
+}
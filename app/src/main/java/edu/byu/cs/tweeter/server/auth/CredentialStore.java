@@ -0,0 +1,179 @@
+package edu.byu.cs.tweeter.server.auth;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * Stores users' credentials as salted PBKDF2 hashes and verifies passwords against them.
+ * <p>
+ * The work factor (the number of PBKDF2 iterations) is configurable and is stored with each hash,
+ * so it can be raised without invalidating existing passwords: a hash made with fewer iterations
+ * than the current setting is replaced with a new one the next time its user logs in. A login for
+ * an unknown username costs the same as one for a known username, so response times don't reveal
+ * which usernames exist.
+ * <p>
+ * Verification is deliberately expensive. Callers on the request path should go through the
+ * {@link CredentialVerifier}, which bounds how much of the machine it can use.
+ */
+public class CredentialStore {
+
+    public static final int DEFAULT_ITERATIONS = 10000;
+
+    /**
+     * The PBKDF2 variant. HMAC-SHA1 is the strongest variant available on every Android version
+     * the app supports, which matters while the server runs in the app's process.
+     */
+    static final String ALGORITHM = "PBKDF2WithHmacSHA1";
+
+    private static final int SALT_BYTES = 16;
+
+    /**
+     * The hash length, which matches the output of the underlying HMAC. Asking for more would
+     * double the work of every verification without making the hash harder to attack.
+     */
+    private static final int HASH_BITS = 160;
+
+    private static final Counter REHASHES = MetricsRegistry.getInstance().counter("CredentialStore.rehashes");
+
+    private static CredentialStore instance;
+
+    private final ConcurrentMap<String, Credential> credentials = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final int iterations;
+    private final Credential unknownUserCredential;
+
+    /**
+     * Creates an instance. Production code should use {@link #getInstance()}; separate instances
+     * are only useful in tests and benchmarks.
+     *
+     * @param iterations the number of PBKDF2 iterations used for new hashes.
+     */
+    CredentialStore(int iterations) {
+        if(iterations < 1) {
+            throw new IllegalArgumentException("Invalid iteration count: " + iterations);
+        }
+
+        this.iterations = iterations;
+        this.unknownUserCredential = newCredential("", null);
+    }
+
+    /**
+     * Returns the singleton instance of the class, which holds the credentials of the dummy user
+     * the app logs in as.
+     *
+     * @return the instance.
+     */
+    public static synchronized CredentialStore getInstance() {
+        if(instance == null) {
+            instance = new CredentialStore(DEFAULT_ITERATIONS);
+            instance.register("dummyUserName", "dummyPassword", new User("Test", "User",
+                    "https://faculty.cs.byu.edu/~jwilkerson/cs340/tweeter/images/donald_duck.png"));
+        }
+
+        return instance;
+    }
+
+    /**
+     * Stores the credentials of a user, replacing any credentials already stored for the username.
+     *
+     * @param username the username.
+     * @param password the password.
+     * @param user the user that logging in with these credentials identifies.
+     */
+    public void register(String username, String password, User user) {
+        credentials.put(username, newCredential(password, user));
+    }
+
+    /**
+     * Verifies a username and password.
+     *
+     * @param username the username.
+     * @param password the password.
+     * @return the user the credentials identify, or null if the username is unknown or the
+     *         password is wrong.
+     */
+    public User verify(String username, String password) {
+        Credential credential = username == null ? null : credentials.get(username);
+
+        if(credential == null) {
+            // Do the same work as for a known user so the time taken doesn't reveal the difference
+            unknownUserCredential.matches(password == null ? "" : password);
+            return null;
+        }
+
+        if(password == null || !credential.matches(password)) {
+            return null;
+        }
+
+        if(credential.iterations < iterations) {
+            // Raising the work factor takes effect for each user at their next login
+            if(credentials.replace(username, credential, newCredential(password, credential.user))) {
+                REHASHES.increment();
+            }
+        }
+
+        return credential.user;
+    }
+
+    /**
+     * Returns the number of PBKDF2 iterations used for new hashes.
+     *
+     * @return the number of iterations.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    private Credential newCredential(String password, User user) {
+        byte [] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+
+        return new Credential(user, salt, iterations, hash(password, salt, iterations));
+    }
+
+    private static byte [] hash(String password, byte [] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException ex) {
+            // Every supported platform provides the algorithm
+            throw new IllegalStateException("Unable to hash password", ex);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * The stored credentials of a user.
+     */
+    private static class Credential {
+
+        private final User user;
+        private final byte [] salt;
+        private final int iterations;
+        private final byte [] hash;
+
+        Credential(User user, byte [] salt, int iterations, byte [] hash) {
+            this.user = user;
+            this.salt = salt;
+            this.iterations = iterations;
+            this.hash = hash;
+        }
+
+        boolean matches(String password) {
+            // Compares in constant time, so the time taken doesn't reveal how much of the hash matched
+            return MessageDigest.isEqual(hash, hash(password, salt, iterations));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package edu.byu.cs.tweeter.server.auth;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * Runs credential verification on a dedicated, bounded pool of threads. Verifying a password is
+ * deliberately CPU-bound, so a burst of logins run on the threads that serve other requests would
+ * slow every request. Here logins use at most a fixed number of threads, and once a fixed number
+ * are waiting further logins are rejected immediately instead of queueing without limit.
+ * <p>
+ * The pool's threads run at below normal priority, so when the CPU is contended the scheduler
+ * favours threads serving pages.
+ */
+public class CredentialVerifier {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private static final Histogram VERIFY_LATENCY =
+            MetricsRegistry.getInstance().histogram("CredentialVerifier.verify");
+    private static final Counter REJECTED =
+            MetricsRegistry.getInstance().counter("CredentialVerifier.rejected");
+
+    private static CredentialVerifier instance;
+
+    private final CredentialStore credentialStore;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates an instance. Production code should use {@link #getInstance()}; separate instances
+     * are only useful in tests and benchmarks.
+     *
+     * @param credentialStore the store that holds the credentials.
+     * @param threadCount the number of verifications that can run at once.
+     * @param queueCapacity the number of verifications that can wait for a thread.
+     */
+    CredentialVerifier(CredentialStore credentialStore, int threadCount, int queueCapacity) {
+        this.credentialStore = credentialStore;
+
+        executor = new ThreadPoolExecutor(threadCount, threadCount, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), new VerifierThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the singleton instance of the class, which verifies against
+     * {@link CredentialStore#getInstance()} using half of the available processors.
+     *
+     * @return the instance.
+     */
+    public static synchronized CredentialVerifier getInstance() {
+        if(instance == null) {
+            int threadCount = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            instance = new CredentialVerifier(CredentialStore.getInstance(), threadCount, DEFAULT_QUEUE_CAPACITY);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Verifies a username and password on the pool and waits for the result.
+     *
+     * @param username the username.
+     * @param password the password.
+     * @return the user the credentials identify, or null if they are wrong.
+     * @throws RejectedExecutionException if too many verifications are already waiting.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public User verify(final String username, final String password) throws InterruptedException {
+        long start = System.nanoTime();
+
+        try {
+            Future<User> result = executor.submit(new Callable<User>() {
+                @Override
+                public User call() {
+                    return credentialStore.verify(username, password);
+                }
+            });
+
+            try {
+                return result.get();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Unable to verify credentials", ex.getCause());
+            }
+        } catch (RejectedExecutionException ex) {
+            REJECTED.increment();
+            throw ex;
+        } finally {
+            VERIFY_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Stops the pool's threads once the verifications already submitted have finished.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class VerifierThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger nextId = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "CredentialVerifier-" + nextId.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
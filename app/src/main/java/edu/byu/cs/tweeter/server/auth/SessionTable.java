@@ -0,0 +1,222 @@
+package edu.byu.cs.tweeter.server.auth;
+
+import java.security.SecureRandom;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * The server's table of logged in sessions, keyed by auth token. Tokens are random 128-bit values,
+ * so they can't be guessed, and every session expires a fixed time after it is created.
+ * <p>
+ * Validating a token is a single hash lookup plus a comparison against the expiry time, with no
+ * locking, so it can sit on the path of every request. Expired sessions are removed in two ways,
+ * neither of which takes a lock over the table:
+ * <ul>
+ *     <li>Lazily, when an expired token is presented.</li>
+ *     <li>Incrementally, by each login. Because every session lives for the same time, sessions
+ *     expire in the order they were created. Each login pops up to {@link #CLEANUP_BATCH_SIZE}
+ *     expired sessions off the front of a queue kept in creation order. That is more than one
+ *     removal per creation, so the table never holds more than the sessions created within one
+ *     lifetime plus a shrinking backlog, at an amortized O(1) cost per login.</li>
+ * </ul>
+ */
+public class SessionTable {
+
+    public static final long DEFAULT_SESSION_LIFETIME_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    static final int CLEANUP_BATCH_SIZE = 2;
+
+    private static final int TOKEN_BYTES = 16;
+    private static final char [] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final Counter SESSIONS_EXPIRED =
+            MetricsRegistry.getInstance().counter("SessionTable.expired");
+    private static final Counter VALIDATION_FAILURES =
+            MetricsRegistry.getInstance().counter("SessionTable.validationFailures");
+
+    private static final SessionTable instance = new SessionTable(DEFAULT_SESSION_LIFETIME_MILLIS, new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    });
+
+    /**
+     * Supplies the current time. Allows tests to control expiry.
+     */
+    public interface Clock {
+        long currentTimeMillis();
+    }
+
+    private final ConcurrentMap<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final Queue<Entry> expiryQueue = new ConcurrentLinkedQueue<>();
+    private final SecureRandom random = new SecureRandom();
+    private final long sessionLifetimeMillis;
+    private final Clock clock;
+
+    /**
+     * Creates an instance. Production code should use {@link #getInstance()}; separate instances
+     * are only useful in tests.
+     *
+     * @param sessionLifetimeMillis how long a session lasts after it is created.
+     * @param clock supplies the current time.
+     */
+    SessionTable(long sessionLifetimeMillis, Clock clock) {
+        this.sessionLifetimeMillis = sessionLifetimeMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the singleton instance of the class
+     *
+     * @return the instance.
+     */
+    public static SessionTable getInstance() {
+        return instance;
+    }
+
+    /**
+     * Creates a session for a user who has just logged in.
+     *
+     * @param user the user.
+     * @return the auth token that identifies the session.
+     */
+    public AuthToken create(User user) {
+        long now = clock.currentTimeMillis();
+        removeExpired(now);
+
+        Entry entry = new Entry(newToken(), user, now + sessionLifetimeMillis);
+        sessions.put(entry.token, entry);
+        expiryQueue.offer(entry);
+
+        return new AuthToken(entry.token, entry.expiresAtMillis);
+    }
+
+    /**
+     * Returns the user whose session is identified by the specified token.
+     *
+     * @param authToken the token.
+     * @return the user, or null if the token is unknown, expired or has been invalidated.
+     */
+    public User validate(AuthToken authToken) {
+        if(authToken == null || authToken.getToken() == null) {
+            VALIDATION_FAILURES.increment();
+            return null;
+        }
+
+        Entry entry = sessions.get(authToken.getToken());
+
+        if(entry == null) {
+            VALIDATION_FAILURES.increment();
+            return null;
+        }
+
+        if(entry.isExpired(clock.currentTimeMillis())) {
+            if(sessions.remove(entry.token, entry)) {
+                SESSIONS_EXPIRED.increment();
+            }
+
+            VALIDATION_FAILURES.increment();
+            return null;
+        }
+
+        return entry.user;
+    }
+
+    /**
+     * Ends the session identified by the specified token, as when the user logs out.
+     *
+     * @param authToken the token.
+     */
+    public void invalidate(AuthToken authToken) {
+        if(authToken != null && authToken.getToken() != null) {
+            sessions.remove(authToken.getToken());
+        }
+    }
+
+    /**
+     * Returns the number of sessions in the table, which may include expired sessions that
+     * haven't been removed yet.
+     *
+     * @return the number of sessions.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Removes up to {@link #CLEANUP_BATCH_SIZE} expired sessions from the front of the expiry
+     * queue.
+     *
+     * @param now the current time.
+     */
+    private void removeExpired(long now) {
+        for(int i = 0; i < CLEANUP_BATCH_SIZE; i++) {
+            Entry head = expiryQueue.peek();
+
+            if(head == null || !head.isExpired(now)) {
+                return;
+            }
+
+            Entry entry = expiryQueue.poll();
+
+            if(entry == null) {
+                return;
+            }
+
+            if(!entry.isExpired(now)) {
+                // Another thread removed the head first and this entry is still live. Put it back
+                // at the end; it will be reached again before long, and validate() removes it if
+                // it is presented after expiring.
+                expiryQueue.offer(entry);
+                return;
+            }
+
+            // A session that was invalidated, or already removed lazily, is no longer in the map
+            if(sessions.remove(entry.token, entry)) {
+                SESSIONS_EXPIRED.increment();
+            }
+        }
+    }
+
+    private String newToken() {
+        byte [] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+
+        char [] chars = new char[bytes.length * 2];
+        for(int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+
+        return new String(chars);
+    }
+
+    /**
+     * A session in the table.
+     */
+    private static class Entry {
+
+        private final String token;
+        private final User user;
+        private final long expiresAtMillis;
+
+        Entry(String token, User user, long expiresAtMillis) {
+            this.token = token;
+            this.user = user;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * One user's followees, or one user's followers. Holds the users in the order they were followed,
+ * which is the order they are paged in, and their ids in ascending order, which membership tests
+ * search.
+ * <p>
+ * A membership test consults a {@link BloomFilter} before searching the ids. Most tests, such as
+ * whether the viewer follows each user in a list, are for users who aren't in the set, and the
+ * filter rejects nearly all of those without touching the ids. Sets smaller than
+ * {@link #FILTER_MIN_SIZE} have no filter, since a binary search over them is already about as
+ * cheap as the filter's probes.
+ * <p>
+ * Instances are immutable as far as their readers can tell. Following creates a new instance that
+ * shares as much of the old one as it can, so a follow of a user with a million followers doesn't
+ * copy a million of anything:
+ * <ul>
+ *     <li>The users are appended to an array with spare room, which the old instance shares but
+ *     never reads past its own size. The array is copied, with half again as much room, only when
+ *     it is full.</li>
+ *     <li>The ids are added to a short sorted array of recent ids, searched after the main one, and
+ *     merged into the main array once there are more than about the square root of the size.</li>
+ *     <li>The ids are added to the filter itself while it has spare capacity. An instance that
+ *     shares the filter only gains bits it didn't need, which can only cause a search that finds
+ *     nothing. The filter is rebuilt, with room to double, once it is full.</li>
+ * </ul>
+ * Unfollowing copies the users and ids without the removed user, but keeps the filter: the removed
+ * id is left in it until the entries it no longer needs outnumber the rest.
+ */
+class Adjacency {
+
+    static final int FILTER_MIN_SIZE = 32;
+
+    /**
+     * The most recent ids kept apart from the main array of a small set. Larger sets keep up to the
+     * square root of their size apart.
+     */
+    static final int RECENT_IDS_MIN_LIMIT = 32;
+
+    private static final int [] NO_IDS = new int[0];
+
+    // Its array has no room, so appending to it always copies and stores never share it
+    static final Adjacency EMPTY = new Adjacency(new UserArray(new User[0], 0), 0, NO_IDS, NO_IDS, null, 0);
+
+    private final UserArray userArray;
+    private final List<User> users;
+    private final int [] sortedIds;
+    private final int [] recentIds;
+    private final BloomFilter filter;
+    private final int staleFilterEntries;
+    // The main and recent ids merged, computed when first asked for
+    private volatile int [] allIds;
+
+    private Adjacency(UserArray userArray, int userCount, int [] sortedIds, int [] recentIds,
+                      BloomFilter filter, int staleFilterEntries) {
+        this.userArray = userArray;
+        this.users = new UserList(userArray.elements, userCount);
+        this.sortedIds = sortedIds;
+        this.recentIds = recentIds;
+        this.filter = filter;
+        this.staleFilterEntries = staleFilterEntries;
+        this.allIds = recentIds.length == 0 ? sortedIds : null;
+    }
+
+    /**
+     * Creates an instance holding the specified users.
+     *
+     * @param users the users, in the order they were followed.
+     * @param userIds the ids of the users, which must already have been assigned.
+     * @param falsePositiveRate the false positive rate of the filter.
+     * @return the instance.
+     */
+    static Adjacency of(Collection<User> users, UserIds userIds, double falsePositiveRate) {
+        User [] elements = users.toArray(new User[users.size()]);
+        int [] ids = idsOf(elements, userIds);
+
+        return new Adjacency(new UserArray(elements, elements.length), elements.length, ids, NO_IDS,
+                buildFilter(ids, NO_IDS, falsePositiveRate), 0);
+    }
+
+    /**
+     * Returns the users, in the order they were followed.
+     *
+     * @return an immutable list of the users.
+     */
+    List<User> getUsers() {
+        return users;
+    }
+
+    /**
+     * Returns the ids of the users in ascending order. The array is shared and must not be
+     * modified.
+     *
+     * @return the ids.
+     */
+    int [] getSortedIds() {
+        int [] ids = allIds;
+
+        if(ids == null) {
+            // Readers that race here each merge an equal array, so no lock is needed
+            ids = merge(sortedIds, recentIds);
+            allIds = ids;
+        }
+
+        return ids;
+    }
+
+    int size() {
+        return sortedIds.length + recentIds.length;
+    }
+
+    /**
+     * Indicates whether the user with the specified id is in the set.
+     *
+     * @param id the id.
+     * @return true if the user is in the set; otherwise, false.
+     */
+    boolean contains(int id) {
+        if(id < 0 || (filter != null && !filter.mightContain(id))) {
+            return false;
+        }
+
+        return Arrays.binarySearch(sortedIds, id) >= 0
+                || (recentIds.length > 0 && Arrays.binarySearch(recentIds, id) >= 0);
+    }
+
+    /**
+     * Returns a copy of the set with a user added after the existing users. Only the newest
+     * instance may be added to without copying, so a store adds only to the instance it indexes,
+     * while holding its lock.
+     *
+     * @param user the user, who must not already be in the set.
+     * @param id the id of the user.
+     * @param falsePositiveRate the false positive rate of the filter if a new one is built.
+     * @return the new set.
+     */
+    Adjacency plus(User user, int id, double falsePositiveRate) {
+        return plus(Collections.singletonList(user), new int[] {id}, falsePositiveRate);
+    }
+
+    /**
+     * Returns a copy of the set with a number of users added after the existing users, in one pass
+     * over the set however many users are added.
+     *
+     * @param newUsers the users, none of whom may already be in the set, in the order they were
+     *                 followed.
+     * @param userIds the ids of the users, which must already have been assigned.
+     * @param falsePositiveRate the false positive rate of the filter if a new one is built.
+     * @return the new set.
+     */
+    Adjacency plusAll(List<User> newUsers, UserIds userIds, double falsePositiveRate) {
+        return plus(newUsers, idsOf(newUsers.toArray(new User[newUsers.size()]), userIds), falsePositiveRate);
+    }
+
+    private Adjacency plus(List<User> newUsers, int [] newIds, double falsePositiveRate) {
+        UserArray newArray = append(newUsers);
+        int newSize = size() + newIds.length;
+
+        int [] newSortedIds = sortedIds;
+        int [] newRecentIds = merge(recentIds, newIds);
+
+        if(newRecentIds.length > Math.max(RECENT_IDS_MIN_LIMIT, (int) Math.sqrt(newSize))) {
+            newSortedIds = merge(sortedIds, newRecentIds);
+            newRecentIds = NO_IDS;
+        }
+
+        BloomFilter newFilter = filter;
+        int newStaleEntries = staleFilterEntries;
+
+        if(filter != null && newSize + staleFilterEntries <= filter.getCapacity()) {
+            for(int id : newIds) {
+                filter.add(id);
+            }
+        } else {
+            newFilter = buildFilter(newSortedIds, newRecentIds, falsePositiveRate);
+            newStaleEntries = 0;
+        }
+
+        return new Adjacency(newArray, newSize, newSortedIds, newRecentIds, newFilter, newStaleEntries);
+    }
+
+    /**
+     * Returns a copy of the set with a user removed.
+     *
+     * @param user the user, who must be in the set.
+     * @param id the id of the user.
+     * @param falsePositiveRate the false positive rate of the filter if a new one is built.
+     * @return the new set, or null if the set would be empty.
+     */
+    Adjacency minus(User user, int id, double falsePositiveRate) {
+        int oldSize = size();
+        if(oldSize == 1) {
+            return null;
+        }
+
+        User [] newUsers = new User[oldSize - 1];
+        int userIndex = users.indexOf(user);
+        System.arraycopy(userArray.elements, 0, newUsers, 0, userIndex);
+        System.arraycopy(userArray.elements, userIndex + 1, newUsers, userIndex, newUsers.length - userIndex);
+
+        int [] ids = getSortedIds();
+        int index = Arrays.binarySearch(ids, id);
+        int [] newIds = new int[ids.length - 1];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(ids, index + 1, newIds, index, newIds.length - index);
+
+        // The filter can't remove the id. Keep it while the entries it no longer needs are few
+        // enough that its false positive rate stays near the target.
+        BloomFilter newFilter = filter;
+        int newStaleEntries = staleFilterEntries + 1;
+
+        if(filter == null || newStaleEntries > newIds.length) {
+            newFilter = buildFilter(newIds, NO_IDS, falsePositiveRate);
+            newStaleEntries = 0;
+        }
+
+        return new Adjacency(new UserArray(newUsers, newUsers.length), newUsers.length, newIds, NO_IDS,
+                newFilter, newStaleEntries);
+    }
+
+    /**
+     * Appends users to this instance's array if it is the newest instance built on it and the
+     * array has room for them, or to a copy with more room otherwise.
+     */
+    private UserArray append(List<User> newUsers) {
+        int count = users.size();
+        UserArray array = userArray;
+
+        if(array.size != count || count + newUsers.size() > array.elements.length) {
+            User [] elements = new User[Math.max(count + newUsers.size(), count + (count >> 1) + 1)];
+            System.arraycopy(userArray.elements, 0, elements, 0, count);
+            array = new UserArray(elements, count);
+        }
+
+        // The new instance is published after these writes, and older instances never read them
+        for(User user : newUsers) {
+            array.elements[array.size++] = user;
+        }
+
+        return array;
+    }
+
+    private static int [] idsOf(User [] users, UserIds userIds) {
+        int [] ids = new int[users.length];
+        for(int i = 0; i < ids.length; i++) {
+            ids[i] = userIds.get(users[i]);
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Merges two sorted arrays that have no ids in common.
+     */
+    private static int [] merge(int [] ids1, int [] ids2) {
+        if(ids2.length == 0) {
+            return ids1;
+        }
+        if(ids1.length == 0) {
+            return ids2;
+        }
+
+        int [] merged = new int[ids1.length + ids2.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+
+        while(i < ids1.length && j < ids2.length) {
+            merged[k++] = ids1[i] < ids2[j] ? ids1[i++] : ids2[j++];
+        }
+        System.arraycopy(ids1, i, merged, k, ids1.length - i);
+        System.arraycopy(ids2, j, merged, k + ids1.length - i, ids2.length - j);
+
+        return merged;
+    }
+
+    /**
+     * Builds a filter over the ids, with room for the set to double before it must be rebuilt, or
+     * returns null if the set is too small to need one.
+     */
+    private static BloomFilter buildFilter(int [] ids1, int [] ids2, double falsePositiveRate) {
+        int size = ids1.length + ids2.length;
+        if(size < FILTER_MIN_SIZE) {
+            return null;
+        }
+
+        BloomFilter filter = BloomFilter.create(size * 2, falsePositiveRate);
+        for(int id : ids1) {
+            filter.add(id);
+        }
+        for(int id : ids2) {
+            filter.add(id);
+        }
+
+        return filter;
+    }
+
+    /**
+     * An array of users shared by the instances built on it, with the number of its elements
+     * written so far. Only the newest instance's size matches it, and only the newest instance
+     * appends to it; the store's lock orders the appends.
+     */
+    private static final class UserArray {
+
+        final User [] elements;
+        int size;
+
+        UserArray(User [] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+    }
+
+    /**
+     * An immutable view of the first users of an array.
+     */
+    private static final class UserList extends AbstractList<User> implements RandomAccess {
+
+        private final User [] elements;
+        private final int size;
+
+        UserList(User [] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @Override
+        public User get(int index) {
+            if(index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
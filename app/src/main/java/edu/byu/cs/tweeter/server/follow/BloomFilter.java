@@ -0,0 +1,116 @@
+package edu.byu.cs.tweeter.server.follow;
+
+/**
+ * A Bloom filter over user ids. Answers "might this id be in the set" with no false negatives and
+ * a false positive rate chosen when the filter is created, using a fixed number of bits per entry
+ * regardless of how large the ids are.
+ * <p>
+ * Each id is hashed once to 64 bits, and the probe positions are derived from the two halves of
+ * the hash (double hashing), so a lookup costs one hash plus one memory access per probe. A lookup
+ * for an absent id usually stops at the first probe that finds a clear bit.
+ * <p>
+ * Adding to a filter only ever sets bits, so a filter can be added to after it has been published:
+ * a reader racing an add may or may not see its bits, but the bits of ids added before are set
+ * either way, so none of them is ever reported missing.
+ */
+class BloomFilter {
+
+    private final long [] bits;
+    private final int bitCount;
+    private final int hashCount;
+    private final int capacity;
+
+    private BloomFilter(long [] bits, int bitCount, int hashCount, int capacity) {
+        this.bits = bits;
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates an empty filter sized so that its false positive rate is at most the specified rate
+     * while it holds no more than the specified number of ids.
+     *
+     * @param capacity the number of ids the filter is sized for.
+     * @param falsePositiveRate the false positive rate at capacity, between 0 and 1 exclusive.
+     * @return the filter.
+     */
+    static BloomFilter create(int capacity, double falsePositiveRate) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        if(!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("Invalid false positive rate: " + falsePositiveRate);
+        }
+
+        // The optimal sizes: m = -n ln(p) / ln(2)^2 bits and k = (m / n) ln(2) hash functions
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, optimalBits));
+        int hashCount = (int) Math.max(1, Math.round((double) bitCount / capacity * ln2));
+
+        return new BloomFilter(new long[(bitCount + 63) >>> 6], bitCount, hashCount, capacity);
+    }
+
+    /**
+     * Adds an id to the filter.
+     *
+     * @param id the id.
+     */
+    void add(int id) {
+        long hash = mix(id);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+
+        for(int i = 0; i < hashCount; i++) {
+            int bit = ((hash1 + i * hash2) & Integer.MAX_VALUE) % bitCount;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Indicates whether an id might have been added to the filter.
+     *
+     * @param id the id.
+     * @return false if the id was definitely not added; true if it probably was.
+     */
+    boolean mightContain(int id) {
+        long hash = mix(id);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+
+        for(int i = 0; i < hashCount; i++) {
+            int bit = ((hash1 + i * hash2) & Integer.MAX_VALUE) % bitCount;
+            if((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the number of ids the filter was sized for. Adding more raises the false positive
+     * rate above the one it was created with.
+     *
+     * @return the capacity.
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Spreads the bits of an id over 64 bits, so consecutive ids land far apart. This is the
+     * finalizer of the 64-bit MurmurHash3.
+     */
+    private static long mix(int id) {
+        long hash = id;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,733 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import edu.byu.cs.tweeter.model.domain.Follow;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * A follow graph spread over a changing set of backend nodes, each itself a {@link FollowGraph},
+ * which routes every user to a node by a {@link HashRing}. A node holds every follow that involves
+ * a user it owns, so the queries are routed the way a {@link ShardedFollowGraph} routes them to its
+ * shards; this class adds nodes joining and leaving while the graph is in use.
+ * <p>
+ * A node is added or removed by a rebalance that runs in the background, one at a time:
+ * <ol>
+ *     <li>The users whose node differs between the current ring and the new one are found. With
+ *     consistent hashing these are only the users the change has to move.</li>
+ *     <li>The moving users are copied to their new nodes in batches. A batch holds off writes while
+ *     it copies, so no write can fall between the copy and the switch, and reads and writes of its
+ *     users go to the new node once it is done. Writes are held off for one batch at a time, never
+ *     for the whole rebalance.</li>
+ *     <li>Until the rebalance ends, every write also goes to the old nodes of its users, so the old
+ *     nodes keep every follow.</li>
+ *     <li>Once every user is copied, the new ring replaces the old, and each old node drops the
+ *     follows it no longer owns either end of. A removed node is closed.</li>
+ * </ol>
+ * If a copy fails, the rebalance is undone: the old nodes still have every follow, and the copies
+ * already made are dropped.
+ * <p>
+ * A user's lists keep their follow order through a move, with one exception: a follow between two
+ * moving users, recorded after the first was copied and before the second, is copied ahead of the
+ * second user's older follows.
+ */
+public class ClusterFollowGraph implements FollowGraph {
+
+    public static final int DEFAULT_MIGRATION_BATCH_SIZE = 100;
+
+    /**
+     * The number of users below which a query over many users is answered on the calling thread.
+     */
+    static final int PARALLEL_THRESHOLD_USERS = 1000;
+
+    private static final Histogram REBALANCE_LATENCY =
+            MetricsRegistry.getInstance().histogram("ClusterFollowGraph.rebalance");
+    private static final Histogram MIGRATION_BATCH_LATENCY =
+            MetricsRegistry.getInstance().histogram("ClusterFollowGraph.migrationBatch");
+    private static final Histogram CROSS_NODE_INTERSECTION_LATENCY =
+            MetricsRegistry.getInstance().histogram("ClusterFollowGraph.crossNodeIntersection");
+    private static final Counter MIGRATED_USERS =
+            MetricsRegistry.getInstance().counter("ClusterFollowGraph.migratedUsers");
+    private static final Counter MIGRATED_FOLLOWS =
+            MetricsRegistry.getInstance().counter("ClusterFollowGraph.migratedFollows");
+    private static final Counter REBALANCE_FAILURES =
+            MetricsRegistry.getInstance().counter("ClusterFollowGraph.rebalanceFailures");
+
+    private final int migrationBatchSize;
+    private final ScatterGather scatterGather;
+    private final ExecutorService rebalanceExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ClusterFollowGraph-rebalance");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    // Writes hold the read lock, so a migration batch, which holds the write lock, sees every
+    // write that started before it and none that start during it
+    private final ReadWriteLock migrationLock = new ReentrantReadWriteLock();
+    // The nodes as they will be once the queued rebalances finish
+    private final Map<String, FollowGraph> members = new LinkedHashMap<>();
+    private final Object pendingLock = new Object();
+    private int pendingRebalances;
+
+    private volatile Routing routing;
+
+    /**
+     * Creates a graph with no nodes, whose nodes are each placed at
+     * {@link HashRing#DEFAULT_VIRTUAL_NODES} points on the ring.
+     */
+    public ClusterFollowGraph() {
+        this(HashRing.DEFAULT_VIRTUAL_NODES, DEFAULT_MIGRATION_BATCH_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a graph with no nodes.
+     *
+     * @param virtualNodes the number of points each node is placed at on the ring.
+     * @param migrationBatchSize the number of users a rebalance copies while writes are held off.
+     * @param threads the number of threads that query nodes in parallel.
+     */
+    ClusterFollowGraph(int virtualNodes, int migrationBatchSize, int threads) {
+        this.migrationBatchSize = migrationBatchSize;
+        scatterGather = new ScatterGather("ClusterFollowGraph", threads);
+        routing = new Routing(HashRing.<FollowGraph>empty(virtualNodes), null, Collections.<User>emptySet());
+    }
+
+    /**
+     * Adds a node. The node takes over its share of the users in the background, and queries of
+     * its users go to it as they are copied; {@link #awaitRebalancing(long)} waits until it has
+     * all of them.
+     *
+     * @param name the node's name, which determines its place on the ring and so must be the same
+     *             each time the node joins.
+     * @param node the node, which must be empty.
+     * @throws IllegalArgumentException if the graph already has a node with the name, or the node
+     *                                  isn't empty.
+     */
+    public void addNode(final String name, final FollowGraph node) {
+        synchronized (members) {
+            if(members.containsKey(name)) {
+                throw new IllegalArgumentException("Duplicate node: " + name);
+            } else if(!node.isEmpty()) {
+                // Follows left from an earlier membership could have been removed since
+                throw new IllegalArgumentException("Node " + name + " isn't empty");
+            }
+
+            members.put(name, node);
+            queueRebalance(new Runnable() {
+                @Override
+                public void run() {
+                    rebalance(routing.ring.plus(name, node), name, null);
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes a node. The node's users are handed to the other nodes in the background, after
+     * which the node is closed.
+     *
+     * @param name the node's name.
+     * @throws IllegalArgumentException if the graph has no node with the name.
+     * @throws IllegalStateException if the node is the only node.
+     */
+    public void removeNode(final String name) {
+        synchronized (members) {
+            final FollowGraph node = members.get(name);
+
+            if(node == null) {
+                throw new IllegalArgumentException("Unknown node: " + name);
+            } else if(members.size() == 1) {
+                throw new IllegalStateException("Can't remove the only node");
+            }
+
+            members.remove(name);
+            queueRebalance(new Runnable() {
+                @Override
+                public void run() {
+                    rebalance(routing.ring.minus(name), name, node);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the names of the nodes as they will be once the rebalances already queued finish.
+     *
+     * @return a new list of the names, in the order the nodes were added.
+     */
+    public List<String> getNodeNames() {
+        synchronized (members) {
+            return new ArrayList<>(members.keySet());
+        }
+    }
+
+    /**
+     * Waits until every node added or removed so far has finished rebalancing.
+     *
+     * @param timeoutMillis how long to wait.
+     * @return true if the rebalances finished within the timeout; otherwise, false.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public boolean awaitRebalancing(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        synchronized (pendingLock) {
+            while(pendingRebalances > 0) {
+                long remainingNanos = deadline - System.nanoTime();
+
+                if(remainingNanos <= 0) {
+                    return false;
+                }
+
+                TimeUnit.NANOSECONDS.timedWait(pendingLock, remainingNanos);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the node that queries of a user currently go to.
+     *
+     * @param user the user.
+     * @return the node.
+     */
+    FollowGraph getNode(User user) {
+        return routing.readNode(user);
+    }
+
+    @Override
+    public List<User> getFollowees(User follower) {
+        return routing.readNode(follower).getFollowees(follower);
+    }
+
+    @Override
+    public List<User> getFollowers(User followee) {
+        return routing.readNode(followee).getFollowers(followee);
+    }
+
+    @Override
+    public int [] getFollowerCounts(final List<User> users) {
+        final Routing current = routing;
+        final int [] counts = new int[users.size()];
+
+        final List<List<Integer>> positions = new ArrayList<>(current.nodes.size());
+        for(int i = 0; i < current.nodes.size(); i++) {
+            positions.add(new ArrayList<Integer>());
+        }
+        for(int i = 0; i < users.size(); i++) {
+            positions.get(current.nodes.indexOf(current.readNode(users.get(i)))).add(i);
+        }
+
+        scatterGather.scatterReads(current.allNodes, users.size(), PARALLEL_THRESHOLD_USERS, new ScatterGather.Task<Void>() {
+            @Override
+            public Void run(int node) {
+                List<Integer> nodePositions = positions.get(node);
+                if(nodePositions.isEmpty()) {
+                    return null;
+                }
+
+                List<User> nodeUsers = new ArrayList<>(nodePositions.size());
+                for(int position : nodePositions) {
+                    nodeUsers.add(users.get(position));
+                }
+
+                int [] nodeCounts = current.nodes.get(node).getFollowerCounts(nodeUsers);
+                for(int i = 0; i < nodeCounts.length; i++) {
+                    counts[nodePositions.get(i)] = nodeCounts[i];
+                }
+                return null;
+            }
+        });
+
+        return counts;
+    }
+
+    @Override
+    public boolean isFollowing(User follower, User followee) {
+        return routing.readNode(follower).isFollowing(follower, followee);
+    }
+
+    @Override
+    public boolean [] isFollowing(User follower, List<User> followees) {
+        return routing.readNode(follower).isFollowing(follower, followees);
+    }
+
+    @Override
+    public boolean [] isFollowedBy(User followee, List<User> followers) {
+        return routing.readNode(followee).isFollowedBy(followee, followers);
+    }
+
+    @Override
+    public Page getFolloweePage(User follower, User lastUser, int limit) {
+        return routing.readNode(follower).getFolloweePage(follower, lastUser, limit);
+    }
+
+    /**
+     * Returns a page of the users who follow the specified user and whom the user follows back,
+     * in the order of the user's node. A cursor used across a move of the user to another node may
+     * skip or repeat users.
+     *
+     * @param user the user.
+     * @param lastUser the last user of the previous page, or null for the first page.
+     * @param limit the most users to return.
+     * @return the page.
+     */
+    @Override
+    public Page getMutualFollows(User user, User lastUser, int limit) {
+        return routing.readNode(user).getMutualFollows(user, lastUser, limit);
+    }
+
+    @Override
+    public Page getFollowersFollowedBy(User followee, User viewer, User lastUser, int limit) {
+        Routing current = routing;
+        FollowGraph followeeNode = current.readNode(followee);
+        FollowGraph viewerNode = current.readNode(viewer);
+
+        if(followeeNode == viewerNode) {
+            return followeeNode.getFollowersFollowedBy(followee, viewer, lastUser, limit);
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            return FollowerIntersection.followersFollowedBy(followeeNode, followee, viewerNode, viewer, lastUser, limit,
+                    scatterGather);
+        } finally {
+            CROSS_NODE_INTERSECTION_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns every user whose follows are held by one of the nodes.
+     *
+     * @return a new list of the users.
+     */
+    @Override
+    public List<User> getUsers() {
+        final Routing current = routing;
+
+        List<List<User>> nodeUsers = scatterGather.scatterReads(current.allNodes, Integer.MAX_VALUE, PARALLEL_THRESHOLD_USERS,
+                new ScatterGather.Task<List<User>>() {
+                    @Override
+                    public List<User> run(int node) {
+                        // A node also holds the users at the other ends of its users' follows
+                        FollowGraph graph = current.nodes.get(node);
+                        List<User> owned = new ArrayList<>();
+                        for(User user : graph.getUsers()) {
+                            if(current.readNode(user) == graph) {
+                                owned.add(user);
+                            }
+                        }
+                        return owned;
+                    }
+                });
+
+        List<User> users = new ArrayList<>();
+        for(List<User> part : nodeUsers) {
+            users.addAll(part);
+        }
+        return users;
+    }
+
+    @Override
+    public long getVersion() {
+        long version = 0;
+        for(FollowGraph node : routing.nodes) {
+            version += node.getVersion();
+        }
+        return version;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for(FollowGraph node : routing.nodes) {
+            if(!node.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records that one user follows another in both users' nodes, and in their old nodes as well
+     * while either is moving. A follow that was written to only some of the nodes is completed by
+     * retrying.
+     *
+     * @param follower the follower.
+     * @param followee the followee.
+     * @return true if the follow was recorded; false if the follower already follows the followee.
+     * @throws IOException if a record could not be written.
+     */
+    @Override
+    public boolean follow(final User follower, final User followee) throws IOException {
+        migrationLock.readLock().lock();
+
+        try {
+            final Routing current = routing;
+            return scatterGather.scatter(current.writeNodes(follower, followee), new ScatterGather.Task<Boolean>() {
+                @Override
+                public Boolean run(int node) throws IOException {
+                    return current.nodes.get(node).follow(follower, followee);
+                }
+            }).get(0);
+        } finally {
+            migrationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records that one user no longer follows another in every node the follow is written to.
+     *
+     * @param follower the follower.
+     * @param followee the followee.
+     * @return true if the unfollow was recorded; false if the follower didn't follow the followee.
+     * @throws IOException if a record could not be written.
+     */
+    @Override
+    public boolean unfollow(final User follower, final User followee) throws IOException {
+        migrationLock.readLock().lock();
+
+        try {
+            final Routing current = routing;
+            return scatterGather.scatter(current.writeNodes(follower, followee), new ScatterGather.Task<Boolean>() {
+                @Override
+                public Boolean run(int node) throws IOException {
+                    return current.nodes.get(node).unfollow(follower, followee);
+                }
+            }).get(0);
+        } finally {
+            migrationLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void followAll(List<Follow> follows) throws IOException {
+        writeAll(follows, true);
+    }
+
+    @Override
+    public void unfollowAll(List<Follow> follows) throws IOException {
+        writeAll(follows, false);
+    }
+
+    private void writeAll(List<Follow> follows, final boolean follow) throws IOException {
+        migrationLock.readLock().lock();
+
+        try {
+            final Routing current = routing;
+
+            final List<List<Follow>> parts = new ArrayList<>(current.nodes.size());
+            for(int i = 0; i < current.nodes.size(); i++) {
+                parts.add(new ArrayList<Follow>());
+            }
+            for(Follow edge : follows) {
+                for(int node : current.writeNodes(edge.getFollower(), edge.getFollowee())) {
+                    parts.get(node).add(edge);
+                }
+            }
+
+            scatterGather.scatter(current.allNodes, new ScatterGather.Task<Void>() {
+                @Override
+                public Void run(int node) throws IOException {
+                    List<Follow> part = parts.get(node);
+
+                    if(part.isEmpty()) {
+                        return null;
+                    } else if(follow) {
+                        current.nodes.get(node).followAll(part);
+                    } else {
+                        current.nodes.get(node).unfollowAll(part);
+                    }
+                    return null;
+                }
+            });
+        } finally {
+            migrationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Waits for any rebalance in progress, then closes every node and stops the graph's threads.
+     *
+     * @throws IOException if a node could not be closed. The other nodes are still closed.
+     */
+    @Override
+    public void close() throws IOException {
+        rebalanceExecutor.shutdown();
+        scatterGather.shutdown();
+
+        try {
+            rebalanceExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a rebalance");
+        }
+
+        IOException failure = null;
+        for(FollowGraph node : routing.nodes) {
+            try {
+                node.close();
+            } catch (IOException ex) {
+                if(failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    private void queueRebalance(final Runnable rebalance) {
+        synchronized (pendingLock) {
+            pendingRebalances++;
+        }
+
+        rebalanceExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    rebalance.run();
+                } finally {
+                    synchronized (pendingLock) {
+                        if(--pendingRebalances == 0) {
+                            pendingLock.notifyAll();
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves the users whose node differs between the current ring and the target, as described
+     * in the class comment. Runs on the rebalance thread.
+     *
+     * @param target the ring after the change.
+     * @param name the name of the node being added or removed.
+     * @param removedNode the node being removed, or null if a node is being added.
+     */
+    private void rebalance(HashRing<FollowGraph> target, String name, FollowGraph removedNode) {
+        long start = System.nanoTime();
+        HashRing<FollowGraph> source = routing.ring;
+        List<User> moving = new ArrayList<>();
+        Set<User> migrated = Collections.newSetFromMap(new ConcurrentHashMap<User, Boolean>());
+
+        try {
+            if(!source.isEmpty()) {
+                for(FollowGraph node : source.getNodes().values()) {
+                    for(User user : node.getUsers()) {
+                        if(source.get(user) == node && target.get(user) != node) {
+                            moving.add(user);
+                        }
+                    }
+                }
+            }
+
+            switchRouting(new Routing(source, target, migrated));
+
+            for(int from = 0; from < moving.size(); from += migrationBatchSize) {
+                List<User> batch = moving.subList(from, Math.min(moving.size(), from + migrationBatchSize));
+                long batchStart = System.nanoTime();
+
+                migrationLock.writeLock().lock();
+                try {
+                    copy(batch, source, target);
+                    migrated.addAll(batch);
+                } finally {
+                    migrationLock.writeLock().unlock();
+                }
+
+                MIGRATED_USERS.add(batch.size());
+                MIGRATION_BATCH_LATENCY.recordSince(batchStart);
+            }
+
+            switchRouting(new Routing(target, null, Collections.<User>emptySet()));
+            dropCopies(moving, source, target);
+
+            if(removedNode != null) {
+                removedNode.close();
+            }
+        } catch (IOException | RuntimeException ex) {
+            REBALANCE_FAILURES.increment();
+
+            synchronized (members) {
+                if(removedNode == null) {
+                    members.remove(name);
+                } else {
+                    members.put(name, removedNode);
+                }
+            }
+
+            // The source nodes were written throughout, so routing by the source ring loses nothing
+            switchRouting(new Routing(source, null, Collections.<User>emptySet()));
+
+            try {
+                dropCopies(moving, target, source);
+            } catch (IOException | RuntimeException dropEx) {
+                REBALANCE_FAILURES.increment();
+            }
+        } finally {
+            REBALANCE_LATENCY.recordSince(start);
+        }
+    }
+
+    private void switchRouting(Routing next) {
+        migrationLock.writeLock().lock();
+        try {
+            routing = next;
+        } finally {
+            migrationLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the follows of a batch of users from their nodes in one ring to their nodes in
+     * another, with one write per destination node.
+     */
+    private static void copy(List<User> users, HashRing<FollowGraph> from, HashRing<FollowGraph> to) throws IOException {
+        Map<FollowGraph, List<Follow>> copies = new LinkedHashMap<>();
+
+        for(User user : users) {
+            FollowGraph source = from.get(user);
+            List<Follow> follows = copies.get(to.get(user));
+            if(follows == null) {
+                follows = new ArrayList<>();
+                copies.put(to.get(user), follows);
+            }
+
+            for(User followee : source.getFollowees(user)) {
+                follows.add(new Follow(user, followee));
+            }
+            for(User follower : source.getFollowers(user)) {
+                follows.add(new Follow(follower, user));
+            }
+        }
+
+        for(Map.Entry<FollowGraph, List<Follow>> entry : copies.entrySet()) {
+            entry.getKey().followAll(entry.getValue());
+            MIGRATED_FOLLOWS.add(entry.getValue().size());
+        }
+    }
+
+    /**
+     * Removes, from the nodes that held moved users in one ring, the follows of those users that
+     * the nodes own neither end of in the ring that is kept. A node that isn't in the kept ring is
+     * being discarded and is left alone.
+     */
+    private static void dropCopies(Collection<User> users, HashRing<FollowGraph> from, HashRing<FollowGraph> kept) throws IOException {
+        Map<FollowGraph, List<Follow>> drops = new LinkedHashMap<>();
+
+        for(User user : users) {
+            FollowGraph node = from.get(user);
+            if(!kept.getNodes().containsValue(node)) {
+                continue;
+            }
+
+            List<Follow> follows = drops.get(node);
+            if(follows == null) {
+                follows = new ArrayList<>();
+                drops.put(node, follows);
+            }
+
+            for(User followee : node.getFollowees(user)) {
+                if(kept.get(followee) != node) {
+                    follows.add(new Follow(user, followee));
+                }
+            }
+            for(User follower : node.getFollowers(user)) {
+                if(kept.get(follower) != node) {
+                    follows.add(new Follow(follower, user));
+                }
+            }
+        }
+
+        for(Map.Entry<FollowGraph, List<Follow>> entry : drops.entrySet()) {
+            entry.getKey().unfollowAll(entry.getValue());
+        }
+    }
+
+    /**
+     * Where queries and writes go: the current ring, and while a rebalance is in progress, the
+     * ring it is moving to and the moving users already copied there. Replaced as a whole, so a
+     * query or write sees one consistent routing.
+     */
+    private static class Routing {
+
+        final HashRing<FollowGraph> ring;
+        final HashRing<FollowGraph> target;
+        final Set<User> migrated;
+        // The nodes of both rings, which the scatter-gather partitions are numbered by
+        final List<FollowGraph> nodes;
+        final int [] allNodes;
+
+        Routing(HashRing<FollowGraph> ring, HashRing<FollowGraph> target, Set<User> migrated) {
+            this.ring = ring;
+            this.target = target;
+            this.migrated = migrated;
+
+            Set<FollowGraph> distinct = new LinkedHashSet<>(ring.getNodes().values());
+            if(target != null) {
+                distinct.addAll(target.getNodes().values());
+            }
+            nodes = Collections.unmodifiableList(new ArrayList<>(distinct));
+
+            allNodes = new int[nodes.size()];
+            for(int i = 0; i < allNodes.length; i++) {
+                allNodes[i] = i;
+            }
+        }
+
+        FollowGraph readNode(User user) {
+            if(ring.isEmpty()) {
+                throw new IllegalStateException("The graph has no nodes");
+            }
+
+            return target != null && migrated.contains(user) ? target.get(user) : ring.get(user);
+        }
+
+        /**
+         * Returns the numbers of the nodes a follow is written to: the nodes both users are read
+         * from, the follower's first, and their nodes in the current ring.
+         */
+        int [] writeNodes(User follower, User followee) {
+            Set<FollowGraph> writes = new LinkedHashSet<>(4);
+            writes.add(readNode(follower));
+            writes.add(readNode(followee));
+            writes.add(ring.get(follower));
+            writes.add(ring.get(followee));
+
+            int [] numbers = new int[writes.size()];
+            int i = 0;
+            for(FollowGraph node : writes) {
+                numbers[i++] = nodes.indexOf(node);
+            }
+            return numbers;
+        }
+    }
+}
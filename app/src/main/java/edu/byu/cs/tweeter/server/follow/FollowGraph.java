@@ -0,0 +1,206 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.Follow;
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * The follow relationships the server's queries are answered from. A {@link FollowStore} holds a
+ * whole graph, or one shard of one; a {@link ShardedFollowGraph} spreads a graph over several
+ * shards and routes each query to the shards that hold its users.
+ * <p>
+ * Every method works in terms of users rather than any internal ids, and the batch methods take
+ * whole lists, so an implementation can be a client of a graph held in another process without a
+ * round trip per user.
+ */
+public interface FollowGraph extends Closeable {
+
+    /**
+     * Returns the users the specified user follows, in the order they were followed.
+     *
+     * @param follower the follower.
+     * @return an immutable list of the followees, which is empty if there are none.
+     */
+    List<User> getFollowees(User follower);
+
+    /**
+     * Returns the users who follow the specified user, in the order they followed.
+     *
+     * @param followee the followee.
+     * @return an immutable list of the followers, which is empty if there are none.
+     */
+    List<User> getFollowers(User followee);
+
+    /**
+     * Returns the number of followers of each of a number of users.
+     *
+     * @param users the users.
+     * @return an array whose elements are the follower counts of the users at the same positions
+     *         in the list.
+     */
+    int [] getFollowerCounts(List<User> users);
+
+    /**
+     * Indicates whether one user follows another.
+     *
+     * @param follower the follower.
+     * @param followee the followee.
+     * @return true if the follower follows the followee; otherwise, false.
+     */
+    boolean isFollowing(User follower, User followee);
+
+    /**
+     * Indicates whether a user follows each of a number of users, as when showing follow buttons
+     * for a page of users.
+     *
+     * @param follower the follower.
+     * @param followees the users to check.
+     * @return an array whose elements are true where the follower follows the user at the same
+     *         position in the list.
+     */
+    boolean [] isFollowing(User follower, List<User> followees);
+
+    /**
+     * Indicates whether each of a number of users follows a user, answered from the followee's
+     * followers rather than from each follower's followees, so one graph answers for the whole
+     * list wherever the followers are held.
+     *
+     * @param followee the followee.
+     * @param followers the users to check.
+     * @return an array whose elements are true where the user at the same position in the list
+     *         follows the followee.
+     */
+    boolean [] isFollowedBy(User followee, List<User> followers);
+
+    /**
+     * Returns a page of the users the specified user follows. Pages are ordered as they are for
+     * {@link #getMutualFollows(User, User, int)}, so a page can start after any user without
+     * reading the users before it.
+     *
+     * @param follower the follower.
+     * @param lastUser the last user of the previous page, or null for the first page.
+     * @param limit the most users to return.
+     * @return the page.
+     */
+    Page getFolloweePage(User follower, User lastUser, int limit);
+
+    /**
+     * Returns a page of the users who follow the specified user and whom the user follows back.
+     * Pages are in an order of the implementation's choosing that is stable while the graph is
+     * open.
+     *
+     * @param user the user.
+     * @param lastUser the last user of the previous page, or null for the first page.
+     * @param limit the most users to return.
+     * @return the page.
+     */
+    Page getMutualFollows(User user, User lastUser, int limit);
+
+    /**
+     * Returns a page of the users who follow the specified user and are followed by the viewer,
+     * the "followed by people you follow" of a profile. Pages are ordered as they are for
+     * {@link #getMutualFollows(User, User, int)}.
+     *
+     * @param followee the user whose followers are returned.
+     * @param viewer the user whose followees the followers must be among.
+     * @param lastUser the last user of the previous page, or null for the first page.
+     * @param limit the most users to return.
+     * @return the page.
+     */
+    Page getFollowersFollowedBy(User followee, User viewer, User lastUser, int limit);
+
+    /**
+     * Returns every user the graph has seen, including users whose follows have all been removed.
+     *
+     * @return a new list of the users.
+     */
+    List<User> getUsers();
+
+    /**
+     * Returns a number that changes whenever a follow or unfollow is recorded, so a structure
+     * derived from the graph can tell whether it is out of date.
+     *
+     * @return the version.
+     */
+    long getVersion();
+
+    /**
+     * Indicates whether the graph holds no follow relationships.
+     *
+     * @return true if the graph is empty; otherwise, false.
+     */
+    boolean isEmpty();
+
+    /**
+     * Records that one user follows another, and waits until the record is durable.
+     *
+     * @param follower the follower.
+     * @param followee the followee.
+     * @return true if the follow was recorded; false if the follower already follows the followee.
+     * @throws IOException if the record could not be written.
+     */
+    boolean follow(User follower, User followee) throws IOException;
+
+    /**
+     * Records that one user no longer follows another, and waits until the record is durable.
+     *
+     * @param follower the follower.
+     * @param followee the followee.
+     * @return true if the unfollow was recorded; false if the follower didn't follow the followee.
+     * @throws IOException if the record could not be written.
+     */
+    boolean unfollow(User follower, User followee) throws IOException;
+
+    /**
+     * Records a number of follows with a single wait for durability, as when loading data in bulk.
+     * Follows that already exist are skipped.
+     *
+     * @param follows the follows.
+     * @throws IOException if the records could not be written.
+     */
+    void followAll(List<Follow> follows) throws IOException;
+
+    /**
+     * Removes a number of follows with a single wait for durability, as when moving users' data
+     * off a node. Follows that don't exist are skipped.
+     *
+     * @param follows the follows.
+     * @throws IOException if the records could not be written.
+     */
+    void unfollowAll(List<Follow> follows) throws IOException;
+
+    /**
+     * A page of users from one of the graph's queries.
+     */
+    class Page {
+
+        private final List<User> users;
+        private final boolean hasMorePages;
+
+        Page(List<User> users, boolean hasMorePages) {
+            this.users = users;
+            this.hasMorePages = hasMorePages;
+        }
+
+        /**
+         * Returns the users in the page.
+         *
+         * @return the users.
+         */
+        public List<User> getUsers() {
+            return users;
+        }
+
+        /**
+         * Indicates whether there are more users after this page.
+         *
+         * @return true if there are more users; otherwise, false.
+         */
+        public boolean getHasMorePages() {
+            return hasMorePages;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.zip.CRC32;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * An append-only log of follow and unfollow records.
+ * <p>
+ * Each record is framed by its length and a CRC32 of its contents, so a record that was only
+ * partly written when the process died is detected on replay and the log is truncated before it.
+ * <p>
+ * Records are made durable with group commit. Appending only writes a record; {@link #sync(long)}
+ * then waits until it is on disk. Only one thread forces the file at a time, and each force covers
+ * every record appended before it started, so threads that were waiting for the force usually find
+ * their records already durable and return without forcing again. Under load the cost of each
+ * fsync is shared by all the writes that arrived while the previous one was in progress.
+ */
+class FollowLog implements Closeable {
+
+    static final byte FOLLOW = 1;
+    static final byte UNFOLLOW = 2;
+
+    /**
+     * The largest record that is accepted on replay. Larger lengths can only come from corruption.
+     */
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private static final Histogram SYNC_LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowLog.sync");
+    private static final Histogram RECORDS_PER_SYNC =
+            MetricsRegistry.getInstance().histogram("FollowLog.recordsPerSync");
+
+    /**
+     * Receives the records of a log as it is replayed.
+     */
+    interface Visitor {
+        void record(byte type, User follower, User followee);
+    }
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final Object syncLock = new Object();
+
+    private long size;
+    private long appended;
+    private volatile long durable;
+    private boolean closed;
+
+    private FollowLog(File file, RandomAccessFile raf, long size) {
+        this.file = file;
+        this.raf = raf;
+        this.size = size;
+    }
+
+    /**
+     * Opens a log for appending, creating it if it doesn't exist.
+     *
+     * @param file the log file.
+     * @param validLength the length of the valid records at the start of the file, as returned by
+     *                    {@link #replay(File, Visitor)}. Anything after it is truncated.
+     * @return the log.
+     * @throws IOException if the file could not be opened.
+     */
+    static FollowLog open(File file, long validLength) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+        try {
+            if(raf.length() != validLength) {
+                raf.setLength(validLength);
+                raf.getFD().sync();
+            }
+
+            raf.seek(validLength);
+            return new FollowLog(file, raf, validLength);
+        } catch (IOException ex) {
+            raf.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Reads the records of a log in order, stopping at the end of the file or at the first record
+     * that is incomplete or fails its checksum.
+     *
+     * @param file the log file.
+     * @param visitor receives the records.
+     * @return the length of the valid records at the start of the file.
+     * @throws IOException if the file could not be read.
+     */
+    static long replay(File file, Visitor visitor) throws IOException {
+        if(!file.exists()) {
+            return 0;
+        }
+
+        long validLength = 0;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            CRC32 crc = new CRC32();
+
+            while(true) {
+                int length;
+                long checksum;
+                byte [] payload;
+
+                try {
+                    length = in.readInt();
+                    if(length <= 0 || length > MAX_RECORD_LENGTH) {
+                        return validLength;
+                    }
+
+                    checksum = in.readInt() & 0xffffffffL;
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException ex) {
+                    // The end of the log, or a record that was cut off part way
+                    return validLength;
+                }
+
+                crc.reset();
+                crc.update(payload, 0, payload.length);
+                if(crc.getValue() != checksum) {
+                    return validLength;
+                }
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                byte type = record.readByte();
+                User follower = FollowRecords.readUser(record);
+                User followee = FollowRecords.readUser(record);
+                visitor.record(type, follower, followee);
+
+                validLength += 8 + length;
+            }
+        }
+    }
+
+    /**
+     * Writes a record to the end of the log. The record is not durable until {@link #sync(long)}
+     * returns.
+     *
+     * @param type {@link #FOLLOW} or {@link #UNFOLLOW}.
+     * @param follower the follower.
+     * @param followee the followee.
+     * @return the record's sequence number, to pass to {@link #sync(long)}.
+     * @throws IOException if the record could not be written.
+     */
+    synchronized long append(byte type, User follower, User followee) throws IOException {
+        if(closed) {
+            throw new IOException("Log is closed: " + file);
+        }
+
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeByte(type);
+        FollowRecords.writeUser(payload, follower);
+        FollowRecords.writeUser(payload, followee);
+
+        CRC32 crc = new CRC32();
+        crc.update(payloadBytes.toByteArray(), 0, payloadBytes.size());
+
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(payloadBytes.size() + 8);
+        DataOutputStream record = new DataOutputStream(recordBytes);
+        record.writeInt(payloadBytes.size());
+        record.writeInt((int) crc.getValue());
+        payloadBytes.writeTo(record);
+
+        raf.write(recordBytes.toByteArray());
+        size += recordBytes.size();
+
+        return ++appended;
+    }
+
+    /**
+     * Waits until the record with the specified sequence number, and every record before it, is
+     * on disk.
+     *
+     * @param sequence the sequence number returned by {@link #append(byte, User, User)}.
+     * @throws IOException if the log could not be forced to disk.
+     */
+    void sync(long sequence) throws IOException {
+        if(durable >= sequence) {
+            return;
+        }
+
+        synchronized (syncLock) {
+            // A force that finished while this thread waited for the lock may have covered it
+            if(durable >= sequence) {
+                return;
+            }
+
+            long target;
+            synchronized (this) {
+                target = appended;
+            }
+
+            long start = System.nanoTime();
+            raf.getFD().sync();
+            SYNC_LATENCY.recordSince(start);
+            RECORDS_PER_SYNC.record(target - durable);
+
+            durable = target;
+        }
+    }
+
+    /**
+     * Returns the length of the log file.
+     *
+     * @return the length in bytes.
+     */
+    synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Forces any records that aren't yet durable to disk and closes the file. Threads still waiting
+     * in {@link #sync(long)} return once the final force is done.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if(closed) {
+                    return;
+                }
+
+                closed = true;
+            }
+
+            try {
+                raf.getFD().sync();
+                durable = appended;
+            } finally {
+                raf.close();
+            }
+        }
+    }
+}
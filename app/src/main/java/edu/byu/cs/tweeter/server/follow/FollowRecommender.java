@@ -0,0 +1,685 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * Recommends users to follow from a user's friends of friends: the users followed by the users
+ * the user follows, ranked by how many of the user's followees follow them. Users the user already
+ * follows, and the user themself, are never recommended.
+ * <p>
+ * The cost of a recommendation is the number of second-hop edges counted, so two limits keep it
+ * bounded:
+ * <ul>
+ *     <li>A followee who follows more than the fan-out cap contributes an evenly spaced sample of
+ *     the cap's size instead of every followee. A celebrity or a bot following millions would
+ *     otherwise dominate both the time and the ranking.</li>
+ *     <li>Counting is split across a pool of threads by first-hop followee once there are enough
+ *     edges to be worth it. Each thread counts into its own {@link IntCountMap}, so the counting
+ *     takes no locks, and the maps are merged at the end.</li>
+ * </ul>
+ * The top results are selected with a bounded heap, in O(candidates log k) time and O(k) space,
+ * instead of sorting every candidate.
+ */
+public class FollowRecommender {
+
+    public static final int DEFAULT_FAN_OUT_CAP = 1000;
+
+    /**
+     * The number of second-hop edges below which counting runs on the calling thread, since
+     * handing work to other threads would take longer than counting.
+     */
+    static final int PARALLEL_THRESHOLD_EDGES = 20_000;
+
+    /**
+     * The most candidates a count map is sized for up front. Maps grow past this as needed.
+     */
+    private static final int MAX_EXPECTED_CANDIDATES = 1 << 20;
+
+    private static final Histogram RECOMMEND_LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowRecommender.recommend");
+    private static final Histogram EDGES_COUNTED =
+            MetricsRegistry.getInstance().histogram("FollowRecommender.edgesCounted");
+
+    private static FollowRecommender instance;
+
+    private final ThreadPoolExecutor executor;
+    private final int parallelism;
+    private final int fanOutCap;
+
+    /**
+     * Creates an instance. Production code should use {@link #getInstance()}; separate instances
+     * are only useful in tests and benchmarks.
+     *
+     * @param parallelism the number of threads that count at once for one recommendation.
+     * @param fanOutCap the most followees counted for any one first-hop followee.
+     */
+    FollowRecommender(int parallelism, int fanOutCap) {
+        this.parallelism = parallelism;
+        this.fanOutCap = fanOutCap;
+
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new RecommenderThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the singleton instance of the class, which counts using all available processors.
+     *
+     * @return the instance.
+     */
+    public static synchronized FollowRecommender getInstance() {
+        if(instance == null) {
+            instance = new FollowRecommender(Runtime.getRuntime().availableProcessors(), DEFAULT_FAN_OUT_CAP);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Returns the users most followed by the users the specified user follows, best first. Ties
+     * are broken in favour of the user with the lower id in the graph's numbering.
+     * <p>
+     * A {@link FollowStore} is read through its own user ids, and a {@link ShardedFollowGraph}
+     * through its shards' ids; see {@link ShardedGraph}. Any other graph is read through a
+     * {@link GraphSnapshot} that numbers the users of this one recommendation.
+     *
+     * @param followGraph the graph whose follows are used.
+     * @param user the user to recommend to.
+     * @param limit the most recommendations to return.
+     * @return the recommendations, which are empty if the user follows no one whose followees
+     *         the user doesn't already follow.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the
+     *                              counting threads.
+     */
+    public List<Recommendation> recommend(FollowGraph followGraph, User user, int limit) throws InterruptedException {
+        UserGraph graph;
+
+        if(followGraph instanceof FollowStore) {
+            graph = new StoreGraph((FollowStore) followGraph);
+        } else if(followGraph instanceof ShardedFollowGraph) {
+            graph = new ShardedGraph((ShardedFollowGraph) followGraph);
+        } else {
+            graph = new GraphSnapshot(followGraph);
+        }
+
+        int userId = graph.getUserId(user);
+
+        if(userId < 0) {
+            return Collections.emptyList();
+        }
+
+        long [] ranked = recommend(graph, userId, limit);
+
+        List<Recommendation> recommendations = new ArrayList<>(ranked.length);
+        for(long entry : ranked) {
+            recommendations.add(new Recommendation(graph.getUser(TopK.id(entry)), TopK.count(entry)));
+        }
+
+        return recommendations;
+    }
+
+    /**
+     * Computes recommendations over a graph of user ids.
+     *
+     * @param graph the graph.
+     * @param userId the id of the user to recommend to.
+     * @param limit the most recommendations to return.
+     * @return the recommendations, best first, each packed as by {@link TopK}.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the
+     *                              counting threads.
+     */
+    long [] recommend(Graph graph, int userId, int limit) throws InterruptedException {
+        long start = System.nanoTime();
+
+        try {
+            int [] firstHop = graph.getFolloweeIds(userId, Integer.MAX_VALUE);
+
+            if(firstHop.length == 0 || limit <= 0) {
+                return new long[0];
+            }
+
+            long edges = 0;
+            for(int followeeId : firstHop) {
+                edges += Math.min(graph.getFolloweeCount(followeeId), fanOutCap);
+            }
+            EDGES_COUNTED.record(edges);
+
+            IntCountMap counts;
+
+            if(edges < PARALLEL_THRESHOLD_EDGES || parallelism == 1) {
+                counts = count(graph, firstHop, 0, firstHop.length, (int) Math.min(edges, MAX_EXPECTED_CANDIDATES));
+            } else {
+                counts = countInParallel(graph, firstHop, edges);
+            }
+
+            TopK topK = new TopK(limit);
+            for(int slot = 0; slot < counts.capacity(); slot++) {
+                int candidateId = counts.keyAt(slot);
+
+                if(candidateId >= 0 && candidateId != userId && Arrays.binarySearch(firstHop, candidateId) < 0) {
+                    topK.offer(candidateId, counts.countAt(slot));
+                }
+            }
+
+            return topK.toSortedArray();
+        } finally {
+            RECOMMEND_LATENCY.recordSince(start);
+        }
+    }
+
+    private IntCountMap countInParallel(Graph graph, int [] firstHop, long edges) throws InterruptedException {
+        // Split the first hop into more chunks than threads, so a chunk that happens to hold
+        // the heavy followees doesn't leave the other threads idle while it finishes
+        int chunkCount = Math.min(firstHop.length, parallelism * 4);
+        ChunkCounter worker = new ChunkCounter(graph, firstHop, (firstHop.length + chunkCount - 1) / chunkCount,
+                (int) Math.min(MAX_EXPECTED_CANDIDATES, edges / parallelism));
+
+        // The calling thread works too, so a recommendation uses at most parallelism - 1 pool
+        // threads and still makes progress when the pool is busy with other recommendations
+        List<PoolShare> shares = new ArrayList<>(parallelism - 1);
+        List<Future<IntCountMap>> futures = new ArrayList<>(parallelism - 1);
+        for(int i = 0; i < parallelism - 1; i++) {
+            PoolShare share = new PoolShare(worker);
+            shares.add(share);
+            futures.add(executor.submit(share));
+        }
+
+        IntCountMap counts = worker.call();
+
+        try {
+            for(int i = 0; i < futures.size(); i++) {
+                Future<IntCountMap> future = futures.get(i);
+
+                // Every chunk is counted by now, so a share still queued behind a busy pool has
+                // nothing to add. Only the shares a pool thread started are waited for.
+                if(shares.get(i).abandon()) {
+                    future.cancel(false);
+                    continue;
+                }
+
+                IntCountMap partial = future.get();
+
+                if(partial.size() > counts.size()) {
+                    partial.addAll(counts);
+                    counts = partial;
+                } else {
+                    counts.addAll(partial);
+                }
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Counting failed", ex.getCause());
+        } finally {
+            for(Future<IntCountMap> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * Counts chunks of the first hop until none are left. Every thread working on one
+     * recommendation shares an instance, and each call returns the counts of the chunks that call
+     * took.
+     */
+    private class ChunkCounter implements Callable<IntCountMap> {
+
+        private final Graph graph;
+        private final int [] firstHop;
+        private final int chunkSize;
+        private final int expectedSize;
+        private final AtomicInteger nextChunk = new AtomicInteger();
+
+        ChunkCounter(Graph graph, int [] firstHop, int chunkSize, int expectedSize) {
+            this.graph = graph;
+            this.firstHop = firstHop;
+            this.chunkSize = chunkSize;
+            this.expectedSize = expectedSize;
+        }
+
+        @Override
+        public IntCountMap call() {
+            IntCountMap counts = new IntCountMap(expectedSize);
+
+            int from;
+            while((from = nextChunk.getAndIncrement() * chunkSize) < firstHop.length) {
+                countInto(counts, graph, firstHop, from, Math.min(firstHop.length, from + chunkSize));
+            }
+
+            return counts;
+        }
+    }
+
+    /**
+     * A pool thread's share of the counting for one recommendation. The pool thread that runs it
+     * and the calling thread, once it has run out of chunks, race to claim it, so the calling
+     * thread knows whether a pool thread started it and may still be counting a chunk.
+     */
+    private class PoolShare implements Callable<IntCountMap> {
+
+        private final ChunkCounter worker;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        PoolShare(ChunkCounter worker) {
+            this.worker = worker;
+        }
+
+        @Override
+        public IntCountMap call() {
+            return claimed.compareAndSet(false, true) ? worker.call() : null;
+        }
+
+        /**
+         * Claims the share for the calling thread, so that no pool thread runs it.
+         *
+         * @return true if no pool thread had started the share; otherwise, false.
+         */
+        boolean abandon() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    private IntCountMap count(Graph graph, int [] firstHop, int from, int to, int expectedSize) {
+        IntCountMap counts = new IntCountMap(expectedSize);
+        countInto(counts, graph, firstHop, from, to);
+        return counts;
+    }
+
+    private void countInto(IntCountMap counts, Graph graph, int [] firstHop, int from, int to) {
+        for(int i = from; i < to; i++) {
+            for(int candidateId : graph.getFolloweeIds(firstHop[i], fanOutCap)) {
+                counts.add(candidateId, 1);
+            }
+        }
+    }
+
+    /**
+     * Returns an evenly spaced sample of sorted ids, so the sample is the same each time and spans
+     * the whole list.
+     *
+     * @param sortedIds the ids in ascending order.
+     * @param limit the most ids to return.
+     * @return the ids themselves if there are no more than the limit; otherwise, the sample, in
+     *         ascending order.
+     */
+    static int [] sample(int [] sortedIds, int limit) {
+        if(sortedIds.length <= limit) {
+            return sortedIds;
+        }
+
+        int [] sample = new int[limit];
+        double stride = sortedIds.length / (double) limit;
+        for(int i = 0; i < limit; i++) {
+            sample[i] = sortedIds[(int) (i * stride)];
+        }
+
+        return sample;
+    }
+
+    /**
+     * Stops the pool's threads. Recommendations in progress finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * The follows that recommendations are computed from, by user id.
+     */
+    interface Graph {
+
+        /**
+         * Returns the number of users a user follows.
+         *
+         * @param followerId the id of the follower.
+         * @return the number of followees.
+         */
+        int getFolloweeCount(int followerId);
+
+        /**
+         * Returns the ids of the users a user follows, or an evenly spaced sample of them if there
+         * are more than the limit.
+         *
+         * @param followerId the id of the follower.
+         * @param limit the most ids to return.
+         * @return the followee ids in ascending order, which must not be modified.
+         */
+        int [] getFolloweeIds(int followerId, int limit);
+    }
+
+    /**
+     * A {@link Graph} over the users of a {@link FollowGraph}.
+     */
+    private interface UserGraph extends Graph {
+
+        /**
+         * Returns the id of a user.
+         *
+         * @param user the user.
+         * @return the id, or -1 if the graph has never seen the user.
+         */
+        int getUserId(User user);
+
+        /**
+         * Returns the user with an id.
+         *
+         * @param userId the id.
+         * @return the user.
+         */
+        User getUser(int userId);
+    }
+
+    /**
+     * Reads a {@link FollowStore} through its own user ids.
+     */
+    private static class StoreGraph implements UserGraph {
+
+        private final FollowStore followStore;
+
+        StoreGraph(FollowStore followStore) {
+            this.followStore = followStore;
+        }
+
+        @Override
+        public int getUserId(User user) {
+            return followStore.getUserId(user);
+        }
+
+        @Override
+        public User getUser(int userId) {
+            return followStore.getUser(userId);
+        }
+
+        @Override
+        public int getFolloweeCount(int followerId) {
+            return followStore.getFolloweeIds(followerId).length;
+        }
+
+        @Override
+        public int [] getFolloweeIds(int followerId, int limit) {
+            return sample(followStore.getFolloweeIds(followerId), limit);
+        }
+    }
+
+    /**
+     * Reads a {@link ShardedFollowGraph} through its shards' own user ids. A user's id is the id
+     * the shard that owns them gives them, times the number of shards, plus the shard's number, so
+     * the recommendation numbers no users itself and the counting threads read without locks. A
+     * followee list is sampled in its shard's ids before its users are looked up in their own
+     * shards, so a long list costs no more than the fan-out cap.
+     */
+    private static class ShardedGraph implements UserGraph {
+
+        private final ShardedFollowGraph followGraph;
+        private final int shardCount;
+
+        ShardedGraph(ShardedFollowGraph followGraph) {
+            this.followGraph = followGraph;
+            this.shardCount = followGraph.getShardCount();
+        }
+
+        @Override
+        public int getUserId(User user) {
+            int shard = followGraph.shardOf(user);
+            int localId = followGraph.getShard(shard).getUserId(user);
+
+            if(localId < 0) {
+                return -1;
+            }
+
+            long id = (long) localId * shardCount + shard;
+            if(id > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Too many users to number: " + localId + " in shard " + shard);
+            }
+
+            return (int) id;
+        }
+
+        @Override
+        public User getUser(int userId) {
+            return followGraph.getShard(userId % shardCount).getUser(userId / shardCount);
+        }
+
+        @Override
+        public int getFolloweeCount(int followerId) {
+            return followGraph.getShard(followerId % shardCount).getFolloweeIds(followerId / shardCount).length;
+        }
+
+        @Override
+        public int [] getFolloweeIds(int followerId, int limit) {
+            FollowStore shard = followGraph.getShard(followerId % shardCount);
+            int [] localIds = sample(shard.getFolloweeIds(followerId / shardCount), limit);
+
+            int [] ids = new int[localIds.length];
+            int count = 0;
+            for(int localId : localIds) {
+                int id = getUserId(shard.getUser(localId));
+
+                // A follow still being written to the followee's shard is left out
+                if(id >= 0) {
+                    ids[count++] = id;
+                }
+            }
+
+            ids = count == ids.length ? ids : Arrays.copyOf(ids, count);
+            Arrays.sort(ids);
+            return ids;
+        }
+    }
+
+    /**
+     * Numbers the users of a graph that has no ids of its own, for the length of one
+     * recommendation. Users are numbered in the order they are first seen, by whichever thread
+     * sees them first, without locks. A followee list is sampled before its users are numbered, so
+     * a long list costs no more than the fan-out cap.
+     */
+    private static class GraphSnapshot implements UserGraph {
+
+        private final FollowGraph followGraph;
+        private final ConcurrentHashMap<User, Integer> ids = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Integer, User> users = new ConcurrentHashMap<>();
+        private final AtomicInteger nextId = new AtomicInteger();
+
+        GraphSnapshot(FollowGraph followGraph) {
+            this.followGraph = followGraph;
+        }
+
+        @Override
+        public int getUserId(User user) {
+            Integer id = ids.get(user);
+
+            if(id == null) {
+                int newId = nextId.getAndIncrement();
+                users.put(newId, user);
+                id = ids.putIfAbsent(user, newId);
+
+                if(id == null) {
+                    id = newId;
+                } else {
+                    // Another thread numbered the user first; the id taken here goes unused
+                    users.remove(newId);
+                }
+            }
+
+            return id;
+        }
+
+        @Override
+        public User getUser(int userId) {
+            return users.get(userId);
+        }
+
+        @Override
+        public int getFolloweeCount(int followerId) {
+            return followGraph.getFollowees(getUser(followerId)).size();
+        }
+
+        @Override
+        public int [] getFolloweeIds(int followerId, int limit) {
+            List<User> followees = followGraph.getFollowees(getUser(followerId));
+            int [] ids = new int[Math.min(followees.size(), limit)];
+            double stride = followees.size() / (double) ids.length;
+
+            for(int i = 0; i < ids.length; i++) {
+                ids[i] = getUserId(followees.get((int) (i * stride)));
+            }
+            Arrays.sort(ids);
+
+            return ids;
+        }
+    }
+
+    /**
+     * A recommended user and the number of the user's followees who follow them.
+     */
+    public static class Recommendation {
+
+        private final User user;
+        private final int followedByCount;
+
+        Recommendation(User user, int followedByCount) {
+            this.user = user;
+            this.followedByCount = followedByCount;
+        }
+
+        /**
+         * Returns the recommended user.
+         *
+         * @return the user.
+         */
+        public User getUser() {
+            return user;
+        }
+
+        /**
+         * Returns the number of the user's followees who follow the recommended user. Where a
+         * followee's follows were sampled, this counts only the sample.
+         *
+         * @return the count.
+         */
+        public int getFollowedByCount() {
+            return followedByCount;
+        }
+    }
+
+    /**
+     * Keeps the k highest counted candidates seen, in a binary min-heap whose root is the weakest
+     * candidate kept. Each candidate is packed into a long with the count in the high half and the
+     * complement of the id in the low half, so comparing the longs ranks by count and then by lower
+     * id, and the heap needs no objects.
+     */
+    static class TopK {
+
+        private final long [] heap;
+        private int size;
+
+        TopK(int k) {
+            heap = new long[k];
+        }
+
+        static long pack(int id, int count) {
+            return ((long) count << 32) | (~id & 0xFFFFFFFFL);
+        }
+
+        static int id(long entry) {
+            return ~(int) entry;
+        }
+
+        static int count(long entry) {
+            return (int) (entry >>> 32);
+        }
+
+        void offer(int id, int count) {
+            long entry = pack(id, count);
+
+            if(size < heap.length) {
+                heap[size] = entry;
+                siftUp(size++);
+            } else if(entry > heap[0]) {
+                heap[0] = entry;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Returns the candidates kept, best first.
+         */
+        long [] toSortedArray() {
+            long [] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted);
+
+            for(int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+                long swap = sorted[i];
+                sorted[i] = sorted[j];
+                sorted[j] = swap;
+            }
+
+            return sorted;
+        }
+
+        private void siftUp(int index) {
+            long entry = heap[index];
+
+            while(index > 0) {
+                int parent = (index - 1) >>> 1;
+                if(heap[parent] <= entry) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+
+            heap[index] = entry;
+        }
+
+        private void siftDown(int index) {
+            long entry = heap[index];
+
+            while(true) {
+                int child = 2 * index + 1;
+                if(child >= size) {
+                    break;
+                }
+                if(child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if(entry <= heap[child]) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+
+            heap[index] = entry;
+        }
+    }
+
+    private static class RecommenderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger nextId = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "FollowRecommender-" + nextId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
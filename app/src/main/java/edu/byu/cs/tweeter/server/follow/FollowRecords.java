@@ -0,0 +1,33 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * Reads and writes the users in the follow store's files. A user is written as its first name,
+ * last name and image URL; the alias is derived from the names.
+ */
+class FollowRecords {
+
+    private FollowRecords() {
+    }
+
+    static void writeUser(DataOutput out, User user) throws IOException {
+        out.writeUTF(user.getFirstName());
+        out.writeUTF(user.getLastName());
+        out.writeBoolean(user.getImageUrl() != null);
+        if(user.getImageUrl() != null) {
+            out.writeUTF(user.getImageUrl());
+        }
+    }
+
+    static User readUser(DataInput in) throws IOException {
+        String firstName = in.readUTF();
+        String lastName = in.readUTF();
+        String imageUrl = in.readBoolean() ? in.readUTF() : null;
+        return new User(firstName, lastName, imageUrl);
+    }
+}
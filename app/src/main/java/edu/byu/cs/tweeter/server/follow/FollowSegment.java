@@ -0,0 +1,218 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.CRC32;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * A compacted, immutable copy of the follow graph, written when the follow log is compacted.
+ * <p>
+ * Each distinct user is written once, in a table sorted by alias, and relationships are written as
+ * indexes into the table, so a segment is much smaller than the log records it replaces and is
+ * read without parsing any user more than once. The segment holds two adjacency sections, each
+ * user's followees and each user's followers, both keyed in alias order with the lists in the
+ * order the follows happened, so the indexes are loaded without replaying anything.
+ * <p>
+ * The file ends with a CRC32 of its contents, and is written to a temporary file and renamed into
+ * place, so a segment is either complete or absent.
+ */
+class FollowSegment {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Comparator<User> BY_ALIAS = new Comparator<User>() {
+        @Override
+        public int compare(User user1, User user2) {
+            return user1.getAlias().compareTo(user2.getAlias());
+        }
+    };
+
+    private FollowSegment() {
+    }
+
+    /**
+     * Writes a segment.
+     *
+     * @param file the segment file.
+     * @param followeesByFollower each follower's followees.
+     * @param followersByFollowee each followee's followers.
+     * @throws IOException if the segment could not be written.
+     */
+    static void write(File file, Map<User, List<User>> followeesByFollower,
+                      Map<User, List<User>> followersByFollowee) throws IOException {
+        Map<User, Integer> ids = new HashMap<>();
+        List<User> users = new ArrayList<>();
+
+        // A shard's follower lists can name users whose own followees it doesn't hold, so both
+        // indexes contribute users
+        addUsers(followeesByFollower, ids, users);
+        addUsers(followersByFollowee, ids, users);
+
+        Collections.sort(users, BY_ALIAS);
+        for(int i = 0; i < users.size(); i++) {
+            ids.put(users.get(i), i);
+        }
+
+        File temporaryFile = new File(file.getPath() + ".tmp");
+
+        try (FileOutputStream fileOut = new FileOutputStream(temporaryFile)) {
+            CheckedOutputStream checkedOut = new CheckedOutputStream(new BufferedOutputStream(fileOut), new CRC32());
+            DataOutputStream out = new DataOutputStream(checkedOut);
+
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(users.size());
+            for(User user : users) {
+                FollowRecords.writeUser(out, user);
+            }
+
+            writeAdjacency(out, users, ids, followeesByFollower);
+            writeAdjacency(out, users, ids, followersByFollowee);
+
+            out.flush();
+            new DataOutputStream(fileOut).writeLong(checkedOut.getChecksum().getValue());
+            fileOut.getFD().sync();
+        } catch (IOException ex) {
+            temporaryFile.delete();
+            throw ex;
+        }
+
+        if(!temporaryFile.renameTo(file)) {
+            temporaryFile.delete();
+            throw new IOException("Unable to replace " + file);
+        }
+    }
+
+    /**
+     * Reads a segment into the specified maps.
+     *
+     * @param file the segment file.
+     * @param followeesByFollower receives each follower's followees as an immutable list.
+     * @param followersByFollowee receives each followee's followers as an immutable list.
+     * @throws IOException if the segment could not be read or is corrupt.
+     */
+    static void read(File file, Map<User, List<User>> followeesByFollower,
+                     Map<User, List<User>> followersByFollowee) throws IOException {
+        try (FileInputStream fileIn = new FileInputStream(file)) {
+            CheckedInputStream checkedIn = new CheckedInputStream(new BufferedInputStream(fileIn), new CRC32());
+            DataInputStream in = new DataInputStream(checkedIn);
+
+            if(in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported segment format: " + file);
+            }
+
+            int userCount = in.readInt();
+            // Every user takes at least five bytes, which bounds the count before it is trusted
+            User [] users = new User[checkCount(userCount, (int) Math.min(Integer.MAX_VALUE, file.length() / 5), file)];
+            for(int i = 0; i < userCount; i++) {
+                users[i] = FollowRecords.readUser(in);
+            }
+
+            // Nothing is stored until the checksum has been verified
+            Map<User, List<User>> followees = readAdjacency(in, users, file);
+            Map<User, List<User>> followers = readAdjacency(in, users, file);
+
+            long expected = checkedIn.getChecksum().getValue();
+            if(new DataInputStream(checkedIn).readLong() != expected) {
+                throw new IOException("Corrupt segment: " + file);
+            }
+
+            followeesByFollower.putAll(followees);
+            followersByFollowee.putAll(followers);
+        }
+    }
+
+    /**
+     * Writes the non-empty lists of a map, keyed by table index. Keys are written in table order,
+     * which is alias order.
+     */
+    private static void writeAdjacency(DataOutputStream out, List<User> users, Map<User, Integer> ids,
+                                       Map<User, List<User>> adjacency) throws IOException {
+        int keyCount = 0;
+        for(List<User> list : adjacency.values()) {
+            if(!list.isEmpty()) {
+                keyCount++;
+            }
+        }
+
+        out.writeInt(keyCount);
+        for(int i = 0; i < users.size(); i++) {
+            List<User> list = adjacency.get(users.get(i));
+            if(list == null || list.isEmpty()) {
+                continue;
+            }
+
+            out.writeInt(i);
+            out.writeInt(list.size());
+            for(User user : list) {
+                out.writeInt(ids.get(user));
+            }
+        }
+    }
+
+    private static Map<User, List<User>> readAdjacency(DataInputStream in, User [] users, File file) throws IOException {
+        int keyCount = checkCount(in.readInt(), users.length, file);
+        Map<User, List<User>> adjacency = new HashMap<>(keyCount * 2);
+
+        for(int i = 0; i < keyCount; i++) {
+            User key = users[checkIndex(in.readInt(), users.length, file)];
+            int count = checkCount(in.readInt(), users.length, file);
+
+            List<User> list = new ArrayList<>(count);
+            for(int j = 0; j < count; j++) {
+                list.add(users[checkIndex(in.readInt(), users.length, file)]);
+            }
+
+            adjacency.put(key, Collections.unmodifiableList(list));
+        }
+
+        return adjacency;
+    }
+
+    private static void addUsers(Map<User, List<User>> adjacency, Map<User, Integer> ids, List<User> users) {
+        for(Map.Entry<User, List<User>> entry : adjacency.entrySet()) {
+            addUser(entry.getKey(), ids, users);
+            for(User user : entry.getValue()) {
+                addUser(user, ids, users);
+            }
+        }
+    }
+
+    private static void addUser(User user, Map<User, Integer> ids, List<User> users) {
+        if(!ids.containsKey(user)) {
+            ids.put(user, users.size());
+            users.add(user);
+        }
+    }
+
+    private static int checkCount(int count, int max, File file) throws IOException {
+        if(count < 0 || count > max) {
+            throw new IOException("Corrupt segment: " + file);
+        }
+
+        return count;
+    }
+
+    private static int checkIndex(int index, int size, File file) throws IOException {
+        if(index < 0 || index >= size) {
+            throw new IOException("Corrupt segment: " + file);
+        }
+
+        return index;
+    }
+}
@@ -0,0 +1,802 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import edu.byu.cs.tweeter.model.domain.Follow;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * The server's persistent store of follow relationships.
+ * <p>
+ * Reads are served from an in-memory index of each user's followees and followers, so they cost
+ * the same as the in-memory map they replace: one hash lookup that returns an immutable list. A
+ * write replaces the affected lists rather than modifying them, so readers never lock and never see
+ * a list change while they page through it. The replacement shares what it can with the list it
+ * replaces, so following a user with many followers doesn't copy them all; see {@link Adjacency}.
+ * A batch of follows, and the records replayed when the store is opened, build each list they
+ * change once.
+ * <p>
+ * Whether one user follows another is answered without scanning a list. Each user is given an
+ * integer id, and each list is kept alongside its users' ids in sorted order, behind a Bloom filter
+ * whose false positive rate is configurable; see {@link Adjacency}. The same sorted ids let two
+ * users' lists be intersected, for mutual follows and for the followers a viewer also follows,
+ * without building a set from either; see {@link SortedIntersection}.
+ * <p>
+ * Writes are made durable through a {@link FollowLog}, an append-only log with group commit, and a
+ * write returns only once its record is on disk. When the log grows past a threshold it is
+ * compacted in the background: the log is switched to a new file and the state as of the switch is
+ * written to a {@link FollowSegment}, after which older segments and logs are deleted. Files are
+ * numbered by generation; segment N holds the state as of the start of log N.
+ * <p>
+ * Opening the store recovers from a crash by reading the newest segment and replaying the logs of
+ * that generation and later, in order. A record that was only partly written is discarded and the
+ * log truncated before it.
+ * <p>
+ * A store can also serve as one shard of a {@link ShardedFollowGraph}. A shard is given every
+ * follow that involves a user it owns, and indexes only the owned users' lists: the followees of
+ * an owned follower and the followers of an owned followee. Its queries are only answered for the
+ * users it owns.
+ */
+public class FollowStore implements FollowGraph {
+
+    public static final long DEFAULT_COMPACTION_THRESHOLD_BYTES = 4 * 1024 * 1024;
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    private static final int [] NO_IDS = new int[0];
+
+    private static final Pattern FILE_NAME = Pattern.compile("(segment|log)-(\\d+)\\.(seg|log)");
+
+    private static final Histogram RECOVERY_LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowStore.recovery");
+    private static final Histogram COMPACTION_LATENCY =
+            MetricsRegistry.getInstance().histogram("FollowStore.compaction");
+    private static final Counter COMPACTION_FAILURES =
+            MetricsRegistry.getInstance().counter("FollowStore.compactionFailures");
+
+    /**
+     * Owns every user, for a store that holds a whole graph.
+     */
+    static final Ownership ALL_USERS = new Ownership() {
+        @Override
+        public boolean owns(User user) {
+            return true;
+        }
+    };
+
+    private final File directory;
+    private final long compactionThresholdBytes;
+    private final double falsePositiveRate;
+    private final Ownership ownership;
+    private final UserIds userIds = new UserIds();
+    private final Map<User, Adjacency> followeesByFollower = new ConcurrentHashMap<>();
+    private final Map<User, Adjacency> followersByFollowee = new ConcurrentHashMap<>();
+    private final Object compactionLock = new Object();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ExecutorService compactionExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "FollowStore-compaction");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private FollowLog log;
+    private long generation;
+    // Written only with the store's lock held, or during recovery before the store is shared
+    private volatile long version;
+
+    private FollowStore(File directory, long compactionThresholdBytes, double falsePositiveRate, Ownership ownership) {
+        this.directory = directory;
+        this.compactionThresholdBytes = compactionThresholdBytes;
+        this.falsePositiveRate = falsePositiveRate;
+        this.ownership = ownership;
+    }
+
+    /**
+     * Opens the store in the specified directory, creating it if it doesn't exist and recovering
+     * its contents if it does.
+     *
+     * @param directory the directory that holds the store's files.
+     * @return the store.
+     * @throws IOException if the store could not be opened or its files are corrupt.
+     */
+    public static FollowStore open(File directory) throws IOException {
+        return open(directory, DEFAULT_COMPACTION_THRESHOLD_BYTES, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Opens the store in the specified directory.
+     *
+     * @param directory the directory that holds the store's files.
+     * @param compactionThresholdBytes the log size beyond which the log is compacted.
+     * @param falsePositiveRate the rate at which the follow filters let a user who isn't followed
+     *                          through to the search of the followees. Lower rates use more memory.
+     * @return the store.
+     * @throws IOException if the store could not be opened or its files are corrupt.
+     */
+    public static FollowStore open(File directory, long compactionThresholdBytes, double falsePositiveRate) throws IOException {
+        return open(directory, compactionThresholdBytes, falsePositiveRate, ALL_USERS);
+    }
+
+    /**
+     * Opens the store in the specified directory as a shard that owns some of the users.
+     *
+     * @param directory the directory that holds the store's files.
+     * @param compactionThresholdBytes the log size beyond which the log is compacted.
+     * @param falsePositiveRate the rate at which the follow filters let a user who isn't followed
+     *                          through to the search of the followees.
+     * @param ownership the users whose lists the store indexes.
+     * @return the store.
+     * @throws IOException if the store could not be opened or its files are corrupt.
+     */
+    static FollowStore open(File directory, long compactionThresholdBytes, double falsePositiveRate, Ownership ownership) throws IOException {
+        if(!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("Invalid false positive rate: " + falsePositiveRate);
+        }
+
+        if(!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+
+        FollowStore store = new FollowStore(directory, compactionThresholdBytes, falsePositiveRate, ownership);
+        store.recover();
+        return store;
+    }
+
+    @Override
+    public List<User> getFollowees(User follower) {
+        Adjacency followees = followeesByFollower.get(follower);
+        return followees == null ? Collections.<User>emptyList() : followees.getUsers();
+    }
+
+    @Override
+    public List<User> getFollowers(User followee) {
+        Adjacency followers = followersByFollowee.get(followee);
+        return followers == null ? Collections.<User>emptyList() : followers.getUsers();
+    }
+
+    @Override
+    public int [] getFollowerCounts(List<User> users) {
+        int [] counts = new int[users.size()];
+
+        for(int i = 0; i < counts.length; i++) {
+            Adjacency followers = followersByFollowee.get(users.get(i));
+            counts[i] = followers == null ? 0 : followers.size();
+        }
+
+        return counts;
+    }
+
+    /**
+     * Indicates whether one user follows another. A shard answers from the follower's followees if
+     * it owns the follower, and from the followee's followers otherwise.
+     *
+     * @param follower the follower.
+     * @param followee the followee.
+     * @return true if the follower follows the followee; otherwise, false.
+     */
+    @Override
+    public boolean isFollowing(User follower, User followee) {
+        if(ownership.owns(follower)) {
+            Adjacency followees = followeesByFollower.get(follower);
+            return followees != null && followees.contains(userIds.get(followee));
+        }
+
+        Adjacency followers = followersByFollowee.get(followee);
+        return followers != null && followers.contains(userIds.get(follower));
+    }
+
+    /**
+     * Indicates whether a user follows each of a number of users, as when showing follow buttons
+     * for a page of users. The follower's followees are looked up once for the whole list.
+     *
+     * @param follower the follower.
+     * @param followees the users to check.
+     * @return an array whose elements are true where the follower follows the user at the same
+     *         position in the list.
+     */
+    @Override
+    public boolean [] isFollowing(User follower, List<User> followees) {
+        boolean [] following = new boolean[followees.size()];
+
+        if(!ownership.owns(follower)) {
+            for(int i = 0; i < following.length; i++) {
+                following[i] = isFollowing(follower, followees.get(i));
+            }
+            return following;
+        }
+
+        Adjacency adjacency = followeesByFollower.get(follower);
+
+        if(adjacency != null) {
+            for(int i = 0; i < following.length; i++) {
+                following[i] = adjacency.contains(userIds.get(followees.get(i)));
+            }
+        }
+
+        return following;
+    }
+
+    /**
+     * Returns a page of the users who follow the specified user and whom the user follows back.
+     * <p>
+     * Pages are in the order of the store's internal user ids rather than follow order, so a page
+     * can start anywhere in the result without computing what comes before it. The order is stable
+     * while the store is open; a cursor used across a restart of the store may skip or repeat
+     * users.
+     *
+     * @param user the user.
+     * @param lastUser the last user of the previous page, or null for the first page.
+     * @param limit the most users to return.
+     * @return the page.
+     */
+    /**
+     * Indicates whether each of a number of users follows a user. The store must own the followee,
+     * or hold the follows of every user in the list, for the answer to be complete.
+     *
+     * @param followee the followee.
+     * @param followers the users to check.
+     * @return an array whose elements are true where the user at the same position in the list
+     *         follows the followee.
+     */
+    @Override
+    public boolean [] isFollowedBy(User followee, List<User> followers) {
+        boolean [] followed = new boolean[followers.size()];
+        Adjacency adjacency = followersByFollowee.get(followee);
+
+        if(adjacency != null) {
+            for(int i = 0; i < followed.length; i++) {
+                followed[i] = adjacency.contains(userIds.get(followers.get(i)));
+            }
+        }
+
+        return followed;
+    }
+
+    /**
+     * Returns a page of the users the specified user follows, in the order of the store's internal
+     * user ids. A page after any user, including one the follower no longer follows, starts with
+     * a binary search of the follower's sorted ids.
+     *
+     * @param follower the follower.
+     * @param lastUser the last user of the previous page, or null for the first page.
+     * @param limit the most users to return.
+     * @return the page.
+     */
+    @Override
+    public Page getFolloweePage(User follower, User lastUser, int limit) {
+        Adjacency followees = followeesByFollower.get(follower);
+        int after = lastUser == null ? -1 : userIds.get(lastUser);
+
+        if(followees == null || limit <= 0 || (lastUser != null && after < 0)) {
+            return new Page(Collections.<User>emptyList(), false);
+        }
+
+        int [] ids = followees.getSortedIds();
+        int from = SortedIntersection.lowerBound(ids, 0, after + 1);
+        int to = (int) Math.min(ids.length, (long) from + limit);
+
+        List<User> users = new ArrayList<>(to - from);
+        for(int i = from; i < to; i++) {
+            users.add(userIds.getUser(ids[i]));
+        }
+
+        return new Page(users, to < ids.length);
+    }
+
+    @Override
+    public Page getMutualFollows(User user, User lastUser, int limit) {
+        return intersect(followersByFollowee.get(user), followeesByFollower.get(user), lastUser, limit);
+    }
+
+    @Override
+    public Page getFollowersFollowedBy(User followee, User viewer, User lastUser, int limit) {
+        return intersect(followersByFollowee.get(followee), followeesByFollower.get(viewer), lastUser, limit);
+    }
+
+    private Page intersect(Adjacency adjacency1, Adjacency adjacency2, User lastUser, int limit) {
+        int after = lastUser == null ? -1 : userIds.get(lastUser);
+
+        if(adjacency1 == null || adjacency2 == null || limit <= 0 || (lastUser != null && after < 0)) {
+            return new Page(Collections.<User>emptyList(), false);
+        }
+
+        // One more than the limit is asked for to find out whether there is another page
+        int [] ids = new int[Math.min(limit, Math.min(adjacency1.size(), adjacency2.size())) + 1];
+        int count = SortedIntersection.intersect(adjacency1.getSortedIds(), adjacency2.getSortedIds(), after, ids);
+
+        List<User> users = new ArrayList<>(Math.min(count, limit));
+        for(int i = 0; i < count && i < limit; i++) {
+            users.add(userIds.getUser(ids[i]));
+        }
+
+        return new Page(users, count > limit);
+    }
+
+    /**
+     * Returns every user the store has seen, including users whose follows have all been removed.
+     * A shard returns only the users it owns.
+     *
+     * @return a new list of the users.
+     */
+    @Override
+    public synchronized List<User> getUsers() {
+        List<User> users = new ArrayList<>(userIds.size());
+        for(int id = 0; id < userIds.size(); id++) {
+            User user = userIds.getUser(id);
+            if(ownership.owns(user)) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the internal id of a user, for the queries that work on ids.
+     *
+     * @param user the user.
+     * @return the id, or -1 if the store has never seen the user.
+     */
+    int getUserId(User user) {
+        return userIds.get(user);
+    }
+
+    /**
+     * Returns the user with an internal id.
+     *
+     * @param userId the id.
+     * @return the user.
+     */
+    User getUser(int userId) {
+        return userIds.getUser(userId);
+    }
+
+    /**
+     * Returns the internal ids of the users a user follows.
+     *
+     * @param followerId the id of the follower.
+     * @return the ids in ascending order. The array is shared and must not be modified.
+     */
+    int [] getFolloweeIds(int followerId) {
+        Adjacency followees = followeesByFollower.get(userIds.getUser(followerId));
+        return followees == null ? NO_IDS : followees.getSortedIds();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return followeesByFollower.isEmpty() && followersByFollowee.isEmpty();
+    }
+
+    @Override
+    public boolean follow(User follower, User followee) throws IOException {
+        FollowLog followLog;
+        long sequence;
+
+        synchronized (this) {
+            if(isFollowing(follower, followee)) {
+                return false;
+            }
+
+            followLog = log;
+            sequence = followLog.append(FollowLog.FOLLOW, follower, followee);
+            apply(FollowLog.FOLLOW, follower, followee);
+        }
+
+        followLog.sync(sequence);
+        compactIfNeeded();
+        return true;
+    }
+
+    @Override
+    public boolean unfollow(User follower, User followee) throws IOException {
+        FollowLog followLog;
+        long sequence;
+
+        synchronized (this) {
+            if(!isFollowing(follower, followee)) {
+                return false;
+            }
+
+            followLog = log;
+            sequence = followLog.append(FollowLog.UNFOLLOW, follower, followee);
+            apply(FollowLog.UNFOLLOW, follower, followee);
+        }
+
+        followLog.sync(sequence);
+        compactIfNeeded();
+        return true;
+    }
+
+    @Override
+    public void followAll(List<Follow> follows) throws IOException {
+        FollowLog followLog;
+        long sequence = 0;
+
+        synchronized (this) {
+            followLog = log;
+
+            Map<User, List<User>> newFollowees = new LinkedHashMap<>();
+            Map<User, List<User>> newFollowers = new LinkedHashMap<>();
+            Set<Follow> logged = new HashSet<>();
+
+            for(Follow follow : follows) {
+                User follower = follow.getFollower();
+                User followee = follow.getFollowee();
+
+                if(!isFollowing(follower, followee) && logged.add(follow)) {
+                    sequence = followLog.append(FollowLog.FOLLOW, follower, followee);
+                    userIds.assign(follower);
+                    userIds.assign(followee);
+
+                    if(ownership.owns(follower)) {
+                        addTo(newFollowees, follower, followee);
+                    }
+                    if(ownership.owns(followee)) {
+                        addTo(newFollowers, followee, follower);
+                    }
+                }
+            }
+
+            appendAll(followeesByFollower, newFollowees);
+            appendAll(followersByFollowee, newFollowers);
+            version += logged.size();
+        }
+
+        followLog.sync(sequence);
+        compactIfNeeded();
+    }
+
+    @Override
+    public void unfollowAll(List<Follow> follows) throws IOException {
+        FollowLog followLog;
+        long sequence = 0;
+
+        synchronized (this) {
+            followLog = log;
+
+            for(Follow follow : follows) {
+                if(isFollowing(follow.getFollower(), follow.getFollowee())) {
+                    sequence = followLog.append(FollowLog.UNFOLLOW, follow.getFollower(), follow.getFollowee());
+                    apply(FollowLog.UNFOLLOW, follow.getFollower(), follow.getFollowee());
+                }
+            }
+        }
+
+        followLog.sync(sequence);
+        compactIfNeeded();
+    }
+
+    /**
+     * Compacts the log into a new segment. Writes continue while the segment is written.
+     *
+     * @throws IOException if the segment could not be written. The store remains usable, and the
+     *                     logs that would have been deleted are kept.
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            long start = System.nanoTime();
+            long compactedGeneration;
+            Map<User, List<User>> followees;
+            Map<User, List<User>> followers;
+
+            synchronized (this) {
+                // The lists are immutable, so copying the references is a consistent snapshot.
+                // Closing the old log forces it to disk before any record is written to the new one.
+                followees = snapshot(followeesByFollower);
+                followers = snapshot(followersByFollowee);
+
+                log.close();
+                compactedGeneration = ++generation;
+                log = FollowLog.open(file("log", compactedGeneration), 0);
+            }
+
+            FollowSegment.write(file("segment", compactedGeneration), followees, followers);
+            deleteGenerationsBefore(compactedGeneration);
+
+            COMPACTION_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Stops background compaction and closes the log. Writes already acknowledged are durable.
+     */
+    @Override
+    public void close() throws IOException {
+        compactionExecutor.shutdown();
+
+        synchronized (compactionLock) {
+            synchronized (this) {
+                log.close();
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        FollowLog followLog;
+        synchronized (this) {
+            followLog = log;
+        }
+
+        if(followLog.size() < compactionThresholdBytes || !compactionScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        compactionExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    compact();
+                } catch (IOException ex) {
+                    COMPACTION_FAILURES.increment();
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Loads the newest segment and replays the logs that follow it.
+     */
+    private void recover() throws IOException {
+        long start = System.nanoTime();
+
+        long segmentGeneration = 0;
+        TreeMap<Long, File> logs = new TreeMap<>();
+
+        File [] files = directory.listFiles();
+        if(files == null) {
+            throw new IOException("Unable to list " + directory);
+        }
+
+        for(File file : files) {
+            Matcher matcher = FILE_NAME.matcher(file.getName());
+            if(!matcher.matches()) {
+                continue;
+            }
+
+            long fileGeneration = Long.parseLong(matcher.group(2));
+            if(matcher.group(1).equals("segment")) {
+                segmentGeneration = Math.max(segmentGeneration, fileGeneration);
+            } else {
+                logs.put(fileGeneration, file);
+            }
+        }
+
+        Map<User, List<User>> followees = new HashMap<>();
+        Map<User, List<User>> followers = new HashMap<>();
+
+        if(segmentGeneration > 0) {
+            FollowSegment.read(file("segment", segmentGeneration), followees, followers);
+
+            // A shard holds only its own users' lists, so the users in the lists are assigned ids
+            // as well as the keys
+            assignIds(followees);
+            assignIds(followers);
+        }
+
+        final ReplayedLists replayedFollowees = new ReplayedLists(followees);
+        final ReplayedLists replayedFollowers = new ReplayedLists(followers);
+
+        FollowLog.Visitor replayer = new FollowLog.Visitor() {
+            @Override
+            public void record(byte type, User follower, User followee) {
+                userIds.assign(follower);
+                userIds.assign(followee);
+                version++;
+
+                if(type == FollowLog.FOLLOW) {
+                    if(ownership.owns(follower)) {
+                        replayedFollowees.add(follower, followee);
+                    }
+                    if(ownership.owns(followee)) {
+                        replayedFollowers.add(followee, follower);
+                    }
+                } else if(type == FollowLog.UNFOLLOW) {
+                    if(ownership.owns(follower)) {
+                        replayedFollowees.remove(follower, followee);
+                    }
+                    if(ownership.owns(followee)) {
+                        replayedFollowers.remove(followee, follower);
+                    }
+                }
+            }
+        };
+
+        generation = segmentGeneration;
+        long validLength = 0;
+
+        for(Map.Entry<Long, File> entry : logs.tailMap(segmentGeneration, true).entrySet()) {
+            generation = entry.getKey();
+            validLength = FollowLog.replay(entry.getValue(), replayer);
+        }
+
+        replayedFollowees.index(followeesByFollower);
+        replayedFollowers.index(followersByFollowee);
+
+        // Appends continue in the newest log, after its last valid record
+        log = FollowLog.open(file("log", generation), validLength);
+        deleteGenerationsBefore(segmentGeneration);
+
+        RECOVERY_LATENCY.recordSince(start);
+    }
+
+    /**
+     * Applies a record to the in-memory index. The follow and unfollow methods check that the
+     * record changes something before logging it, so this never needs to.
+     */
+    private void apply(byte type, User follower, User followee) {
+        int followerId = userIds.assign(follower);
+        int followeeId = userIds.assign(followee);
+        version++;
+
+        if(type == FollowLog.FOLLOW) {
+            if(ownership.owns(follower)) {
+                followeesByFollower.put(follower, adjacency(followeesByFollower, follower).plus(followee, followeeId, falsePositiveRate));
+            }
+            if(ownership.owns(followee)) {
+                followersByFollowee.put(followee, adjacency(followersByFollowee, followee).plus(follower, followerId, falsePositiveRate));
+            }
+        } else if(type == FollowLog.UNFOLLOW) {
+            if(ownership.owns(follower)) {
+                replaceOrRemove(followeesByFollower, follower, adjacency(followeesByFollower, follower).minus(followee, followeeId, falsePositiveRate));
+            }
+            if(ownership.owns(followee)) {
+                replaceOrRemove(followersByFollowee, followee, adjacency(followersByFollowee, followee).minus(follower, followerId, falsePositiveRate));
+            }
+        }
+    }
+
+    private void assignIds(Map<User, List<User>> lists) {
+        for(Map.Entry<User, List<User>> entry : lists.entrySet()) {
+            userIds.assign(entry.getKey());
+            for(User user : entry.getValue()) {
+                userIds.assign(user);
+            }
+        }
+    }
+
+    private static void addTo(Map<User, List<User>> lists, User key, User user) {
+        List<User> list = lists.get(key);
+        if(list == null) {
+            list = new ArrayList<>();
+            lists.put(key, list);
+        }
+        list.add(user);
+    }
+
+    private void appendAll(Map<User, Adjacency> map, Map<User, List<User>> newUsers) {
+        for(Map.Entry<User, List<User>> entry : newUsers.entrySet()) {
+            map.put(entry.getKey(), adjacency(map, entry.getKey()).plusAll(entry.getValue(), userIds, falsePositiveRate));
+        }
+    }
+
+    private static Adjacency adjacency(Map<User, Adjacency> map, User key) {
+        Adjacency adjacency = map.get(key);
+        return adjacency == null ? Adjacency.EMPTY : adjacency;
+    }
+
+    private static void replaceOrRemove(Map<User, Adjacency> map, User key, Adjacency adjacency) {
+        if(adjacency == null) {
+            map.remove(key);
+        } else {
+            map.put(key, adjacency);
+        }
+    }
+
+    private static Map<User, List<User>> snapshot(Map<User, Adjacency> map) {
+        Map<User, List<User>> snapshot = new HashMap<>(map.size() * 2);
+        for(Map.Entry<User, Adjacency> entry : map.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().getUsers());
+        }
+        return snapshot;
+    }
+
+    /**
+     * The lists of one direction of the index while the logs are replayed. A list the logs change
+     * is held as an ordered set, so each record costs a hash lookup, and every list is indexed once
+     * when the replay is done.
+     */
+    private final class ReplayedLists {
+
+        private final Map<User, List<User>> segmentLists;
+        private final Map<User, Set<User>> changedLists = new HashMap<>();
+
+        ReplayedLists(Map<User, List<User>> segmentLists) {
+            this.segmentLists = segmentLists;
+        }
+
+        void add(User key, User user) {
+            changedList(key).add(user);
+        }
+
+        void remove(User key, User user) {
+            changedList(key).remove(user);
+        }
+
+        private Set<User> changedList(User key) {
+            Set<User> list = changedLists.get(key);
+
+            if(list == null) {
+                List<User> segmentList = segmentLists.get(key);
+                list = segmentList == null ? new LinkedHashSet<User>() : new LinkedHashSet<>(segmentList);
+                changedLists.put(key, list);
+            }
+
+            return list;
+        }
+
+        void index(Map<User, Adjacency> map) {
+            for(Map.Entry<User, List<User>> entry : segmentLists.entrySet()) {
+                if(!changedLists.containsKey(entry.getKey())) {
+                    map.put(entry.getKey(), Adjacency.of(entry.getValue(), userIds, falsePositiveRate));
+                }
+            }
+
+            for(Map.Entry<User, Set<User>> entry : changedLists.entrySet()) {
+                if(!entry.getValue().isEmpty()) {
+                    map.put(entry.getKey(), Adjacency.of(entry.getValue(), userIds, falsePositiveRate));
+                }
+            }
+        }
+    }
+
+    /**
+     * Decides which users' lists a store indexes.
+     */
+    interface Ownership {
+
+        /**
+         * Indicates whether a store indexes a user's followees and followers.
+         *
+         * @param user the user.
+         * @return true if the store owns the user; otherwise, false.
+         */
+        boolean owns(User user);
+    }
+
+    private File file(String kind, long fileGeneration) {
+        return new File(directory, kind + "-" + fileGeneration + (kind.equals("segment") ? ".seg" : ".log"));
+    }
+
+    private void deleteGenerationsBefore(long oldestKept) {
+        File [] files = directory.listFiles();
+        if(files == null) {
+            return;
+        }
+
+        for(File file : files) {
+            Matcher matcher = FILE_NAME.matcher(file.getName());
+            if(matcher.matches() && Long.parseLong(matcher.group(2)) < oldestKept) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * Finds the followers of one user that a viewer follows when the two users' lists are held by
+ * different graphs, as they are when the users are on different shards or nodes, so the sorted
+ * ids of the two lists can't be intersected directly.
+ * <p>
+ * The search starts from the viewer's followees, the smaller side: a celebrity has millions of
+ * followers, but a viewer follows few enough users to read. The followees are read from the
+ * viewer's graph a batch at a time with {@link FollowGraph#getFolloweePage}, whose cursor is found
+ * by a binary search, and the followee's graph is asked which of each batch follow the followee.
+ * A batch large enough to be worth it is split into chunks that are checked in parallel.
+ */
+class FollowerIntersection {
+
+    /**
+     * The number of the viewer's followees checked against the followee's graph at once.
+     */
+    static final int CHUNK_SIZE = 256;
+
+    /**
+     * The number of chunks read from the viewer's graph at once. A batch of this many chunks
+     * covers every followee of most viewers.
+     */
+    static final int CHUNKS_PER_BATCH = 8;
+
+    /**
+     * The number of followees below which a batch is checked on the calling thread.
+     */
+    static final int PARALLEL_THRESHOLD_USERS = 1000;
+
+    private static final Counter CHECKS =
+            MetricsRegistry.getInstance().counter("FollowerIntersection.checks");
+
+    private FollowerIntersection() {
+    }
+
+    /**
+     * Returns a page of the users who follow the followee and are followed by the viewer, in the
+     * order the viewer's graph pages the viewer's followees.
+     *
+     * @param followeeGraph the graph that holds the followee's followers.
+     * @param followee the user whose followers are returned.
+     * @param viewerGraph the graph that holds the viewer's followees.
+     * @param viewer the user whose followees the followers must be among.
+     * @param lastUser the last user of the previous page, or null for the first page.
+     * @param limit the most users to return.
+     * @param scatterGather the pool a large batch is checked on.
+     * @return the page.
+     */
+    static FollowGraph.Page followersFollowedBy(final FollowGraph followeeGraph, final User followee,
+                                                FollowGraph viewerGraph, User viewer, User lastUser, int limit,
+                                                ScatterGather scatterGather) {
+        if(limit <= 0) {
+            return new FollowGraph.Page(Collections.<User>emptyList(), false);
+        }
+
+        // One more than the limit is looked for to find out whether there is another page
+        List<User> users = new ArrayList<>();
+        FollowGraph.Page batch;
+
+        do {
+            batch = viewerGraph.getFolloweePage(viewer, lastUser, CHUNK_SIZE * CHUNKS_PER_BATCH);
+            final List<User> candidates = batch.getUsers();
+
+            if(candidates.isEmpty()) {
+                break;
+            }
+
+            int [] chunks = new int[(candidates.size() + CHUNK_SIZE - 1) / CHUNK_SIZE];
+            for(int i = 0; i < chunks.length; i++) {
+                chunks[i] = i;
+            }
+
+            List<boolean []> followed = scatterGather.scatterReads(chunks, candidates.size(), PARALLEL_THRESHOLD_USERS,
+                    new ScatterGather.Task<boolean []>() {
+                        @Override
+                        public boolean [] run(int chunk) {
+                            int from = chunk * CHUNK_SIZE;
+                            return followeeGraph.isFollowedBy(followee,
+                                    candidates.subList(from, Math.min(candidates.size(), from + CHUNK_SIZE)));
+                        }
+                    });
+            CHECKS.add(candidates.size());
+
+            for(int i = 0; i < candidates.size() && users.size() <= limit; i++) {
+                if(followed.get(i / CHUNK_SIZE)[i % CHUNK_SIZE]) {
+                    users.add(candidates.get(i));
+                }
+            }
+
+            lastUser = candidates.get(candidates.size() - 1);
+        } while(batch.getHasMorePages() && users.size() <= limit);
+
+        boolean hasMorePages = users.size() > limit;
+        return new FollowGraph.Page(hasMorePages ? users.subList(0, limit) : users, hasMorePages);
+    }
+}
@@ -0,0 +1,175 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * A consistent-hash ring that maps users to nodes. Each node is placed on the ring at a number of
+ * points, its virtual nodes, hashed from the node's name, and a user belongs to the node at the
+ * first point at or after the user's hash, wrapping around.
+ * <p>
+ * Adding a node takes over only the users between its points and the points before them, about
+ * 1/(n+1) of the users, all from the existing nodes; removing a node hands only its own users to
+ * the nodes after its points. With many virtual nodes per node, each node's share of the ring is
+ * close to even, and the users a change moves are spread across every other node rather than
+ * falling on one neighbour.
+ * <p>
+ * A ring is immutable. Adding or removing a node returns a new ring, so a lookup never locks and a
+ * rebalance can route by the old and new rings at once.
+ *
+ * @param <N> the type of the nodes.
+ */
+class HashRing<N> {
+
+    static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final int virtualNodes;
+    private final Map<String, N> nodes;
+    private final int [] points;
+    private final Object [] pointNodes;
+
+    private HashRing(int virtualNodes, Map<String, N> nodes) {
+        this.virtualNodes = virtualNodes;
+        this.nodes = Collections.unmodifiableMap(nodes);
+
+        List<String> names = new ArrayList<>(nodes.keySet());
+        List<N> values = new ArrayList<>(nodes.values());
+
+        // Each point is packed with its hash in the high half, so sorting the longs sorts by hash,
+        // and the index of its node in the low half
+        long [] packed = new long[names.size() * virtualNodes];
+        for(int node = 0; node < names.size(); node++) {
+            for(int i = 0; i < virtualNodes; i++) {
+                packed[node * virtualNodes + i] = ((long) mix((names.get(node) + "#" + i).hashCode()) << 32) | node;
+            }
+        }
+        Arrays.sort(packed);
+
+        points = new int[packed.length];
+        pointNodes = new Object[packed.length];
+        for(int i = 0; i < packed.length; i++) {
+            points[i] = (int) (packed[i] >> 32);
+            pointNodes[i] = values.get((int) packed[i]);
+        }
+    }
+
+    /**
+     * Creates a ring with no nodes.
+     *
+     * @param virtualNodes the number of points each node is placed at.
+     * @return the ring.
+     */
+    static <N> HashRing<N> empty(int virtualNodes) {
+        if(virtualNodes < 1) {
+            throw new IllegalArgumentException("Invalid virtual node count: " + virtualNodes);
+        }
+
+        return new HashRing<>(virtualNodes, new LinkedHashMap<String, N>());
+    }
+
+    /**
+     * Returns a ring with a node added.
+     *
+     * @param name the node's name, which determines its points.
+     * @param node the node.
+     * @return the new ring.
+     * @throws IllegalArgumentException if the ring already has a node with the name.
+     */
+    HashRing<N> plus(String name, N node) {
+        if(nodes.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate node: " + name);
+        }
+
+        Map<String, N> added = new LinkedHashMap<>(nodes);
+        added.put(name, node);
+        return new HashRing<>(virtualNodes, added);
+    }
+
+    /**
+     * Returns a ring with a node removed.
+     *
+     * @param name the node's name.
+     * @return the new ring.
+     * @throws IllegalArgumentException if the ring has no node with the name.
+     */
+    HashRing<N> minus(String name) {
+        if(!nodes.containsKey(name)) {
+            throw new IllegalArgumentException("Unknown node: " + name);
+        }
+
+        Map<String, N> removed = new LinkedHashMap<>(nodes);
+        removed.remove(name);
+        return new HashRing<>(virtualNodes, removed);
+    }
+
+    /**
+     * Returns the node a user belongs to, in O(log points) time.
+     *
+     * @param user the user.
+     * @return the node.
+     * @throws IllegalStateException if the ring has no nodes.
+     */
+    @SuppressWarnings("unchecked")
+    N get(User user) {
+        if(points.length == 0) {
+            throw new IllegalStateException("The ring has no nodes");
+        }
+
+        int hash = mix(user.hashCode());
+
+        // The first point at or after the hash, wrapping around to the first point
+        int low = 0;
+        int high = points.length;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+
+            if(points[middle] < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return (N) pointNodes[low == points.length ? 0 : low];
+    }
+
+    /**
+     * Returns the ring's nodes by name, in the order they were added.
+     *
+     * @return an unmodifiable map of the nodes.
+     */
+    Map<String, N> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Indicates whether the ring has no nodes.
+     *
+     * @return true if the ring is empty; otherwise, false.
+     */
+    boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * Spreads the bits of a hash, with the finalizer of MurmurHash3, so hashes that differ in only
+     * a few bits, as the hashes of similar strings do, land far apart.
+     *
+     * @param hash the hash.
+     * @return the mixed hash.
+     */
+    static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
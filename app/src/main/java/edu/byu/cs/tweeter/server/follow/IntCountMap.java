@@ -0,0 +1,151 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.util.Arrays;
+
+/**
+ * Counts occurrences of non-negative int keys, such as user ids, without boxing. Keys and counts
+ * are kept in two parallel arrays with open addressing and linear probing, so counting a key is a
+ * hash, usually one array read, and an increment, and a map of a million keys takes 16 MB rather
+ * than the ~80 MB of a HashMap of Integers.
+ * <p>
+ * Instances are not thread safe; concurrent counting uses one map per thread, merged afterwards.
+ */
+class IntCountMap {
+
+    private static final int EMPTY = -1;
+
+    private int [] keys;
+    private int [] counts;
+    private int size;
+    private int mask;
+    private int shift;
+
+    /**
+     * Creates an instance.
+     *
+     * @param expectedSize the number of keys the map should hold without growing.
+     */
+    IntCountMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Adds to the count of a key.
+     *
+     * @param key the key, which must not be negative.
+     * @param amount the amount to add.
+     */
+    void add(int key, int amount) {
+        int slot = slot(key);
+
+        if(keys[slot] == EMPTY) {
+            keys[slot] = key;
+            counts[slot] = amount;
+
+            // Grow at half full, which keeps probe sequences short
+            if(++size > keys.length >> 1) {
+                grow();
+            }
+        } else {
+            counts[slot] += amount;
+        }
+    }
+
+    /**
+     * Returns the count of a key.
+     *
+     * @param key the key.
+     * @return the count, or zero if the key has not been counted.
+     */
+    int get(int key) {
+        int slot = slot(key);
+        return keys[slot] == EMPTY ? 0 : counts[slot];
+    }
+
+    /**
+     * Returns the number of distinct keys counted.
+     *
+     * @return the size.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds all the counts of another map to this one.
+     *
+     * @param other the other map.
+     */
+    void addAll(IntCountMap other) {
+        for(int slot = 0; slot < other.keys.length; slot++) {
+            if(other.keys[slot] != EMPTY) {
+                add(other.keys[slot], other.counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of slots, for iterating with {@link #keyAt(int)} and {@link #countAt(int)}.
+     *
+     * @return the number of slots.
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the key in a slot.
+     *
+     * @param slot the slot.
+     * @return the key, or a negative number if the slot is empty.
+     */
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Returns the count in a slot.
+     *
+     * @param slot the slot, which must not be empty.
+     * @return the count.
+     */
+    int countAt(int slot) {
+        return counts[slot];
+    }
+
+    private int slot(int key) {
+        // Multiplying by the golden ratio and keeping the high bits spreads sequential ids across
+        // the table
+        int slot = (key * 0x9E3779B9) >>> shift;
+
+        while(keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private void grow() {
+        int [] oldKeys = keys;
+        int [] oldCounts = counts;
+
+        allocate(oldKeys.length * 2);
+
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+}
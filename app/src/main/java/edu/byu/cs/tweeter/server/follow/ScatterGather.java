@@ -0,0 +1,149 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * Runs the parts of a query or write that belong to different partitions of a follow graph at
+ * once, the first on the calling thread and the rest on a pool, and gathers the results in the
+ * order of the partitions. Used by the graphs that route users to shards or nodes.
+ */
+class ScatterGather {
+
+    private final ThreadPoolExecutor executor;
+    private final Histogram latency;
+
+    /**
+     * Creates an instance.
+     *
+     * @param name the name of the graph, which names the pool's threads and the latency metric,
+     *             e.g. "ShardedFollowGraph" for "ShardedFollowGraph.scatter".
+     * @param threads the number of pool threads.
+     */
+    ScatterGather(final String name, int threads) {
+        latency = MetricsRegistry.getInstance().histogram(name + ".scatter");
+
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger nextId = new AtomicInteger(1);
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, name + "-" + nextId.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs a task on each of a number of partitions and returns the results in the order of the
+     * partitions. Every task runs to completion even if another fails, so a write is never left
+     * half-started.
+     *
+     * @param partitions the partitions to run the task on.
+     * @param task the task.
+     * @return the results.
+     * @throws IOException if a task failed with an IOException, or the wait was interrupted.
+     */
+    <T> List<T> scatter(int [] partitions, final Task<T> task) throws IOException {
+        if(partitions.length == 1) {
+            return Collections.singletonList(task.run(partitions[0]));
+        }
+
+        long start = System.nanoTime();
+        List<Future<T>> futures = new ArrayList<>(partitions.length - 1);
+
+        for(int i = 1; i < partitions.length; i++) {
+            final int partition = partitions[i];
+            futures.add(executor.submit(new Callable<T>() {
+                @Override
+                public T call() throws IOException {
+                    return task.run(partition);
+                }
+            }));
+        }
+
+        try {
+            List<T> results = new ArrayList<>(partitions.length);
+            results.add(task.run(partitions[0]));
+
+            for(Future<T> future : futures) {
+                results.add(future.get());
+            }
+
+            return results;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Partition task failed", cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the partitions");
+        } finally {
+            latency.recordSince(start);
+        }
+    }
+
+    /**
+     * Runs a read on each of a number of partitions, on the calling thread if it covers fewer
+     * users than the parallel threshold and across the pool otherwise.
+     *
+     * @param partitions the partitions to run the read on.
+     * @param userCount the number of users the read covers.
+     * @param parallelThreshold the number of users at which the read is run in parallel.
+     * @param task the read.
+     * @return the results.
+     */
+    <T> List<T> scatterReads(int [] partitions, int userCount, int parallelThreshold, Task<T> task) {
+        try {
+            if(userCount < parallelThreshold) {
+                List<T> results = new ArrayList<>(partitions.length);
+                for(int partition : partitions) {
+                    results.add(task.run(partition));
+                }
+                return results;
+            }
+
+            return scatter(partitions, task);
+        } catch (IOException ex) {
+            // Reads are answered from memory, so the only failure is an interrupted wait
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading the follow graph", ex);
+        }
+    }
+
+    /**
+     * Stops the pool's threads. Tasks in progress finish.
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * A part of a query or write that runs against one partition.
+     */
+    interface Task<T> {
+
+        T run(int partition) throws IOException;
+    }
+}
@@ -0,0 +1,491 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.Follow;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * A follow graph partitioned by user across a number of {@link FollowStore} shards, each with its
+ * own log, segments, lock and compaction, so writes to different shards never contend and a
+ * shard's recovery and compaction only cover its part of the graph.
+ * <p>
+ * Each user is owned by the shard their hash maps to. A follow is written to the shard of the
+ * follower, which indexes the follower's followees, and to the shard of the followee, which indexes
+ * the followee's followers; the two writes run in parallel. Most queries involve one user's lists
+ * and go to that user's shard alone:
+ * <ul>
+ *     <li>followees, followers, whether one user follows others, and mutual follows, which
+ *     intersect two lists of the same user;</li>
+ *     <li>the followers of one user that a viewer follows, when both users are on one shard.</li>
+ * </ul>
+ * Queries over many users, follower counts, the list of users and bulk loads, are split by shard
+ * and scattered across a pool of threads, with the calling thread taking a share, and the results
+ * gathered in the caller's order.
+ * <p>
+ * When a viewer and a followee are on different shards, the followers the viewer follows are found
+ * by a {@link FollowerIntersection}, which reads the viewer's followees from the viewer's shard and
+ * asks the followee's shard which of them follow the followee.
+ */
+public class ShardedFollowGraph implements FollowGraph {
+
+    public static final String DATA_DIRECTORY_PROPERTY = "tweeter.server.dataDir";
+    public static final String FALSE_POSITIVE_RATE_PROPERTY = "tweeter.server.followFilterFalsePositiveRate";
+    public static final String SHARD_COUNT_PROPERTY = "tweeter.server.followShardCount";
+    public static final int DEFAULT_SHARD_COUNT = 4;
+
+    /**
+     * The number of users below which a query over many users is answered on the calling thread,
+     * since handing the shards' parts to other threads would take longer than answering them.
+     */
+    static final int PARALLEL_THRESHOLD_USERS = 1000;
+
+    private static final Histogram CROSS_SHARD_INTERSECTION_LATENCY =
+            MetricsRegistry.getInstance().histogram("ShardedFollowGraph.crossShardIntersection");
+
+    private static ShardedFollowGraph instance;
+
+    private final FollowStore [] shards;
+    private final int [] allShards;
+    private final ScatterGather scatterGather;
+
+    private ShardedFollowGraph(FollowStore [] shards, int threads) {
+        this.shards = shards;
+
+        allShards = new int[shards.length];
+        for(int i = 0; i < allShards.length; i++) {
+            allShards[i] = i;
+        }
+
+        scatterGather = new ScatterGather("ShardedFollowGraph", threads);
+    }
+
+    /**
+     * Returns the singleton instance of the class, stored in the directory named by the
+     * {@value #DATA_DIRECTORY_PROPERTY} system property, or in a "tweeter" directory under the
+     * temporary directory if the property isn't set. The number of shards is read from the
+     * {@value #SHARD_COUNT_PROPERTY} property and the false positive rate of the follow filters
+     * from the {@value #FALSE_POSITIVE_RATE_PROPERTY} property, if they are set.
+     *
+     * @return the instance.
+     * @throws IllegalStateException if a shard could not be opened.
+     */
+    public static synchronized ShardedFollowGraph getInstance() {
+        if(instance == null) {
+            String path = System.getProperty(DATA_DIRECTORY_PROPERTY);
+            File directory = path != null ? new File(path) : new File(System.getProperty("java.io.tmpdir"), "tweeter");
+
+            String count = System.getProperty(SHARD_COUNT_PROPERTY);
+            int shardCount = count != null ? Integer.parseInt(count) : DEFAULT_SHARD_COUNT;
+
+            String rate = System.getProperty(FALSE_POSITIVE_RATE_PROPERTY);
+            double falsePositiveRate = rate != null ? Double.parseDouble(rate) : FollowStore.DEFAULT_FALSE_POSITIVE_RATE;
+
+            try {
+                instance = open(new File(directory, "follows"), shardCount,
+                        FollowStore.DEFAULT_COMPACTION_THRESHOLD_BYTES, falsePositiveRate);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Unable to open follow graph in " + directory, ex);
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * Opens the graph's shards in the specified directory, creating them if they don't exist and
+     * recovering their contents if they do.
+     *
+     * @param directory the directory that holds a subdirectory for each shard.
+     * @param shardCount the number of shards.
+     * @return the graph.
+     * @throws IOException if a shard could not be opened or its files are corrupt.
+     */
+    public static ShardedFollowGraph open(File directory, int shardCount) throws IOException {
+        return open(directory, shardCount, FollowStore.DEFAULT_COMPACTION_THRESHOLD_BYTES, FollowStore.DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Opens the graph's shards in the specified directory. Each shard's directory is named for
+     * its number and the shard count, so a graph opened with a different count starts empty
+     * rather than reading users from shards that no longer own them.
+     *
+     * @param directory the directory that holds a subdirectory for each shard.
+     * @param shardCount the number of shards.
+     * @param compactionThresholdBytes the log size beyond which a shard's log is compacted.
+     * @param falsePositiveRate the false positive rate of the shards' follow filters.
+     * @return the graph.
+     * @throws IOException if a shard could not be opened or its files are corrupt.
+     */
+    public static ShardedFollowGraph open(File directory, int shardCount, long compactionThresholdBytes,
+                                          double falsePositiveRate) throws IOException {
+        if(shardCount < 1) {
+            throw new IllegalArgumentException("Invalid shard count: " + shardCount);
+        }
+
+        FollowStore [] shards = new FollowStore[shardCount];
+
+        try {
+            for(int i = 0; i < shardCount; i++) {
+                shards[i] = FollowStore.open(new File(directory, "shard-" + i + "-of-" + shardCount),
+                        compactionThresholdBytes, falsePositiveRate, new ShardOwnership(i, shardCount));
+            }
+        } catch (IOException | RuntimeException ex) {
+            for(FollowStore shard : shards) {
+                if(shard != null) {
+                    try {
+                        shard.close();
+                    } catch (IOException closeEx) {
+                        ex.addSuppressed(closeEx);
+                    }
+                }
+            }
+            throw ex;
+        }
+
+        return new ShardedFollowGraph(shards, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns the number of the shard that owns a user. The user's hash is mixed before it is
+     * reduced, since the hashes of similar aliases differ mostly in a few bits.
+     *
+     * @param user the user.
+     * @param shardCount the number of shards.
+     * @return the shard number.
+     */
+    static int shardOf(User user, int shardCount) {
+        return (HashRing.mix(user.hashCode()) & 0x7FFFFFFF) % shardCount;
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the shard count.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the number of the shard that owns a user.
+     *
+     * @param user the user.
+     * @return the shard number.
+     */
+    int shardOf(User user) {
+        return shardOf(user, shards.length);
+    }
+
+    /**
+     * Returns a shard, for the queries that work on a shard's own user ids.
+     *
+     * @param shard the shard number.
+     * @return the shard.
+     */
+    FollowStore getShard(int shard) {
+        return shards[shard];
+    }
+
+    @Override
+    public List<User> getFollowees(User follower) {
+        return shard(follower).getFollowees(follower);
+    }
+
+    @Override
+    public List<User> getFollowers(User followee) {
+        return shard(followee).getFollowers(followee);
+    }
+
+    @Override
+    public int [] getFollowerCounts(final List<User> users) {
+        final int [] counts = new int[users.size()];
+        final List<List<Integer>> positions = partition(users);
+
+        scatterGather.scatterReads(allShards, users.size(), PARALLEL_THRESHOLD_USERS, new ScatterGather.Task<Void>() {
+            @Override
+            public Void run(int shard) {
+                List<Integer> shardPositions = positions.get(shard);
+                List<User> shardUsers = new ArrayList<>(shardPositions.size());
+                for(int position : shardPositions) {
+                    shardUsers.add(users.get(position));
+                }
+
+                int [] shardCounts = shards[shard].getFollowerCounts(shardUsers);
+                for(int i = 0; i < shardCounts.length; i++) {
+                    counts[shardPositions.get(i)] = shardCounts[i];
+                }
+                return null;
+            }
+        });
+
+        return counts;
+    }
+
+    @Override
+    public boolean isFollowing(User follower, User followee) {
+        return shard(follower).isFollowing(follower, followee);
+    }
+
+    @Override
+    public boolean [] isFollowing(User follower, List<User> followees) {
+        return shard(follower).isFollowing(follower, followees);
+    }
+
+    @Override
+    public boolean [] isFollowedBy(User followee, List<User> followers) {
+        return shard(followee).isFollowedBy(followee, followers);
+    }
+
+    @Override
+    public Page getFolloweePage(User follower, User lastUser, int limit) {
+        return shard(follower).getFolloweePage(follower, lastUser, limit);
+    }
+
+    @Override
+    public Page getMutualFollows(User user, User lastUser, int limit) {
+        return shard(user).getMutualFollows(user, lastUser, limit);
+    }
+
+    /**
+     * Returns a page of the users who follow the specified user and are followed by the viewer.
+     * When the two users are on different shards, pages are in the order of the viewer's shard's
+     * user ids rather than the followee's.
+     *
+     * @param followee the user whose followers are returned.
+     * @param viewer the user whose followees the followers must be among.
+     * @param lastUser the last user of the previous page, or null for the first page.
+     * @param limit the most users to return.
+     * @return the page.
+     */
+    @Override
+    public Page getFollowersFollowedBy(User followee, User viewer, User lastUser, int limit) {
+        FollowStore followeeShard = shard(followee);
+        FollowStore viewerShard = shard(viewer);
+
+        if(followeeShard == viewerShard) {
+            return followeeShard.getFollowersFollowedBy(followee, viewer, lastUser, limit);
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            return FollowerIntersection.followersFollowedBy(followeeShard, followee, viewerShard, viewer, lastUser, limit,
+                    scatterGather);
+        } finally {
+            CROSS_SHARD_INTERSECTION_LATENCY.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<User> getUsers() {
+        List<List<User>> shardUsers = scatterGather.scatterReads(allShards, Integer.MAX_VALUE, PARALLEL_THRESHOLD_USERS,
+                new ScatterGather.Task<List<User>>() {
+                    @Override
+                    public List<User> run(int shard) {
+                        return shards[shard].getUsers();
+                    }
+                });
+
+        int size = 0;
+        for(List<User> users : shardUsers) {
+            size += users.size();
+        }
+
+        List<User> users = new ArrayList<>(size);
+        for(List<User> part : shardUsers) {
+            users.addAll(part);
+        }
+        return users;
+    }
+
+    @Override
+    public long getVersion() {
+        long version = 0;
+        for(FollowStore shard : shards) {
+            version += shard.getVersion();
+        }
+        return version;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for(FollowStore shard : shards) {
+            if(!shard.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records that one user follows another in both users' shards. A follow that was written to
+     * only one of the shards, because the other write failed, is completed by retrying.
+     *
+     * @param follower the follower.
+     * @param followee the followee.
+     * @return true if the follow was recorded; false if the follower already follows the followee.
+     * @throws IOException if a record could not be written.
+     */
+    @Override
+    public boolean follow(final User follower, final User followee) throws IOException {
+        return scatterGather.scatter(edgeShards(follower, followee), new ScatterGather.Task<Boolean>() {
+            @Override
+            public Boolean run(int shard) throws IOException {
+                return shards[shard].follow(follower, followee);
+            }
+        }).get(0);
+    }
+
+    /**
+     * Records that one user no longer follows another in both users' shards. An unfollow that was
+     * written to only one of the shards is completed by retrying.
+     *
+     * @param follower the follower.
+     * @param followee the followee.
+     * @return true if the unfollow was recorded; false if the follower didn't follow the followee.
+     * @throws IOException if a record could not be written.
+     */
+    @Override
+    public boolean unfollow(final User follower, final User followee) throws IOException {
+        return scatterGather.scatter(edgeShards(follower, followee), new ScatterGather.Task<Boolean>() {
+            @Override
+            public Boolean run(int shard) throws IOException {
+                return shards[shard].unfollow(follower, followee);
+            }
+        }).get(0);
+    }
+
+    @Override
+    public void followAll(List<Follow> follows) throws IOException {
+        final List<List<Follow>> parts = followsByShard(follows);
+
+        scatterGather.scatter(allShards, new ScatterGather.Task<Void>() {
+            @Override
+            public Void run(int shard) throws IOException {
+                if(!parts.get(shard).isEmpty()) {
+                    shards[shard].followAll(parts.get(shard));
+                }
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void unfollowAll(List<Follow> follows) throws IOException {
+        final List<List<Follow>> parts = followsByShard(follows);
+
+        scatterGather.scatter(allShards, new ScatterGather.Task<Void>() {
+            @Override
+            public Void run(int shard) throws IOException {
+                if(!parts.get(shard).isEmpty()) {
+                    shards[shard].unfollowAll(parts.get(shard));
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Closes every shard and stops the pool's threads.
+     *
+     * @throws IOException if a shard could not be closed. The other shards are still closed.
+     */
+    @Override
+    public void close() throws IOException {
+        scatterGather.shutdown();
+
+        IOException failure = null;
+        for(FollowStore shard : shards) {
+            try {
+                shard.close();
+            } catch (IOException ex) {
+                if(failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    private FollowStore shard(User user) {
+        return shards[shardOf(user, shards.length)];
+    }
+
+    /**
+     * Returns the shards a follow is written to, the follower's first.
+     */
+    private int [] edgeShards(User follower, User followee) {
+        int followerShard = shardOf(follower, shards.length);
+        int followeeShard = shardOf(followee, shards.length);
+        return followerShard == followeeShard ? new int[] {followerShard} : new int[] {followerShard, followeeShard};
+    }
+
+    /**
+     * Returns the positions in a list of the users each shard owns, indexed by shard.
+     */
+    private List<List<Integer>> partition(List<User> users) {
+        List<List<Integer>> positions = new ArrayList<>(shards.length);
+        for(int i = 0; i < shards.length; i++) {
+            positions.add(new ArrayList<Integer>());
+        }
+
+        for(int i = 0; i < users.size(); i++) {
+            positions.get(shardOf(users.get(i), shards.length)).add(i);
+        }
+
+        return positions;
+    }
+
+    /**
+     * Returns the follows each shard is given, indexed by shard: those whose follower or followee
+     * the shard owns.
+     */
+    private List<List<Follow>> followsByShard(List<Follow> follows) {
+        List<List<Follow>> parts = new ArrayList<>(shards.length);
+        for(int i = 0; i < shards.length; i++) {
+            parts.add(new ArrayList<Follow>());
+        }
+
+        for(Follow follow : follows) {
+            int followerShard = shardOf(follow.getFollower(), shards.length);
+            int followeeShard = shardOf(follow.getFollowee(), shards.length);
+
+            parts.get(followerShard).add(follow);
+            if(followeeShard != followerShard) {
+                parts.get(followeeShard).add(follow);
+            }
+        }
+
+        return parts;
+    }
+
+    /**
+     * Owns the users whose hash maps to one shard.
+     */
+    private static class ShardOwnership implements FollowStore.Ownership {
+
+        private final int shard;
+        private final int shardCount;
+
+        ShardOwnership(int shard, int shardCount) {
+            this.shard = shard;
+            this.shardCount = shardCount;
+        }
+
+        @Override
+        public boolean owns(User user) {
+            return shardOf(user, shardCount) == shard;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * Assigns each user in the follow store a small integer id, so adjacency can be kept as sorted
+ * arrays of ints that are compact to store, cheap to search and quick to intersect.
+ * <p>
+ * Ids are assigned in the order users are first seen, starting at zero, and are never reused. They
+ * exist only in memory; each time the store is opened they are assigned afresh.
+ * <p>
+ * Ids are assigned under the store's write lock, and looked up without locking. A reader can only
+ * obtain an id through the map or through an adjacency published after the id was assigned, so it
+ * always finds the user stored for that id.
+ */
+class UserIds {
+
+    private final Map<User, Integer> ids = new ConcurrentHashMap<>();
+    private volatile User [] users = new User[64];
+    private int count;
+
+    /**
+     * Returns the id of a user, assigning one if the user doesn't have one. Must be called with
+     * the store's write lock held.
+     *
+     * @param user the user.
+     * @return the id.
+     */
+    int assign(User user) {
+        Integer id = ids.get(user);
+
+        if(id != null) {
+            return id;
+        }
+
+        User [] current = users;
+        if(count == current.length) {
+            User [] grown = new User[current.length * 2];
+            System.arraycopy(current, 0, grown, 0, count);
+            current = grown;
+        }
+
+        current[count] = user;
+        users = current;
+        ids.put(user, count);
+
+        return count++;
+    }
+
+    /**
+     * Returns the id of a user.
+     *
+     * @param user the user.
+     * @return the id, or -1 if the user has no id because the store has never seen them.
+     */
+    int get(User user) {
+        Integer id = ids.get(user);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the number of ids assigned. Must be called with the store's write lock held.
+     *
+     * @return the number of ids, which are 0 up to but not including the number.
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Returns the user with an id.
+     *
+     * @param id an id returned by {@link #assign(User)}.
+     * @return the user.
+     */
+    User getUser(int id) {
+        return users[id];
+    }
+}
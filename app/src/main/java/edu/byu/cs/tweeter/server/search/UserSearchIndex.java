@@ -0,0 +1,434 @@
+package edu.byu.cs.tweeter.server.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+/**
+ * An immutable typeahead index over users' aliases, first names and last names, which finds the
+ * users with a name that starts with a query and ranks them by follower count.
+ * <p>
+ * Each user has one entry per name, and the entries are held in a single int array sorted by the
+ * name they refer to, ignoring case. The names themselves are not copied: an entry is the user's
+ * position times three plus which name it is, and comparisons read the user's own strings. The
+ * entries whose names start with a query are a contiguous range, found with two binary searches.
+ * <p>
+ * A short query can match millions of entries, so the best of a range are not found by scanning
+ * it. The entries are grouped into blocks of {@link #BLOCK_SIZE}, and a segment tree over the
+ * blocks holds the highest follower count under each node. A query walks the tree best first with
+ * a heap: it starts from the few nodes that cover the range, and repeatedly takes the candidate
+ * with the highest count, opening a node into its children, or a block into its entries, until it
+ * has taken enough users. Only the parts of the tree that can hold a top result are visited, so a
+ * query costs O(log n) comparisons to find the range and O(k log n) to rank it, however many users
+ * match.
+ */
+public class UserSearchIndex {
+
+    static final int BLOCK_SIZE = 32;
+
+    private static final int NAMES_PER_USER = 3;
+    private static final int ALIAS = 0;
+    private static final int FIRST_NAME = 1;
+
+    // Heap candidates with this bit set are entries; otherwise they are tree nodes
+    private static final int ENTRY_FLAG = 0x80000000;
+
+    private final User [] users;
+    private final int [] followerCounts;
+    private final int [] entries;
+    private final int [] blockTree;
+    private final int leafCount;
+
+    private UserSearchIndex(User [] users, int [] followerCounts, int [] entries) {
+        this.users = users;
+        this.followerCounts = followerCounts;
+        this.entries = entries;
+
+        int blockCount = Math.max(1, (entries.length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        leafCount = Integer.highestOneBit(blockCount * 2 - 1);
+        blockTree = new int[leafCount * 2];
+
+        for(int block = 0; block < blockCount; block++) {
+            int max = 0;
+            for(int i = block * BLOCK_SIZE; i < Math.min(entries.length, (block + 1) * BLOCK_SIZE); i++) {
+                max = Math.max(max, followerCounts[entries[i] / NAMES_PER_USER]);
+            }
+            blockTree[leafCount + block] = max;
+        }
+
+        for(int node = leafCount - 1; node > 0; node--) {
+            blockTree[node] = Math.max(blockTree[2 * node], blockTree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Builds an index.
+     *
+     * @param users the users.
+     * @param followerCounts the follower count of each user, in the order of the users.
+     * @return the index.
+     */
+    public static UserSearchIndex build(List<User> users, int [] followerCounts) {
+        final User [] userArray = users.toArray(new User[0]);
+
+        int [] entries = new int[userArray.length * NAMES_PER_USER];
+        for(int i = 0; i < entries.length; i++) {
+            entries[i] = i;
+        }
+
+        sort(entries, userArray);
+
+        return new UserSearchIndex(userArray, Arrays.copyOf(followerCounts, userArray.length), entries);
+    }
+
+    /**
+     * Returns the number of users in the index.
+     *
+     * @return the size.
+     */
+    public int size() {
+        return users.length;
+    }
+
+    /**
+     * Returns a page of the users with an alias, first name or last name that starts with the
+     * query, ignoring case, most followed first. A leading "@" in the query is ignored, so "@da"
+     * and "da" find the same aliases. A user is returned once however many of their names match.
+     *
+     * @param query the text the user has typed.
+     * @param offset the number of results to skip, which is the number returned by earlier pages.
+     * @param limit the most users to return.
+     * @return the page.
+     */
+    public Result search(String query, int offset, int limit) {
+        String prefix = normalize(query);
+
+        if(prefix.isEmpty() || limit <= 0 || offset < 0) {
+            return new Result(new ArrayList<User>(0), false);
+        }
+
+        int from = lowerBound(prefix, false);
+        int to = lowerBound(prefix, true);
+
+        // One more than the page is taken to find out whether there is another page
+        int wanted = offset + limit + 1;
+        LongMaxHeap heap = new LongMaxHeap();
+        addRange(heap, from, to);
+
+        List<User> page = new ArrayList<>(limit);
+        Set<Integer> taken = new HashSet<>();
+
+        while(!heap.isEmpty() && taken.size() < wanted) {
+            long candidate = heap.poll();
+            int code = (int) candidate;
+
+            if((code & ENTRY_FLAG) != 0) {
+                int userIndex = entries[code & ~ENTRY_FLAG] / NAMES_PER_USER;
+
+                if(taken.add(userIndex) && taken.size() > offset && page.size() < limit) {
+                    page.add(users[userIndex]);
+                }
+            } else if(code >= leafCount) {
+                int block = code - leafCount;
+                addEntries(heap, block * BLOCK_SIZE, Math.min(entries.length, (block + 1) * BLOCK_SIZE));
+            } else {
+                heap.add(blockTree[2 * code], 2 * code);
+                heap.add(blockTree[2 * code + 1], 2 * code + 1);
+            }
+        }
+
+        return new Result(page, taken.size() == wanted);
+    }
+
+    /**
+     * Adds the candidates covering the entries from one index up to but not including another:
+     * the entries of the partial blocks at either end, and the tree nodes that exactly cover the
+     * whole blocks between them.
+     */
+    private void addRange(LongMaxHeap heap, int from, int to) {
+        int firstWholeBlock = (from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int endWholeBlock = to / BLOCK_SIZE;
+
+        if(firstWholeBlock >= endWholeBlock) {
+            addEntries(heap, from, to);
+            return;
+        }
+
+        addEntries(heap, from, firstWholeBlock * BLOCK_SIZE);
+        addEntries(heap, endWholeBlock * BLOCK_SIZE, to);
+
+        int low = firstWholeBlock + leafCount;
+        int high = endWholeBlock + leafCount;
+
+        while(low < high) {
+            if((low & 1) == 1) {
+                heap.add(blockTree[low], low);
+                low++;
+            }
+            if((high & 1) == 1) {
+                high--;
+                heap.add(blockTree[high], high);
+            }
+            low >>>= 1;
+            high >>>= 1;
+        }
+    }
+
+    private void addEntries(LongMaxHeap heap, int from, int to) {
+        for(int i = from; i < to; i++) {
+            heap.add(followerCounts[entries[i] / NAMES_PER_USER], i | ENTRY_FLAG);
+        }
+    }
+
+    /**
+     * Returns the index of the first entry whose name doesn't sort before the prefix or, if
+     * {@code pastPrefix} is true, the first entry whose name neither sorts before nor starts with
+     * the prefix.
+     */
+    private int lowerBound(String prefix, boolean pastPrefix) {
+        int low = 0;
+        int high = entries.length;
+
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            int comparison = comparePrefix(name(users, entries[mid]), prefix);
+
+            if(comparison < 0 || (pastPrefix && comparison == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Compares the start of a name with a prefix, ignoring case: negative if the name sorts before
+     * the prefix, zero if it starts with it, and positive if it sorts after it.
+     */
+    private static int comparePrefix(String name, String prefix) {
+        int start = nameStart(name);
+        int length = Math.min(name.length() - start, prefix.length());
+
+        for(int i = 0; i < length; i++) {
+            int difference = Character.toLowerCase(name.charAt(start + i)) - prefix.charAt(i);
+            if(difference != 0) {
+                return difference;
+            }
+        }
+
+        return name.length() - start < prefix.length() ? -1 : 0;
+    }
+
+    private static int compareNames(String name1, String name2) {
+        int start1 = nameStart(name1);
+        int start2 = nameStart(name2);
+        int length = Math.min(name1.length() - start1, name2.length() - start2);
+
+        for(int i = 0; i < length; i++) {
+            int difference = Character.toLowerCase(name1.charAt(start1 + i)) - Character.toLowerCase(name2.charAt(start2 + i));
+            if(difference != 0) {
+                return difference;
+            }
+        }
+
+        return (name1.length() - start1) - (name2.length() - start2);
+    }
+
+    private static int compareEntries(int entry1, int entry2, long [] prefixes, User [] users) {
+        if(prefixes[entry1] != prefixes[entry2]) {
+            // Characters are at most 16 bits, so the packed prefixes are never negative
+            return prefixes[entry1] < prefixes[entry2] ? -1 : 1;
+        }
+
+        return compareNames(name(users, entry1), name(users, entry2));
+    }
+
+    /**
+     * Packs the first four characters of a name's searchable text, lower cased, into a long that
+     * orders as the characters do. A shorter name is padded with zeros, which sort first.
+     */
+    private static long packedPrefix(String name) {
+        int start = nameStart(name);
+        long packed = 0;
+
+        for(int i = 0; i < 4; i++) {
+            char c = start + i < name.length() ? Character.toLowerCase(name.charAt(start + i)) : 0;
+            packed = (packed << 16) | c;
+        }
+
+        return packed;
+    }
+
+    private static String name(User [] users, int entry) {
+        User user = users[entry / NAMES_PER_USER];
+
+        switch(entry % NAMES_PER_USER) {
+            case ALIAS:
+                return user.getAlias();
+            case FIRST_NAME:
+                return user.getFirstName();
+            default:
+                return user.getLastName();
+        }
+    }
+
+    /**
+     * Returns the index at which a name's searchable text starts, skipping an alias's "@".
+     */
+    private static int nameStart(String name) {
+        return name.startsWith("@") ? 1 : 0;
+    }
+
+    private static String normalize(String query) {
+        if(query == null) {
+            return "";
+        }
+
+        String trimmed = query.trim();
+        StringBuilder normalized = new StringBuilder(trimmed.length());
+        for(int i = nameStart(trimmed); i < trimmed.length(); i++) {
+            normalized.append(Character.toLowerCase(trimmed.charAt(i)));
+        }
+
+        return normalized.toString();
+    }
+
+    /**
+     * Sorts entries by name with a bottom-up merge sort, which sorts the ints in place of boxed
+     * Integers. Most comparisons are decided by the first four characters of the names, which are
+     * packed into a long per entry up front, so the names themselves are only read to break ties.
+     */
+    private static void sort(int [] entries, User [] users) {
+        long [] prefixes = new long[entries.length];
+        for(int entry = 0; entry < entries.length; entry++) {
+            prefixes[entry] = packedPrefix(name(users, entry));
+        }
+
+        int [] source = entries;
+        int [] target = new int[entries.length];
+
+        for(int width = 1; width < entries.length; width *= 2) {
+            for(int low = 0; low < entries.length; low += 2 * width) {
+                int middle = Math.min(low + width, entries.length);
+                int high = Math.min(low + 2 * width, entries.length);
+                int i = low;
+                int j = middle;
+
+                for(int k = low; k < high; k++) {
+                    if(i < middle && (j >= high || compareEntries(source[i], source[j], prefixes, users) <= 0)) {
+                        target[k] = source[i++];
+                    } else {
+                        target[k] = source[j++];
+                    }
+                }
+            }
+
+            int [] swap = source;
+            source = target;
+            target = swap;
+        }
+
+        if(source != entries) {
+            System.arraycopy(source, 0, entries, 0, entries.length);
+        }
+    }
+
+    /**
+     * A page of search results.
+     */
+    public static class Result {
+
+        private final List<User> users;
+        private final boolean hasMorePages;
+
+        Result(List<User> users, boolean hasMorePages) {
+            this.users = users;
+            this.hasMorePages = hasMorePages;
+        }
+
+        /**
+         * Returns the users in the page, most followed first.
+         *
+         * @return the users.
+         */
+        public List<User> getUsers() {
+            return users;
+        }
+
+        /**
+         * Indicates whether there are more users after this page.
+         *
+         * @return true if there are more users; otherwise, false.
+         */
+        public boolean getHasMorePages() {
+            return hasMorePages;
+        }
+    }
+
+    /**
+     * A binary max-heap of candidates, each packed into a long with its follower count in the high
+     * half and its code in the low half, so the heap needs no objects.
+     */
+    private static class LongMaxHeap {
+
+        private long [] heap = new long[64];
+        private int size;
+
+        void add(int count, int code) {
+            if(size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+
+            long candidate = ((long) count << 32) | (code & 0xFFFFFFFFL);
+            int index = size++;
+
+            while(index > 0) {
+                int parent = (index - 1) >>> 1;
+                if(heap[parent] >= candidate) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+
+            heap[index] = candidate;
+        }
+
+        long poll() {
+            long top = heap[0];
+            long last = heap[--size];
+            int index = 0;
+
+            while(true) {
+                int child = 2 * index + 1;
+                if(child >= size) {
+                    break;
+                }
+                if(child + 1 < size && heap[child + 1] > heap[child]) {
+                    child++;
+                }
+                if(last >= heap[child]) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+
+            if(size > 0) {
+                heap[index] = last;
+            }
+
+            return top;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package edu.byu.cs.tweeter.server.search;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.follow.FollowGraph;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * Answers user searches from a {@link UserSearchIndex} of the users in a {@link FollowGraph}.
+ * <p>
+ * Building an index means sorting every user's names, which takes far longer than a query, so the
+ * index is not rebuilt for every change to the graph. The first search builds it; after that, a
+ * search that finds the graph has changed since the index was built, and that the index is older
+ * than the refresh interval, starts a rebuild in the background and is answered from the current
+ * index. New users and follower counts therefore appear in results within about one refresh
+ * interval.
+ */
+public class UserSearcher {
+
+    public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final Histogram SEARCH_LATENCY =
+            MetricsRegistry.getInstance().histogram("UserSearcher.search");
+    private static final Histogram BUILD_LATENCY =
+            MetricsRegistry.getInstance().histogram("UserSearcher.build");
+
+    private static UserSearcher instance;
+
+    private final long refreshIntervalNanos;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "UserSearcher-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates an instance. Production code should use {@link #getInstance()}; separate instances
+     * are only useful in tests.
+     *
+     * @param refreshIntervalMillis the least time between rebuilds of the index.
+     */
+    UserSearcher(long refreshIntervalMillis) {
+        this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalMillis);
+    }
+
+    /**
+     * Returns the singleton instance of the class.
+     *
+     * @return the instance.
+     */
+    public static synchronized UserSearcher getInstance() {
+        if(instance == null) {
+            instance = new UserSearcher(DEFAULT_REFRESH_INTERVAL_MILLIS);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Returns a page of the users in the graph with a name that starts with the query, most
+     * followed first. See {@link UserSearchIndex#search(String, int, int)}.
+     *
+     * @param followGraph the graph whose users are searched.
+     * @param query the text the user has typed.
+     * @param offset the number of results to skip.
+     * @param limit the most users to return.
+     * @return the page.
+     */
+    public UserSearchIndex.Result search(FollowGraph followGraph, String query, int offset, int limit) {
+        long start = System.nanoTime();
+
+        try {
+            return getIndex(followGraph).search(query, offset, limit);
+        } finally {
+            SEARCH_LATENCY.recordSince(start);
+        }
+    }
+
+    private UserSearchIndex getIndex(final FollowGraph followGraph) {
+        Snapshot current = snapshot;
+
+        if(current == null || current.followGraph != followGraph) {
+            synchronized (this) {
+                current = snapshot;
+                if(current == null || current.followGraph != followGraph) {
+                    current = build(followGraph);
+                    snapshot = current;
+                }
+            }
+        } else if(current.version != followGraph.getVersion()
+                && System.nanoTime() - current.builtAtNanos > refreshIntervalNanos
+                && rebuilding.compareAndSet(false, true)) {
+            rebuildExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Snapshot rebuilt = build(followGraph);
+                        synchronized (UserSearcher.this) {
+                            if(snapshot.followGraph == followGraph) {
+                                snapshot = rebuilt;
+                            }
+                        }
+                    } finally {
+                        rebuilding.set(false);
+                    }
+                }
+            });
+        }
+
+        return current.index;
+    }
+
+    private static Snapshot build(FollowGraph followGraph) {
+        long start = System.nanoTime();
+
+        // Read the version first, so a change made during the build is seen as a change later
+        long version = followGraph.getVersion();
+        List<User> users = followGraph.getUsers();
+
+        int [] followerCounts = followGraph.getFollowerCounts(users);
+
+        Snapshot built = new Snapshot(followGraph, version, UserSearchIndex.build(users, followerCounts), System.nanoTime());
+        BUILD_LATENCY.recordSince(start);
+        return built;
+    }
+
+    /**
+     * An index and the graph and version it was built from.
+     */
+    private static class Snapshot {
+
+        final FollowGraph followGraph;
+        final long version;
+        final UserSearchIndex index;
+        final long builtAtNanos;
+
+        Snapshot(FollowGraph followGraph, long version, UserSearchIndex index, long builtAtNanos) {
+            this.followGraph = followGraph;
+            this.version = version;
+            this.index = index;
+            this.builtAtNanos = builtAtNanos;
+        }
+    }
+}
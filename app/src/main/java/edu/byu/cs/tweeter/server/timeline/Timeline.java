@@ -0,0 +1,138 @@
+package edu.byu.cs.tweeter.server.timeline;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.Status;
+
+/**
+ * A bounded list of statuses ordered by id, held in a ring buffer. Once the timeline is full,
+ * adding a status drops the oldest one, so a timeline never holds more than its capacity no matter
+ * how much is posted to it.
+ * <p>
+ * Statuses usually arrive in id order and are appended at the tail. Fan-out of different statuses
+ * runs concurrently, though, so a status can arrive shortly after a newer one; it is shifted back
+ * from the tail to its place, which costs only the few positions it moved.
+ * <p>
+ * The buffer starts small and doubles up to the capacity, so the many users who only ever receive a
+ * few statuses don't each hold a full-sized array.
+ */
+class Timeline {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int capacity;
+    private Status [] statuses;
+    private int head;
+    private int size;
+
+    /**
+     * Creates an empty timeline.
+     *
+     * @param capacity the most statuses the timeline holds.
+     */
+    Timeline(int capacity) {
+        this.capacity = capacity;
+        this.statuses = new Status[Math.min(capacity, INITIAL_CAPACITY)];
+    }
+
+    /**
+     * Adds a status in its place by id, dropping the oldest status if the timeline is full.
+     *
+     * @param status the status.
+     * @return true if the status was added, or false if the timeline is full and the status is
+     *         older than every status in it.
+     */
+    synchronized boolean add(Status status) {
+        if(size == statuses.length) {
+            if(size < capacity) {
+                grow();
+            } else if(status.getId() < get(0).getId()) {
+                return false;
+            } else {
+                statuses[head] = null;
+                head = (head + 1) % statuses.length;
+                size--;
+            }
+        }
+
+        int index = size;
+        while(index > 0 && get(index - 1).getId() > status.getId()) {
+            set(index, get(index - 1));
+            index--;
+        }
+
+        set(index, status);
+        size++;
+
+        return true;
+    }
+
+    /**
+     * Returns a page of the timeline, newest first, in O(log n + limit) time.
+     *
+     * @param beforeId the id below which statuses are returned, which is the id of the last
+     *                 status of the previous page, or {@link Long#MAX_VALUE} for the first page.
+     * @param limit the most statuses to return.
+     * @return the page.
+     */
+    synchronized TimelineEngine.Page read(long beforeId, int limit) {
+        int end = lowerBound(beforeId);
+        int count = Math.min(limit, end);
+
+        List<Status> page = new ArrayList<>(count);
+        for(int i = end - 1; i >= end - count; i--) {
+            page.add(get(i));
+        }
+
+        return new TimelineEngine.Page(page, end > count);
+    }
+
+    /**
+     * Returns the number of statuses in the timeline.
+     *
+     * @return the size.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the position of the first status whose id is at least the specified id.
+     */
+    private int lowerBound(long id) {
+        int low = 0;
+        int high = size;
+
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+
+            if(get(middle).getId() < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private void grow() {
+        Status [] grown = new Status[Math.min(capacity, statuses.length * 2)];
+
+        for(int i = 0; i < size; i++) {
+            grown[i] = get(i);
+        }
+
+        statuses = grown;
+        head = 0;
+    }
+
+    private Status get(int index) {
+        return statuses[(head + index) % statuses.length];
+    }
+
+    private void set(int index, Status status) {
+        statuses[(head + index) % statuses.length] = status;
+    }
+}
@@ -0,0 +1,485 @@
+package edu.byu.cs.tweeter.server.timeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.follow.FollowGraph;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * Holds each user's story, the statuses the user has posted, and feed, the statuses posted by the
+ * users the user follows. Feeds are kept up to date by a hybrid of fanning out on write and
+ * merging on read:
+ * <ul>
+ *     <li>A status posted by a user with fewer followers than the celebrity threshold is pushed:
+ *     it is delivered to the feed of every follower of its author, so reading a feed is a lookup
+ *     rather than a merge of everyone the reader follows.</li>
+ *     <li>A status posted by a user with at least the threshold's number of followers, a
+ *     celebrity, is only added to the author's story. Pushing it would cost one delivery per
+ *     follower, millions for the largest accounts, for a status most followers never read.
+ *     Instead, reading a feed merges the stories of the celebrities the reader follows into the
+ *     pushed feed with a heap.</li>
+ * </ul>
+ * The threshold trades write amplification, which it caps at the threshold's number of deliveries
+ * per status, against read cost, which grows with the number of celebrities the reader follows.
+ * Since follower counts are heavily skewed, a threshold well above the typical follower count
+ * removes most deliveries while leaving most readers with few celebrities to merge.
+ * <p>
+ * Posting adds the status to the author's story before returning, so authors always see their own
+ * statuses. Delivery to the followers' feeds happens afterwards on a pool of threads, in batches of
+ * followers taken from a snapshot of the author's followers in the {@link FollowGraph}, so a post
+ * by a user with many followers neither blocks the author nor occupies a thread for long.
+ * <p>
+ * Feeds and stories are {@link Timeline}s holding at most {@link #DEFAULT_CAPACITY} statuses each,
+ * which bounds both memory and the cost of a delivery; older statuses fall off the end. Reading a
+ * page takes O(k (log capacity + page size)) time for a reader following k celebrities, regardless
+ * of how many other users the reader follows.
+ * <p>
+ * Timelines are held in memory only. A user who follows someone later doesn't receive that
+ * user's earlier pushed statuses, though a celebrity's earlier statuses appear at once.
+ */
+public class TimelineEngine {
+
+    public static final int DEFAULT_CAPACITY = 800;
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_CELEBRITY_THRESHOLD = 10_000;
+
+    private static final Histogram POST_LATENCY =
+            MetricsRegistry.getInstance().histogram("TimelineEngine.post");
+    private static final Histogram FAN_OUT_LATENCY =
+            MetricsRegistry.getInstance().histogram("TimelineEngine.fanOut");
+    private static final Histogram FAN_OUT_BATCH_LATENCY =
+            MetricsRegistry.getInstance().histogram("TimelineEngine.fanOutBatch");
+    private static final Histogram GET_FEED_LATENCY =
+            MetricsRegistry.getInstance().histogram("TimelineEngine.getFeed");
+    private static final Histogram GET_STORY_LATENCY =
+            MetricsRegistry.getInstance().histogram("TimelineEngine.getStory");
+    private static final Histogram FEED_SOURCES =
+            MetricsRegistry.getInstance().histogram("TimelineEngine.feedSources");
+    private static final Counter DELIVERIES =
+            MetricsRegistry.getInstance().counter("TimelineEngine.deliveries");
+    private static final Counter PULLED_POSTS =
+            MetricsRegistry.getInstance().counter("TimelineEngine.pulledPosts");
+
+    private static final Page EMPTY_PAGE = new Page(Collections.<Status>emptyList(), false);
+
+    private static TimelineEngine instance;
+
+    private final ThreadPoolExecutor executor;
+    private final int capacity;
+    private final int batchSize;
+    private final int celebrityThreshold;
+    private final AtomicLong nextStatusId = new AtomicLong(1);
+    private final ConcurrentHashMap<User, Timeline> feeds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<User, Timeline> stories = new ConcurrentHashMap<>();
+    // The authors who have posted as celebrities, whose stories are merged into their followers' feeds
+    private final Set<User> pulledAuthors = Collections.newSetFromMap(new ConcurrentHashMap<User, Boolean>());
+    private final Object pendingLock = new Object();
+    private int pendingBatches;
+
+    /**
+     * Creates an instance. Production code should use {@link #getInstance()}; separate instances
+     * are only useful in tests and benchmarks.
+     *
+     * @param threads the number of threads that deliver statuses.
+     * @param capacity the most statuses each feed and story holds.
+     * @param batchSize the number of followers a status is delivered to in one task.
+     * @param celebrityThreshold the number of followers at which an author's statuses are merged
+     *                           into feeds on read instead of being delivered to them.
+     */
+    TimelineEngine(int threads, int capacity, int batchSize, int celebrityThreshold) {
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.celebrityThreshold = celebrityThreshold;
+
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new FanOutThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the singleton instance of the class, which delivers statuses using all available
+     * processors.
+     *
+     * @return the instance.
+     */
+    public static synchronized TimelineEngine getInstance() {
+        if(instance == null) {
+            instance = new TimelineEngine(Runtime.getRuntime().availableProcessors(),
+                    DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_CELEBRITY_THRESHOLD);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Posts a status. The status is in the author's story when this method returns. Unless the
+     * author is a celebrity, it is delivered to the feeds of the author's followers shortly
+     * afterwards.
+     *
+     * @param followGraph the graph whose follows determine who receives the status.
+     * @param author the user posting the status.
+     * @param post the text of the status.
+     * @return the status.
+     */
+    public Status post(FollowGraph followGraph, User author, String post) {
+        long start = System.nanoTime();
+
+        try {
+            Status status = new Status(nextStatusId.getAndIncrement(), author, post, System.currentTimeMillis());
+            getTimeline(stories, author).add(status);
+
+            List<User> followers = followGraph.getFollowers(author);
+
+            if(followers.size() >= celebrityThreshold) {
+                // Marked after the story is written, so a reader who sees the mark finds the status
+                pulledAuthors.add(author);
+                PULLED_POSTS.increment();
+                return status;
+            }
+
+            int batchCount = (followers.size() + batchSize - 1) / batchSize;
+
+            if(batchCount > 0) {
+                AtomicInteger remainingBatches = new AtomicInteger(batchCount);
+
+                synchronized (pendingLock) {
+                    pendingBatches += batchCount;
+                }
+
+                for(int from = 0; from < followers.size(); from += batchSize) {
+                    FanOutBatch batch = new FanOutBatch(status, followers, from,
+                            Math.min(from + batchSize, followers.size()), remainingBatches, start);
+
+                    try {
+                        executor.execute(batch);
+                    } catch (RejectedExecutionException ex) {
+                        // The engine is shutting down; deliver here rather than lose the status
+                        batch.run();
+                    }
+                }
+            }
+
+            return status;
+        } finally {
+            POST_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns a page of a user's feed, newest first: the statuses pushed to the user's feed merged
+     * with those in the stories of the celebrities the user follows.
+     *
+     * @param followGraph the graph whose follows determine whose stories are merged.
+     * @param user the user whose feed is returned.
+     * @param lastStatus the last status of the previous page, or null for the first page.
+     * @param limit the most statuses to return.
+     * @return the page.
+     */
+    public Page getFeed(FollowGraph followGraph, User user, Status lastStatus, int limit) {
+        long start = System.nanoTime();
+
+        try {
+            List<User> celebrities = getFollowedCelebrities(followGraph, user);
+            FEED_SOURCES.record(celebrities.size() + 1);
+
+            if(celebrities.isEmpty()) {
+                return read(feeds, user, lastStatus, limit);
+            }
+
+            List<Page> sources = new ArrayList<>(celebrities.size() + 1);
+            sources.add(read(feeds, user, lastStatus, limit));
+            for(User celebrity : celebrities) {
+                sources.add(read(stories, celebrity, lastStatus, limit));
+            }
+
+            return merge(sources, limit);
+        } finally {
+            GET_FEED_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Returns a page of a user's story, newest first.
+     *
+     * @param user the user whose story is returned.
+     * @param lastStatus the last status of the previous page, or null for the first page.
+     * @param limit the most statuses to return.
+     * @return the page.
+     */
+    public Page getStory(User user, Status lastStatus, int limit) {
+        long start = System.nanoTime();
+
+        try {
+            return read(stories, user, lastStatus, limit);
+        } finally {
+            GET_STORY_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Waits until every status posted so far has been delivered to its followers' feeds.
+     *
+     * @param timeoutMillis how long to wait.
+     * @return true if every status was delivered within the timeout; otherwise, false.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public boolean awaitFanOut(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        synchronized (pendingLock) {
+            while(pendingBatches > 0) {
+                long remainingNanos = deadline - System.nanoTime();
+
+                if(remainingNanos <= 0) {
+                    return false;
+                }
+
+                TimeUnit.NANOSECONDS.timedWait(pendingLock, remainingNanos);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Stops the pool's threads once the deliveries already queued finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the celebrities the user follows, checking whichever is shorter: the list of
+     * celebrities against the user's followees, or the user's followees against the list of
+     * celebrities.
+     */
+    private List<User> getFollowedCelebrities(FollowGraph followGraph, User user) {
+        if(pulledAuthors.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<User> celebrities = new ArrayList<>();
+        List<User> followees = followGraph.getFollowees(user);
+
+        if(pulledAuthors.size() < followees.size()) {
+            for(User author : pulledAuthors) {
+                if(followGraph.isFollowing(user, author)) {
+                    celebrities.add(author);
+                }
+            }
+        } else {
+            for(User followee : followees) {
+                if(pulledAuthors.contains(followee)) {
+                    celebrities.add(followee);
+                }
+            }
+        }
+
+        return celebrities;
+    }
+
+    /**
+     * Merges pages of statuses, each newest first, into one page with a heap of the sources'
+     * newest remaining statuses. A status pushed to a feed before its author became a celebrity
+     * is also in the author's story, so statuses are deduplicated by id.
+     *
+     * @param sources the pages, each holding up to the limit's number of statuses.
+     * @param limit the most statuses to return.
+     * @return the merged page.
+     */
+    static Page merge(List<Page> sources, int limit) {
+        PriorityQueue<Source> heads = new PriorityQueue<>(sources.size(), NEWEST_FIRST);
+        boolean sourceHasMorePages = false;
+
+        for(Page page : sources) {
+            sourceHasMorePages |= page.getHasMorePages();
+
+            if(!page.getStatuses().isEmpty()) {
+                heads.add(new Source(page.getStatuses()));
+            }
+        }
+
+        List<Status> merged = new ArrayList<>(limit);
+        long lastId = Long.MAX_VALUE;
+
+        while(!heads.isEmpty() && (merged.size() < limit || heads.peek().current().getId() == lastId)) {
+            Source source = heads.poll();
+            Status status = source.current();
+
+            if(status.getId() != lastId) {
+                merged.add(status);
+                lastId = status.getId();
+            }
+
+            if(source.advance()) {
+                heads.add(source);
+            }
+        }
+
+        return new Page(merged, !heads.isEmpty() || sourceHasMorePages);
+    }
+
+    private Page read(ConcurrentHashMap<User, Timeline> timelines, User user, Status lastStatus, int limit) {
+        Timeline timeline = timelines.get(user);
+
+        if(timeline == null) {
+            return EMPTY_PAGE;
+        }
+
+        return timeline.read(lastStatus == null ? Long.MAX_VALUE : lastStatus.getId(), limit);
+    }
+
+    private Timeline getTimeline(ConcurrentHashMap<User, Timeline> timelines, User user) {
+        Timeline timeline = timelines.get(user);
+
+        if(timeline == null) {
+            Timeline created = new Timeline(capacity);
+            timeline = timelines.putIfAbsent(user, created);
+
+            if(timeline == null) {
+                timeline = created;
+            }
+        }
+
+        return timeline;
+    }
+
+    /**
+     * Delivers a status to the feeds of a range of its author's followers.
+     */
+    private class FanOutBatch implements Runnable {
+
+        private final Status status;
+        private final List<User> followers;
+        private final int from;
+        private final int to;
+        private final AtomicInteger remainingBatches;
+        private final long postStart;
+
+        FanOutBatch(Status status, List<User> followers, int from, int to,
+                    AtomicInteger remainingBatches, long postStart) {
+            this.status = status;
+            this.followers = followers;
+            this.from = from;
+            this.to = to;
+            this.remainingBatches = remainingBatches;
+            this.postStart = postStart;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+
+            try {
+                for(int i = from; i < to; i++) {
+                    getTimeline(feeds, followers.get(i)).add(status);
+                }
+
+                DELIVERIES.add(to - from);
+            } finally {
+                FAN_OUT_BATCH_LATENCY.recordSince(start);
+
+                if(remainingBatches.decrementAndGet() == 0) {
+                    FAN_OUT_LATENCY.recordSince(postStart);
+                }
+
+                synchronized (pendingLock) {
+                    if(--pendingBatches == 0) {
+                        pendingLock.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    private static final Comparator<Source> NEWEST_FIRST = new Comparator<Source>() {
+        @Override
+        public int compare(Source source1, Source source2) {
+            long id1 = source1.current().getId();
+            long id2 = source2.current().getId();
+            return id1 > id2 ? -1 : (id1 == id2 ? 0 : 1);
+        }
+    };
+
+    /**
+     * A position in one of the pages being merged.
+     */
+    private static class Source {
+
+        private final List<Status> statuses;
+        private int index;
+
+        Source(List<Status> statuses) {
+            this.statuses = statuses;
+        }
+
+        Status current() {
+            return statuses.get(index);
+        }
+
+        boolean advance() {
+            return ++index < statuses.size();
+        }
+    }
+
+    /**
+     * A page of a feed or story.
+     */
+    public static class Page {
+
+        private final List<Status> statuses;
+        private final boolean hasMorePages;
+
+        Page(List<Status> statuses, boolean hasMorePages) {
+            this.statuses = statuses;
+            this.hasMorePages = hasMorePages;
+        }
+
+        /**
+         * Returns the statuses in the page, newest first.
+         *
+         * @return the statuses.
+         */
+        public List<Status> getStatuses() {
+            return statuses;
+        }
+
+        /**
+         * Indicates whether older statuses are available.
+         *
+         * @return true if there are more statuses; otherwise, false.
+         */
+        public boolean getHasMorePages() {
+            return hasMorePages;
+        }
+    }
+
+    private static class FanOutThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger nextId = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "TimelineEngine-" + nextId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
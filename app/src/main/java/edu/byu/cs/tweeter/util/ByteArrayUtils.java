@@ -3,58 +3,160 @@ package edu.byu.cs.tweeter.util;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
 
 /**
  * Contains utility methods for reading byte arrays.
  */
 public class ByteArrayUtils {
 
+    private static final Histogram BYTES_FROM_URL_LATENCY =
+            MetricsRegistry.getInstance().histogram("ByteArrayUtils.bytesFromUrl");
+    private static final Counter BYTES_FROM_URL_BYTES =
+            MetricsRegistry.getInstance().counter("ByteArrayUtils.bytesFromUrl.bytes");
+    private static final Counter BYTES_FROM_URL_FAILURES =
+            MetricsRegistry.getInstance().counter("ByteArrayUtils.bytesFromUrl.failures");
+
+    /**
+     * Runs the disconnects of cancelled downloads. Cancellation listeners run on the thread that
+     * cancels, often the main thread, where closing a socket is network I/O. The scheduler's own
+     * workers can't be used, since they may all be blocked in the reads being cancelled.
+     */
+    private static final Executor DISCONNECT_EXECUTOR = createDisconnectExecutor();
+
     /**
-     * Reads the bytes from the specified urlString.
+     * Reads the bytes from the specified urlString. If the calling thread is running a cancellable
+     * task (see {@link CancellationToken#current()}), cancelling the task disconnects the
+     * connection in the background, which aborts a blocked read instead of letting the download
+     * finish.
      *
      * @param urlString the url where the bytes to be read reside.
      * @return the bytes.
      * @throws IOException if an I/O error occurs while attempting to open the URL or read from it's
      * input stream.
+     * @throws InterruptedIOException if the current task was cancelled.
      */
     public static byte [] bytesFromUrl(String urlString) throws IOException {
 
+        CancellationToken.throwIfCurrentCancelled();
+
         URL url = new URL(urlString);
+        long start = System.nanoTime();
+        Span span = Tracer.getInstance().startSpan("ByteArrayUtils.bytesFromUrl");
+        CancellationToken token = CancellationToken.current();
         HttpURLConnection connection = null;
+        Runnable disconnectOnCancel = null;
 
         try {
             connection = (HttpURLConnection) url.openConnection();
             connection.setRequestMethod("GET");
 
+            if(token != null) {
+                final HttpURLConnection cancellableConnection = connection;
+                disconnectOnCancel = new Runnable() {
+                    @Override
+                    public void run() {
+                        DISCONNECT_EXECUTOR.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                cancellableConnection.disconnect();
+                            }
+                        });
+                    }
+                };
+                token.addListener(disconnectOnCancel);
+            }
+
             if (connection.getResponseCode() == HttpURLConnection.HTTP_OK) {
                 InputStream inputStream = connection.getInputStream();
-                return bytesFromInputStream(inputStream);
+                byte [] bytes = bytesFromInputStream(inputStream);
+                BYTES_FROM_URL_BYTES.add(bytes.length);
+                return bytes;
             } else {
                 throw new IOException("Unable to read from url. Response code: " + connection.getResponseCode());
             }
+        } catch (IOException ex) {
+            if(token != null && token.isCancelled()) {
+                // The read failed because the connection was closed out from under it
+                throw new InterruptedIOException("Cancelled");
+            }
+
+            BYTES_FROM_URL_FAILURES.increment();
+            throw ex;
+        } catch (RuntimeException ex) {
+            if(token != null && token.isCancelled()) {
+                // A disconnect that lands between sending the request and reading the response
+                // can fail inside the connection with an unchecked exception
+                throw new InterruptedIOException("Cancelled");
+            }
+
+            throw ex;
         } finally {
+            if(disconnectOnCancel != null) {
+                token.removeListener(disconnectOnCancel);
+            }
+
             if(connection != null) {
                 connection.disconnect();
             }
+
+            span.end();
+            BYTES_FROM_URL_LATENCY.recordSince(start);
         }
     }
 
+    private static Executor createDisconnectExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger nextId = new AtomicInteger(1);
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "ByteArrayUtils-" + nextId.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
-     * Reads the bytes from the specified input stream.
+     * Reads the bytes from the specified input stream. Stops between reads if the current task
+     * (see {@link CancellationToken#current()}) is cancelled.
      *
      * @param inputStream the stream where the bytes to be read reside.
      * @return the bytes.
      * @throws IOException if an I/O error occurs while attempting to read from the stream.
+     * @throws InterruptedIOException if the current task was cancelled.
      */
     public static byte [] bytesFromInputStream(InputStream inputStream) throws IOException {
 
         ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        CancellationToken token = CancellationToken.current();
 
         int numbRead;
         byte[] data = new byte[1024];
         while ((numbRead = inputStream.read(data, 0, data.length)) != -1) {
+            if(token != null && token.isCancelled()) {
+                throw new InterruptedIOException("Cancelled");
+            }
+
             buffer.write(data, 0, numbRead);
         }
 
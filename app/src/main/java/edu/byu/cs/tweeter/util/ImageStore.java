@@ -0,0 +1,143 @@
+package edu.byu.cs.tweeter.util;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * The process-wide store of downloaded image bytes, keyed by image URL. Domain objects refer to
+ * images by URL only and resolve them here, so any number of users that share an avatar share a
+ * single copy of its bytes, and nothing image-sized is serialized with a user.
+ * <p>
+ * The store holds at most {@link #DEFAULT_MAX_BYTES} bytes of images and evicts the least
+ * recently used images beyond that. Downloads happen outside the store's lock; if two threads
+ * download the same image at once, the first copy stored wins and both callers receive it.
+ */
+public class ImageStore {
+
+    public static final long DEFAULT_MAX_BYTES = 8 * 1024 * 1024;
+
+    private static final Counter HITS = MetricsRegistry.getInstance().counter("ImageStore.hits");
+    private static final Counter MISSES = MetricsRegistry.getInstance().counter("ImageStore.misses");
+    private static final Counter EVICTIONS = MetricsRegistry.getInstance().counter("ImageStore.evictions");
+
+    private static final ImageStore instance = new ImageStore(DEFAULT_MAX_BYTES);
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, byte []> images = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * Creates an instance. Production code should use {@link #getInstance()}; separate instances
+     * are only useful in tests.
+     *
+     * @param maxBytes the number of image bytes the store may hold.
+     */
+    ImageStore(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the singleton instance of the class
+     *
+     * @return the instance.
+     */
+    public static ImageStore getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the bytes of the image at the specified URL if they are in the store.
+     *
+     * @param url the image URL.
+     * @return the bytes, or null if the image hasn't been loaded or has been evicted.
+     */
+    public synchronized byte [] get(String url) {
+        return url == null ? null : images.get(url);
+    }
+
+    /**
+     * Returns the bytes of the image at the specified URL, downloading them if they are not in the
+     * store.
+     *
+     * @param url the image URL.
+     * @return the bytes.
+     * @throws IOException if the image had to be downloaded and the download failed.
+     */
+    public byte [] load(String url) throws IOException {
+        byte [] bytes = get(url);
+
+        if(bytes != null) {
+            HITS.increment();
+            return bytes;
+        }
+
+        MISSES.increment();
+        return put(url, fetch(url));
+    }
+
+    /**
+     * Stores the bytes of an image unless the store already has a copy.
+     *
+     * @param url the image URL.
+     * @param bytes the bytes.
+     * @return the stored copy, which is the existing one if there was one.
+     */
+    synchronized byte [] put(String url, byte [] bytes) {
+        byte [] existing = images.get(url);
+
+        if(existing != null) {
+            return existing;
+        }
+
+        images.put(url, bytes);
+        size += bytes.length;
+        trimToSize();
+
+        return bytes;
+    }
+
+    /**
+     * Returns the number of image bytes held by the store.
+     *
+     * @return the size in bytes.
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Removes all images from the store.
+     */
+    public synchronized void clear() {
+        images.clear();
+        size = 0;
+    }
+
+    /**
+     * Downloads the bytes of an image. Allows tests to supply images without a network.
+     *
+     * @param url the image URL.
+     * @return the bytes.
+     * @throws IOException if the download failed.
+     */
+    byte [] fetch(String url) throws IOException {
+        return ByteArrayUtils.bytesFromUrl(url);
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, byte []>> iterator = images.entrySet().iterator();
+
+        // The most recently stored image is kept even if it alone exceeds the limit
+        while(size > maxBytes && images.size() > 1) {
+            Map.Entry<String, byte []> eldest = iterator.next();
+            size -= eldest.getValue().length;
+            iterator.remove();
+            EVICTIONS.increment();
+        }
+    }
+}
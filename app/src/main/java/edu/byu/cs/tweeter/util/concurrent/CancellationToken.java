@@ -0,0 +1,116 @@
+package edu.byu.cs.tweeter.util.concurrent;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A flag shared between the code that starts a unit of work and the code that performs it, used to
+ * request that the work stop early. Cancellation is cooperative: the work is expected to check
+ * {@link #isCancelled()} at convenient points, and a {@link TaskScheduler} will not start, or
+ * deliver the result of, a task whose token has been cancelled.
+ * <p>
+ * While a {@link TaskScheduler} runs a task, the task's token is available to any code on the
+ * worker thread through {@link #current()}, so deep layers such as network reads can stop without
+ * the token being passed through every method signature. Blocking operations that can't poll the
+ * flag can register a listener to unblock themselves instead.
+ */
+public class CancellationToken {
+
+    private static final ThreadLocal<CancellationToken> currentToken = new ThreadLocal<>();
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean cancelled;
+
+    /**
+     * Returns the token of the task running on the calling thread.
+     *
+     * @return the token, or null if the calling thread is not running a scheduled task.
+     */
+    public static CancellationToken current() {
+        return currentToken.get();
+    }
+
+    /**
+     * Sets the token returned by {@link #current()} for the calling thread.
+     *
+     * @param token the token, or null to clear it.
+     */
+    static void setCurrent(CancellationToken token) {
+        if(token == null) {
+            currentToken.remove();
+        } else {
+            currentToken.set(token);
+        }
+    }
+
+    /**
+     * Throws if the task running on the calling thread has been cancelled. Does nothing if the
+     * calling thread is not running a scheduled task.
+     *
+     * @throws InterruptedIOException if the current task has been cancelled.
+     */
+    public static void throwIfCurrentCancelled() throws InterruptedIOException {
+        CancellationToken token = current();
+
+        if(token != null && token.isCancelled()) {
+            throw new InterruptedIOException("Cancelled");
+        }
+    }
+
+    /**
+     * Requests cancellation and runs the registered listeners on the calling thread. Calling this
+     * method more than once has no additional effect.
+     */
+    public void cancel() {
+        synchronized (this) {
+            if(cancelled) {
+                return;
+            }
+
+            cancelled = true;
+        }
+
+        for(Runnable listener : listeners) {
+            listener.run();
+        }
+
+        listeners.clear();
+    }
+
+    /**
+     * Indicates whether cancellation has been requested.
+     *
+     * @return true if cancelled; otherwise, false.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Registers a listener that is run when the token is cancelled. If the token has already been
+     * cancelled, the listener is run immediately on the calling thread.
+     *
+     * @param listener the listener.
+     */
+    public void addListener(Runnable listener) {
+        synchronized (this) {
+            if(!cancelled) {
+                listeners.add(listener);
+                return;
+            }
+        }
+
+        listener.run();
+    }
+
+    /**
+     * Unregisters a listener. Should be called once the operation the listener would have
+     * interrupted has finished.
+     *
+     * @param listener the listener.
+     */
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,24 @@
+package edu.byu.cs.tweeter.util.concurrent;
+
+/**
+ * The priority classes of work submitted to a {@link TaskScheduler}. Queued tasks are started in
+ * the order the constants are declared here, and in submission order within a class.
+ */
+public enum TaskPriority {
+
+    /**
+     * Work the user is waiting on, such as loading the tab that is currently visible or logging
+     * in.
+     */
+    INTERACTIVE,
+
+    /**
+     * Work the user will probably need soon, such as loading a tab that is not yet visible.
+     */
+    PREFETCH,
+
+    /**
+     * Work nobody is waiting on, such as exporting diagnostics.
+     */
+    BACKGROUND
+}
@@ -0,0 +1,209 @@
+package edu.byu.cs.tweeter.util.concurrent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * Runs tasks on a bounded pool of worker threads. Tasks waiting for a worker are started in
+ * {@link TaskPriority} order, so a slow prefetch can't hold up work the user is waiting on the way
+ * a single serial executor would. Results are delivered on a caller-supplied callback executor
+ * (the main thread in the app), and are dropped if the task's {@link CancellationToken} has been
+ * cancelled. While a task runs, its token is available to the code it calls through
+ * {@link CancellationToken#current()}.
+ */
+public class TaskScheduler {
+
+    /**
+     * A unit of work run by the scheduler.
+     *
+     * @param <R> the type of the result.
+     */
+    public interface Task<R> {
+
+        /**
+         * Performs the work. Invoked on a worker thread.
+         *
+         * @param token the token that indicates whether the work should stop early.
+         * @return the result.
+         * @throws Exception if the work fails.
+         */
+        R run(CancellationToken token) throws Exception;
+
+        /**
+         * Receives the result. Invoked on the callback executor, and only if the task was not
+         * cancelled.
+         *
+         * @param result the result returned by {@link #run(CancellationToken)}.
+         */
+        void onComplete(R result);
+
+        /**
+         * Receives the exception thrown by the work. Invoked on the callback executor, and only if
+         * the task was not cancelled.
+         *
+         * @param exception the exception.
+         */
+        void onError(Exception exception);
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final Executor callbackExecutor;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final Histogram [] queueWaitByPriority;
+
+    /**
+     * Creates an instance.
+     *
+     * @param threadCount the number of worker threads.
+     * @param callbackExecutor the executor on which task results are delivered.
+     */
+    public TaskScheduler(int threadCount, Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+
+        executor = new ThreadPoolExecutor(threadCount, threadCount, 30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), new WorkerThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+
+        TaskPriority [] priorities = TaskPriority.values();
+        queueWaitByPriority = new Histogram[priorities.length];
+        for(TaskPriority priority : priorities) {
+            queueWaitByPriority[priority.ordinal()] = MetricsRegistry.getInstance()
+                    .histogram("TaskScheduler.queueWait." + priority.name());
+        }
+    }
+
+    /**
+     * Queues a task.
+     *
+     * @param priority the priority class of the task.
+     * @param token the token used to cancel the task.
+     * @param task the task.
+     * @param <R> the type of the task's result.
+     */
+    public <R> void submit(TaskPriority priority, CancellationToken token, Task<R> task) {
+        executor.execute(new PrioritizedRunnable<>(priority, nextSequence.getAndIncrement(), token, task));
+    }
+
+    /**
+     * Queues fire-and-forget work that has no result to deliver.
+     *
+     * @param priority the priority class of the work.
+     * @param runnable the work.
+     */
+    public void execute(TaskPriority priority, final Runnable runnable) {
+        submit(priority, new CancellationToken(), new Task<Void>() {
+            @Override
+            public Void run(CancellationToken token) {
+                runnable.run();
+                return null;
+            }
+
+            @Override
+            public void onComplete(Void result) {}
+
+            @Override
+            public void onError(Exception exception) {}
+        });
+    }
+
+    /**
+     * Stops accepting tasks. Tasks that are already queued still run.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Wraps a task so it can be ordered in the executor's priority queue, and runs it.
+     */
+    private class PrioritizedRunnable<R> implements Runnable, Comparable<PrioritizedRunnable<?>> {
+
+        private final TaskPriority priority;
+        private final long sequence;
+        private final CancellationToken token;
+        private final Task<R> task;
+        private final long queuedNanos = System.nanoTime();
+
+        PrioritizedRunnable(TaskPriority priority, long sequence, CancellationToken token, Task<R> task) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.token = token;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            queueWaitByPriority[priority.ordinal()].recordSince(queuedNanos);
+
+            if(token.isCancelled()) {
+                return;
+            }
+
+            R result = null;
+            Exception exception = null;
+
+            CancellationToken.setCurrent(token);
+
+            try {
+                result = task.run(token);
+            } catch (Exception ex) {
+                exception = ex;
+            } finally {
+                CancellationToken.setCurrent(null);
+            }
+
+            deliver(result, exception);
+        }
+
+        private void deliver(final R result, final Exception exception) {
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if(token.isCancelled()) {
+                        return;
+                    }
+
+                    if(exception != null) {
+                        task.onError(exception);
+                    } else {
+                        task.onComplete(result);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public int compareTo(PrioritizedRunnable<?> other) {
+            int result = priority.compareTo(other.priority);
+
+            if(result == 0) {
+                return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Creates named worker threads so they are easy to identify in traces and thread dumps.
+     */
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger nextId = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "TaskScheduler-" + nextId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
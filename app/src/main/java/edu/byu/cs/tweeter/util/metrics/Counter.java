@@ -0,0 +1,38 @@
+package edu.byu.cs.tweeter.util.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free, monotonically increasing count.
+ */
+public class Counter {
+
+    private final String name;
+    private final AtomicLong value = new AtomicLong();
+
+    /**
+     * Creates an instance. Counters are normally obtained from
+     * {@link MetricsRegistry#counter(String)} rather than created directly.
+     *
+     * @param name the name of the counter.
+     */
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void increment() {
+        value.incrementAndGet();
+    }
+
+    public void add(long amount) {
+        value.addAndGet(amount);
+    }
+
+    public long get() {
+        return value.get();
+    }
+}
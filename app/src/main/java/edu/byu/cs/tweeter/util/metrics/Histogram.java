@@ -0,0 +1,164 @@
+package edu.byu.cs.tweeter.util.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of non-negative long values (typically latencies in nanoseconds). Values
+ * are counted in log-linear buckets in the style of HdrHistogram: each power of two is split into
+ * {@link #SUB_BUCKET_COUNT} equally sized sub-buckets, which bounds the relative error of any
+ * reported percentile to 1 / {@link #SUB_BUCKET_COUNT} (6.25%) while covering the full range of a
+ * long in a fixed amount of memory.
+ * <p>
+ * Recording a value takes no locks: it is a few arithmetic operations to find the bucket, atomic
+ * increments of the bucket and the sum, and compare-and-set loops on the min and max
+ * that only retry when a new extreme races another, so histograms can be left enabled in release
+ * builds.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+    /**
+     * The number of buckets needed to cover every non-negative long value.
+     */
+    static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Creates an instance. Histograms are normally obtained from
+     * {@link MetricsRegistry#histogram(String)} rather than created directly.
+     *
+     * @param name the name of the histogram.
+     */
+    Histogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of this histogram.
+     *
+     * @return the name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a single value. Negative values are recorded as zero.
+     *
+     * @param value the value to record.
+     */
+    public void record(long value) {
+        if(value < 0) {
+            value = 0;
+        }
+
+        buckets.incrementAndGet(bucketIndex(value));
+        sum.addAndGet(value);
+        updateMin(value);
+        updateMax(value);
+    }
+
+    /**
+     * Records the time elapsed since the specified start time. Intended to be used with a start
+     * time obtained from {@link System#nanoTime()}.
+     *
+     * @param startNanos the start time in nanoseconds.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns a point in time copy of this histogram. Recording may continue while the snapshot is
+     * taken, so the totals of a snapshot may be off by the few values recorded during the copy.
+     *
+     * @return the snapshot.
+     */
+    public HistogramSnapshot snapshot() {
+        long [] counts = new long[BUCKET_COUNT];
+        long total = 0;
+
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+
+        return new HistogramSnapshot(name, counts, total, sum.get(), total == 0 ? 0 : min.get(),
+                total == 0 ? 0 : max.get());
+    }
+
+    private void updateMin(long value) {
+        long current;
+        while(value < (current = min.get())) {
+            if(min.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+    private void updateMax(long value) {
+        long current;
+        while(value > (current = max.get())) {
+            if(max.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the bucket that counts the specified value. Values smaller than
+     * {@link #SUB_BUCKET_COUNT} get a bucket of their own. Larger values are placed by their
+     * highest set bit (the power of two) and the {@link #SUB_BUCKET_BITS} bits that follow it.
+     *
+     * @param value a non-negative value.
+     * @return the bucket index.
+     */
+    static int bucketIndex(long value) {
+        if(value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & SUB_BUCKET_MASK;
+        return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * Returns the smallest value that is counted by the bucket at the specified index.
+     *
+     * @param index the bucket index.
+     * @return the lowest value of the bucket.
+     */
+    static long bucketLowerBound(int index) {
+        if(index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = index & SUB_BUCKET_MASK;
+        return (SUB_BUCKET_COUNT + subBucket) << shift;
+    }
+
+    /**
+     * Returns the largest value that is counted by the bucket at the specified index.
+     *
+     * @param index the bucket index.
+     * @return the highest value of the bucket.
+     */
+    static long bucketUpperBound(int index) {
+        if(index + 1 >= BUCKET_COUNT) {
+            return Long.MAX_VALUE;
+        }
+
+        return bucketLowerBound(index + 1) - 1;
+    }
+}
@@ -0,0 +1,102 @@
+package edu.byu.cs.tweeter.util.metrics;
+
+/**
+ * An immutable, point in time copy of a {@link Histogram}.
+ */
+public class HistogramSnapshot {
+
+    private final String name;
+    private final long [] bucketCounts;
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+
+    HistogramSnapshot(String name, long [] bucketCounts, long count, long sum, long min, long max) {
+        this.name = name;
+        this.bucketCounts = bucketCounts;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the smallest value recorded, or 0 if no values were recorded.
+     *
+     * @return the minimum.
+     */
+    public long getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the largest value recorded, or 0 if no values were recorded.
+     *
+     * @return the maximum.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the arithmetic mean of the recorded values, or 0 if no values were recorded.
+     *
+     * @return the mean.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns an approximation of the value below which the specified percentage of the recorded
+     * values fall. The result is the upper bound of the bucket containing the percentile, clamped to
+     * the recorded min and max, so it is never lower than the true value and is at most 6.25% above
+     * it.
+     *
+     * @param percentile a percentile between 0 and 100.
+     * @return the value at the percentile, or 0 if no values were recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if(count == 0) {
+            return 0;
+        }
+
+        double clamped = Math.min(100.0, Math.max(0.0, percentile));
+        long rank = Math.max(1, (long) Math.ceil(clamped / 100.0 * count));
+
+        long seen = 0;
+        for(int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if(seen >= rank) {
+                return Math.max(min, Math.min(max, Histogram.bucketUpperBound(i)));
+            }
+        }
+
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return name +
+                " count=" + count +
+                " min=" + min +
+                " p50=" + getValueAtPercentile(50) +
+                " p90=" + getValueAtPercentile(90) +
+                " p99=" + getValueAtPercentile(99) +
+                " max=" + max;
+    }
+}
@@ -0,0 +1,96 @@
+package edu.byu.cs.tweeter.util.metrics;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The process-wide collection of named {@link Histogram}s and {@link Counter}s. Classes that
+ * record metrics should look up their histograms and counters once (typically into static final
+ * fields) so the hot path only touches the metric itself.
+ */
+public class MetricsRegistry {
+
+    private static final MetricsRegistry instance = new MetricsRegistry();
+
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an instance. Production code should use {@link #getInstance()}; separate instances
+     * are only useful in tests.
+     */
+    MetricsRegistry() {}
+
+    /**
+     * Returns the singleton instance of the class
+     *
+     * @return the instance.
+     */
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the histogram with the specified name, creating it if it doesn't exist.
+     *
+     * @param name the name of the histogram.
+     * @return the histogram.
+     */
+    public Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+
+        if(histogram == null) {
+            Histogram newHistogram = new Histogram(name);
+            histogram = histograms.putIfAbsent(name, newHistogram);
+
+            if(histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Returns the counter with the specified name, creating it if it doesn't exist.
+     *
+     * @param name the name of the counter.
+     * @return the counter.
+     */
+    public Counter counter(String name) {
+        Counter counter = counters.get(name);
+
+        if(counter == null) {
+            Counter newCounter = new Counter(name);
+            counter = counters.putIfAbsent(name, newCounter);
+
+            if(counter == null) {
+                counter = newCounter;
+            }
+        }
+
+        return counter;
+    }
+
+    /**
+     * Returns a point in time copy of every metric in the registry.
+     *
+     * @return the snapshot.
+     */
+    public MetricsSnapshot snapshot() {
+        Map<String, HistogramSnapshot> histogramSnapshots = new TreeMap<>();
+        for(Histogram histogram : histograms.values()) {
+            histogramSnapshots.put(histogram.getName(), histogram.snapshot());
+        }
+
+        Map<String, Long> counterValues = new TreeMap<>();
+        for(Counter counter : counters.values()) {
+            counterValues.put(counter.getName(), counter.get());
+        }
+
+        return new MetricsSnapshot(new ArrayList<>(histogramSnapshots.values()), counterValues);
+    }
+}
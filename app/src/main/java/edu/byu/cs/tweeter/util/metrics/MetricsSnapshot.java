@@ -0,0 +1,76 @@
+package edu.byu.cs.tweeter.util.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, point in time copy of every metric in a {@link MetricsRegistry}.
+ */
+public class MetricsSnapshot {
+
+    private final List<HistogramSnapshot> histograms;
+    private final Map<String, Long> counters;
+
+    MetricsSnapshot(List<HistogramSnapshot> histograms, Map<String, Long> counters) {
+        this.histograms = Collections.unmodifiableList(histograms);
+        this.counters = Collections.unmodifiableMap(counters);
+    }
+
+    /**
+     * Returns the histogram snapshots, sorted by name.
+     *
+     * @return the histograms.
+     */
+    public List<HistogramSnapshot> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * Returns the snapshot of the histogram with the specified name.
+     *
+     * @param name the name of the histogram.
+     * @return the snapshot or null if there is no histogram with the name.
+     */
+    public HistogramSnapshot getHistogram(String name) {
+        for(HistogramSnapshot histogram : histograms) {
+            if(histogram.getName().equals(name)) {
+                return histogram;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the counter values keyed by name, sorted by name.
+     *
+     * @return the counters.
+     */
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    /**
+     * Writes the snapshot as plain text, one metric per line. Histogram values are written as they
+     * were recorded (nanoseconds for latencies).
+     *
+     * @param writer the writer to write to.
+     * @throws IOException if an I/O error occurs while writing.
+     */
+    public void writeTo(Writer writer) throws IOException {
+        for(HistogramSnapshot histogram : histograms) {
+            writer.write(histogram.toString());
+            writer.write('\n');
+        }
+
+        for(Map.Entry<String, Long> counter : counters.entrySet()) {
+            writer.write(counter.getKey() + " value=" + counter.getValue());
+            writer.write('\n');
+        }
+
+        writer.flush();
+    }
+}
@@ -0,0 +1,45 @@
+package edu.byu.cs.tweeter.util.tracing;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * A {@link SpanExporter} that appends each span to a file as a single line of JSON. The file can
+ * be pulled off a device and grouped by trace id to reconstruct slow page loads.
+ */
+public class JsonLinesSpanExporter implements SpanExporter {
+
+    private final File file;
+    private final Gson gson = new Gson();
+
+    /**
+     * Creates an instance.
+     *
+     * @param file the file spans are appended to. Created if it doesn't exist.
+     */
+    public JsonLinesSpanExporter(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void export(List<Span> spans) throws IOException {
+        if(spans.isEmpty()) {
+            return;
+        }
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file, true), "UTF-8"))) {
+            for(Span span : spans) {
+                gson.toJson(span, writer);
+                writer.write('\n');
+            }
+        }
+    }
+}
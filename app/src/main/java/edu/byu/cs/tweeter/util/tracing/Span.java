@@ -0,0 +1,100 @@
+package edu.byu.cs.tweeter.util.tracing;
+
+/**
+ * A single timed operation within a trace. Spans form a tree: every span except the root of a
+ * trace has a parent, and children may run on threads other than their parent's. A span is
+ * recorded in the {@link Tracer}'s buffer when {@link #end()} is called.
+ */
+public class Span {
+
+    private final long traceId;
+    private final long spanId;
+    private final long parentSpanId;
+    private final String name;
+    private final String threadName;
+    private final long startTimeMillis;
+    private long durationNanos = -1;
+
+    private final transient long startNanos;
+    private final transient Tracer tracer;
+    private final transient Span previous;
+
+    Span(Tracer tracer, long traceId, long spanId, long parentSpanId, String name, Span previous) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.previous = previous;
+        this.threadName = Thread.currentThread().getName();
+        this.startTimeMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public long getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * Returns the id of this span's parent.
+     *
+     * @return the parent's id, or 0 if this span is the root of its trace.
+     */
+    public long getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * Returns the wall clock time at which the span started.
+     *
+     * @return the start time in milliseconds since the epoch.
+     */
+    public long getStartTimeMillis() {
+        return startTimeMillis;
+    }
+
+    /**
+     * Returns the duration of the span.
+     *
+     * @return the duration in nanoseconds, or -1 if the span has not ended.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Ends the span, records it in the tracer's buffer, and restores the span that was current on
+     * this thread when this span was started. Calling this method more than once has no effect.
+     */
+    public void end() {
+        if(durationNanos >= 0) {
+            return;
+        }
+
+        durationNanos = System.nanoTime() - startNanos;
+        tracer.onSpanEnded(this, previous);
+    }
+
+    @Override
+    public String toString() {
+        return "Span{" +
+                "name='" + name + '\'' +
+                ", traceId=" + traceId +
+                ", spanId=" + spanId +
+                ", parentSpanId=" + parentSpanId +
+                ", durationNanos=" + durationNanos +
+                '}';
+    }
+}
@@ -0,0 +1,19 @@
+package edu.byu.cs.tweeter.util.tracing;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives ended spans from the {@link Tracer} so they can be stored or shipped somewhere for
+ * offline analysis.
+ */
+public interface SpanExporter {
+
+    /**
+     * Exports a batch of spans, ordered by the time they ended.
+     *
+     * @param spans the spans.
+     * @throws IOException if an I/O error occurs while exporting.
+     */
+    void export(List<Span> spans) throws IOException;
+}
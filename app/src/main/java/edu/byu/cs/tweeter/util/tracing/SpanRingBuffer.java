@@ -0,0 +1,74 @@
+package edu.byu.cs.tweeter.util.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed-size, lock-free buffer of the most recently ended spans. Once the buffer is full, each
+ * new span overwrites the oldest one, so memory use is bounded no matter how long tracing is left
+ * on.
+ */
+class SpanRingBuffer {
+
+    private final AtomicReferenceArray<Span> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    /**
+     * Creates an instance.
+     *
+     * @param capacity the maximum number of spans retained. Rounded up to a power of two.
+     */
+    SpanRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * Adds a span, overwriting the oldest span if the buffer is full.
+     *
+     * @param span the span.
+     */
+    void add(Span span) {
+        long sequence = nextSequence.getAndIncrement();
+        slots.set((int) (sequence & mask), span);
+    }
+
+    /**
+     * Returns the sequence number that will be assigned to the next span added.
+     *
+     * @return the sequence number.
+     */
+    long getNextSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Returns the spans still in the buffer whose sequence number is at least 'fromSequence', in
+     * the order they were added. Spans that have already been overwritten are silently skipped.
+     *
+     * @param fromSequence the sequence number of the first span to return.
+     * @param toSequence the sequence number after the last span to return.
+     * @return the spans.
+     */
+    List<Span> getSpans(long fromSequence, long toSequence) {
+        long start = Math.max(fromSequence, toSequence - slots.length());
+        List<Span> spans = new ArrayList<>((int) Math.max(0, toSequence - start));
+
+        for(long sequence = start; sequence < toSequence; sequence++) {
+            Span span = slots.get((int) (sequence & mask));
+            if(span != null) {
+                spans.add(span);
+            }
+        }
+
+        return spans;
+    }
+
+    int getCapacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,168 @@
+package edu.byu.cs.tweeter.util.tracing;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates request-scoped {@link Span}s and keeps the most recently ended ones in a bounded
+ * in-memory buffer.
+ * <p>
+ * Each thread has a current span. {@link #startSpan(String)} creates a child of the current span
+ * (or the root of a new trace if there is none) and makes the new span current until it ends, so
+ * nested calls on the same thread are parented automatically. Work handed off to another thread
+ * should pass the parent explicitly with {@link #startSpan(String, Span)}.
+ */
+public class Tracer {
+
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private static final Tracer instance = new Tracer(DEFAULT_CAPACITY);
+
+    private final ThreadLocal<Span> currentSpan = new ThreadLocal<>();
+    private final AtomicLong nextId = new AtomicLong(new Random().nextLong());
+    private final SpanRingBuffer buffer;
+
+    private volatile SpanExporter exporter;
+    private long exportedSequence;
+
+    /**
+     * Creates an instance. Production code should use {@link #getInstance()}; separate instances
+     * are only useful in tests.
+     *
+     * @param capacity the number of ended spans retained in memory.
+     */
+    Tracer(int capacity) {
+        buffer = new SpanRingBuffer(capacity);
+    }
+
+    /**
+     * Returns the singleton instance of the class
+     *
+     * @return the instance.
+     */
+    public static Tracer getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts the root span of a new trace, regardless of any span that is current on this thread.
+     * The new span becomes the current span of this thread until it ends.
+     *
+     * @param name the name of the operation.
+     * @return the span.
+     */
+    public Span startTrace(String name) {
+        return start(name, newId(), 0);
+    }
+
+    /**
+     * Starts a span that is a child of the current span of this thread, or the root of a new
+     * trace if this thread has no current span. The new span becomes the current span of this
+     * thread until it ends.
+     *
+     * @param name the name of the operation.
+     * @return the span.
+     */
+    public Span startSpan(String name) {
+        return startSpan(name, currentSpan.get());
+    }
+
+    /**
+     * Starts a span that is a child of the specified parent. Used for work that runs on a
+     * different thread than its parent, such as concurrent fetches started by one request. The
+     * new span becomes the current span of this thread until it ends.
+     *
+     * @param name the name of the operation.
+     * @param parent the parent span, or null to start a new trace.
+     * @return the span.
+     */
+    public Span startSpan(String name, Span parent) {
+        if(parent == null) {
+            return startTrace(name);
+        }
+
+        return start(name, parent.getTraceId(), parent.getSpanId());
+    }
+
+    /**
+     * Returns the current span of this thread.
+     *
+     * @return the span, or null if no span is in progress on this thread.
+     */
+    public Span getCurrentSpan() {
+        return currentSpan.get();
+    }
+
+    /**
+     * Sets the exporter used by {@link #flush()}.
+     *
+     * @param exporter the exporter, or null to disable exporting.
+     */
+    public void setExporter(SpanExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    /**
+     * Passes every span that has ended since the previous flush, and is still in the buffer, to
+     * the exporter. Does nothing if no exporter is set.
+     *
+     * @throws IOException if the exporter fails.
+     */
+    public synchronized void flush() throws IOException {
+        SpanExporter spanExporter = exporter;
+        if(spanExporter == null) {
+            return;
+        }
+
+        long toSequence = buffer.getNextSequence();
+        List<Span> spans = buffer.getSpans(exportedSequence, toSequence);
+        spanExporter.export(spans);
+        exportedSequence = toSequence;
+    }
+
+    /**
+     * Returns the ended spans that are still in the buffer, in the order they ended.
+     *
+     * @return the spans.
+     */
+    public List<Span> getRecentSpans() {
+        long toSequence = buffer.getNextSequence();
+        return buffer.getSpans(toSequence - buffer.getCapacity(), toSequence);
+    }
+
+    private Span start(String name, long traceId, long parentSpanId) {
+        Span span = new Span(this, traceId, newId(), parentSpanId, name, currentSpan.get());
+        currentSpan.set(span);
+        return span;
+    }
+
+    private long newId() {
+        long id;
+        do {
+            id = nextId.incrementAndGet();
+        } while(id == 0);
+
+        return id;
+    }
+
+    /**
+     * Called by a span when it ends. Records the span and, if the span is still current on the
+     * calling thread, restores the span that was current before it started.
+     *
+     * @param span the span that ended.
+     * @param previous the span that was current when 'span' started.
+     */
+    void onSpanEnded(Span span, Span previous) {
+        buffer.add(span);
+
+        if(currentSpan.get() == span) {
+            if(previous == null) {
+                currentSpan.remove();
+            } else {
+                currentSpan.set(previous);
+            }
+        }
+    }
+}
@@ -2,30 +2,51 @@ package edu.byu.cs.tweeter.view;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import android.content.Context;
 import android.content.Intent;
+import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
 import android.widget.Toast;
 
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
 import edu.byu.cs.tweeter.R;
+import edu.byu.cs.tweeter.model.domain.Session;
+import edu.byu.cs.tweeter.model.service.SessionHolder;
+import edu.byu.cs.tweeter.model.service.SessionSnapshot;
+import edu.byu.cs.tweeter.model.service.SessionStore;
 import edu.byu.cs.tweeter.model.service.request.LoginRequest;
 import edu.byu.cs.tweeter.model.service.response.LoginResponse;
 import edu.byu.cs.tweeter.presenter.LoginPresenter;
+import edu.byu.cs.tweeter.util.concurrent.TaskPriority;
 import edu.byu.cs.tweeter.view.asyncTasks.LoginTask;
+import edu.byu.cs.tweeter.view.asyncTasks.RefreshSessionTask;
+import edu.byu.cs.tweeter.view.asyncTasks.RestoreSessionTask;
 import edu.byu.cs.tweeter.view.main.MainActivity;
+import edu.byu.cs.tweeter.view.util.AndroidKeyStoreKeyProvider;
 
 /**
  * Contains the minimum UI required to allow the user to login with a hard-coded user. Most or all
  * of this should be replaced when the back-end is implemented.
  */
-public class LoginActivity extends AppCompatActivity implements LoginPresenter.View, LoginTask.Observer {
+public class LoginActivity extends AppCompatActivity implements LoginPresenter.View, LoginTask.Observer,
+        RestoreSessionTask.Observer {
 
     private static final String LOG_TAG = "LoginActivity";
 
+    private static final String SESSION_FILE_NAME = "session.bin";
+    private static final String SESSION_KEY_ALIAS = "TweeterSession";
+    private static final long SESSION_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+
     private LoginPresenter presenter;
     private Toast loginInToast;
+    private LoginTask loginTask;
+    private RestoreSessionTask restoreSessionTask;
+    private SessionStore sessionStore;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -33,6 +54,13 @@ public class LoginActivity extends AppCompatActivity implements LoginPresenter.V
         setContentView(R.layout.activity_login);
 
         presenter = new LoginPresenter(this);
+        sessionStore = createSessionStore();
+
+        // Skip the login round trip if a saved session can be restored
+        if(sessionStore != null && savedInstanceState == null) {
+            restoreSessionTask = new RestoreSessionTask(presenter, this);
+            restoreSessionTask.execute(sessionStore);
+        }
 
         Button loginButton = findViewById(R.id.LoginButton);
         loginButton.setOnClickListener(new View.OnClickListener() {
@@ -50,12 +78,86 @@ public class LoginActivity extends AppCompatActivity implements LoginPresenter.V
 
                 // It doesn't matter what values we put here. We will be logged in with a hard-coded dummy user.
                 LoginRequest loginRequest = new LoginRequest("dummyUserName", "dummyPassword");
-                LoginTask loginTask = new LoginTask(presenter, LoginActivity.this);
+                if(restoreSessionTask != null) {
+                    restoreSessionTask.cancel();
+                }
+
+                loginTask = new LoginTask(presenter, sessionStore, LoginActivity.this);
                 loginTask.execute(loginRequest);
             }
         });
     }
 
+    /**
+     * Cancels a login that is still in progress so it doesn't call back into a destroyed activity.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+
+        if(loginTask != null) {
+            loginTask.cancel();
+        }
+
+        if(restoreSessionTask != null) {
+            restoreSessionTask.cancel();
+        }
+    }
+
+    /**
+     * Creates the store for the saved session. Sessions are only saved on devices whose key store
+     * can hold the AES key that encrypts them (API 23 and later); older devices log in on every
+     * cold start.
+     *
+     * @return the store, or null if sessions can't be saved on this device.
+     */
+    private SessionStore createSessionStore() {
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return null;
+        }
+
+        return new SessionStore(new File(getFilesDir(), SESSION_FILE_NAME),
+                new AndroidKeyStoreKeyProvider(SESSION_KEY_ALIAS), SESSION_MAX_AGE_MILLIS);
+    }
+
+    /**
+     * The callback method that gets invoked when a saved session is restored. Displays the
+     * MainActivity right away and refreshes the saved data in the background. If the server
+     * rejects the restored auth token, the session is closed and the login screen shown again.
+     * This activity has finished by then, so the login screen is started from the application
+     * context, in a new task that replaces the main screen.
+     *
+     * @param snapshot the restored session.
+     */
+    @Override
+    public void sessionRestored(SessionSnapshot snapshot) {
+        Session session = SessionHolder.getInstance().open(snapshot.getUser(), snapshot.getAuthToken());
+        final Context applicationContext = getApplicationContext();
+
+        new RefreshSessionTask(presenter, sessionStore, new RefreshSessionTask.Observer() {
+            @Override
+            public void sessionRejected(Session session) {
+                SessionHolder.getInstance().close(session.getId());
+                Toast.makeText(applicationContext, "Your session has expired. Please log in again.", Toast.LENGTH_LONG).show();
+
+                Intent intent = new Intent(applicationContext, LoginActivity.class);
+                intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+                applicationContext.startActivity(intent);
+            }
+        }).execute(TaskPriority.BACKGROUND, session);
+
+        startActivity(MainActivity.newIntent(this, session));
+        finish();
+    }
+
+    /**
+     * The callback method that gets invoked when there is no saved session to restore. The login
+     * screen is already showing, so there is nothing to do.
+     */
+    @Override
+    public void noSessionRestored() {
+    }
+
     /**
      * The callback method that gets invoked for a successful login. Displays the MainActivity.
      *
@@ -63,10 +165,8 @@ public class LoginActivity extends AppCompatActivity implements LoginPresenter.V
      */
     @Override
     public void loginSuccessful(LoginResponse loginResponse) {
-        Intent intent = new Intent(this, MainActivity.class);
-
-        intent.putExtra(MainActivity.CURRENT_USER_KEY, loginResponse.getUser());
-        intent.putExtra(MainActivity.AUTH_TOKEN_KEY, loginResponse.getAuthToken());
+        Session session = SessionHolder.getInstance().open(loginResponse.getUser(), loginResponse.getAuthToken());
+        Intent intent = MainActivity.newIntent(this, session);
 
         loginInToast.cancel();
         startActivity(intent);
@@ -0,0 +1,140 @@
+package edu.byu.cs.tweeter.view.asyncTasks;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.concurrent.TaskPriority;
+import edu.byu.cs.tweeter.util.concurrent.TaskScheduler;
+
+/**
+ * The base class for the app's asynchronous tasks. Plays the same role as {@link android.os.AsyncTask}
+ * but runs on the app's shared {@link TaskScheduler} instead of AsyncTask's single serial executor,
+ * so tasks can run concurrently and be prioritized and cancelled.
+ *
+ * @param <Params> the type of the parameter passed to {@link #execute(Object)}.
+ * @param <Result> the type of the result of the background work.
+ */
+public abstract class BackgroundTask<Params, Result> {
+
+    private static final int WORKER_THREAD_COUNT = 4;
+
+    private static TaskScheduler scheduler;
+
+    private final CancellationToken cancellationToken = new CancellationToken();
+
+    /**
+     * Returns the scheduler shared by all tasks. Results are delivered on the main thread.
+     *
+     * @return the scheduler.
+     */
+    public static synchronized TaskScheduler getScheduler() {
+        if(scheduler == null) {
+            final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+
+            scheduler = new TaskScheduler(WORKER_THREAD_COUNT, new Executor() {
+                @Override
+                public void execute(Runnable runnable) {
+                    mainThreadHandler.post(runnable);
+                }
+            });
+        }
+
+        return scheduler;
+    }
+
+    /**
+     * Returns an executor that runs work on the shared scheduler with the specified priority, for
+     * work that a task fans out to other threads.
+     *
+     * @param priority the priority class of the work.
+     * @return the executor.
+     */
+    public static Executor getExecutor(final TaskPriority priority) {
+        return new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                getScheduler().execute(priority, runnable);
+            }
+        };
+    }
+
+    /**
+     * Queues the task with {@link TaskPriority#INTERACTIVE} priority.
+     *
+     * @param params the parameter passed to {@link #doInBackground(Object)}.
+     */
+    public final void execute(Params params) {
+        execute(TaskPriority.INTERACTIVE, params);
+    }
+
+    /**
+     * Queues the task with the specified priority.
+     *
+     * @param priority the priority class of the task.
+     * @param params the parameter passed to {@link #doInBackground(Object)}.
+     */
+    public final void execute(TaskPriority priority, final Params params) {
+        getScheduler().submit(priority, cancellationToken, new TaskScheduler.Task<Result>() {
+            @Override
+            public Result run(CancellationToken token) {
+                return doInBackground(params);
+            }
+
+            @Override
+            public void onComplete(Result result) {
+                onPostExecute(result);
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                // Unexpected exceptions crash the app, as they would with an AsyncTask
+                throw new RuntimeException(exception);
+            }
+        });
+    }
+
+    /**
+     * Cancels the task. If the task has not started it never will, and {@link #onPostExecute(Object)}
+     * is not called in either case.
+     */
+    public final void cancel() {
+        cancellationToken.cancel();
+    }
+
+    /**
+     * Returns the token that cancels this task. Equivalent to calling {@link #cancel()}, for
+     * callers that only deal in tokens.
+     *
+     * @return the token.
+     */
+    public final CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    /**
+     * Indicates whether the task has been cancelled.
+     *
+     * @return true if cancelled; otherwise, false.
+     */
+    public final boolean isCancelled() {
+        return cancellationToken.isCancelled();
+    }
+
+    /**
+     * Performs the work on a worker thread.
+     *
+     * @param params the parameter passed to {@link #execute(Object)}.
+     * @return the result.
+     */
+    protected abstract Result doInBackground(Params params);
+
+    /**
+     * Receives the result on the main thread.
+     *
+     * @param result the result returned by {@link #doInBackground(Object)}.
+     */
+    protected abstract void onPostExecute(Result result);
+}
@@ -1,14 +1,14 @@
 package edu.byu.cs.tweeter.view.asyncTasks;
 
-import android.os.AsyncTask;
-
 import java.io.IOException;
 
 import edu.byu.cs.tweeter.model.service.request.FollowerRequest;
 import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
 import edu.byu.cs.tweeter.presenter.FollowerPresenter;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
 
-public class GetFollowerTask extends AsyncTask<FollowerRequest, Void, FollowerResponse> {
+public class GetFollowerTask extends BackgroundTask<FollowerRequest, FollowerResponse> {
 
     private final FollowerPresenter presenter;
     private final Observer observer;
@@ -29,14 +29,17 @@ public class GetFollowerTask extends AsyncTask<FollowerRequest, Void, FollowerRe
     }
 
     @Override
-    protected FollowerResponse doInBackground(FollowerRequest... followerRequests) {
+    protected FollowerResponse doInBackground(FollowerRequest followerRequest) {
 
         FollowerResponse response = null;
+        Span span = Tracer.getInstance().startTrace("GetFollowerTask");
 
         try {
-            response = presenter.getFollower(followerRequests[0]);
+            response = presenter.getFollower(followerRequest);
         } catch (IOException e) {
             exception = e;
+        } finally {
+            span.end();
         }
 
         return  response;
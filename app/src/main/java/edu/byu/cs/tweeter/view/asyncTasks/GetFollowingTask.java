@@ -1,17 +1,17 @@
 package edu.byu.cs.tweeter.view.asyncTasks;
 
-import android.os.AsyncTask;
-
 import java.io.IOException;
 
 import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
 import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
 import edu.byu.cs.tweeter.presenter.FollowingPresenter;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
 
 /**
- * An {@link AsyncTask} for retrieving followees for a user.
+ * A {@link BackgroundTask} for retrieving followees for a user.
  */
-public class GetFollowingTask extends AsyncTask<FollowingRequest, Void, FollowingResponse> {
+public class GetFollowingTask extends BackgroundTask<FollowingRequest, FollowingResponse> {
 
     private final FollowingPresenter presenter;
     private final Observer observer;
@@ -43,20 +43,23 @@ public class GetFollowingTask extends AsyncTask<FollowingRequest, Void, Followin
 
     /**
      * The method that is invoked on the background thread to retrieve followees. This method is
-     * invoked indirectly by calling {@link #execute(FollowingRequest...)}.
+     * invoked indirectly by calling {@link #execute(Object)}.
      *
-     * @param followingRequests the request object (there will only be one).
+     * @param followingRequest the request object.
      * @return the response.
      */
     @Override
-    protected FollowingResponse doInBackground(FollowingRequest... followingRequests) {
+    protected FollowingResponse doInBackground(FollowingRequest followingRequest) {
 
         FollowingResponse response = null;
+        Span span = Tracer.getInstance().startTrace("GetFollowingTask");
 
         try {
-            response = presenter.getFollowing(followingRequests[0]);
+            response = presenter.getFollowing(followingRequest);
         } catch (IOException ex) {
             exception = ex;
+        } finally {
+            span.end();
         }
 
         return response;
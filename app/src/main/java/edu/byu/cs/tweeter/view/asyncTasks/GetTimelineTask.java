@@ -0,0 +1,82 @@
+package edu.byu.cs.tweeter.view.asyncTasks;
+
+import java.io.IOException;
+
+import edu.byu.cs.tweeter.model.service.request.TimelineRequest;
+import edu.byu.cs.tweeter.model.service.response.TimelineResponse;
+import edu.byu.cs.tweeter.presenter.TimelinePresenter;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * A {@link BackgroundTask} for retrieving a page of one of a user's timelines, their feed or their
+ * story.
+ */
+public class GetTimelineTask extends BackgroundTask<TimelineRequest, TimelineResponse> {
+
+    private final TimelinePresenter presenter;
+    private final Observer observer;
+    private Exception exception;
+
+    /**
+     * An observer interface to be implemented by observers who want to be notified when this task
+     * completes.
+     */
+    public interface Observer {
+        void statusesRetrieved(TimelineResponse timelineResponse);
+        void handleException(Exception exception);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param presenter the presenter from whom this task should retrieve the timeline.
+     * @param observer the observer who wants to be notified when this task completes.
+     */
+    public GetTimelineTask(TimelinePresenter presenter, Observer observer) {
+        if(observer == null) {
+            throw new NullPointerException();
+        }
+
+        this.presenter = presenter;
+        this.observer = observer;
+    }
+
+    /**
+     * The method that is invoked on the background thread to retrieve the timeline. This method is
+     * invoked indirectly by calling {@link #execute(Object)}.
+     *
+     * @param timelineRequest the request object.
+     * @return the response.
+     */
+    @Override
+    protected TimelineResponse doInBackground(TimelineRequest timelineRequest) {
+
+        TimelineResponse response = null;
+        Span span = Tracer.getInstance().startTrace("GetTimelineTask");
+
+        try {
+            response = presenter.getTimeline(timelineRequest);
+        } catch (IOException ex) {
+            exception = ex;
+        } finally {
+            span.end();
+        }
+
+        return response;
+    }
+
+    /**
+     * Notifies the observer (on the UI thread) when the task completes.
+     *
+     * @param timelineResponse the response that was received by the task.
+     */
+    @Override
+    protected void onPostExecute(TimelineResponse timelineResponse) {
+        if(exception != null) {
+            observer.handleException(exception);
+        } else {
+            observer.statusesRetrieved(timelineResponse);
+        }
+    }
+}
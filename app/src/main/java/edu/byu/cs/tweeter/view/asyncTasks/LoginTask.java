@@ -1,19 +1,24 @@
 package edu.byu.cs.tweeter.view.asyncTasks;
 
-import android.os.AsyncTask;
 import android.util.Log;
 
 import java.io.IOException;
 
-import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.service.SessionStore;
 import edu.byu.cs.tweeter.model.service.request.LoginRequest;
 import edu.byu.cs.tweeter.model.service.response.LoginResponse;
 import edu.byu.cs.tweeter.presenter.LoginPresenter;
-import edu.byu.cs.tweeter.util.ByteArrayUtils;
+import edu.byu.cs.tweeter.util.concurrent.TaskPriority;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+import edu.byu.cs.tweeter.view.main.paging.PagingController;
 
-public class LoginTask extends AsyncTask<LoginRequest, Void, LoginResponse> {
+public class LoginTask extends BackgroundTask<LoginRequest, LoginResponse> {
+
+    private static final String LOG_TAG = "LoginTask";
 
     private final LoginPresenter presenter;
+    private final SessionStore sessionStore;
     private final Observer observer;
     private Exception exception;
 
@@ -34,55 +39,81 @@ public class LoginTask extends AsyncTask<LoginRequest, Void, LoginResponse> {
      * @param observer the observer who wants to be notified when this task completes.
      */
     public LoginTask(LoginPresenter presenter, Observer observer) {
+        this(presenter, null, observer);
+    }
+
+    /**
+     * Creates an instance that saves the session after a successful login.
+     *
+     * @param presenter the presenter this task should use to login.
+     * @param sessionStore the store in which the session is saved, or null to not save it.
+     * @param observer the observer who wants to be notified when this task completes.
+     */
+    public LoginTask(LoginPresenter presenter, SessionStore sessionStore, Observer observer) {
         if(observer == null) {
             throw new NullPointerException();
         }
 
         this.presenter = presenter;
+        this.sessionStore = sessionStore;
         this.observer = observer;
     }
 
     /**
-     * The method that is invoked on a background thread to log the user in. This method is
-     * invoked indirectly by calling {@link #execute(LoginRequest...)}.
+     * The method that is invoked on a background thread to log the user in. Once logged in, the
+     * data for the main screen is loaded in parallel before the task completes, so the main screen
+     * opens populated, and the session is saved for the next cold start. This method is invoked
+     * indirectly by calling {@link #execute(Object)}.
      *
-     * @param loginRequests the request object (there will only be one).
+     * @param loginRequest the request object.
      * @return the response.
      */
     @Override
-    protected LoginResponse doInBackground(LoginRequest... loginRequests) {
+    protected LoginResponse doInBackground(LoginRequest loginRequest) {
         LoginResponse loginResponse = null;
+        Span span = Tracer.getInstance().startTrace("LoginTask");
 
         try {
-            loginResponse = presenter.login(loginRequests[0]);
+            loginResponse = presenter.login(loginRequest);
 
-            if(loginResponse.isSuccess()) {
-                loadImage(loginResponse.getUser());
+            if(loginResponse.isSuccess() && !isCancelled()) {
+                presenter.warmUp(loginResponse.getUser(), loginResponse.getAuthToken(),
+                        getExecutor(TaskPriority.INTERACTIVE),
+                        PagingController.DEFAULT_PAGE_SIZE);
+                saveSession(loginResponse);
             }
         } catch (IOException ex) {
             exception = ex;
+        } catch (InterruptedException ex) {
+            // Warming up is best effort; the screens will load their own data
+            Thread.currentThread().interrupt();
+        } finally {
+            span.end();
         }
 
         return loginResponse;
     }
 
     /**
-     * Loads the profile image for the user.
+     * Saves the session, if this task has a store. A session that can't be saved only costs a
+     * login on the next cold start, so failures are logged rather than reported.
      *
-     * @param user the user whose profile image is to be loaded.
+     * @param loginResponse the response to the successful login.
      */
-    private void loadImage(User user) {
+    private void saveSession(LoginResponse loginResponse) {
+        if(sessionStore == null) {
+            return;
+        }
+
         try {
-            byte [] bytes = ByteArrayUtils.bytesFromUrl(user.getImageUrl());
-            user.setImageBytes(bytes);
-        } catch (IOException e) {
-            Log.e(this.getClass().getName(), e.toString(), e);
+            presenter.saveSession(sessionStore, loginResponse.getUser(), loginResponse.getAuthToken());
+        } catch (IOException ex) {
+            Log.e(LOG_TAG, "Unable to save session", ex);
         }
     }
 
     /**
-     * Notifies the observer (on the thread of the invoker of the
-     * {@link #execute(LoginRequest...)} method) when the task completes.
+     * Notifies the observer (on the UI thread) when the task completes.
      *
      * @param loginResponse the response that was received by the task.
      */
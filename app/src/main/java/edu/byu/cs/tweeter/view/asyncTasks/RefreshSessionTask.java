@@ -0,0 +1,95 @@
+package edu.byu.cs.tweeter.view.asyncTasks;
+
+import android.util.Log;
+
+import java.io.IOException;
+
+import edu.byu.cs.tweeter.model.domain.Session;
+import edu.byu.cs.tweeter.model.service.SessionStore;
+import edu.byu.cs.tweeter.presenter.LoginPresenter;
+import edu.byu.cs.tweeter.util.concurrent.TaskPriority;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+import edu.byu.cs.tweeter.view.main.paging.PagingController;
+
+/**
+ * A {@link BackgroundTask} that revalidates a session restored at a cold start. The data shown
+ * from the saved session is reloaded and saved again, so the next cold start shows current data.
+ * If the server no longer accepts the session's auth token, the saved session is deleted and the
+ * observer is told, so the user can log in again. It should be executed with
+ * {@link TaskPriority#BACKGROUND} priority so it never delays the screens the user is looking at.
+ */
+public class RefreshSessionTask extends BackgroundTask<Session, Boolean> {
+
+    private static final String LOG_TAG = "RefreshSessionTask";
+
+    private final LoginPresenter presenter;
+    private final SessionStore sessionStore;
+    private final Observer observer;
+
+    private Session session;
+
+    /**
+     * An observer interface to be implemented by observers who want to be notified when the
+     * restored session turns out to be invalid.
+     */
+    public interface Observer {
+        void sessionRejected(Session session);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param presenter the presenter this task should use to refresh the session.
+     * @param sessionStore the store in which the refreshed session is saved.
+     * @param observer the observer who wants to be notified if the session is rejected.
+     */
+    public RefreshSessionTask(LoginPresenter presenter, SessionStore sessionStore, Observer observer) {
+        if(observer == null) {
+            throw new NullPointerException();
+        }
+
+        this.presenter = presenter;
+        this.sessionStore = sessionStore;
+        this.observer = observer;
+    }
+
+    /**
+     * The method that is invoked on a background thread to refresh the session. This method is
+     * invoked indirectly by calling {@link #execute(Object)}.
+     *
+     * @param session the restored session.
+     * @return false if the server rejected the session's auth token; otherwise, true.
+     */
+    @Override
+    protected Boolean doInBackground(Session session) {
+        Span span = Tracer.getInstance().startTrace("RefreshSessionTask");
+        this.session = session;
+
+        try {
+            return presenter.refreshSession(sessionStore, session.getUser(), session.getAuthToken(),
+                    getExecutor(TaskPriority.BACKGROUND),
+                    PagingController.DEFAULT_PAGE_SIZE);
+        } catch (IOException ex) {
+            Log.e(LOG_TAG, "Unable to save session", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            span.end();
+        }
+
+        return true;
+    }
+
+    /**
+     * Notifies the observer (on the UI thread) if the session was rejected.
+     *
+     * @param valid false if the server rejected the session's auth token.
+     */
+    @Override
+    protected void onPostExecute(Boolean valid) {
+        if(!valid) {
+            observer.sessionRejected(session);
+        }
+    }
+}
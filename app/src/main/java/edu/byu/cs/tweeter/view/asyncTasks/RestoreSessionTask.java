@@ -0,0 +1,72 @@
+package edu.byu.cs.tweeter.view.asyncTasks;
+
+import edu.byu.cs.tweeter.model.service.SessionSnapshot;
+import edu.byu.cs.tweeter.model.service.SessionStore;
+import edu.byu.cs.tweeter.presenter.LoginPresenter;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * A {@link BackgroundTask} for restoring a saved session at a cold start.
+ */
+public class RestoreSessionTask extends BackgroundTask<SessionStore, SessionSnapshot> {
+
+    private final LoginPresenter presenter;
+    private final Observer observer;
+
+    /**
+     * An observer interface to be implemented by observers who want to be notified when this task
+     * completes.
+     */
+    public interface Observer {
+        void sessionRestored(SessionSnapshot snapshot);
+        void noSessionRestored();
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param presenter the presenter this task should use to restore the session.
+     * @param observer the observer who wants to be notified when this task completes.
+     */
+    public RestoreSessionTask(LoginPresenter presenter, Observer observer) {
+        if(observer == null) {
+            throw new NullPointerException();
+        }
+
+        this.presenter = presenter;
+        this.observer = observer;
+    }
+
+    /**
+     * The method that is invoked on a background thread to restore the session. This method is
+     * invoked indirectly by calling {@link #execute(Object)}.
+     *
+     * @param sessionStore the store from which the session is restored.
+     * @return the saved session, or null if there is none.
+     */
+    @Override
+    protected SessionSnapshot doInBackground(SessionStore sessionStore) {
+        Span span = Tracer.getInstance().startTrace("RestoreSessionTask");
+
+        try {
+            return presenter.restoreSession(sessionStore);
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Notifies the observer (on the UI thread) when the task completes.
+     *
+     * @param snapshot the restored session, or null.
+     */
+    @Override
+    protected void onPostExecute(SessionSnapshot snapshot) {
+        if(snapshot != null) {
+            observer.sessionRestored(snapshot);
+        } else {
+            observer.noSessionRestored();
+        }
+    }
+}
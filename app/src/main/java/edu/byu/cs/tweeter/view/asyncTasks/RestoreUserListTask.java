@@ -0,0 +1,114 @@
+package edu.byu.cs.tweeter.view.asyncTasks;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.service.UserListSnapshot;
+import edu.byu.cs.tweeter.model.service.UserListStore;
+import edu.byu.cs.tweeter.util.ImageStore;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * A {@link BackgroundTask} for restoring a saved list of users at a cold start. The images of the
+ * users around the saved scroll position are loaded before the list is delivered, since the
+ * {@link ImageStore} starts out empty after the process is restarted and the first screen would
+ * otherwise come up without avatars. Images further down the list load as their rows are bound.
+ */
+public class RestoreUserListTask extends BackgroundTask<UserListStore, UserListSnapshot> {
+
+    /**
+     * The number of users from the saved scroll position whose images are loaded, enough to fill
+     * the screen.
+     */
+    private static final int VISIBLE_USER_COUNT = 20;
+
+    private final User owner;
+    private final Observer observer;
+
+    /**
+     * An observer interface to be implemented by observers who want to be notified when this task
+     * completes.
+     */
+    public interface Observer {
+        void userListRestored(UserListSnapshot snapshot);
+        void noUserListRestored();
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param owner the user whose list is to be restored.
+     * @param observer the observer who wants to be notified when this task completes.
+     */
+    public RestoreUserListTask(User owner, Observer observer) {
+        if(observer == null) {
+            throw new NullPointerException();
+        }
+
+        this.owner = owner;
+        this.observer = observer;
+    }
+
+    /**
+     * The method that is invoked on a background thread to restore the list. This method is
+     * invoked indirectly by calling {@link #execute(Object)}.
+     *
+     * @param userListStore the store from which the list is restored.
+     * @return the saved list, or null if there is none.
+     */
+    @Override
+    protected UserListSnapshot doInBackground(UserListStore userListStore) {
+        Span span = Tracer.getInstance().startTrace("RestoreUserListTask");
+
+        try {
+            UserListSnapshot snapshot = userListStore.load(owner, System.currentTimeMillis());
+
+            if(snapshot != null) {
+                loadVisibleImages(snapshot);
+            }
+
+            return snapshot;
+        } finally {
+            span.end();
+        }
+    }
+
+    private void loadVisibleImages(UserListSnapshot snapshot) {
+        List<User> users = snapshot.getUsers();
+        int start = Math.max(0, Math.min(snapshot.getFirstVisiblePosition(), users.size()));
+        int end = Math.min(users.size(), start + VISIBLE_USER_COUNT);
+
+        Set<String> urls = new HashSet<>();
+        for(User user : users.subList(start, end)) {
+            if(user.getImageUrl() != null) {
+                urls.add(user.getImageUrl());
+            }
+        }
+
+        try {
+            for(String url : urls) {
+                ImageStore.getInstance().load(url);
+            }
+        } catch (IOException ex) {
+            // Any image not loaded here is loaded when its row is bound
+        }
+    }
+
+    /**
+     * Notifies the observer (on the UI thread) when the task completes.
+     *
+     * @param snapshot the restored list, or null.
+     */
+    @Override
+    protected void onPostExecute(UserListSnapshot snapshot) {
+        if(snapshot != null) {
+            observer.userListRestored(snapshot);
+        } else {
+            observer.noUserListRestored();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package edu.byu.cs.tweeter.view.asyncTasks;
+
+import android.util.Log;
+
+import java.io.IOException;
+
+import edu.byu.cs.tweeter.model.service.UserListSnapshot;
+import edu.byu.cs.tweeter.model.service.UserListStore;
+import edu.byu.cs.tweeter.util.tracing.Span;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+
+/**
+ * A {@link BackgroundTask} for saving a list of users when the app goes to the background. Saving
+ * is best effort: a failure leaves the previously saved list, if any, in place.
+ */
+public class SaveUserListTask extends BackgroundTask<UserListSnapshot, Void> {
+
+    private static final String LOG_TAG = "SaveUserListTask";
+
+    private final UserListStore userListStore;
+
+    /**
+     * Creates an instance.
+     *
+     * @param userListStore the store in which the list is saved.
+     */
+    public SaveUserListTask(UserListStore userListStore) {
+        this.userListStore = userListStore;
+    }
+
+    /**
+     * The method that is invoked on a background thread to save the list. This method is invoked
+     * indirectly by calling {@link #execute(Object)}.
+     *
+     * @param snapshot the list to save.
+     * @return null.
+     */
+    @Override
+    protected Void doInBackground(UserListSnapshot snapshot) {
+        Span span = Tracer.getInstance().startTrace("SaveUserListTask");
+
+        try {
+            userListStore.save(snapshot);
+        } catch (IOException ex) {
+            Log.e(LOG_TAG, "Unable to save user list", ex);
+        } finally {
+            span.end();
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void onPostExecute(Void result) {
+    }
+}
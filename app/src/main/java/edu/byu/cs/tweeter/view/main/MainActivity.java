@@ -1,6 +1,9 @@
 package edu.byu.cs.tweeter.view.main;
 
+import android.content.Context;
+import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.snackbar.Snackbar;
@@ -15,9 +18,22 @@ import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
 
+import java.io.File;
+import java.io.IOException;
+
 import edu.byu.cs.tweeter.R;
-import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.Session;
 import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.service.PrefetchCache;
+import edu.byu.cs.tweeter.model.service.SessionHolder;
+import edu.byu.cs.tweeter.model.service.response.FollowCountResponse;
+import edu.byu.cs.tweeter.util.concurrent.TaskPriority;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.util.tracing.JsonLinesSpanExporter;
+import edu.byu.cs.tweeter.util.tracing.Tracer;
+import edu.byu.cs.tweeter.view.LoginActivity;
+import edu.byu.cs.tweeter.view.asyncTasks.BackgroundTask;
 import edu.byu.cs.tweeter.view.util.ImageUtils;
 
 /**
@@ -25,27 +41,44 @@ import edu.byu.cs.tweeter.view.util.ImageUtils;
  */
 public class MainActivity extends AppCompatActivity {
 
-    public static final String CURRENT_USER_KEY = "CurrentUser";
-    public static final String AUTH_TOKEN_KEY = "AuthTokenKey";
+    private static final String SESSION_ID_KEY = "SessionId";
+    private static final String TRANSITION_START_KEY = "TransitionStart";
+
+    private static final Histogram TRANSITION_LATENCY =
+            MetricsRegistry.getInstance().histogram("MainActivity.transition");
+
+    private static final String LOG_TAG = "MainActivity";
+    private static final String TRACE_FILE_NAME = "traces.jsonl";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        User user = (User) getIntent().getSerializableExtra(CURRENT_USER_KEY);
-        if(user == null) {
-            throw new RuntimeException("User not passed to activity");
+        Tracer.getInstance().setExporter(new JsonLinesSpanExporter(new File(getFilesDir(), TRACE_FILE_NAME)));
+
+        if(!getIntent().hasExtra(SESSION_ID_KEY)) {
+            throw new RuntimeException("Session not passed to activity");
+        }
+
+        Session session = SessionHolder.getInstance().get(getIntent().getLongExtra(SESSION_ID_KEY, 0));
+        if(session == null) {
+            // The process was restarted since login, so the session is gone. Log in again.
+            startActivity(new Intent(this, LoginActivity.class));
+            finish();
+            return;
         }
 
-        AuthToken authToken = (AuthToken) getIntent().getSerializableExtra(AUTH_TOKEN_KEY);
+        User user = session.getUser();
 
-        SectionsPagerAdapter sectionsPagerAdapter = new SectionsPagerAdapter(this, getSupportFragmentManager(), user, authToken);
+        SectionsPagerAdapter sectionsPagerAdapter = new SectionsPagerAdapter(this, getSupportFragmentManager(), session.getId());
         ViewPager viewPager = findViewById(R.id.view_pager);
         viewPager.setAdapter(sectionsPagerAdapter);
         TabLayout tabs = findViewById(R.id.tabs);
         tabs.setupWithViewPager(viewPager);
 
+        recordTransition(savedInstanceState, viewPager);
+
         FloatingActionButton fab = findViewById(R.id.fab);
 
         // We should use a Java 8 lambda function for the listener (and all other listeners), but
@@ -65,13 +98,72 @@ public class MainActivity extends AppCompatActivity {
         userAlias.setText(user.getAlias());
 
         ImageView userImageView = findViewById(R.id.userImage);
-        userImageView.setImageDrawable(ImageUtils.drawableFromByteArray(user.getImageBytes()));
+        ImageUtils.bindImage(userImageView, user.getImageUrl());
+
+        // The counts are loaded at login. If that didn't finish in time, show the placeholders.
+        FollowCountResponse followCount = PrefetchCache.getInstance().getFollowCount(user);
 
         TextView followeeCount = findViewById(R.id.followeeCount);
-        followeeCount.setText("Following: " + "-42");
+        followeeCount.setText("Following: " + (followCount == null ? "-42" : followCount.getFolloweeCount()));
 
         TextView followerCount = findViewById(R.id.followerCount);
-        followerCount.setText("Followers: " + "-42");
+        followerCount.setText("Followers: " + (followCount == null ? "-42" : followCount.getFollowerCount()));
+    }
+
+    /**
+     * Creates an intent that starts this activity for the specified session. Only the session's id
+     * is placed in the intent; the activity looks the session up in the {@link SessionHolder}.
+     *
+     * @param context the context that starts the activity.
+     * @param session the logged in user's session.
+     * @return the intent.
+     */
+    public static Intent newIntent(Context context, Session session) {
+        Intent intent = new Intent(context, MainActivity.class);
+        intent.putExtra(SESSION_ID_KEY, session.getId());
+        intent.putExtra(TRANSITION_START_KEY, System.nanoTime());
+        return intent;
+    }
+
+    /**
+     * Records the time from the intent being created to the activity's first frame, if this
+     * activity was started by a new intent rather than restored.
+     *
+     * @param savedInstanceState the activity's saved state, if it is being restored.
+     * @param view a view in the activity's layout.
+     */
+    private void recordTransition(Bundle savedInstanceState, View view) {
+        final long start = getIntent().getLongExtra(TRANSITION_START_KEY, 0);
+
+        if(savedInstanceState == null && start != 0) {
+            // Posted work runs after the first layout and draw of the view hierarchy
+            view.post(new Runnable() {
+                @Override
+                public void run() {
+                    TRANSITION_LATENCY.recordSince(start);
+                }
+            });
+        }
+    }
+
+    /**
+     * Appends the spans recorded while this activity was visible to the trace file. The write
+     * happens on a background thread so it doesn't delay the activity transition.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+
+        BackgroundTask.getScheduler().execute(TaskPriority.BACKGROUND, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Tracer.getInstance().flush();
+                } catch (IOException ex) {
+                    Log.e(LOG_TAG, "Unable to export trace spans", ex);
+                }
+            }
+        });
     }
 
     @Override
@@ -0,0 +1,180 @@
+package edu.byu.cs.tweeter.view.main;
+
+import android.os.Bundle;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+
+import edu.byu.cs.tweeter.R;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.service.UserListSnapshot;
+import edu.byu.cs.tweeter.model.service.UserListStore;
+import edu.byu.cs.tweeter.util.concurrent.TaskPriority;
+import edu.byu.cs.tweeter.view.asyncTasks.RestoreUserListTask;
+import edu.byu.cs.tweeter.view.asyncTasks.SaveUserListTask;
+import edu.byu.cs.tweeter.view.main.paging.PageLoader;
+import edu.byu.cs.tweeter.view.main.paging.PagingController;
+import edu.byu.cs.tweeter.view.util.ImageUtils;
+
+/**
+ * The base class for tabs that display a paged list of users, such as the 'Following' and
+ * 'Followers' tabs. Subclasses only supply their layout and a {@link PageLoader}; the user rows
+ * are shared.
+ * <p>
+ * When the app goes to the background, the loaded users and the scroll position are saved to a
+ * {@link UserListStore}. After a cold start they are restored in place of loading the first page,
+ * and paging continues lazily from the last restored user when the user scrolls to the end.
+ */
+public abstract class SavedUserListFragment extends UserListFragment<User> {
+
+    private static final long SAVED_LIST_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private UserListStore userListStore;
+    private RestoreUserListTask restoreTask;
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Lists are saved per tab, e.g. "FollowingFragment.users"
+        //noinspection ConstantConditions
+        userListStore = new UserListStore(new File(getContext().getFilesDir(),
+                getClass().getSimpleName() + ".users"), SAVED_LIST_MAX_AGE_MILLIS);
+    }
+
+    @Override
+    protected int getRowLayoutId() {
+        return R.layout.user_row;
+    }
+
+    @Override
+    protected ItemHolder<User> createItemHolder(View itemView) {
+        return new UserHolder(itemView);
+    }
+
+    /**
+     * Restores the list saved when the app was last in the background. If there is none, supplies
+     * the first page loaded at login, if there is one, and then loads the first page if it is
+     * still needed.
+     */
+    @Override
+    protected void showFirstPage() {
+        final User owner = getOwner();
+
+        restoreTask = new RestoreUserListTask(owner, new RestoreUserListTask.Observer() {
+            @Override
+            public void userListRestored(UserListSnapshot snapshot) {
+                restoreTask = null;
+
+                PagingController<User> pagingController = getPagingController();
+                pagingController.seedFirstPage(snapshot.getUsers(), snapshot.getHasMorePages());
+                getLayoutManager().scrollToPositionWithOffset(snapshot.getFirstVisiblePosition(),
+                        snapshot.getFirstVisibleOffset());
+
+                // Releases any page loaded at login; the restored list already includes it
+                seedFirstPage(owner, pagingController);
+            }
+
+            @Override
+            public void noUserListRestored() {
+                restoreTask = null;
+
+                seedFirstPage(owner, getPagingController());
+                loadFirstPage();
+            }
+        });
+
+        restoreTask.execute(TaskPriority.INTERACTIVE, userListStore);
+    }
+
+    /**
+     * Saves the loaded users and the scroll position when the app goes to the background, so they
+     * can be restored after a cold start. Nothing is saved when the activity is only being
+     * recreated, since the {@link UserListViewModel} retains the list.
+     */
+    @Override
+    public void onStop() {
+        super.onStop();
+
+        PagingController<User> pagingController = getPagingController();
+
+        //noinspection ConstantConditions
+        if(pagingController == null || pagingController.getItems().isEmpty()
+                || getActivity().isChangingConfigurations()) {
+            return;
+        }
+
+        LinearLayoutManager layoutManager = getLayoutManager();
+        int position = Math.max(0, layoutManager.findFirstVisibleItemPosition());
+        View firstVisible = layoutManager.findViewByPosition(position);
+        int offset = firstVisible == null ? 0 : firstVisible.getTop() - getRecyclerView().getPaddingTop();
+
+        UserListSnapshot snapshot = new UserListSnapshot(getOwner(), new ArrayList<>(pagingController.getItems()),
+                pagingController.hasMorePages(), position, offset, System.currentTimeMillis());
+
+        new SaveUserListTask(userListStore).execute(TaskPriority.BACKGROUND, snapshot);
+    }
+
+    /**
+     * Cancels a restore still in progress, then detaches the view from the retained controller.
+     */
+    @Override
+    public void onDestroyView() {
+        if(restoreTask != null) {
+            restoreTask.cancel();
+            restoreTask = null;
+        }
+
+        super.onDestroyView();
+    }
+
+    /**
+     * The ViewHolder for a user row.
+     */
+    private class UserHolder extends ItemHolder<User> {
+
+        private final ImageView userImage;
+        private final TextView userAlias;
+        private final TextView userName;
+
+        /**
+         * Creates an instance and sets an OnClickListener for the user's row.
+         *
+         * @param itemView the view on which the user will be displayed.
+         */
+        UserHolder(@NonNull View itemView) {
+            super(itemView);
+
+            userImage = itemView.findViewById(R.id.userImage);
+            userAlias = itemView.findViewById(R.id.userAlias);
+            userName = itemView.findViewById(R.id.userName);
+
+            itemView.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View view) {
+                    Toast.makeText(getContext(), "You selected '" + userName.getText() + "'.", Toast.LENGTH_SHORT).show();
+                }
+            });
+        }
+
+        /**
+         * Binds the user's data to the view.
+         *
+         * @param user the user.
+         */
+        @Override
+        protected void bind(User user) {
+            ImageUtils.bindImage(userImage, user.getImageUrl());
+            userAlias.setText(user.getAlias());
+            userName.setText(user.getName());
+        }
+    }
+}
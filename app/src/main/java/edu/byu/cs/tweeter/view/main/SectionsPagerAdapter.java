@@ -9,10 +9,10 @@ import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentPagerAdapter;
 
 import edu.byu.cs.tweeter.R;
-import edu.byu.cs.tweeter.model.domain.AuthToken;
-import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.view.main.feed.FeedFragment;
 import edu.byu.cs.tweeter.view.main.follower.FollowerFragment;
 import edu.byu.cs.tweeter.view.main.following.FollowingFragment;
+import edu.byu.cs.tweeter.view.main.story.StoryFragment;
 
 /**
  * A [FragmentPagerAdapter] that returns a fragment corresponding to one of the sections/tabs/pages
@@ -20,30 +20,35 @@ import edu.byu.cs.tweeter.view.main.following.FollowingFragment;
  */
 class SectionsPagerAdapter extends FragmentPagerAdapter {
 
+    private static final int FEED_FRAGMENT_POSITION = 0;
+    private static final int STORY_FRAGMENT_POSITION = 1;
     private static final int FOLLOWING_FRAGMENT_POSITION = 2;
     private static final int FOLLOWER_FRAGMENT_POSITION = 3;
 
     @StringRes
     private static final int[] TAB_TITLES = new int[]{R.string.feedTabTitle, R.string.storyTabTitle, R.string.followingTabTitle, R.string.followersTabTitle};
     private final Context mContext;
-    private final User user;
-    private final AuthToken authToken;
+    private final long sessionId;
 
-    public SectionsPagerAdapter(Context context, FragmentManager fm, User user, AuthToken authToken) {
+    public SectionsPagerAdapter(Context context, FragmentManager fm, long sessionId) {
         super(fm);
         mContext = context;
-        this.user = user;
-        this.authToken = authToken;
+        this.sessionId = sessionId;
     }
 
     @Override
     public Fragment getItem(int position) {
-        if (position == FOLLOWING_FRAGMENT_POSITION) {
-            return FollowingFragment.newInstance(user, authToken);
-        } else if (position == FOLLOWER_FRAGMENT_POSITION) {
-            return FollowerFragment.newInstance(user, authToken);
-        } else {
-            return PlaceholderFragment.newInstance(position + 1);
+        switch (position) {
+            case FEED_FRAGMENT_POSITION:
+                return FeedFragment.newInstance(sessionId);
+            case STORY_FRAGMENT_POSITION:
+                return StoryFragment.newInstance(sessionId);
+            case FOLLOWING_FRAGMENT_POSITION:
+                return FollowingFragment.newInstance(sessionId);
+            case FOLLOWER_FRAGMENT_POSITION:
+                return FollowerFragment.newInstance(sessionId);
+            default:
+                throw new IllegalArgumentException("No tab at position " + position);
         }
     }
 
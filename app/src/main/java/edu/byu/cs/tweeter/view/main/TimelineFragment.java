@@ -0,0 +1,140 @@
+package edu.byu.cs.tweeter.view.main;
+
+import android.text.format.DateUtils;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import java.io.IOException;
+
+import androidx.annotation.NonNull;
+
+import edu.byu.cs.tweeter.R;
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.service.request.TimelineRequest;
+import edu.byu.cs.tweeter.model.service.response.TimelineResponse;
+import edu.byu.cs.tweeter.presenter.TimelinePresenter;
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.concurrent.TaskPriority;
+import edu.byu.cs.tweeter.view.asyncTasks.GetTimelineTask;
+import edu.byu.cs.tweeter.view.main.paging.PageLoader;
+import edu.byu.cs.tweeter.view.util.ImageUtils;
+
+/**
+ * The base class for tabs that display one of the logged in user's timelines, the 'Feed' and
+ * 'Story' tabs. Subclasses only supply their layout and the kind of timeline; the statuses are
+ * requested through a {@link GetTimelineTask} and the rows are shared.
+ * <p>
+ * Unlike the user lists, statuses aren't saved when the app goes to the background, since a saved
+ * feed would be stale by the time it was restored.
+ */
+public abstract class TimelineFragment extends UserListFragment<Status> implements TimelinePresenter.View {
+
+    /**
+     * Returns the timeline the tab displays.
+     *
+     * @return the kind of timeline.
+     */
+    protected abstract TimelineRequest.Kind getKind();
+
+    @Override
+    protected int getRowLayoutId() {
+        return R.layout.status_row;
+    }
+
+    @Override
+    protected ItemHolder<Status> createItemHolder(View itemView) {
+        return new StatusHolder(itemView);
+    }
+
+    /**
+     * Creates a loader that requests pages of the timeline through a {@link GetTimelineTask}.
+     *
+     * @param user the user whose timeline is displayed.
+     * @param authToken the auth token for this user's session.
+     * @return the loader.
+     */
+    @Override
+    protected PageLoader<Status> createPageLoader(final User user, final AuthToken authToken) {
+        final TimelinePresenter presenter = new TimelinePresenter(this);
+        final TimelineRequest.Kind kind = getKind();
+
+        return new PageLoader<Status>() {
+            @Override
+            public CancellationToken loadPage(Status lastStatus, int limit, TaskPriority priority,
+                                              final Callback<Status> callback) {
+                GetTimelineTask getTimelineTask = new GetTimelineTask(presenter, new GetTimelineTask.Observer() {
+                    @Override
+                    public void statusesRetrieved(TimelineResponse timelineResponse) {
+                        if(timelineResponse.isSuccess()) {
+                            callback.pageLoaded(timelineResponse.getStatuses(), timelineResponse.getHasMorePages());
+                        } else {
+                            callback.pageFailed(new IOException(timelineResponse.getMessage()));
+                        }
+                    }
+
+                    @Override
+                    public void handleException(Exception exception) {
+                        callback.pageFailed(exception);
+                    }
+                });
+
+                getTimelineTask.execute(priority, new TimelineRequest(authToken, kind, user, limit, lastStatus));
+                return getTimelineTask.getCancellationToken();
+            }
+        };
+    }
+
+    /**
+     * The ViewHolder for a status row.
+     */
+    private class StatusHolder extends ItemHolder<Status> {
+
+        private final ImageView userImage;
+        private final TextView userAlias;
+        private final TextView userName;
+        private final TextView statusPost;
+        private final TextView statusTime;
+
+        /**
+         * Creates an instance and sets an OnClickListener for the status's row.
+         *
+         * @param itemView the view on which the status will be displayed.
+         */
+        StatusHolder(@NonNull View itemView) {
+            super(itemView);
+
+            userImage = itemView.findViewById(R.id.userImage);
+            userAlias = itemView.findViewById(R.id.userAlias);
+            userName = itemView.findViewById(R.id.userName);
+            statusPost = itemView.findViewById(R.id.statusPost);
+            statusTime = itemView.findViewById(R.id.statusTime);
+
+            itemView.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View view) {
+                    Toast.makeText(getContext(), "You selected '" + userName.getText() + "'.", Toast.LENGTH_SHORT).show();
+                }
+            });
+        }
+
+        /**
+         * Binds the status's data to the view.
+         *
+         * @param status the status.
+         */
+        @Override
+        protected void bind(Status status) {
+            User user = status.getUser();
+
+            ImageUtils.bindImage(userImage, user.getImageUrl());
+            userAlias.setText(user.getAlias());
+            userName.setText(user.getName());
+            statusPost.setText(status.getPost());
+            statusTime.setText(DateUtils.getRelativeTimeSpanString(status.getPostedAtMillis()));
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package edu.byu.cs.tweeter.view.main;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Toast;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.IdRes;
+import androidx.annotation.NonNull;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProviders;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.Session;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.service.SessionHolder;
+import edu.byu.cs.tweeter.util.concurrent.TaskPriority;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+import edu.byu.cs.tweeter.view.main.paging.AdaptivePageSizer;
+import edu.byu.cs.tweeter.view.main.paging.PageLoader;
+import edu.byu.cs.tweeter.view.main.paging.PagedRecyclerViewAdapter;
+import edu.byu.cs.tweeter.view.main.paging.PagingController;
+import edu.byu.cs.tweeter.view.main.paging.PagingScrollListener;
+
+/**
+ * The base class for tabs that display a paged list belonging to the logged in user, such as the
+ * users on the 'Following' and 'Followers' tabs (see {@link SavedUserListFragment}) and the
+ * statuses on the 'Feed' and 'Story' tabs (see {@link TimelineFragment}). Subclasses only supply
+ * their layouts, a {@link PageLoader} and a view holder for their rows; the loading footer,
+ * prefetching and cancellation are shared.
+ * <p>
+ * The list's {@link PagingController} is kept in a {@link UserListViewModel}, so when the fragment
+ * is recreated (for example, when the device is rotated) or its view is recreated (when the user
+ * returns to the tab) the list rebinds to the items already loaded without any requests.
+ *
+ * @param <T> the type of the items in the list.
+ */
+public abstract class UserListFragment<T> extends Fragment {
+
+    private static final String SESSION_ID_KEY = "SessionId";
+
+    private static final int MIN_PAGE_SIZE = 5;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private PagingController<T> pagingController;
+    private User owner;
+    private RecyclerView recyclerView;
+    private LinearLayoutManager layoutManager;
+
+    /**
+     * Creates the arguments bundle that identifies the session whose user's list is displayed.
+     *
+     * @param sessionId the id of the logged in user's session.
+     * @return the arguments.
+     */
+    protected static Bundle createArguments(long sessionId) {
+        Bundle args = new Bundle(1);
+        args.putLong(SESSION_ID_KEY, sessionId);
+        return args;
+    }
+
+    /**
+     * Returns the id of the layout that contains the list.
+     *
+     * @return the layout id.
+     */
+    @LayoutRes
+    protected abstract int getLayoutId();
+
+    /**
+     * Returns the id of the RecyclerView within the layout.
+     *
+     * @return the view id.
+     */
+    @IdRes
+    protected abstract int getRecyclerViewId();
+
+    /**
+     * Returns the id of the layout of a row of the list.
+     *
+     * @return the layout id.
+     */
+    @LayoutRes
+    protected abstract int getRowLayoutId();
+
+    /**
+     * Creates the view holder for a row of the list.
+     *
+     * @param itemView the row's view, inflated from {@link #getRowLayoutId()}.
+     * @return the view holder.
+     */
+    protected abstract ItemHolder<T> createItemHolder(View itemView);
+
+    /**
+     * Creates the loader used to request pages of items.
+     *
+     * @param user the user whose list is displayed.
+     * @param authToken the auth token for this user's session.
+     * @return the loader.
+     */
+    protected abstract PageLoader<T> createPageLoader(User user, AuthToken authToken);
+
+    /**
+     * Supplies the controller with a first page that was loaded at login, if there is one. The
+     * default implementation does nothing.
+     *
+     * @param user the user whose list is displayed.
+     * @param pagingController the controller to which the page is supplied.
+     */
+    protected void seedFirstPage(User user, PagingController<T> pagingController) {
+    }
+
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container,
+                             Bundle savedInstanceState) {
+        View view = inflater.inflate(getLayoutId(), container, false);
+
+        //noinspection ConstantConditions
+        Session session = SessionHolder.getInstance().get(getArguments().getLong(SESSION_ID_KEY));
+        if(session == null) {
+            // The process was restarted and the activity is returning to the login screen
+            return view;
+        }
+
+        owner = session.getUser();
+
+        @SuppressWarnings("unchecked")
+        UserListViewModel<T> viewModel = ViewModelProviders.of(this).get(UserListViewModel.class);
+        pagingController = viewModel.getPagingController();
+
+        if(pagingController == null) {
+            // Page sizes are recorded per list, e.g. "FollowingFragment.pageSize"
+            AdaptivePageSizer pageSizer = new AdaptivePageSizer(MIN_PAGE_SIZE, MAX_PAGE_SIZE,
+                    PagingController.DEFAULT_PAGE_SIZE, AdaptivePageSizer.DEFAULT_TARGET_LATENCY_MILLIS,
+                    MetricsRegistry.getInstance().histogram(getClass().getSimpleName() + ".pageSize"));
+
+            pagingController = new PagingController<>(null, pageSizer, PagingController.DEFAULT_PREFETCH_DISTANCE);
+            viewModel.setPagingController(pagingController);
+        }
+
+        // The loader refers to this fragment, so a retained controller is given a new one
+        pagingController.setPageLoader(createPageLoader(session.getUser(), session.getAuthToken()));
+
+        recyclerView = view.findViewById(getRecyclerViewId());
+
+        layoutManager = new LinearLayoutManager(this.getContext());
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(new ItemRecyclerViewAdapter(pagingController));
+        recyclerView.addOnScrollListener(new PagingScrollListener(layoutManager, pagingController));
+
+        if(pagingController.getItems().isEmpty() && !pagingController.isLoading()) {
+            showFirstPage();
+        } else {
+            // The retained controller already has items or a request in flight
+            loadFirstPage();
+        }
+
+        return view;
+    }
+
+    /**
+     * Fills a list that has no items and no request in flight. The default implementation
+     * supplies the first page loaded at login, if there is one, and then loads the first page if
+     * it is still needed.
+     */
+    protected void showFirstPage() {
+        seedFirstPage(owner, pagingController);
+        loadFirstPage();
+    }
+
+    /**
+     * Loads the first page unless the controller already has a page or a request in flight. The
+     * visible tab loads first; tabs the user hasn't switched to yet load as prefetches.
+     */
+    protected void loadFirstPage() {
+        pagingController.loadFirstPage(getUserVisibleHint() ? TaskPriority.INTERACTIVE : TaskPriority.PREFETCH);
+    }
+
+    /**
+     * Returns the user whose list is displayed.
+     *
+     * @return the user, or null if the view hasn't been created for a session.
+     */
+    protected User getOwner() {
+        return owner;
+    }
+
+    /**
+     * Returns the controller the view is bound to.
+     *
+     * @return the controller, or null if no view is bound to one.
+     */
+    protected PagingController<T> getPagingController() {
+        return pagingController;
+    }
+
+    /**
+     * Returns the list's RecyclerView.
+     *
+     * @return the view.
+     */
+    protected RecyclerView getRecyclerView() {
+        return recyclerView;
+    }
+
+    /**
+     * Returns the list's layout manager.
+     *
+     * @return the layout manager.
+     */
+    protected LinearLayoutManager getLayoutManager() {
+        return layoutManager;
+    }
+
+    /**
+     * Detaches the view's adapter and this fragment's loader from the retained controller. A page
+     * load still in progress is left running, and is delivered to the next view that binds to the
+     * controller; the {@link UserListViewModel} cancels it if the fragment is gone for good.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+
+        if(pagingController != null) {
+            pagingController.setListener(null);
+            pagingController.setPageLoader(null);
+            pagingController = null;
+        }
+    }
+
+    /**
+     * The ViewHolder for a row of the list.
+     *
+     * @param <T> the type of the item displayed in the row.
+     */
+    protected abstract static class ItemHolder<T> extends RecyclerView.ViewHolder {
+
+        protected ItemHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+
+        /**
+         * Binds the item's data to the view.
+         *
+         * @param item the item.
+         */
+        protected abstract void bind(T item);
+    }
+
+    /**
+     * The adapter for the RecyclerView that displays the items.
+     */
+    private class ItemRecyclerViewAdapter extends PagedRecyclerViewAdapter<T, ItemHolder<T>> {
+
+        ItemRecyclerViewAdapter(PagingController<T> controller) {
+            super(controller);
+        }
+
+        @Override
+        protected ItemHolder<T> onCreateItemViewHolder(@NonNull ViewGroup parent) {
+            LayoutInflater layoutInflater = LayoutInflater.from(UserListFragment.this.getContext());
+            return createItemHolder(layoutInflater.inflate(getRowLayoutId(), parent, false));
+        }
+
+        @Override
+        protected void onBindItem(@NonNull ItemHolder<T> holder, T item) {
+            holder.bind(item);
+        }
+
+        /**
+         * A callback indicating that a page failed to load.
+         *
+         * @param exception the exception.
+         */
+        @Override
+        public void loadFailed(Exception exception) {
+            Log.e(UserListFragment.this.getClass().getSimpleName(), exception.getMessage(), exception);
+            Toast.makeText(getContext(), exception.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package edu.byu.cs.tweeter.view.main;
+
+import androidx.lifecycle.ViewModel;
+
+import edu.byu.cs.tweeter.view.main.paging.PagingController;
+
+/**
+ * Retains the state of a {@link UserListFragment} across configuration changes and the destruction
+ * of its view. The {@link PagingController} holds the loaded items, the cursor, whether there are
+ * more pages and any request in flight, so a recreated fragment rebinds to it without making any
+ * requests, and a request started by the old fragment is delivered to the new one.
+ *
+ * @param <T> the type of the items in the list.
+ */
+public class UserListViewModel<T> extends ViewModel {
+
+    private PagingController<T> pagingController;
+
+    /**
+     * Returns the retained controller.
+     *
+     * @return the controller, or null if the fragment hasn't created one yet.
+     */
+    public PagingController<T> getPagingController() {
+        return pagingController;
+    }
+
+    public void setPagingController(PagingController<T> pagingController) {
+        this.pagingController = pagingController;
+    }
+
+    /**
+     * Cancels any request still in flight once the fragment is gone for good.
+     */
+    @Override
+    protected void onCleared() {
+        if(pagingController != null) {
+            pagingController.cancel();
+            pagingController.setPageLoader(null);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package edu.byu.cs.tweeter.view.main.feed;
+
+import edu.byu.cs.tweeter.R;
+import edu.byu.cs.tweeter.model.service.request.TimelineRequest;
+import edu.byu.cs.tweeter.view.main.TimelineFragment;
+
+/**
+ * The fragment that displays on the 'Feed' tab.
+ */
+public class FeedFragment extends TimelineFragment {
+
+    /**
+     * Creates an instance of the fragment and places the session id in an arguments bundle
+     * assigned to the fragment.
+     *
+     * @param sessionId the id of the logged in user's session.
+     * @return the fragment.
+     */
+    public static FeedFragment newInstance(long sessionId) {
+        FeedFragment fragment = new FeedFragment();
+        fragment.setArguments(createArguments(sessionId));
+        return fragment;
+    }
+
+    @Override
+    protected int getLayoutId() {
+        return R.layout.fragment_feed;
+    }
+
+    @Override
+    protected int getRecyclerViewId() {
+        return R.id.feedRecyclerView;
+    }
+
+    @Override
+    protected TimelineRequest.Kind getKind() {
+        return TimelineRequest.Kind.FEED;
+    }
+}
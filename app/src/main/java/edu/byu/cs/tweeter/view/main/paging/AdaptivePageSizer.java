@@ -0,0 +1,165 @@
+package edu.byu.cs.tweeter.view.main.paging;
+
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+
+/**
+ * Chooses the number of items to request for each page from the measured cost of recent pages
+ * and how fast the user is scrolling.
+ * <p>
+ * Two sizes are computed and the larger one is used:
+ * <ul>
+ *     <li>The latency size, the number of items that can be loaded within the target latency at
+ *     the recently measured time per item. On a slow link this keeps pages small so the first
+ *     rows render quickly; on a fast link it allows larger pages.</li>
+ *     <li>The demand size, the number of items the user will scroll past while the next page
+ *     loads, doubled for headroom. This keeps a fast scroller from repeatedly reaching the
+ *     loading footer.</li>
+ * </ul>
+ * The result is clamped to the configured bounds. Measurements are smoothed with an
+ * exponentially weighted moving average so a single slow page doesn't swing the size.
+ * <p>
+ * Instances are confined to the main thread, like the {@link PagingController} that owns them.
+ * Times are passed in explicitly (from {@link System#nanoTime()}) so the policy can be tested
+ * without a clock.
+ */
+public class AdaptivePageSizer {
+
+    public static final long DEFAULT_TARGET_LATENCY_MILLIS = 1000;
+
+    /**
+     * The weight given to each new sample in the moving averages.
+     */
+    private static final double SMOOTHING = 0.3;
+
+    /**
+     * The factor by which the demand size exceeds the items expected to be scrolled past during
+     * one load.
+     */
+    private static final double DEMAND_HEADROOM = 2.0;
+
+    /**
+     * How long the list may sit still before the user is no longer considered to be scrolling.
+     */
+    private static final long SCROLL_IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int minPageSize;
+    private final int maxPageSize;
+    private final int initialPageSize;
+    private final double targetLatencyNanos;
+    private final Histogram pageSizes;
+
+    private double nanosPerItem = Double.NaN;
+    private double pageLatencyNanos = Double.NaN;
+
+    private double itemsPerNano;
+    private int lastScrollPosition = -1;
+    private long lastScrollNanos;
+
+    /**
+     * Creates an instance that always returns the same size.
+     *
+     * @param pageSize the page size.
+     */
+    public AdaptivePageSizer(int pageSize) {
+        this(pageSize, pageSize, pageSize, DEFAULT_TARGET_LATENCY_MILLIS, null);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param minPageSize the smallest page size that will be chosen.
+     * @param maxPageSize the largest page size that will be chosen.
+     * @param initialPageSize the size used until a page has been measured.
+     * @param targetLatencyMillis how long a page should take to load when the user isn't
+     *                            scrolling quickly.
+     * @param pageSizes the histogram to which chosen sizes are recorded, or null.
+     */
+    public AdaptivePageSizer(int minPageSize, int maxPageSize, int initialPageSize,
+                             long targetLatencyMillis, Histogram pageSizes) {
+        if(minPageSize < 1 || maxPageSize < minPageSize) {
+            throw new IllegalArgumentException("Invalid page size bounds: " + minPageSize + ".." + maxPageSize);
+        }
+
+        this.minPageSize = minPageSize;
+        this.maxPageSize = maxPageSize;
+        this.initialPageSize = clamp(initialPageSize);
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        this.pageSizes = pageSizes;
+    }
+
+    /**
+     * Records the last visible position of the list at the specified time.
+     *
+     * @param lastVisiblePosition the position of the last visible item.
+     * @param nowNanos the current time.
+     */
+    public void scrolled(int lastVisiblePosition, long nowNanos) {
+        if(lastScrollPosition >= 0 && nowNanos > lastScrollNanos) {
+            // Only forward progress through the list creates demand for more items
+            int distance = Math.max(0, lastVisiblePosition - lastScrollPosition);
+            double velocity = distance / (double) (nowNanos - lastScrollNanos);
+
+            if(nowNanos - lastScrollNanos > SCROLL_IDLE_NANOS) {
+                itemsPerNano = velocity;
+            } else {
+                itemsPerNano += SMOOTHING * (velocity - itemsPerNano);
+            }
+        }
+
+        lastScrollPosition = lastVisiblePosition;
+        lastScrollNanos = nowNanos;
+    }
+
+    /**
+     * Records the time taken to load a page.
+     *
+     * @param itemCount the number of items in the page.
+     * @param latencyNanos the time between requesting the page and receiving it.
+     */
+    public void pageLoaded(int itemCount, long latencyNanos) {
+        pageLatencyNanos = smooth(pageLatencyNanos, latencyNanos);
+
+        if(itemCount > 0) {
+            nanosPerItem = smooth(nanosPerItem, latencyNanos / (double) itemCount);
+        }
+    }
+
+    /**
+     * Returns the number of items to request for the next page and records it.
+     *
+     * @param nowNanos the current time.
+     * @return the page size.
+     */
+    public int nextPageSize(long nowNanos) {
+        int pageSize = computePageSize(nowNanos);
+
+        if(pageSizes != null) {
+            pageSizes.record(pageSize);
+        }
+
+        return pageSize;
+    }
+
+    private int computePageSize(long nowNanos) {
+        if(Double.isNaN(nanosPerItem)) {
+            return initialPageSize;
+        }
+
+        double latencySize = targetLatencyNanos / Math.max(nanosPerItem, 1.0);
+
+        double velocity = nowNanos - lastScrollNanos > SCROLL_IDLE_NANOS ? 0 : itemsPerNano;
+        double demandSize = velocity * pageLatencyNanos * DEMAND_HEADROOM;
+
+        return clamp((long) Math.ceil(Math.max(latencySize, demandSize)));
+    }
+
+    private int clamp(long pageSize) {
+        return (int) Math.max(minPageSize, Math.min(maxPageSize, pageSize));
+    }
+
+    private static double smooth(double average, double sample) {
+        return Double.isNaN(average) ? sample : average + SMOOTHING * (sample - average);
+    }
+}
@@ -0,0 +1,36 @@
+package edu.byu.cs.tweeter.view.main.paging;
+
+import java.util.List;
+
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.concurrent.TaskPriority;
+
+/**
+ * Loads pages of items for a {@link PagingController}. Implementations typically start a
+ * background task that calls a presenter and report back through the callback on the main thread.
+ *
+ * @param <T> the type of the items.
+ */
+public interface PageLoader<T> {
+
+    /**
+     * Receives the outcome of a page request. Invoked on the main thread.
+     *
+     * @param <T> the type of the items.
+     */
+    interface Callback<T> {
+        void pageLoaded(List<T> items, boolean hasMorePages);
+        void pageFailed(Exception exception);
+    }
+
+    /**
+     * Starts loading the page of items that follows the specified item.
+     *
+     * @param lastItem the last item of the previous page, or null to load the first page.
+     * @param limit the maximum number of items to load.
+     * @param priority the priority of the request.
+     * @param callback the callback that receives the outcome.
+     * @return a token that cancels the request.
+     */
+    CancellationToken loadPage(T lastItem, int limit, TaskPriority priority, Callback<T> callback);
+}
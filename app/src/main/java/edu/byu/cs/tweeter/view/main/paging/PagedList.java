@@ -0,0 +1,83 @@
+package edu.byu.cs.tweeter.view.main.paging;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An append-only list made of the pages returned by a {@link PageLoader}. Each page is kept as the
+ * list it arrived in, so appending a page never copies the items that were already loaded, and an
+ * item is found by a binary search over the page start positions.
+ *
+ * @param <T> the type of the items.
+ */
+public class PagedList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final List<List<T>> pages = new ArrayList<>();
+    private int [] pageStarts = new int[8];
+    private int size;
+
+    /**
+     * Appends a page. Empty pages are ignored.
+     *
+     * @param page the items of the page.
+     */
+    public void addPage(List<T> page) {
+        if(page.isEmpty()) {
+            return;
+        }
+
+        if(pages.size() == pageStarts.length) {
+            pageStarts = Arrays.copyOf(pageStarts, pageStarts.length * 2);
+        }
+
+        pageStarts[pages.size()] = size;
+        pages.add(page);
+        size += page.size();
+    }
+
+    @Override
+    public T get(int position) {
+        if(position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", size: " + size);
+        }
+
+        int pageIndex = Arrays.binarySearch(pageStarts, 0, pages.size(), position);
+        if(pageIndex < 0) {
+            // Not the first item of a page. Use the page that starts before the position.
+            pageIndex = -pageIndex - 2;
+        }
+
+        return pages.get(pageIndex).get(position - pageStarts[pageIndex]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of pages in the list.
+     *
+     * @return the page count.
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Returns the last item in the list, which is the cursor for the next page request.
+     *
+     * @return the last item, or null if the list is empty.
+     */
+    public T getLast() {
+        if(pages.isEmpty()) {
+            return null;
+        }
+
+        List<T> lastPage = pages.get(pages.size() - 1);
+        return lastPage.get(lastPage.size() - 1);
+    }
+}
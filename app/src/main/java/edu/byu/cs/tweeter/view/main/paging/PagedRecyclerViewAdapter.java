@@ -0,0 +1,105 @@
+package edu.byu.cs.tweeter.view.main.paging;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import edu.byu.cs.tweeter.R;
+
+/**
+ * A RecyclerView adapter for the items of a {@link PagingController}. While a page is loading, a
+ * footer row is shown after the last item. The footer is its own view type rather than a
+ * placeholder item, so showing and hiding it never touches the item list.
+ *
+ * @param <T> the type of the items.
+ * @param <VH> the type of the view holder for items.
+ */
+public abstract class PagedRecyclerViewAdapter<T, VH extends RecyclerView.ViewHolder>
+        extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements PagingController.Listener {
+
+    private static final int LOADING_DATA_VIEW = 0;
+    private static final int ITEM_VIEW = 1;
+
+    private final PagingController<T> controller;
+    private boolean showingFooter;
+
+    /**
+     * Creates an instance and registers it as the controller's listener.
+     *
+     * @param controller the controller that owns the items.
+     */
+    protected PagedRecyclerViewAdapter(PagingController<T> controller) {
+        this.controller = controller;
+        this.showingFooter = controller.isLoading();
+        controller.setListener(this);
+    }
+
+    /**
+     * Creates a view holder for an item.
+     *
+     * @param parent the parent view.
+     * @return the view holder.
+     */
+    protected abstract VH onCreateItemViewHolder(@NonNull ViewGroup parent);
+
+    /**
+     * Binds an item to a view holder created by {@link #onCreateItemViewHolder(ViewGroup)}.
+     *
+     * @param holder the view holder.
+     * @param item the item.
+     */
+    protected abstract void onBindItem(@NonNull VH holder, T item);
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if(viewType == LOADING_DATA_VIEW) {
+            View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.loading_row, parent, false);
+            return new RecyclerView.ViewHolder(view) {};
+        }
+
+        return onCreateItemViewHolder(parent);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        if(getItemViewType(position) == ITEM_VIEW) {
+            onBindItem((VH) holder, controller.getItems().get(position));
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return controller.getItems().size() + (showingFooter ? 1 : 0);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return position == controller.getItems().size() ? LOADING_DATA_VIEW : ITEM_VIEW;
+    }
+
+    @Override
+    public void loadingChanged(boolean isLoading) {
+        if(isLoading == showingFooter) {
+            return;
+        }
+
+        showingFooter = isLoading;
+        int footerPosition = controller.getItems().size();
+
+        if(isLoading) {
+            notifyItemInserted(footerPosition);
+        } else {
+            notifyItemRemoved(footerPosition);
+        }
+    }
+
+    @Override
+    public void itemsInserted(int positionStart, int itemCount) {
+        notifyItemRangeInserted(positionStart, itemCount);
+    }
+}
@@ -0,0 +1,236 @@
+package edu.byu.cs.tweeter.view.main.paging;
+
+import java.util.List;
+
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.concurrent.TaskPriority;
+
+/**
+ * Owns the items of a paged list and decides when to load the next page. Loads are started ahead
+ * of need, once the last visible position comes within the prefetch distance of the end of the
+ * loaded items, and at most one request is in flight at a time. A request is never repeated for a
+ * cursor whose page has already been loaded, so scroll events that arrive while a page is being
+ * appended can't produce duplicate requests. The size of each page is chosen by an
+ * {@link AdaptivePageSizer} from the latency of recent pages and the scroll velocity.
+ * <p>
+ * A controller can outlive the screen that created it, as when it is retained in a ViewModel
+ * across a configuration change. The screen replaces the {@link PageLoader} and {@link Listener}
+ * when it is recreated, and clears them when it is destroyed, so the controller never holds on to
+ * a destroyed screen.
+ * <p>
+ * Instances are confined to the main thread: all methods must be called on it, and the
+ * {@link Listener} is notified on it.
+ *
+ * @param <T> the type of the items.
+ */
+public class PagingController<T> implements PageLoader.Callback<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 10;
+    public static final int DEFAULT_PREFETCH_DISTANCE = 5;
+
+    /**
+     * Receives changes to the controller's state, typically to update an adapter.
+     */
+    public interface Listener {
+        void loadingChanged(boolean isLoading);
+        void itemsInserted(int positionStart, int itemCount);
+        void loadFailed(Exception exception);
+    }
+
+    private PageLoader<T> pageLoader;
+    private final AdaptivePageSizer pageSizer;
+    private final int prefetchDistance;
+    private final PagedList<T> items = new PagedList<>();
+
+    private Listener listener;
+    private boolean hasMorePages = true;
+    private CancellationToken inFlightRequest;
+    private T inFlightCursor;
+    private long inFlightStartNanos;
+    private boolean anyPageLoaded;
+    private T loadedCursor;
+
+    /**
+     * Creates an instance with the default page size and prefetch distance.
+     *
+     * @param pageLoader the loader used to request pages.
+     */
+    public PagingController(PageLoader<T> pageLoader) {
+        this(pageLoader, DEFAULT_PAGE_SIZE, DEFAULT_PREFETCH_DISTANCE);
+    }
+
+    /**
+     * Creates an instance that requests pages of a fixed size.
+     *
+     * @param pageLoader the loader used to request pages.
+     * @param pageSize the number of items requested per page.
+     * @param prefetchDistance how many items from the end of the loaded items the last visible
+     *                         position must be for the next page to be requested.
+     */
+    public PagingController(PageLoader<T> pageLoader, int pageSize, int prefetchDistance) {
+        this(pageLoader, new AdaptivePageSizer(pageSize), prefetchDistance);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param pageLoader the loader used to request pages.
+     * @param pageSizer chooses the number of items requested per page.
+     * @param prefetchDistance how many items from the end of the loaded items the last visible
+     *                         position must be for the next page to be requested.
+     */
+    public PagingController(PageLoader<T> pageLoader, AdaptivePageSizer pageSizer, int prefetchDistance) {
+        this.pageLoader = pageLoader;
+        this.pageSizer = pageSizer;
+        this.prefetchDistance = prefetchDistance;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Replaces the loader used to request pages. A request already in flight is unaffected.
+     *
+     * @param pageLoader the loader, or null to stop requesting pages until one is set.
+     */
+    public void setPageLoader(PageLoader<T> pageLoader) {
+        this.pageLoader = pageLoader;
+    }
+
+    /**
+     * Returns the items loaded so far.
+     *
+     * @return the items.
+     */
+    public PagedList<T> getItems() {
+        return items;
+    }
+
+    public boolean isLoading() {
+        return inFlightRequest != null;
+    }
+
+    public boolean hasMorePages() {
+        return hasMorePages;
+    }
+
+    /**
+     * Loads the first page if nothing has been loaded or requested yet.
+     *
+     * @param priority the priority of the request.
+     */
+    public void loadFirstPage(TaskPriority priority) {
+        if(!anyPageLoaded) {
+            loadNextPage(priority);
+        }
+    }
+
+    /**
+     * Supplies the first items of the list, loaded ahead of time or restored from disk, in place
+     * of requesting the first page. Paging continues from the last of these items. Ignored if a
+     * page has already been loaded or requested.
+     *
+     * @param page the first items of the list.
+     * @param hasMorePages whether there are pages after this one.
+     */
+    public void seedFirstPage(List<T> page, boolean hasMorePages) {
+        if(anyPageLoaded || isLoading()) {
+            return;
+        }
+
+        anyPageLoaded = true;
+        loadedCursor = null;
+        addLoadedPage(page, hasMorePages);
+    }
+
+    /**
+     * Called as the list scrolls. Requests the next page if the last visible position is within the
+     * prefetch distance of the end of the loaded items.
+     *
+     * @param lastVisiblePosition the position of the last visible item.
+     */
+    public void onScrolled(int lastVisiblePosition) {
+        pageSizer.scrolled(lastVisiblePosition, System.nanoTime());
+
+        if(lastVisiblePosition >= 0 && lastVisiblePosition >= items.size() - 1 - prefetchDistance) {
+            loadNextPage(TaskPriority.INTERACTIVE);
+        }
+    }
+
+    /**
+     * Requests the next page unless a request is already in flight, there are no more pages, the
+     * page after the current cursor has already been loaded, or there is no loader.
+     *
+     * @param priority the priority of the request.
+     */
+    public void loadNextPage(TaskPriority priority) {
+        if(isLoading() || !hasMorePages || pageLoader == null) {
+            return;
+        }
+
+        T cursor = items.getLast();
+        if(anyPageLoaded && cursor == loadedCursor) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        inFlightCursor = cursor;
+        inFlightStartNanos = now;
+        inFlightRequest = pageLoader.loadPage(cursor, pageSizer.nextPageSize(now), priority, this);
+
+        if(listener != null) {
+            listener.loadingChanged(true);
+        }
+    }
+
+    /**
+     * Cancels the request in flight, if any. Its result will not be delivered.
+     */
+    public void cancel() {
+        if(inFlightRequest != null) {
+            inFlightRequest.cancel();
+            inFlightRequest = null;
+
+            if(listener != null) {
+                listener.loadingChanged(false);
+            }
+        }
+    }
+
+    @Override
+    public void pageLoaded(List<T> page, boolean hasMorePages) {
+        pageSizer.pageLoaded(page.size(), System.nanoTime() - inFlightStartNanos);
+
+        inFlightRequest = null;
+        anyPageLoaded = true;
+        loadedCursor = inFlightCursor;
+
+        if(listener != null) {
+            listener.loadingChanged(false);
+        }
+
+        addLoadedPage(page, hasMorePages);
+    }
+
+    private void addLoadedPage(List<T> page, boolean hasMorePages) {
+        this.hasMorePages = hasMorePages;
+
+        int positionStart = items.size();
+        items.addPage(page);
+
+        if(listener != null && !page.isEmpty()) {
+            listener.itemsInserted(positionStart, page.size());
+        }
+    }
+
+    @Override
+    public void pageFailed(Exception exception) {
+        inFlightRequest = null;
+
+        if(listener != null) {
+            listener.loadingChanged(false);
+            listener.loadFailed(exception);
+        }
+    }
+}
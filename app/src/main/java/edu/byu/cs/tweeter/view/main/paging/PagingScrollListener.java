@@ -0,0 +1,32 @@
+package edu.byu.cs.tweeter.view.main.paging;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * A scroll listener that reports the last visible position to a {@link PagingController} so it
+ * can prefetch the next page before the user reaches the end of the loaded items.
+ */
+public class PagingScrollListener extends RecyclerView.OnScrollListener {
+
+    private final LinearLayoutManager layoutManager;
+    private final PagingController<?> controller;
+
+    /**
+     * Creates an instance.
+     *
+     * @param layoutManager the layout manager being used by the RecyclerView.
+     * @param controller the controller that loads the pages.
+     */
+    public PagingScrollListener(LinearLayoutManager layoutManager, PagingController<?> controller) {
+        this.layoutManager = layoutManager;
+        this.controller = controller;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        super.onScrolled(recyclerView, dx, dy);
+        controller.onScrolled(layoutManager.findLastVisibleItemPosition());
+    }
+}
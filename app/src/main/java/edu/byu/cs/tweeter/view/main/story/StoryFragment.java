@@ -0,0 +1,39 @@
+package edu.byu.cs.tweeter.view.main.story;
+
+import edu.byu.cs.tweeter.R;
+import edu.byu.cs.tweeter.model.service.request.TimelineRequest;
+import edu.byu.cs.tweeter.view.main.TimelineFragment;
+
+/**
+ * The fragment that displays on the 'Story' tab.
+ */
+public class StoryFragment extends TimelineFragment {
+
+    /**
+     * Creates an instance of the fragment and places the session id in an arguments bundle
+     * assigned to the fragment.
+     *
+     * @param sessionId the id of the logged in user's session.
+     * @return the fragment.
+     */
+    public static StoryFragment newInstance(long sessionId) {
+        StoryFragment fragment = new StoryFragment();
+        fragment.setArguments(createArguments(sessionId));
+        return fragment;
+    }
+
+    @Override
+    protected int getLayoutId() {
+        return R.layout.fragment_story;
+    }
+
+    @Override
+    protected int getRecyclerViewId() {
+        return R.id.storyRecyclerView;
+    }
+
+    @Override
+    protected TimelineRequest.Kind getKind() {
+        return TimelineRequest.Kind.STORY;
+    }
+}
@@ -0,0 +1,63 @@
+package edu.byu.cs.tweeter.view.util;
+
+import android.os.Build;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+
+import androidx.annotation.RequiresApi;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import edu.byu.cs.tweeter.model.service.SessionStore;
+
+/**
+ * Supplies an AES key that lives in the Android key store. The key is generated on first use and
+ * can't be exported, so a copy of the app's files is useless without the device. Symmetric keys
+ * in the key store require API 23.
+ */
+@RequiresApi(Build.VERSION_CODES.M)
+public class AndroidKeyStoreKeyProvider implements SessionStore.KeyProvider {
+
+    private static final String KEY_STORE_TYPE = "AndroidKeyStore";
+    private static final int KEY_SIZE_BITS = 256;
+
+    private final String alias;
+    private SecretKey key;
+
+    /**
+     * Creates an instance.
+     *
+     * @param alias the name of the key in the key store.
+     */
+    public AndroidKeyStoreKeyProvider(String alias) {
+        this.alias = alias;
+    }
+
+    @Override
+    public synchronized SecretKey getKey() throws GeneralSecurityException, IOException {
+        if(key == null) {
+            KeyStore keyStore = KeyStore.getInstance(KEY_STORE_TYPE);
+            keyStore.load(null);
+
+            if(keyStore.containsAlias(alias)) {
+                key = ((KeyStore.SecretKeyEntry) keyStore.getEntry(alias, null)).getSecretKey();
+            } else {
+                KeyGenerator keyGenerator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, KEY_STORE_TYPE);
+                keyGenerator.init(new KeyGenParameterSpec.Builder(alias,
+                        KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                        .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                        .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                        .setKeySize(KEY_SIZE_BITS)
+                        .build());
+                key = keyGenerator.generateKey();
+            }
+        }
+
+        return key;
+    }
+}
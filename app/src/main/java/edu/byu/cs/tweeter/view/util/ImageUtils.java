@@ -5,20 +5,163 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.byu.cs.tweeter.util.ImageStore;
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.concurrent.TaskPriority;
+import edu.byu.cs.tweeter.util.concurrent.TaskScheduler;
+import edu.byu.cs.tweeter.view.asyncTasks.BackgroundTask;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
 
 /**
  * Contains utility methods for working with Android images.
  */
 public class ImageUtils {
 
+    private static final Histogram DECODE_LATENCY =
+            MetricsRegistry.getInstance().histogram("ImageUtils.drawableFromByteArray");
+
+    private static final int MAX_BITMAP_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * Decoded images keyed by URL, so rows that show the same avatar share one bitmap.
+     */
+    private static final LruCache<String, Bitmap> bitmaps = new LruCache<String, Bitmap>(MAX_BITMAP_BYTES) {
+        @Override
+        protected int sizeOf(String url, Bitmap bitmap) {
+            return bitmap.getByteCount();
+        }
+    };
+
+    /**
+     * The views waiting for each image being loaded by {@link #bindImage(ImageView, String)}, so
+     * rows that show the same avatar share one download. Only touched on the main thread.
+     */
+    private static final Map<String, List<ImageView>> pendingViews = new HashMap<>();
+
+    /**
+     * Shows the image at the specified URL in a view. If the image is not in the
+     * {@link ImageStore}, because it was never loaded, was evicted, or the process was restarted,
+     * the view is cleared and the image is loaded in the background and shown when it arrives,
+     * unless the view has been bound to another image in the meantime. Must be called on the main
+     * thread.
+     *
+     * @param imageView the view.
+     * @param url the image URL.
+     */
+    public static void bindImage(ImageView imageView, final String url) {
+        imageView.setTag(url);
+
+        Drawable drawable = drawableFromUrl(url);
+        imageView.setImageDrawable(drawable);
+
+        // Bytes that are stored but can't be decoded would only be downloaded again
+        if(drawable != null || url == null || ImageStore.getInstance().get(url) != null) {
+            return;
+        }
+
+        List<ImageView> views = pendingViews.get(url);
+        if(views != null) {
+            views.add(imageView);
+            return;
+        }
+
+        views = new ArrayList<>();
+        views.add(imageView);
+        pendingViews.put(url, views);
+
+        BackgroundTask.getScheduler().submit(TaskPriority.INTERACTIVE, new CancellationToken(), new TaskScheduler.Task<Bitmap>() {
+            @Override
+            public Bitmap run(CancellationToken token) throws Exception {
+                // Decoded here rather than at the next bind, so the main thread doesn't have to
+                Bitmap bitmap = decode(ImageStore.getInstance().load(url));
+
+                if(bitmap != null) {
+                    bitmaps.put(url, bitmap);
+                }
+
+                return bitmap;
+            }
+
+            @Override
+            public void onComplete(Bitmap bitmap) {
+                List<ImageView> waiting = pendingViews.remove(url);
+
+                if(bitmap != null) {
+                    for(ImageView view : waiting) {
+                        if(url.equals(view.getTag())) {
+                            view.setImageDrawable(new BitmapDrawable(Resources.getSystem(), bitmap));
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                // The views stay blank; the next bind tries again
+                pendingViews.remove(url);
+            }
+        });
+    }
+
+    /**
+     * Creates a drawable for the image at the specified URL from the bytes in the
+     * {@link ImageStore}. The decoded bitmap is cached and shared by every drawable created for
+     * the same URL.
+     *
+     * @param url the image URL.
+     * @return the drawable, or null if the image is not in the store or can't be decoded.
+     */
+    public static Drawable drawableFromUrl(String url) {
+        if(url == null) {
+            return null;
+        }
+
+        Bitmap bitmap = bitmaps.get(url);
+
+        if(bitmap == null) {
+            byte [] bytes = ImageStore.getInstance().get(url);
+
+            if(bytes == null) {
+                return null;
+            }
+
+            bitmap = decode(bytes);
+
+            if(bitmap == null) {
+                return null;
+            }
+
+            bitmaps.put(url, bitmap);
+        }
+
+        return new BitmapDrawable(Resources.getSystem(), bitmap);
+    }
+
     /**
      * Creates a drawable from the bytes read from an image file.
      *
      * @param bytes the bytes.
-     * @return the drawable.
+     * @return the drawable, or null if the bytes can't be decoded.
      */
     public static Drawable drawableFromByteArray(byte [] bytes) {
+        Bitmap bitmap = decode(bytes);
+        return bitmap == null ? null : new BitmapDrawable(Resources.getSystem(), bitmap);
+    }
+
+    private static Bitmap decode(byte [] bytes) {
+        long start = System.nanoTime();
         Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
-        return new BitmapDrawable(Resources.getSystem(), bitmap);
+        DECODE_LATENCY.recordSince(start);
+
+        return bitmap;
     }
 }
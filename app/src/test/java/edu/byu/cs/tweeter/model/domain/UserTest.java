@@ -0,0 +1,60 @@
+package edu.byu.cs.tweeter.model.domain;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+public class UserTest {
+
+    @Test
+    public void testConstructor_derivesAliasAndName() {
+        User user = new User("Allen", "Anderson", null);
+
+        Assertions.assertEquals("@AllenAnderson", user.getAlias());
+        Assertions.assertEquals("Allen Anderson", user.getName());
+        Assertions.assertSame(user.getName(), user.getName());
+    }
+
+    @Test
+    public void testConstructor_sharesNameComponents() {
+        // new String(...) defeats the compiler's constant pooling
+        User user1 = new User(new String("Amy"), new String("Ames"), new String("https://example.com/a.png"));
+        User user2 = new User(new String("Amy"), new String("Ames"), "@AmyAmes2", new String("https://example.com/a.png"));
+
+        Assertions.assertSame(user1.getFirstName(), user2.getFirstName());
+        Assertions.assertSame(user1.getLastName(), user2.getLastName());
+        Assertions.assertSame(user1.getImageUrl(), user2.getImageUrl());
+    }
+
+    @Test
+    public void testHashCode_matchesEquals() {
+        User user1 = new User("Bob", "Bobson", null);
+        User user2 = new User("Bob", "Bobson", "https://example.com/b.png");
+
+        Assertions.assertEquals(user1, user2);
+        Assertions.assertEquals(user1.hashCode(), user2.hashCode());
+        Assertions.assertEquals("@BobBobson".hashCode(), user1.hashCode());
+    }
+
+    @Test
+    public void testSerialization_restoresSharedNames() throws IOException, ClassNotFoundException {
+        User user = new User("Chris", "Colston", null);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(user);
+        }
+
+        try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            User copy = (User) in.readObject();
+            Assertions.assertEquals(user, copy);
+            Assertions.assertEquals("Chris Colston", copy.getName());
+            Assertions.assertSame(user.getFirstName(), copy.getFirstName());
+        }
+    }
+}
@@ -1,17 +1,43 @@
 package edu.byu.cs.tweeter.model.net;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.List;
 
+import edu.byu.cs.tweeter.model.domain.AuthToken;
 import edu.byu.cs.tweeter.model.domain.Follow;
+import edu.byu.cs.tweeter.model.domain.Status;
 import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.service.request.FollowCountRequest;
+import edu.byu.cs.tweeter.model.service.request.FollowIntersectionRequest;
+import edu.byu.cs.tweeter.model.service.request.FollowerRequest;
 import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
+import edu.byu.cs.tweeter.model.service.request.IsFollowingRequest;
+import edu.byu.cs.tweeter.model.service.request.LoginRequest;
+import edu.byu.cs.tweeter.model.service.request.PostStatusRequest;
+import edu.byu.cs.tweeter.model.service.request.RecommendationRequest;
+import edu.byu.cs.tweeter.model.service.request.TimelineRequest;
+import edu.byu.cs.tweeter.model.service.request.UserSearchRequest;
+import edu.byu.cs.tweeter.model.service.response.ErrorCode;
+import edu.byu.cs.tweeter.model.service.response.FollowCountResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowIntersectionResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
 import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
+import edu.byu.cs.tweeter.model.service.response.IsFollowingResponse;
+import edu.byu.cs.tweeter.model.service.response.LoginResponse;
+import edu.byu.cs.tweeter.model.service.response.PostStatusResponse;
+import edu.byu.cs.tweeter.model.service.response.RecommendationResponse;
+import edu.byu.cs.tweeter.model.service.response.TimelineResponse;
+import edu.byu.cs.tweeter.model.service.response.UserSearchResponse;
+import edu.byu.cs.tweeter.server.follow.FollowStore;
 
 class ServerFacadeTest {
 
@@ -53,22 +79,78 @@ class ServerFacadeTest {
             follow7, follow8, follow9, follow10, follow11, follow12, follow13, follow14, follow15,
             follow16);
 
+    private File storeDirectory;
+    private FollowStore followStore;
     private ServerFacade serverFacadeSpy;
+    private AuthToken authToken;
 
     @BeforeEach
-    void setup() {
+    void setup() throws IOException {
+        storeDirectory = Files.createTempDirectory("follows").toFile();
+        followStore = FollowStore.open(storeDirectory);
+
         serverFacadeSpy = Mockito.spy(new ServerFacade());
+        Mockito.when(serverFacadeSpy.getFollowGraph()).thenReturn(followStore);
 
         FollowGenerator mockFollowGenerator = Mockito.mock(FollowGenerator.class);
         Mockito.when(mockFollowGenerator.generateUsersAndFollows(Mockito.anyInt(), Mockito.anyInt(), Mockito.anyInt(), (FollowGenerator.Sort) Mockito.any())).thenReturn(follows);
 
         Mockito.when(serverFacadeSpy.getFollowGenerator()).thenReturn(mockFollowGenerator);
+
+        authToken = serverFacadeSpy.login(new LoginRequest("dummyUserName", "dummyPassword")).getAuthToken();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        followStore.close();
+
+        //noinspection ConstantConditions
+        for(File file : storeDirectory.listFiles()) {
+            file.delete();
+        }
+        storeDirectory.delete();
+    }
+
+    @Test
+    void testLogin_issuesUniqueUnexpiredTokens() {
+        AuthToken otherToken = serverFacadeSpy.login(new LoginRequest("dummyUserName", "dummyPassword")).getAuthToken();
+
+        Assertions.assertEquals(32, authToken.getToken().length());
+        Assertions.assertNotEquals(authToken, otherToken);
+        Assertions.assertFalse(authToken.isExpired(System.currentTimeMillis()));
+    }
+
+    @Test
+    void testLogin_wrongPassword_fails() {
+        LoginResponse response = serverFacadeSpy.login(new LoginRequest("dummyUserName", "wrongPassword"));
+
+        Assertions.assertFalse(response.isSuccess());
+        Assertions.assertNull(response.getAuthToken());
+        Assertions.assertEquals(ServerFacade.INVALID_CREDENTIALS_MESSAGE, response.getMessage());
+    }
+
+    @Test
+    void testGetFollowees_invalidAuthToken_fails() {
+        AuthToken forgedToken = new AuthToken("00000000000000000000000000000000", Long.MAX_VALUE);
+
+        FollowingRequest request = new FollowingRequest(forgedToken, user5, 10, null);
+        FollowingResponse response = serverFacadeSpy.getFollowees(request);
+
+        Assertions.assertFalse(response.isSuccess());
+        Assertions.assertEquals(ServerFacade.INVALID_AUTH_TOKEN_MESSAGE, response.getMessage());
+        Assertions.assertEquals(ErrorCode.INVALID_AUTH_TOKEN, response.getErrorCode());
+    }
+
+    @Test
+    void testGetFollowersAndFollowCount_missingAuthToken_fail() {
+        Assertions.assertFalse(serverFacadeSpy.getFollowers(new FollowerRequest(null, user5, 10, null)).isSuccess());
+        Assertions.assertFalse(serverFacadeSpy.getFollowCount(new FollowCountRequest(null, user5)).isSuccess());
     }
 
     @Test
     void testGetFollowees_noFolloweesForUser() {
 
-        FollowingRequest request = new FollowingRequest(user1, 10, null);
+        FollowingRequest request = new FollowingRequest(authToken, user1, 10, null);
         FollowingResponse response = serverFacadeSpy.getFollowees(request);
 
         Assertions.assertEquals(0, response.getFollowees().size());
@@ -78,7 +160,7 @@ class ServerFacadeTest {
     @Test
     void testGetFollowees_oneFollowerForUser_limitGreaterThanUsers() {
 
-        FollowingRequest request = new FollowingRequest(user9, 10, null);
+        FollowingRequest request = new FollowingRequest(authToken, user9, 10, null);
         FollowingResponse response = serverFacadeSpy.getFollowees(request);
 
         Assertions.assertEquals(1, response.getFollowees().size());
@@ -89,7 +171,7 @@ class ServerFacadeTest {
     @Test
     void testGetFollowees_twoFollowersForUser_limitEqualsUsers() {
 
-        FollowingRequest request = new FollowingRequest(user3, 2, null);
+        FollowingRequest request = new FollowingRequest(authToken, user3, 2, null);
         FollowingResponse response = serverFacadeSpy.getFollowees(request);
 
         Assertions.assertEquals(2, response.getFollowees().size());
@@ -101,7 +183,7 @@ class ServerFacadeTest {
     @Test
     void testGetFollowees_limitLessThanUsers_endsOnPageBoundary() {
 
-        FollowingRequest request = new FollowingRequest(user5, 2, null);
+        FollowingRequest request = new FollowingRequest(authToken, user5, 2, null);
         FollowingResponse response = serverFacadeSpy.getFollowees(request);
 
         // Verify first page
@@ -111,7 +193,7 @@ class ServerFacadeTest {
         Assertions.assertTrue(response.getHasMorePages());
 
         // Get and verify second page
-        request = new FollowingRequest(user5, 2, response.getFollowees().get(1));
+        request = new FollowingRequest(authToken, user5, 2, response.getFollowees().get(1));
         response = serverFacadeSpy.getFollowees(request);
 
         Assertions.assertEquals(2, response.getFollowees().size());
@@ -120,7 +202,7 @@ class ServerFacadeTest {
         Assertions.assertTrue(response.getHasMorePages());
 
         // Get and verify third page
-        request = new FollowingRequest(user5, 2, response.getFollowees().get(1));
+        request = new FollowingRequest(authToken, user5, 2, response.getFollowees().get(1));
         response = serverFacadeSpy.getFollowees(request);
 
         Assertions.assertEquals(2, response.getFollowees().size());
@@ -133,7 +215,7 @@ class ServerFacadeTest {
     @Test
     void testGetFollowees_limitLessThanUsers_notEndsOnPageBoundary() {
 
-        FollowingRequest request = new FollowingRequest(user6, 2, null);
+        FollowingRequest request = new FollowingRequest(authToken, user6, 2, null);
         FollowingResponse response = serverFacadeSpy.getFollowees(request);
 
         // Verify first page
@@ -143,7 +225,7 @@ class ServerFacadeTest {
         Assertions.assertTrue(response.getHasMorePages());
 
         // Get and verify second page
-        request = new FollowingRequest(user6, 2, response.getFollowees().get(1));
+        request = new FollowingRequest(authToken, user6, 2, response.getFollowees().get(1));
         response = serverFacadeSpy.getFollowees(request);
 
         Assertions.assertEquals(2, response.getFollowees().size());
@@ -152,7 +234,7 @@ class ServerFacadeTest {
         Assertions.assertTrue(response.getHasMorePages());
 
         // Get and verify third page
-        request = new FollowingRequest(user6, 2, response.getFollowees().get(1));
+        request = new FollowingRequest(authToken, user6, 2, response.getFollowees().get(1));
         response = serverFacadeSpy.getFollowees(request);
 
         Assertions.assertEquals(2, response.getFollowees().size());
@@ -161,11 +243,152 @@ class ServerFacadeTest {
         Assertions.assertTrue(response.getHasMorePages());
 
         // Get and verify fourth page
-        request = new FollowingRequest(user6, 2, response.getFollowees().get(1));
+        request = new FollowingRequest(authToken, user6, 2, response.getFollowees().get(1));
         response = serverFacadeSpy.getFollowees(request);
 
         Assertions.assertEquals(1, response.getFollowees().size());
         Assertions.assertTrue(response.getFollowees().contains(user4));
         Assertions.assertFalse(response.getHasMorePages());
     }
+
+    @Test
+    void testGetFollowers_pagesInFollowOrder() {
+        FollowerRequest request = new FollowerRequest(authToken, user1, 2, null);
+        FollowerResponse response = serverFacadeSpy.getFollowers(request);
+
+        Assertions.assertEquals(Arrays.asList(user3, user5), response.getFollowers());
+        Assertions.assertTrue(response.getHasMorePages());
+
+        request = new FollowerRequest(authToken, user1, 2, response.getFollowers().get(1));
+        response = serverFacadeSpy.getFollowers(request);
+
+        Assertions.assertEquals(Arrays.asList(user6), response.getFollowers());
+        Assertions.assertFalse(response.getHasMorePages());
+    }
+
+    @Test
+    void testGetFollowCount_countsFolloweesAndFollowers() {
+        FollowCountResponse response = serverFacadeSpy.getFollowCount(new FollowCountRequest(authToken, user5));
+
+        Assertions.assertEquals(6, response.getFolloweeCount());
+        Assertions.assertEquals(2, response.getFollowerCount());
+    }
+
+    @Test
+    void testIsFollowing_answersForEachUserInOrder() {
+        IsFollowingRequest request = new IsFollowingRequest(authToken, user5,
+                Arrays.asList(user9, user3, user8, user5, user12));
+        IsFollowingResponse response = serverFacadeSpy.isFollowing(request);
+
+        Assertions.assertTrue(response.isSuccess());
+        Assertions.assertArrayEquals(new boolean[] {true, false, true, false, false}, response.getFollowing());
+    }
+
+    @Test
+    void testIsFollowing_userWithNoFollowees_followsNoOne() {
+        IsFollowingResponse response = serverFacadeSpy.isFollowing(new IsFollowingRequest(authToken, user1,
+                Arrays.asList(user3, user5)));
+
+        Assertions.assertArrayEquals(new boolean[] {false, false}, response.getFollowing());
+    }
+
+    @Test
+    void testGetMutualFollows_returnsFollowersFollowedBack() {
+        FollowIntersectionResponse response = serverFacadeSpy.getMutualFollows(
+                new FollowIntersectionRequest(authToken, user5, 10, null));
+
+        Assertions.assertTrue(response.isSuccess());
+        Assertions.assertEquals(Arrays.asList(user9), response.getUsers());
+        Assertions.assertFalse(response.getHasMorePages());
+    }
+
+    @Test
+    void testGetFollowersYouFollow_viewerFollowsNoOne_isEmpty() {
+        FollowIntersectionResponse response = serverFacadeSpy.getFollowersYouFollow(
+                new FollowIntersectionRequest(authToken, user1, 10, null));
+
+        Assertions.assertTrue(response.isSuccess());
+        Assertions.assertTrue(response.getUsers().isEmpty());
+    }
+
+    @Test
+    void testGetRecommendations_ranksFolloweesOfFollowees() throws IOException {
+        User loggedInUser = serverFacadeSpy.login(new LoginRequest("dummyUserName", "dummyPassword")).getUser();
+
+        // Seed the store from the generator before adding the logged in user's follows
+        serverFacadeSpy.getFollowCount(new FollowCountRequest(authToken, user5));
+        followStore.follow(loggedInUser, user5);
+        followStore.follow(loggedInUser, user6);
+
+        RecommendationResponse response = serverFacadeSpy.getRecommendations(new RecommendationRequest(authToken, 2));
+
+        // user1 and user4 are followed by both user5 and user6; user5 is already followed
+        Assertions.assertTrue(response.isSuccess());
+        Assertions.assertEquals(2, response.getUsers().size());
+        Assertions.assertTrue(response.getUsers().containsAll(Arrays.asList(user1, user4)));
+        Assertions.assertArrayEquals(new int[] {2, 2}, response.getFollowedByCounts());
+    }
+
+    @Test
+    void testSearchUsers_matchesNamePrefixesMostFollowedFirst() {
+        UserSearchResponse response = serverFacadeSpy.searchUsers(new UserSearchRequest(authToken, "rub", 10, 0));
+
+        // Barney has one follower and Wilma two
+        Assertions.assertTrue(response.isSuccess());
+        Assertions.assertEquals(Arrays.asList(user4, user3), response.getUsers());
+        Assertions.assertFalse(response.getHasMorePages());
+
+        response = serverFacadeSpy.searchUsers(new UserSearchRequest(authToken, "@D", 10, 0));
+        Assertions.assertEquals(Arrays.asList(user1), response.getUsers());
+    }
+
+    @Test
+    void testPostStatus_appearsInStoryAndFollowersFeeds() throws IOException, InterruptedException {
+        User loggedInUser = serverFacadeSpy.login(new LoginRequest("dummyUserName", "dummyPassword")).getUser();
+
+        serverFacadeSpy.getFollowCount(new FollowCountRequest(authToken, user5));
+        followStore.follow(user5, loggedInUser);
+        followStore.follow(user6, loggedInUser);
+
+        PostStatusResponse postResponse = serverFacadeSpy.postStatus(new PostStatusRequest(authToken, "Hello"));
+        Assertions.assertTrue(postResponse.isSuccess());
+        Status status = postResponse.getStatus();
+        Assertions.assertEquals(loggedInUser, status.getUser());
+
+        TimelineResponse storyResponse = serverFacadeSpy.getTimeline(
+                new TimelineRequest(authToken, TimelineRequest.Kind.STORY, loggedInUser, 1, null));
+        Assertions.assertEquals(Arrays.asList(status), storyResponse.getStatuses());
+
+        Assertions.assertTrue(serverFacadeSpy.getTimelineEngine().awaitFanOut(5000));
+        for(User follower : Arrays.asList(user5, user6)) {
+            TimelineResponse feedResponse = serverFacadeSpy.getTimeline(
+                    new TimelineRequest(authToken, TimelineRequest.Kind.FEED, follower, 1, null));
+            Assertions.assertTrue(feedResponse.isSuccess());
+            Assertions.assertEquals(Arrays.asList(status), feedResponse.getStatuses());
+        }
+
+        TimelineResponse feedResponse = serverFacadeSpy.getTimeline(
+                new TimelineRequest(authToken, TimelineRequest.Kind.FEED, user9, 10, null));
+        Assertions.assertTrue(feedResponse.getStatuses().isEmpty());
+        Assertions.assertFalse(feedResponse.getHasMorePages());
+    }
+
+    @Test
+    void testPostStatus_invalidAuthToken_fails() {
+        PostStatusResponse response = serverFacadeSpy.postStatus(new PostStatusRequest(null, "Hello"));
+
+        Assertions.assertFalse(response.isSuccess());
+        Assertions.assertEquals(ServerFacade.INVALID_AUTH_TOKEN_MESSAGE, response.getMessage());
+        Assertions.assertEquals(ErrorCode.INVALID_AUTH_TOKEN, response.getErrorCode());
+    }
+
+    @Test
+    void testIsFollowing_invalidAuthToken_fails() {
+        IsFollowingResponse response = serverFacadeSpy.isFollowing(new IsFollowingRequest(null, user5,
+                Arrays.asList(user9)));
+
+        Assertions.assertFalse(response.isSuccess());
+        Assertions.assertEquals(ServerFacade.INVALID_AUTH_TOKEN_MESSAGE, response.getMessage());
+        Assertions.assertEquals(ErrorCode.INVALID_AUTH_TOKEN, response.getErrorCode());
+    }
 }
@@ -8,10 +8,12 @@ import org.mockito.Mockito;
 import java.io.IOException;
 import java.util.Arrays;
 
+import edu.byu.cs.tweeter.model.domain.AuthToken;
 import edu.byu.cs.tweeter.model.domain.User;
 import edu.byu.cs.tweeter.model.net.ServerFacade;
 import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
 import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
+import edu.byu.cs.tweeter.util.ImageStore;
 
 public class FollowingServiceTest {
 
@@ -39,8 +41,8 @@ public class FollowingServiceTest {
                 "https://faculty.cs.byu.edu/~jwilkerson/cs340/tweeter/images/daisy_duck.png");
 
         // Setup request objects to use in the tests
-        validRequest = new FollowingRequest(currentUser, 3, null);
-        invalidRequest = new FollowingRequest(null, 0, null);
+        validRequest = new FollowingRequest(new AuthToken("token", Long.MAX_VALUE), currentUser, 3, null);
+        invalidRequest = new FollowingRequest(null, null, 0, null);
 
         // Setup a mock ServerFacade that will return known responses
         successResponse = new FollowingResponse(Arrays.asList(resultUser1, resultUser2, resultUser3), false);
@@ -79,7 +81,7 @@ public class FollowingServiceTest {
         FollowingResponse response = followingServiceSpy.getFollowees(validRequest);
 
         for(User user : response.getFollowees()) {
-            Assertions.assertNotNull(user.getImageBytes());
+            Assertions.assertNotNull(ImageStore.getInstance().get(user.getImageUrl()));
         }
     }
 
@@ -0,0 +1,47 @@
+package edu.byu.cs.tweeter.model.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.Session;
+import edu.byu.cs.tweeter.model.domain.User;
+
+public class SessionHolderTest {
+
+    private SessionHolder sessionHolder;
+
+    @BeforeEach
+    public void setup() {
+        sessionHolder = new SessionHolder();
+    }
+
+    @Test
+    public void testOpen_sessionCanBeFoundById() {
+        User user = new User("FirstName", "LastName", null);
+        AuthToken authToken = new AuthToken("token", Long.MAX_VALUE);
+
+        Session session = sessionHolder.open(user, authToken);
+
+        Assertions.assertSame(session, sessionHolder.get(session.getId()));
+        Assertions.assertSame(user, session.getUser());
+        Assertions.assertSame(authToken, session.getAuthToken());
+    }
+
+    @Test
+    public void testOpen_assignsDistinctIds() {
+        Session session1 = sessionHolder.open(new User("A", "A", null), new AuthToken("token", Long.MAX_VALUE));
+        Session session2 = sessionHolder.open(new User("B", "B", null), new AuthToken("token", Long.MAX_VALUE));
+
+        Assertions.assertNotEquals(session1.getId(), session2.getId());
+    }
+
+    @Test
+    public void testClose_sessionIsGone() {
+        Session session = sessionHolder.open(new User("A", "A", null), new AuthToken("token", Long.MAX_VALUE));
+        sessionHolder.close(session.getId());
+
+        Assertions.assertNull(sessionHolder.get(session.getId()));
+    }
+}
@@ -0,0 +1,133 @@
+package edu.byu.cs.tweeter.model.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+
+public class SessionStoreTest {
+
+    private static final long MAX_AGE_MILLIS = 1000;
+    private static final long NOW = 1_000_000;
+
+    private File file;
+    private SessionStore.KeyProvider keyProvider;
+    private SessionStore sessionStore;
+    private SessionSnapshot snapshot;
+
+    @BeforeEach
+    public void setup() throws IOException, GeneralSecurityException {
+        file = File.createTempFile("session", ".bin");
+        file.delete();
+
+        keyProvider = keyProvider();
+        sessionStore = new SessionStore(file, keyProvider, MAX_AGE_MILLIS);
+
+        User user = new User("FirstName", "LastName", "https://example.com/user.png");
+        snapshot = new SessionSnapshot(user, new AuthToken("token", NOW + 2 * MAX_AGE_MILLIS), NOW);
+        snapshot.setFollowees(Arrays.asList(new User("Followee", "One", null), new User("Followee", "Two", null)), true);
+        snapshot.setFollowCounts(2, 0);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        file.delete();
+    }
+
+    private static SessionStore.KeyProvider keyProvider() throws GeneralSecurityException {
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(128);
+        final SecretKey key = keyGenerator.generateKey();
+
+        return new SessionStore.KeyProvider() {
+            @Override
+            public SecretKey getKey() {
+                return key;
+            }
+        };
+    }
+
+    @Test
+    public void testLoad_savedSnapshot_roundTrips() throws IOException {
+        sessionStore.save(snapshot);
+        SessionSnapshot loaded = sessionStore.load(NOW + 10);
+
+        Assertions.assertNotNull(loaded);
+        Assertions.assertEquals(snapshot.getUser(), loaded.getUser());
+        Assertions.assertEquals("FirstName LastName", loaded.getUser().getName());
+        Assertions.assertEquals(snapshot.getFollowees(), loaded.getFollowees());
+        Assertions.assertTrue(loaded.getFolloweesHasMorePages());
+        Assertions.assertNull(loaded.getFollowers());
+        Assertions.assertEquals(Integer.valueOf(2), loaded.getFolloweeCount());
+        Assertions.assertEquals(Integer.valueOf(0), loaded.getFollowerCount());
+    }
+
+    @Test
+    public void testSave_fileIsEncrypted() throws IOException {
+        sessionStore.save(snapshot);
+
+        byte [] bytes = new byte[(int) file.length()];
+        try(RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            in.readFully(bytes);
+        }
+
+        Assertions.assertFalse(new String(bytes, "ISO-8859-1").contains("FirstName"));
+    }
+
+    @Test
+    public void testLoad_noFile_returnsNull() {
+        Assertions.assertNull(sessionStore.load(NOW));
+    }
+
+    @Test
+    public void testLoad_expiredSnapshot_returnsNullAndDeletesFile() throws IOException {
+        sessionStore.save(snapshot);
+
+        Assertions.assertNull(sessionStore.load(NOW + MAX_AGE_MILLIS + 1));
+        Assertions.assertFalse(file.exists());
+    }
+
+    @Test
+    public void testLoad_expiredAuthToken_returnsNullAndDeletesFile() throws IOException {
+        SessionSnapshot expiringSnapshot = new SessionSnapshot(snapshot.getUser(), new AuthToken("token", NOW + 5), NOW);
+        sessionStore.save(expiringSnapshot);
+
+        Assertions.assertNull(sessionStore.load(NOW + 5));
+        Assertions.assertFalse(file.exists());
+    }
+
+    @Test
+    public void testLoad_tamperedFile_returnsNull() throws IOException {
+        sessionStore.save(snapshot);
+
+        try(RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.seek(file.length() - 1);
+            int last = out.read();
+            out.seek(file.length() - 1);
+            out.write(last ^ 1);
+        }
+
+        Assertions.assertNull(sessionStore.load(NOW));
+        Assertions.assertFalse(file.exists());
+    }
+
+    @Test
+    public void testLoad_differentKey_returnsNull() throws IOException, GeneralSecurityException {
+        sessionStore.save(snapshot);
+
+        SessionStore otherStore = new SessionStore(file, keyProvider(), MAX_AGE_MILLIS);
+        Assertions.assertNull(otherStore.load(NOW));
+    }
+}
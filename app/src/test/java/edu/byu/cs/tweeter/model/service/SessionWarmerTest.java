@@ -0,0 +1,214 @@
+package edu.byu.cs.tweeter.model.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.service.request.FollowCountRequest;
+import edu.byu.cs.tweeter.model.service.request.FollowerRequest;
+import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
+import edu.byu.cs.tweeter.model.service.response.ErrorCode;
+import edu.byu.cs.tweeter.model.service.response.FollowCountResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
+
+public class SessionWarmerTest {
+
+    private User user;
+    private AuthToken authToken;
+    private FollowingResponse followingResponse;
+    private FollowerResponse followerResponse;
+    private FollowCountResponse followCountResponse;
+
+    /**
+     * Counts down once for each step that is running, so a test can hold every step until all of
+     * them have started.
+     */
+    private CountDownLatch running;
+    private Set<String> threadNames;
+
+    private ExecutorService executor;
+    private SessionWarmer sessionWarmer;
+
+    @BeforeEach
+    public void setup() {
+        user = new User("Warm", "Up", "https://example.com/warm.png");
+        authToken = new AuthToken("token", Long.MAX_VALUE);
+        User followee = new User("Followee", "One", null);
+        User follower = new User("Follower", "One", null);
+
+        followingResponse = new FollowingResponse(Collections.singletonList(followee), true);
+        followerResponse = new FollowerResponse(Collections.singletonList(follower), false);
+        followCountResponse = new FollowCountResponse(7, 3);
+
+        running = new CountDownLatch(4);
+        threadNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        executor = Executors.newFixedThreadPool(3);
+
+        final FollowingService followingService = new FollowingService() {
+            @Override
+            public FollowingResponse getFollowees(FollowingRequest request) {
+                Assertions.assertEquals(10, request.getLimit());
+                Assertions.assertEquals(authToken, request.getAuthToken());
+                awaitOtherSteps();
+                return followingResponse;
+            }
+        };
+
+        final FollowerService followerService = new FollowerService() {
+            @Override
+            public FollowerResponse getFollowers(FollowerRequest request) {
+                awaitOtherSteps();
+                return followerResponse;
+            }
+        };
+
+        final FollowCountService followCountService = new FollowCountService() {
+            @Override
+            public FollowCountResponse getFollowCount(FollowCountRequest request) {
+                awaitOtherSteps();
+                return followCountResponse;
+            }
+        };
+
+        sessionWarmer = new SessionWarmer(executor) {
+            @Override
+            FollowingService getFollowingService() {
+                return followingService;
+            }
+
+            @Override
+            FollowerService getFollowerService() {
+                return followerService;
+            }
+
+            @Override
+            FollowCountService getFollowCountService() {
+                return followCountService;
+            }
+
+            @Override
+            void loadImage(String url) {
+                awaitOtherSteps();
+            }
+        };
+    }
+
+    private void awaitOtherSteps() {
+        threadNames.add(Thread.currentThread().getName());
+        running.countDown();
+
+        try {
+            Assertions.assertTrue(running.await(5, TimeUnit.SECONDS), "Steps did not run in parallel");
+        } catch (InterruptedException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @Test
+    public void testWarmUp_runsStepsInParallelAndFillsCache() throws InterruptedException {
+        try {
+            Assertions.assertTrue(sessionWarmer.warmUp(user, authToken, 10, 5000));
+        } finally {
+            executor.shutdown();
+        }
+
+        // Every step was waiting for all of the others, so all four ran at once on four threads
+        Assertions.assertEquals(4, threadNames.size());
+        Assertions.assertFalse(sessionWarmer.isAuthTokenRejected());
+
+        PrefetchCache prefetchCache = PrefetchCache.getInstance();
+        Assertions.assertSame(followCountResponse, prefetchCache.getFollowCount(user));
+        Assertions.assertSame(followingResponse, prefetchCache.takeFirstFolloweePage(user));
+        Assertions.assertSame(followerResponse, prefetchCache.takeFirstFollowerPage(user));
+
+        // First pages are handed out only once
+        Assertions.assertNull(prefetchCache.takeFirstFolloweePage(user));
+        Assertions.assertNull(prefetchCache.takeFirstFollowerPage(user));
+    }
+
+    @Test
+    public void testWarmUp_failedStepIsSkipped() throws InterruptedException {
+        running = new CountDownLatch(1);
+        followingResponse = new FollowingResponse("Failed");
+        sessionWarmer = new SessionWarmer(executor) {
+            @Override
+            FollowerService getFollowerService() {
+                return new FollowerService() {
+                    @Override
+                    public FollowerResponse getFollowers(FollowerRequest request) throws IOException {
+                        throw new IOException("Failed");
+                    }
+                };
+            }
+
+            @Override
+            FollowingService getFollowingService() {
+                return new FollowingService() {
+                    @Override
+                    public FollowingResponse getFollowees(FollowingRequest request) {
+                        return followingResponse;
+                    }
+                };
+            }
+
+            @Override
+            FollowCountService getFollowCountService() {
+                return new FollowCountService() {
+                    @Override
+                    public FollowCountResponse getFollowCount(FollowCountRequest request) {
+                        return followCountResponse;
+                    }
+                };
+            }
+
+            @Override
+            void loadImage(String url) {
+            }
+        };
+
+        User otherUser = new User("Other", "User", null);
+
+        try {
+            Assertions.assertTrue(sessionWarmer.warmUp(otherUser, authToken, 10, 5000));
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertNull(PrefetchCache.getInstance().takeFirstFolloweePage(otherUser));
+        Assertions.assertNull(PrefetchCache.getInstance().takeFirstFollowerPage(otherUser));
+        Assertions.assertSame(followCountResponse, PrefetchCache.getInstance().getFollowCount(otherUser));
+        Assertions.assertFalse(sessionWarmer.isAuthTokenRejected());
+    }
+
+    @Test
+    public void testWarmUp_rejectedAuthToken_isRecorded() throws InterruptedException {
+        running = new CountDownLatch(1);
+        followingResponse = new FollowingResponse(ErrorCode.INVALID_AUTH_TOKEN, "Session expired");
+        followerResponse = new FollowerResponse(ErrorCode.INVALID_AUTH_TOKEN, "Session expired");
+        followCountResponse = new FollowCountResponse(ErrorCode.INVALID_AUTH_TOKEN, "Session expired");
+
+        User otherUser = new User("Rejected", "User", null);
+
+        try {
+            Assertions.assertTrue(sessionWarmer.warmUp(otherUser, authToken, 10, 5000));
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertTrue(sessionWarmer.isAuthTokenRejected());
+        Assertions.assertNull(PrefetchCache.getInstance().takeFirstFolloweePage(otherUser));
+        Assertions.assertNull(PrefetchCache.getInstance().getFollowCount(otherUser));
+    }
+}
@@ -0,0 +1,114 @@
+package edu.byu.cs.tweeter.model.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+public class UserListStoreTest {
+
+    private static final long NOW = 1_000_000_000L;
+    private static final long MAX_AGE_MILLIS = 60_000;
+
+    private File file;
+    private UserListStore userListStore;
+    private User owner;
+    private List<User> users;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        file = File.createTempFile("following", ".users");
+        file.delete();
+
+        userListStore = new UserListStore(file, MAX_AGE_MILLIS, 100);
+        owner = new User("Owner", "User", "https://example.com/owner.png");
+
+        users = new ArrayList<>();
+        for(int i = 0; i < 60; i++) {
+            users.add(new User("First" + i, "Last" + i, i % 10 == 0 ? null : "https://example.com/images/user" + i + ".png"));
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        file.delete();
+    }
+
+    @Test
+    public void testLoad_savedList_roundTrips() throws IOException {
+        userListStore.save(new UserListSnapshot(owner, users, true, 42, -17, NOW));
+        UserListSnapshot loaded = userListStore.load(owner, NOW + 10);
+
+        Assertions.assertNotNull(loaded);
+        Assertions.assertEquals(users, loaded.getUsers());
+        Assertions.assertEquals("First1 Last1", loaded.getUsers().get(1).getName());
+        Assertions.assertNull(loaded.getUsers().get(0).getImageUrl());
+        Assertions.assertEquals(users.get(1).getImageUrl(), loaded.getUsers().get(1).getImageUrl());
+        Assertions.assertTrue(loaded.getHasMorePages());
+        Assertions.assertEquals(42, loaded.getFirstVisiblePosition());
+        Assertions.assertEquals(-17, loaded.getFirstVisibleOffset());
+        Assertions.assertEquals(NOW, loaded.getSavedAtMillis());
+    }
+
+    @Test
+    public void testSave_isCompact() throws IOException {
+        userListStore.save(new UserListSnapshot(owner, users, false, 0, 0, NOW));
+
+        // Well under the size of the names and URLs written out as text
+        Assertions.assertTrue(file.length() < 1024, "File is " + file.length() + " bytes");
+    }
+
+    @Test
+    public void testSave_tooManyUsers_truncatesAndKeepsPaging() throws IOException {
+        for(int i = 60; i < 150; i++) {
+            users.add(new User("First" + i, "Last" + i, null));
+        }
+
+        userListStore.save(new UserListSnapshot(owner, users, false, 120, 0, NOW));
+        UserListSnapshot loaded = userListStore.load(owner, NOW);
+
+        Assertions.assertEquals(100, loaded.getUsers().size());
+        Assertions.assertEquals(users.get(99), loaded.getUsers().get(99));
+        Assertions.assertTrue(loaded.getHasMorePages());
+        Assertions.assertEquals(99, loaded.getFirstVisiblePosition());
+    }
+
+    @Test
+    public void testLoad_otherOwner_returnsNullAndDeletesFile() throws IOException {
+        userListStore.save(new UserListSnapshot(owner, users, true, 0, 0, NOW));
+
+        Assertions.assertNull(userListStore.load(new User("Someone", "Else", null), NOW));
+        Assertions.assertFalse(file.exists());
+    }
+
+    @Test
+    public void testLoad_expiredList_returnsNullAndDeletesFile() throws IOException {
+        userListStore.save(new UserListSnapshot(owner, users, true, 0, 0, NOW));
+
+        Assertions.assertNull(userListStore.load(owner, NOW + MAX_AGE_MILLIS + 1));
+        Assertions.assertFalse(file.exists());
+    }
+
+    @Test
+    public void testLoad_corruptFile_returnsNullAndDeletesFile() throws IOException {
+        try(FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte [] {1, 2, 3, 4});
+        }
+
+        Assertions.assertNull(userListStore.load(owner, NOW));
+        Assertions.assertFalse(file.exists());
+    }
+
+    @Test
+    public void testLoad_noFile_returnsNull() {
+        Assertions.assertNull(userListStore.load(owner, NOW));
+    }
+}
@@ -0,0 +1,148 @@
+package edu.byu.cs.tweeter.server.auth;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+public class CredentialStoreTest {
+
+    private CredentialStore credentialStore;
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        credentialStore = new CredentialStore(100);
+        user = new User("FirstName", "LastName", null);
+        credentialStore.register("username", "password", user);
+    }
+
+    @Test
+    public void testVerify_correctPassword_returnsUser() {
+        Assertions.assertSame(user, credentialStore.verify("username", "password"));
+    }
+
+    @Test
+    public void testVerify_wrongPassword_returnsNull() {
+        Assertions.assertNull(credentialStore.verify("username", "Password"));
+        Assertions.assertNull(credentialStore.verify("username", ""));
+        Assertions.assertNull(credentialStore.verify("username", null));
+    }
+
+    @Test
+    public void testVerify_unknownUsername_returnsNull() {
+        Assertions.assertNull(credentialStore.verify("someoneElse", "password"));
+        Assertions.assertNull(credentialStore.verify(null, "password"));
+    }
+
+    @Test
+    public void testRegister_replacesExistingCredentials() {
+        credentialStore.register("username", "newPassword", user);
+
+        Assertions.assertNull(credentialStore.verify("username", "password"));
+        Assertions.assertSame(user, credentialStore.verify("username", "newPassword"));
+    }
+
+    @Test
+    public void testGetInstance_holdsDummyUser() {
+        User dummyUser = CredentialStore.getInstance().verify("dummyUserName", "dummyPassword");
+
+        Assertions.assertNotNull(dummyUser);
+        Assertions.assertEquals("@TestUser", dummyUser.getAlias());
+    }
+
+    /**
+     * Measures logins per second on one core at several work factors, and with one login per
+     * available processor running at once. Each thread's rate goes into a histogram per work
+     * factor, "CredentialStoreTest.loginsPerSecond.&lt;iterations&gt;.oneCore" or ".perCore", and
+     * the assertion messages carry the rates. Only asserts that a higher work factor makes logins
+     * slower, so the test doesn't depend on the machine.
+     */
+    @Test
+    @Tag("benchmark")
+    public void testVerify_throughputByIterations_benchmark() throws Exception {
+        int processors = Runtime.getRuntime().availableProcessors();
+        double previousRate = Double.MAX_VALUE;
+
+        for(int iterations : new int [] {1000, 10000, 50000}) {
+            final CredentialStore store = new CredentialStore(iterations);
+            store.register("username", "password", user);
+
+            String name = "CredentialStoreTest.loginsPerSecond." + iterations;
+            Histogram oneCore = MetricsRegistry.getInstance().histogram(name + ".oneCore");
+            Histogram perCore = MetricsRegistry.getInstance().histogram(name + ".perCore");
+
+            double singleCoreRate = measure(store, 1, oneCore);
+            double allCoresRate = measure(store, processors, perCore);
+
+            String report = String.format("%d iterations: %.1f logins/s on one core, %.1f logins/s on %d cores (%s)",
+                    iterations, singleCoreRate, allCoresRate, processors, perCore.snapshot());
+            Assertions.assertTrue(singleCoreRate < previousRate, report);
+            Assertions.assertTrue(allCoresRate > 0, report);
+            previousRate = singleCoreRate;
+        }
+    }
+
+    /**
+     * Runs verifications on the specified number of threads for a fixed time, recording the
+     * verifications per second of each thread.
+     *
+     * @return the number of verifications per second of all the threads together.
+     */
+    private static double measure(final CredentialStore store, int threadCount,
+                                  final Histogram threadRates) throws Exception {
+        final long durationNanos = TimeUnit.MILLISECONDS.toNanos(200);
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+
+            for(int t = 0; t < threadCount; t++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws InterruptedException {
+                        start.await();
+                        long threadStart = System.nanoTime();
+                        long end = threadStart + durationNanos;
+                        int count = 0;
+
+                        // Always completes at least one verification, however slow
+                        do {
+                            Assertions.assertNotNull(store.verify("username", "password"));
+                            count++;
+                        } while(System.nanoTime() < end);
+
+                        threadRates.record(Math.round(count / ((System.nanoTime() - threadStart) / 1e9)));
+                        return count;
+                    }
+                }));
+            }
+
+            long startNanos = System.nanoTime();
+            start.countDown();
+
+            int total = 0;
+            for(Future<Integer> result : results) {
+                total += result.get(1, TimeUnit.MINUTES);
+            }
+
+            return total / ((System.nanoTime() - startNanos) / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package edu.byu.cs.tweeter.server.auth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+public class CredentialVerifierTest {
+
+    private User user;
+    private CountDownLatch release;
+    private AtomicInteger running;
+    private AtomicInteger maxRunning;
+    private CredentialVerifier credentialVerifier;
+
+    @BeforeEach
+    public void setup() {
+        user = new User("FirstName", "LastName", null);
+        release = new CountDownLatch(1);
+        running = new AtomicInteger();
+        maxRunning = new AtomicInteger();
+
+        // A store whose verifications wait until released, so a test can fill the pool
+        CredentialStore credentialStore = new CredentialStore(1) {
+            @Override
+            public User verify(String username, String password) {
+                int count = running.incrementAndGet();
+                maxRunning.accumulateAndGet(count, Math::max);
+
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+
+                return "password".equals(password) ? user : null;
+            }
+        };
+
+        credentialVerifier = new CredentialVerifier(credentialStore, 2, 1);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        release.countDown();
+        credentialVerifier.shutdown();
+    }
+
+    @Test
+    public void testVerify_returnsStoreResult() throws InterruptedException {
+        release.countDown();
+
+        Assertions.assertSame(user, credentialVerifier.verify("username", "password"));
+        Assertions.assertNull(credentialVerifier.verify("username", "wrong"));
+    }
+
+    @Test
+    public void testVerify_poolAndQueueFull_rejects() throws InterruptedException {
+        // Two verifications run and one waits, filling the pool and its queue
+        Thread [] threads = new Thread[3];
+        for(int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        credentialVerifier.verify("username", "password");
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        // Each caller blocks waiting for its result once its verification has been accepted
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for(Thread thread : threads) {
+            while(thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+
+        Assertions.assertThrows(RejectedExecutionException.class, () -> credentialVerifier.verify("username", "password"));
+
+        release.countDown();
+        for(Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        Assertions.assertEquals(2, maxRunning.get());
+    }
+}
@@ -0,0 +1,198 @@
+package edu.byu.cs.tweeter.server.auth;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.HistogramSnapshot;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+public class SessionTableTest {
+
+    private static final long LIFETIME_MILLIS = 1000;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private SessionTable sessionTable;
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        sessionTable = new SessionTable(LIFETIME_MILLIS, new SessionTable.Clock() {
+            @Override
+            public long currentTimeMillis() {
+                return now.get();
+            }
+        });
+
+        user = new User("FirstName", "LastName", null);
+    }
+
+    @Test
+    public void testCreate_returnsRandom128BitTokens() {
+        Set<String> tokens = new HashSet<>();
+
+        for(int i = 0; i < 1000; i++) {
+            AuthToken authToken = sessionTable.create(user);
+
+            Assertions.assertTrue(authToken.getToken().matches("[0-9a-f]{32}"));
+            Assertions.assertEquals(now.get() + LIFETIME_MILLIS, authToken.getExpiresAtMillis());
+            tokens.add(authToken.getToken());
+        }
+
+        Assertions.assertEquals(1000, tokens.size());
+    }
+
+    @Test
+    public void testValidate_liveToken_returnsUser() {
+        AuthToken authToken = sessionTable.create(user);
+
+        now.addAndGet(LIFETIME_MILLIS - 1);
+
+        Assertions.assertSame(user, sessionTable.validate(authToken));
+    }
+
+    @Test
+    public void testValidate_unknownOrMissingToken_returnsNull() {
+        sessionTable.create(user);
+
+        Assertions.assertNull(sessionTable.validate(new AuthToken("0123456789abcdef0123456789abcdef", Long.MAX_VALUE)));
+        Assertions.assertNull(sessionTable.validate(null));
+    }
+
+    @Test
+    public void testValidate_expiredToken_returnsNullAndRemovesSession() {
+        AuthToken authToken = sessionTable.create(user);
+
+        now.addAndGet(LIFETIME_MILLIS);
+
+        Assertions.assertNull(sessionTable.validate(authToken));
+        Assertions.assertEquals(0, sessionTable.size());
+    }
+
+    @Test
+    public void testValidate_clientSuppliedExpiry_isIgnored() {
+        AuthToken authToken = sessionTable.create(user);
+        AuthToken extended = new AuthToken(authToken.getToken(), Long.MAX_VALUE);
+
+        now.addAndGet(LIFETIME_MILLIS);
+
+        Assertions.assertNull(sessionTable.validate(extended));
+    }
+
+    @Test
+    public void testInvalidate_removesSession() {
+        AuthToken authToken = sessionTable.create(user);
+
+        sessionTable.invalidate(authToken);
+
+        Assertions.assertNull(sessionTable.validate(authToken));
+        Assertions.assertEquals(0, sessionTable.size());
+    }
+
+    @Test
+    public void testCreate_removesExpiredSessionsIncrementally() {
+        for(int i = 0; i < 10; i++) {
+            sessionTable.create(user);
+        }
+
+        now.addAndGet(LIFETIME_MILLIS);
+
+        // Each creation removes up to CLEANUP_BATCH_SIZE expired sessions and adds one
+        for(int i = 1; i <= 10; i++) {
+            sessionTable.create(user);
+            Assertions.assertEquals(Math.max(10 - i * SessionTable.CLEANUP_BATCH_SIZE, 0) + i, sessionTable.size());
+        }
+    }
+
+    @Test
+    public void testCreate_invalidatedSessionsDoNotBlockCleanup() {
+        AuthToken first = sessionTable.create(user);
+        sessionTable.create(user);
+        sessionTable.invalidate(first);
+
+        now.addAndGet(LIFETIME_MILLIS);
+        sessionTable.create(user);
+
+        Assertions.assertEquals(1, sessionTable.size());
+    }
+
+    /**
+     * Measures validation with 100,000 live sessions, from several threads at once. The latency of
+     * every create and validation is recorded in the "SessionTableTest.create" and
+     * "SessionTableTest.validate" histograms, and the assertion messages carry their percentiles.
+     * Asserts only that every validation finds its session, so the test doesn't depend on the
+     * machine.
+     */
+    @Test
+    @Tag("benchmark")
+    public void testValidate_100kSessions_benchmark() throws Exception {
+        final int sessionCount = 100_000;
+        final int threadCount = 4;
+        final int validationsPerThread = 250_000;
+
+        Histogram createLatency = MetricsRegistry.getInstance().histogram("SessionTableTest.create");
+        final Histogram validateLatency = MetricsRegistry.getInstance().histogram("SessionTableTest.validate");
+        long validationsBefore = validateLatency.snapshot().getCount();
+
+        final List<AuthToken> authTokens = new ArrayList<>(sessionCount);
+        for(int i = 0; i < sessionCount; i++) {
+            long start = System.nanoTime();
+            authTokens.add(sessionTable.create(user));
+            createLatency.recordSince(start);
+        }
+
+        Assertions.assertEquals(sessionCount, sessionTable.size(), createLatency.snapshot().toString());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+
+            for(int t = 0; t < threadCount; t++) {
+                final int offset = t;
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        int valid = 0;
+                        for(int i = 0; i < validationsPerThread; i++) {
+                            AuthToken authToken = authTokens.get((i * 7919 + offset) % sessionCount);
+                            long start = System.nanoTime();
+                            User validated = sessionTable.validate(authToken);
+                            validateLatency.recordSince(start);
+
+                            if(validated != null) {
+                                valid++;
+                            }
+                        }
+                        return valid;
+                    }
+                }));
+            }
+
+            for(Future<Integer> result : results) {
+                Assertions.assertEquals(validationsPerThread, (int) result.get(1, TimeUnit.MINUTES));
+            }
+
+            HistogramSnapshot validations = validateLatency.snapshot();
+            Assertions.assertEquals((long) threadCount * validationsPerThread, validations.getCount() - validationsBefore,
+                    validations.toString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
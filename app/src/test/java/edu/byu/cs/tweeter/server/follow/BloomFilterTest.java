@@ -0,0 +1,47 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testMightContain_addedIds_alwaysTrue() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for(int id = 0; id < 10_000; id++) {
+            filter.add(id * 3);
+        }
+
+        for(int id = 0; id < 10_000; id++) {
+            Assertions.assertTrue(filter.mightContain(id * 3));
+        }
+    }
+
+    @Test
+    public void testMightContain_atCapacity_falsePositiveRateNearTarget() {
+        for(double rate : new double[] {0.1, 0.01, 0.001}) {
+            BloomFilter filter = BloomFilter.create(10_000, rate);
+            for(int id = 0; id < 10_000; id++) {
+                filter.add(id);
+            }
+
+            int falsePositives = 0;
+            int trials = 200_000;
+            for(int id = 10_000; id < 10_000 + trials; id++) {
+                if(filter.mightContain(id)) {
+                    falsePositives++;
+                }
+            }
+
+            double measured = falsePositives / (double) trials;
+            Assertions.assertTrue(measured < rate * 1.5, "rate " + rate + " measured " + measured);
+        }
+    }
+
+    @Test
+    public void testCreate_invalidArguments_throw() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(0, 0.01));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(10, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(10, 1));
+    }
+}
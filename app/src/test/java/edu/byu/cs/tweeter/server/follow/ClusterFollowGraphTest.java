@@ -0,0 +1,311 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.byu.cs.tweeter.model.domain.Follow;
+import edu.byu.cs.tweeter.model.domain.User;
+
+public class ClusterFollowGraphTest {
+
+    private File directory;
+    private FollowStore followStore;
+    private ClusterFollowGraph clusterGraph;
+    private Map<String, FollowStore> nodes;
+    private List<User> users;
+    private List<Follow> follows;
+
+    @BeforeEach
+    public void setup() throws IOException, InterruptedException {
+        directory = Files.createTempDirectory("follows").toFile();
+        followStore = FollowStore.open(new File(directory, "single"));
+        clusterGraph = new ClusterFollowGraph(HashRing.DEFAULT_VIRTUAL_NODES, 50, 4);
+        nodes = new HashMap<>();
+
+        for(int i = 0; i < 3; i++) {
+            addNode("node-" + i);
+        }
+        Assertions.assertTrue(clusterGraph.awaitRebalancing(10_000));
+
+        users = new ArrayList<>();
+        for(int i = 0; i < 300; i++) {
+            users.add(new User("First" + i, "Last" + i, null));
+        }
+
+        Random random = new Random(49);
+        follows = new ArrayList<>();
+        for(User follower : users) {
+            int followeeCount = random.nextInt(30);
+            for(int i = 0; i < followeeCount; i++) {
+                int followee = random.nextBoolean() ? random.nextInt(10) : random.nextInt(users.size());
+                if(users.get(followee) != follower) {
+                    follows.add(new Follow(follower, users.get(followee)));
+                }
+            }
+        }
+
+        followStore.followAll(follows);
+        clusterGraph.followAll(follows);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        followStore.close();
+        clusterGraph.close();
+        deleteRecursively(directory);
+    }
+
+    private static void deleteRecursively(File file) {
+        File [] files = file.listFiles();
+        if(files != null) {
+            for(File child : files) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private FollowStore addNode(String name) throws IOException {
+        FollowStore node = FollowStore.open(new File(directory, name));
+        nodes.put(name, node);
+        clusterGraph.addNode(name, node);
+        return node;
+    }
+
+    /**
+     * Asserts that two graphs hold the same follows. Lists are compared in order unless follows
+     * were recorded during a rebalance, which may put one ahead of older follows.
+     */
+    private void assertSameGraph(FollowGraph expected, FollowGraph actual, boolean inFollowOrder) {
+        for(User user : users) {
+            if(inFollowOrder) {
+                Assertions.assertEquals(expected.getFollowees(user), actual.getFollowees(user));
+                Assertions.assertEquals(expected.getFollowers(user), actual.getFollowers(user));
+            } else {
+                Assertions.assertEquals(new HashSet<>(expected.getFollowees(user)), new HashSet<>(actual.getFollowees(user)));
+                Assertions.assertEquals(new HashSet<>(expected.getFollowers(user)), new HashSet<>(actual.getFollowers(user)));
+            }
+            Assertions.assertArrayEquals(expected.isFollowing(user, users), actual.isFollowing(user, users));
+        }
+
+        Assertions.assertArrayEquals(expected.getFollowerCounts(users), actual.getFollowerCounts(users));
+        Assertions.assertEquals(new HashSet<>(expected.getUsers()), new HashSet<>(actual.getUsers()));
+        Assertions.assertEquals(expected.getUsers().size(), actual.getUsers().size());
+    }
+
+    /**
+     * Asserts that every follow a node holds has an end the node owns, so the copies of moved users
+     * were dropped from the nodes they left.
+     */
+    private void assertNodesHoldOnlyTheirOwnFollows() {
+        for(FollowStore node : nodes.values()) {
+            if(!clusterGraph.getNodeNames().contains(nodeName(node))) {
+                continue;
+            }
+
+            for(User user : node.getUsers()) {
+                for(User followee : node.getFollowees(user)) {
+                    Assertions.assertTrue(clusterGraph.getNode(user) == node || clusterGraph.getNode(followee) == node);
+                }
+            }
+        }
+    }
+
+    private String nodeName(FollowStore node) {
+        for(Map.Entry<String, FollowStore> entry : nodes.entrySet()) {
+            if(entry.getValue() == node) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Follows and unfollows random users in both graphs until stopped.
+     */
+    private Thread startWriter(final AtomicBoolean stop, final AtomicReference<Throwable> failure) {
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Random random = new Random(4949);
+
+                try {
+                    while(!stop.get()) {
+                        User follower = users.get(random.nextInt(users.size()));
+                        User followee = users.get(random.nextInt(users.size()));
+
+                        if(follower.equals(followee)) {
+                            continue;
+                        }
+
+                        if(random.nextBoolean()) {
+                            Assertions.assertEquals(followStore.follow(follower, followee), clusterGraph.follow(follower, followee));
+                        } else {
+                            Assertions.assertEquals(followStore.unfollow(follower, followee), clusterGraph.unfollow(follower, followee));
+                        }
+                    }
+                } catch (Throwable ex) {
+                    failure.set(ex);
+                }
+            }
+        });
+
+        writer.start();
+        return writer;
+    }
+
+    @Test
+    public void testQueries_matchAnUnclusteredStore() {
+        assertSameGraph(followStore, clusterGraph, true);
+        Assertions.assertFalse(clusterGraph.isEmpty());
+
+        for(int i = 0; i < 20; i++) {
+            User user = users.get(i);
+            User viewer = users.get(users.size() - 1 - i);
+
+            Assertions.assertEquals(new HashSet<>(followStore.getMutualFollows(user, null, 1000).getUsers()),
+                    new HashSet<>(clusterGraph.getMutualFollows(user, null, 1000).getUsers()));
+            Assertions.assertEquals(new HashSet<>(followStore.getFollowersFollowedBy(user, viewer, null, 1000).getUsers()),
+                    new HashSet<>(clusterGraph.getFollowersFollowedBy(user, viewer, null, 1000).getUsers()));
+        }
+    }
+
+    @Test
+    public void testRecommend_countsMatchAnUnclusteredStore() throws InterruptedException {
+        FollowRecommender recommender = new FollowRecommender(4, FollowRecommender.DEFAULT_FAN_OUT_CAP);
+
+        try {
+            for(int i = 0; i < 20; i++) {
+                Map<User, Integer> expected = new HashMap<>();
+                for(FollowRecommender.Recommendation recommendation : recommender.recommend(followStore, users.get(i), 1000)) {
+                    expected.put(recommendation.getUser(), recommendation.getFollowedByCount());
+                }
+
+                Map<User, Integer> actual = new HashMap<>();
+                for(FollowRecommender.Recommendation recommendation : recommender.recommend(clusterGraph, users.get(i), 1000)) {
+                    actual.put(recommendation.getUser(), recommendation.getFollowedByCount());
+                }
+
+                Assertions.assertEquals(expected, actual);
+            }
+
+            Assertions.assertTrue(recommender.recommend(clusterGraph, new User("Never", "Seen", null), 10).isEmpty());
+        } finally {
+            recommender.shutdown();
+        }
+    }
+
+    @Test
+    public void testAddNode_migratesItsShareWhileWritesContinue() throws IOException, InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = startWriter(stop, failure);
+
+        FollowStore added = addNode("node-3");
+        Assertions.assertTrue(clusterGraph.awaitRebalancing(30_000));
+
+        stop.set(true);
+        writer.join();
+        Assertions.assertNull(failure.get());
+
+        assertSameGraph(followStore, clusterGraph, false);
+        assertNodesHoldOnlyTheirOwnFollows();
+
+        int owned = 0;
+        for(User user : users) {
+            if(clusterGraph.getNode(user) == added) {
+                owned++;
+            }
+        }
+        Assertions.assertTrue(owned > users.size() / 8, "The new node owns " + owned);
+    }
+
+    @Test
+    public void testRemoveNode_handsItsUsersToTheOthers() throws IOException, InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = startWriter(stop, failure);
+
+        FollowStore removed = nodes.get("node-1");
+        clusterGraph.removeNode("node-1");
+        Assertions.assertTrue(clusterGraph.awaitRebalancing(30_000));
+
+        stop.set(true);
+        writer.join();
+        Assertions.assertNull(failure.get());
+
+        Assertions.assertEquals(2, clusterGraph.getNodeNames().size());
+        for(User user : users) {
+            Assertions.assertNotSame(removed, clusterGraph.getNode(user));
+        }
+
+        assertSameGraph(followStore, clusterGraph, false);
+        assertNodesHoldOnlyTheirOwnFollows();
+    }
+
+    @Test
+    public void testAddAndRemoveNode_invalidChanges() throws IOException {
+        final FollowStore other = FollowStore.open(new File(directory, "other"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> clusterGraph.addNode("node-0", other));
+        other.close();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> clusterGraph.addNode("node-3", nodes.get("node-0")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> clusterGraph.removeNode("node-3"));
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testLoadSpread_acrossNodeStandIns() throws IOException, InterruptedException {
+        for(int i = 3; i < 8; i++) {
+            addNode("node-" + i);
+        }
+        Assertions.assertTrue(clusterGraph.awaitRebalancing(30_000));
+
+        // A larger graph, so each node's share is measured over enough users
+        List<Follow> moreFollows = new ArrayList<>();
+        Random random = new Random(50);
+        for(int i = 0; i < 20_000; i++) {
+            User follower = new User("Load" + i, "User", null);
+            for(int j = 0; j < 5; j++) {
+                moreFollows.add(new Follow(follower, users.get(random.nextInt(users.size()))));
+            }
+        }
+        clusterGraph.followAll(moreFollows);
+
+        List<User> allUsers = clusterGraph.getUsers();
+        Map<FollowGraph, Integer> loads = new HashMap<>();
+        for(User user : allUsers) {
+            FollowGraph node = clusterGraph.getNode(user);
+            Integer load = loads.get(node);
+            loads.put(node, load == null ? 1 : load + 1);
+        }
+
+        Assertions.assertEquals(8, loads.size());
+
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for(int load : loads.values()) {
+            min = Math.min(min, load);
+            max = Math.max(max, load);
+        }
+        double mean = allUsers.size() / 8.0;
+
+        Assertions.assertTrue(max / mean < 1.3 && min / mean > 0.7, String.format("%d users on 8 nodes, fewest %.2fx and most %.2fx the mean",
+                allUsers.size(), min / mean, max / mean));
+    }
+}
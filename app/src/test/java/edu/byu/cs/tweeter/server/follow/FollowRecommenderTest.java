@@ -0,0 +1,348 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+public class FollowRecommenderTest {
+
+    private final User user1 = new User("Daffy", "Duck", null);
+    private final User user2 = new User("Fred", "Flintstone", null);
+    private final User user3 = new User("Barney", "Rubble", null);
+    private final User user4 = new User("Wilma", "Rubble", null);
+    private final User user5 = new User("Clint", "Eastwood", null);
+    private final User user6 = new User("Mother", "Teresa", null);
+
+    private FollowRecommender recommender;
+
+    @BeforeEach
+    public void setup() {
+        recommender = new FollowRecommender(4, FollowRecommender.DEFAULT_FAN_OUT_CAP);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        recommender.shutdown();
+    }
+
+    @Test
+    public void testRecommend_ranksFriendsOfFriendsAndExcludesExistingFollows() throws IOException, InterruptedException {
+        File directory = Files.createTempDirectory("follows").toFile();
+        FollowStore followStore = FollowStore.open(directory);
+
+        try {
+            followStore.follow(user1, user2);
+            followStore.follow(user1, user3);
+
+            followStore.follow(user2, user4);
+            followStore.follow(user2, user5);
+            followStore.follow(user2, user3);
+            followStore.follow(user2, user1);
+            followStore.follow(user3, user5);
+            followStore.follow(user3, user6);
+
+            List<FollowRecommender.Recommendation> recommendations = recommender.recommend(followStore, user1, 10);
+
+            // user3 is already followed and user1 is the user, so neither is recommended
+            Assertions.assertEquals(3, recommendations.size());
+            Assertions.assertEquals(user5, recommendations.get(0).getUser());
+            Assertions.assertEquals(2, recommendations.get(0).getFollowedByCount());
+
+            // Ties go to the user the store saw first
+            Assertions.assertEquals(user4, recommendations.get(1).getUser());
+            Assertions.assertEquals(user6, recommendations.get(2).getUser());
+            Assertions.assertEquals(1, recommendations.get(2).getFollowedByCount());
+
+            Assertions.assertEquals(1, recommender.recommend(followStore, user1, 1).size());
+            Assertions.assertTrue(recommender.recommend(followStore, user6, 10).isEmpty());
+            Assertions.assertTrue(recommender.recommend(followStore, new User("Never", "Seen", null), 10).isEmpty());
+        } finally {
+            followStore.close();
+            //noinspection ConstantConditions
+            for(File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void testRecommend_parallelAndSerialCountsAgree() throws InterruptedException {
+        ArrayGraph graph = ArrayGraph.random(new Random(3), 20_000, 40, 0);
+        FollowRecommender serial = new FollowRecommender(1, FollowRecommender.DEFAULT_FAN_OUT_CAP);
+
+        try {
+            for(int userId = 0; userId < 50; userId++) {
+                Assertions.assertArrayEquals(serial.recommend(graph, userId, 20), recommender.recommend(graph, userId, 20));
+            }
+        } finally {
+            serial.shutdown();
+        }
+    }
+
+    @Test
+    public void testRecommend_busyPool_doesNotWaitForQueuedCounting() throws Exception {
+        // User 0 follows users 1 to 200, who each follow users 201 to 400: enough edges to count
+        // in parallel
+        int [][] followees = new int[401][];
+        int [] firstHop = new int[200];
+        int [] secondHop = new int[200];
+        for(int i = 0; i < 200; i++) {
+            firstHop[i] = 1 + i;
+            secondHop[i] = 201 + i;
+        }
+        followees[0] = firstHop;
+        for(int i = 1; i < followees.length; i++) {
+            followees[i] = i <= 200 ? secondHop : new int[0];
+        }
+
+        final ArrayGraph graph = new ArrayGraph(followees);
+        final CountDownLatch poolThreadsBlocked = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        // Every second-hop read blocks until released, and the pool threads say when they've
+        // reached one
+        final FollowRecommender.Graph blockingGraph = new FollowRecommender.Graph() {
+            @Override
+            public int getFolloweeCount(int followerId) {
+                return graph.getFolloweeCount(followerId);
+            }
+
+            @Override
+            public int [] getFolloweeIds(int followerId, int limit) {
+                if(followerId != 0) {
+                    if(Thread.currentThread().getName().startsWith("FollowRecommender-")) {
+                        poolThreadsBlocked.countDown();
+                    }
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return graph.getFolloweeIds(followerId, limit);
+            }
+        };
+
+        final FollowRecommender pair = new FollowRecommender(2, FollowRecommender.DEFAULT_FAN_OUT_CAP);
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+
+        try {
+            // Two recommendations occupy both of the pool's threads
+            List<Future<long []>> blocked = Arrays.asList(
+                    callers.submit(new Callable<long []>() {
+                        @Override
+                        public long [] call() throws InterruptedException {
+                            return pair.recommend(blockingGraph, 0, 10);
+                        }
+                    }),
+                    callers.submit(new Callable<long []>() {
+                        @Override
+                        public long [] call() throws InterruptedException {
+                            return pair.recommend(blockingGraph, 0, 10);
+                        }
+                    }));
+            Assertions.assertTrue(poolThreadsBlocked.await(10, TimeUnit.SECONDS));
+
+            // A third counts every chunk itself rather than waiting for its queued share
+            Future<long []> free = callers.submit(new Callable<long []>() {
+                @Override
+                public long [] call() throws InterruptedException {
+                    return pair.recommend(graph, 0, 10);
+                }
+            });
+            long [] ranked = free.get(10, TimeUnit.SECONDS);
+
+            Assertions.assertEquals(10, ranked.length);
+            Assertions.assertEquals(201, FollowRecommender.TopK.id(ranked[0]));
+            Assertions.assertEquals(200, FollowRecommender.TopK.count(ranked[0]));
+
+            release.countDown();
+            for(Future<long []> result : blocked) {
+                Assertions.assertArrayEquals(ranked, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            pair.shutdown();
+        }
+    }
+
+    @Test
+    public void testRecommend_celebrityFanOut_isCapped() throws InterruptedException {
+        // User 0 follows users 1 and 2. User 1 follows everyone; user 2 follows 3 and 4.
+        int userCount = 10_000;
+        int [][] followees = new int[userCount][];
+        int [] everyone = new int[userCount];
+        for(int i = 0; i < userCount; i++) {
+            everyone[i] = i;
+            followees[i] = new int[0];
+        }
+        followees[0] = new int[] {1, 2};
+        followees[1] = everyone;
+        followees[2] = new int[] {3, 4};
+
+        FollowRecommender capped = new FollowRecommender(1, 100);
+
+        try {
+            long [] recommendations = capped.recommend(new ArrayGraph(followees), 0, userCount);
+
+            // The celebrity contributes 100 sampled users, two of which are excluded
+            int counted = 0;
+            for(long entry : recommendations) {
+                counted += FollowRecommender.TopK.count(entry);
+            }
+            Assertions.assertTrue(counted <= 102, "counted " + counted);
+            Assertions.assertTrue(recommendations.length >= 2);
+        } finally {
+            capped.shutdown();
+        }
+    }
+
+    @Test
+    public void testTopK_keepsHighestCountsBestFirst() {
+        FollowRecommender.TopK topK = new FollowRecommender.TopK(3);
+        int [] counts = {5, 1, 9, 5, 7, 2, 9};
+        for(int id = 0; id < counts.length; id++) {
+            topK.offer(id, counts[id]);
+        }
+
+        long [] best = topK.toSortedArray();
+
+        Assertions.assertEquals(3, best.length);
+        Assertions.assertEquals(2, FollowRecommender.TopK.id(best[0]));
+        Assertions.assertEquals(6, FollowRecommender.TopK.id(best[1]));
+        Assertions.assertEquals(4, FollowRecommender.TopK.id(best[2]));
+        Assertions.assertEquals(7, FollowRecommender.TopK.count(best[2]));
+    }
+
+    @Test
+    public void testIntCountMap_countsAndGrows() {
+        IntCountMap map = new IntCountMap(4);
+        for(int i = 0; i < 10_000; i++) {
+            map.add(i % 3000, 1);
+        }
+
+        Assertions.assertEquals(3000, map.size());
+        Assertions.assertEquals(4, map.get(0));
+        Assertions.assertEquals(3, map.get(2999));
+        Assertions.assertEquals(0, map.get(3000));
+
+        IntCountMap other = new IntCountMap(4);
+        other.add(0, 10);
+        other.add(5000, 2);
+        map.addAll(other);
+
+        Assertions.assertEquals(14, map.get(0));
+        Assertions.assertEquals(2, map.get(5000));
+        Assertions.assertEquals(3001, map.size());
+    }
+
+    /**
+     * Recommends for random users of a one million user graph with a skewed follow distribution
+     * and a handful of accounts that follow a great many users, and reports the latency
+     * percentiles in the assertion message. The p99 is asserted loosely so the test only fails if
+     * the fan-out cap or the counting stops working.
+     */
+    @Test
+    @Tag("benchmark")
+    public void testRecommend_millionUserGraph_benchmark() throws InterruptedException {
+        Random random = new Random(11);
+        ArrayGraph graph = ArrayGraph.random(random, 1_000_000, 20, 20);
+        long [] latencies = new long[1000];
+
+        for(int i = 0; i < 200; i++) {
+            recommender.recommend(graph, random.nextInt(1_000_000), 20);
+        }
+
+        for(int i = 0; i < latencies.length; i++) {
+            long start = System.nanoTime();
+            recommender.recommend(graph, random.nextInt(1_000_000), 20);
+            latencies[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(latencies);
+        long p50 = latencies[latencies.length / 2];
+        long p99 = latencies[latencies.length * 99 / 100];
+
+        Assertions.assertTrue(p99 < 200_000_000L, String.format("1M users, p50 %.2f ms, p99 %.2f ms", p50 / 1e6, p99 / 1e6));
+    }
+
+    /**
+     * A graph held in arrays, for tests that need more users than are practical to put in a store.
+     */
+    private static class ArrayGraph implements FollowRecommender.Graph {
+
+        private final int [][] followees;
+
+        ArrayGraph(int [][] followees) {
+            this.followees = followees;
+        }
+
+        @Override
+        public int getFolloweeCount(int followerId) {
+            return followees[followerId].length;
+        }
+
+        @Override
+        public int [] getFolloweeIds(int followerId, int limit) {
+            return FollowRecommender.sample(followees[followerId], limit);
+        }
+
+        /**
+         * Creates a graph in which each user follows up to twice the average number of users,
+         * chosen with a bias towards low ids so that some users are far more followed than others,
+         * plus a number of users who follow 100,000 users each.
+         */
+        static ArrayGraph random(Random random, int userCount, int averageFollowees, int heavyFollowers) {
+            int [][] followees = new int[userCount][];
+
+            for(int i = 0; i < userCount; i++) {
+                int [] ids = new int[random.nextInt(averageFollowees * 2 + 1)];
+                for(int j = 0; j < ids.length; j++) {
+                    double skewed = random.nextDouble();
+                    ids[j] = (int) (skewed * skewed * userCount);
+                }
+                followees[i] = distinctSorted(ids);
+            }
+
+            for(int i = 0; i < heavyFollowers; i++) {
+                int [] ids = new int[100_000];
+                for(int j = 0; j < ids.length; j++) {
+                    ids[j] = random.nextInt(userCount);
+                }
+                followees[random.nextInt(userCount)] = distinctSorted(ids);
+            }
+
+            return new ArrayGraph(followees);
+        }
+
+        private static int [] distinctSorted(int [] ids) {
+            Arrays.sort(ids);
+            int count = 0;
+            for(int i = 0; i < ids.length; i++) {
+                if(i == 0 || ids[i] != ids[i - 1]) {
+                    ids[count++] = ids[i];
+                }
+            }
+            return Arrays.copyOf(ids, count);
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.model.domain.Follow;
+import edu.byu.cs.tweeter.model.domain.User;
+
+public class FollowStoreTest {
+
+    private final User user1 = new User("Daffy", "Duck", "https://example.com/daffy.png");
+    private final User user2 = new User("Fred", "Flintstone", null);
+    private final User user3 = new User("Barney", "Rubble", "https://example.com/barney.png");
+    private final User user4 = new User("Wilma", "Rubble", null);
+
+    private File directory;
+    private FollowStore followStore;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("follows").toFile();
+        followStore = FollowStore.open(directory);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        followStore.close();
+        deleteDirectory();
+    }
+
+    private void deleteDirectory() {
+        File [] files = directory.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private FollowStore reopen() throws IOException {
+        followStore.close();
+        followStore = FollowStore.open(directory);
+        return followStore;
+    }
+
+    @Test
+    public void testFollow_indexesBothDirectionsInFollowOrder() throws IOException {
+        Assertions.assertTrue(followStore.follow(user1, user2));
+        Assertions.assertTrue(followStore.follow(user1, user3));
+        Assertions.assertTrue(followStore.follow(user4, user3));
+        Assertions.assertFalse(followStore.follow(user1, user2));
+
+        Assertions.assertEquals(Arrays.asList(user2, user3), followStore.getFollowees(user1));
+        Assertions.assertEquals(Arrays.asList(user1, user4), followStore.getFollowers(user3));
+        Assertions.assertTrue(followStore.getFollowees(user2).isEmpty());
+    }
+
+    @Test
+    public void testUnfollow_removesFromBothDirections() throws IOException {
+        followStore.follow(user1, user2);
+        followStore.follow(user1, user3);
+
+        Assertions.assertTrue(followStore.unfollow(user1, user2));
+        Assertions.assertFalse(followStore.unfollow(user1, user2));
+
+        Assertions.assertEquals(Collections.singletonList(user3), followStore.getFollowees(user1));
+        Assertions.assertTrue(followStore.getFollowers(user2).isEmpty());
+    }
+
+    @Test
+    public void testGetFollowees_returnedListIsUnaffectedByLaterWrites() throws IOException {
+        followStore.follow(user1, user2);
+        List<User> followees = followStore.getFollowees(user1);
+
+        followStore.follow(user1, user3);
+
+        Assertions.assertEquals(Collections.singletonList(user2), followees);
+    }
+
+    @Test
+    public void testIsFollowing_smallAndLargeSets() throws IOException {
+        List<User> followees = new ArrayList<>();
+        for(int i = 0; i < 3 * Adjacency.FILTER_MIN_SIZE; i++) {
+            followees.add(new User("Followee", "Number" + i, null));
+        }
+
+        followStore.follow(user1, user2);
+        for(User followee : followees) {
+            followStore.follow(user3, followee);
+        }
+        followStore.unfollow(user3, followees.get(5));
+
+        Assertions.assertTrue(followStore.isFollowing(user1, user2));
+        Assertions.assertFalse(followStore.isFollowing(user2, user1));
+        Assertions.assertFalse(followStore.isFollowing(user1, user4));
+        Assertions.assertFalse(followStore.isFollowing(user1, new User("Never", "Seen", null)));
+
+        for(int i = 0; i < followees.size(); i++) {
+            Assertions.assertEquals(i != 5, followStore.isFollowing(user3, followees.get(i)));
+        }
+        Assertions.assertFalse(followStore.isFollowing(user3, user1));
+
+        List<User> page = Arrays.asList(followees.get(4), followees.get(5), user1, followees.get(6));
+        Assertions.assertArrayEquals(new boolean[] {true, false, false, true}, followStore.isFollowing(user3, page));
+        Assertions.assertArrayEquals(new boolean[] {false, false, false, false}, followStore.isFollowing(user4, page));
+    }
+
+    @Test
+    public void testIsFollowing_manyUnfollows_stillExact() throws IOException {
+        List<User> followees = new ArrayList<>();
+        for(int i = 0; i < 200; i++) {
+            followees.add(new User("Followee", "Number" + i, null));
+            followStore.follow(user1, followees.get(i));
+        }
+
+        // Unfollowing most of the set leaves stale entries in the filter until it is rebuilt
+        for(int i = 0; i < 190; i++) {
+            followStore.unfollow(user1, followees.get(i));
+        }
+
+        for(int i = 0; i < followees.size(); i++) {
+            Assertions.assertEquals(i >= 190, followStore.isFollowing(user1, followees.get(i)));
+        }
+
+        followStore.compact();
+        reopen();
+
+        for(int i = 0; i < followees.size(); i++) {
+            Assertions.assertEquals(i >= 190, followStore.isFollowing(user1, followees.get(i)));
+        }
+        Assertions.assertFalse(followStore.isFollowing(followees.get(0), user1));
+    }
+
+    @Test
+    public void testGetMutualFollows_pagesThroughIntersection() throws IOException {
+        List<User> users = new ArrayList<>();
+        for(int i = 0; i < 10; i++) {
+            users.add(new User("User", "Number" + i, null));
+        }
+
+        // user1 follows users 0-7 and is followed by the even numbered users
+        for(int i = 0; i < 8; i++) {
+            followStore.follow(user1, users.get(i));
+        }
+        for(int i = 0; i < 10; i += 2) {
+            followStore.follow(users.get(i), user1);
+        }
+
+        List<User> mutual = new ArrayList<>();
+        FollowStore.Page page = followStore.getMutualFollows(user1, null, 3);
+        mutual.addAll(page.getUsers());
+        Assertions.assertEquals(3, page.getUsers().size());
+        Assertions.assertTrue(page.getHasMorePages());
+
+        page = followStore.getMutualFollows(user1, page.getUsers().get(2), 3);
+        mutual.addAll(page.getUsers());
+        Assertions.assertFalse(page.getHasMorePages());
+
+        Assertions.assertEquals(Arrays.asList(users.get(0), users.get(2), users.get(4), users.get(6)), mutual);
+        Assertions.assertTrue(followStore.getMutualFollows(user2, null, 10).getUsers().isEmpty());
+    }
+
+    @Test
+    public void testGetFollowersFollowedBy_intersectsFollowersWithViewersFollowees() throws IOException {
+        followStore.follow(user2, user1);
+        followStore.follow(user3, user1);
+        followStore.follow(user4, user1);
+        followStore.follow(user4, user2);
+        followStore.follow(user4, user3);
+
+        FollowStore.Page page = followStore.getFollowersFollowedBy(user1, user4, null, 10);
+
+        Assertions.assertEquals(Arrays.asList(user2, user3), page.getUsers());
+        Assertions.assertFalse(page.getHasMorePages());
+        Assertions.assertTrue(followStore.getFollowersFollowedBy(user1, user2, null, 10).getUsers().isEmpty());
+        Assertions.assertTrue(followStore.getFollowersFollowedBy(user1, user4, null, 0).getUsers().isEmpty());
+    }
+
+    @Test
+    public void testGetFolloweePageAndIsFollowedBy() throws IOException {
+        followStore.follow(user1, user2);
+        followStore.follow(user1, user3);
+        followStore.follow(user1, user4);
+        followStore.follow(user2, user4);
+        followStore.follow(user3, user4);
+
+        FollowStore.Page page = followStore.getFolloweePage(user1, null, 2);
+        Assertions.assertEquals(Arrays.asList(user2, user3), page.getUsers());
+        Assertions.assertTrue(page.getHasMorePages());
+
+        // A page can start after a user who is no longer followed
+        followStore.unfollow(user1, user3);
+        page = followStore.getFolloweePage(user1, user3, 2);
+        Assertions.assertEquals(Collections.singletonList(user4), page.getUsers());
+        Assertions.assertFalse(page.getHasMorePages());
+
+        Assertions.assertTrue(followStore.getFolloweePage(user4, null, 2).getUsers().isEmpty());
+        Assertions.assertTrue(followStore.getFolloweePage(user1, new User("Never", "Seen", null), 2).getUsers().isEmpty());
+
+        Assertions.assertArrayEquals(new boolean[] {false, true, true, false},
+                followStore.isFollowedBy(user4, Arrays.asList(user4, user3, user1, new User("Never", "Seen", null))));
+        Assertions.assertArrayEquals(new boolean[] {false}, followStore.isFollowedBy(user1, Collections.singletonList(user2)));
+    }
+
+    @Test
+    public void testOpen_replaysLog() throws IOException {
+        followStore.follow(user1, user2);
+        followStore.follow(user1, user3);
+        followStore.follow(user2, user1);
+        followStore.unfollow(user1, user2);
+
+        reopen();
+
+        Assertions.assertEquals(Collections.singletonList(user3), followStore.getFollowees(user1));
+        Assertions.assertEquals(Collections.singletonList(user1), followStore.getFollowees(user2));
+        Assertions.assertEquals(Collections.singletonList(user2), followStore.getFollowers(user1));
+        Assertions.assertEquals("https://example.com/barney.png", followStore.getFollowees(user1).get(0).getImageUrl());
+    }
+
+    @Test
+    public void testOpen_replaysRefollowAtTheEnd() throws IOException {
+        followStore.follow(user1, user2);
+        followStore.follow(user1, user3);
+        followStore.unfollow(user1, user2);
+        followStore.follow(user1, user2);
+        followStore.follow(user4, user1);
+        followStore.unfollow(user4, user1);
+
+        reopen();
+
+        Assertions.assertEquals(Arrays.asList(user3, user2), followStore.getFollowees(user1));
+        Assertions.assertTrue(followStore.isFollowing(user1, user2));
+        Assertions.assertEquals(Collections.<User>emptyList(), followStore.getFollowees(user4));
+        Assertions.assertEquals(Collections.<User>emptyList(), followStore.getFollowers(user1));
+    }
+
+    @Test
+    public void testOpen_tornRecord_isDiscardedAndLogTruncated() throws IOException {
+        followStore.follow(user1, user2);
+        followStore.follow(user1, user3);
+        followStore.close();
+
+        // Cut the last record short, as a crash part way through a write would
+        File log = new File(directory, "log-0.log");
+        long fullLength = log.length();
+        try(RandomAccessFile raf = new RandomAccessFile(log, "rw")) {
+            raf.setLength(fullLength - 3);
+        }
+
+        followStore = FollowStore.open(directory);
+        Assertions.assertEquals(Collections.singletonList(user2), followStore.getFollowees(user1));
+
+        // New records are appended after the last valid one and survive another restart
+        followStore.follow(user1, user4);
+        reopen();
+
+        Assertions.assertEquals(Arrays.asList(user2, user4), followStore.getFollowees(user1));
+    }
+
+    @Test
+    public void testOpen_corruptRecord_isDiscarded() throws IOException {
+        followStore.follow(user1, user2);
+        followStore.follow(user1, user3);
+        followStore.close();
+
+        File log = new File(directory, "log-0.log");
+        try(RandomAccessFile raf = new RandomAccessFile(log, "rw")) {
+            raf.seek(log.length() - 1);
+            int last = raf.read();
+            raf.seek(log.length() - 1);
+            raf.write(last ^ 1);
+        }
+
+        followStore = FollowStore.open(directory);
+        Assertions.assertEquals(Collections.singletonList(user2), followStore.getFollowees(user1));
+    }
+
+    @Test
+    public void testCompact_writesSegmentAndDeletesOldLog() throws IOException {
+        followStore.follow(user1, user2);
+        followStore.follow(user1, user3);
+        followStore.follow(user4, user1);
+
+        followStore.compact();
+        followStore.unfollow(user1, user2);
+        followStore.follow(user2, user3);
+
+        Assertions.assertTrue(new File(directory, "segment-1.seg").exists());
+        Assertions.assertFalse(new File(directory, "log-0.log").exists());
+
+        reopen();
+
+        Assertions.assertEquals(Collections.singletonList(user3), followStore.getFollowees(user1));
+        Assertions.assertEquals(Arrays.asList(user1, user2), followStore.getFollowers(user3));
+        Assertions.assertEquals(Collections.singletonList(user4), followStore.getFollowers(user1));
+
+        // A second compaction replaces the first segment
+        followStore.compact();
+        Assertions.assertFalse(new File(directory, "segment-1.seg").exists());
+        Assertions.assertEquals(Collections.singletonList(user3), reopen().getFollowees(user1));
+    }
+
+    @Test
+    public void testFollow_pastThreshold_compactsInBackground() throws Exception {
+        followStore.close();
+        followStore = FollowStore.open(directory, 512, FollowStore.DEFAULT_FALSE_POSITIVE_RATE);
+
+        List<User> followees = new ArrayList<>();
+        for(int i = 0; i < 50; i++) {
+            User followee = new User("Followee", "Number" + i, null);
+            followees.add(followee);
+            followStore.follow(user1, followee);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(!hasSegment() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Assertions.assertTrue(hasSegment());
+        Assertions.assertEquals(followees, reopen().getFollowees(user1));
+    }
+
+    private boolean hasSegment() {
+        //noinspection ConstantConditions
+        for(String name : directory.list()) {
+            if(name.endsWith(".seg")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testFollowAll_skipsExistingFollows() throws IOException {
+        followStore.follow(user1, user2);
+        followStore.followAll(Arrays.asList(new Follow(user1, user2), new Follow(user1, user3), new Follow(user2, user3)));
+
+        Assertions.assertEquals(Arrays.asList(user2, user3), reopen().getFollowees(user1));
+        Assertions.assertEquals(Arrays.asList(user1, user2), followStore.getFollowers(user3));
+    }
+
+    @Test
+    public void testFollowAll_repeatedFollowInBatch_followsOnce() throws IOException {
+        followStore.followAll(Arrays.asList(new Follow(user1, user2), new Follow(user3, user2), new Follow(user1, user2)));
+
+        Assertions.assertEquals(Arrays.asList(user1, user3), followStore.getFollowers(user2));
+        Assertions.assertEquals(Arrays.asList(user1, user3), reopen().getFollowers(user2));
+    }
+
+    @Test
+    public void testFollow_manyFollowersOfOneUser_listsAndIdsStayExact() throws IOException {
+        List<User> followers = new ArrayList<>();
+        List<Follow> batch = new ArrayList<>();
+        for(int i = 0; i < 500; i++) {
+            User follower = new User("Follower", "Number" + i, null);
+            followers.add(follower);
+            if(i < 200) {
+                batch.add(new Follow(follower, user1));
+            }
+        }
+
+        followStore.followAll(batch);
+        followStore.follow(user1, followers.get(7));
+
+        List<List<User>> snapshots = new ArrayList<>();
+        for(int i = 200; i < followers.size(); i++) {
+            followStore.follow(followers.get(i), user1);
+            snapshots.add(followStore.getFollowers(user1));
+        }
+
+        Assertions.assertEquals(followers, followStore.getFollowers(user1));
+        for(int i = 0; i < snapshots.size(); i++) {
+            Assertions.assertEquals(followers.subList(0, 201 + i), snapshots.get(i));
+        }
+        for(User follower : followers) {
+            Assertions.assertTrue(followStore.isFollowing(follower, user1));
+        }
+        Assertions.assertFalse(followStore.isFollowing(user2, user1));
+
+        FollowGraph.Page mutual = followStore.getMutualFollows(user1, null, 10);
+        Assertions.assertEquals(Collections.singletonList(followers.get(7)), mutual.getUsers());
+
+        followStore.unfollow(followers.get(300), user1);
+        Assertions.assertFalse(followStore.isFollowing(followers.get(300), user1));
+        Assertions.assertEquals(followers.size() - 1, followStore.getFollowers(user1).size());
+        Assertions.assertEquals(followers.size() - 1, reopen().getFollowers(user1).size());
+    }
+
+    @Test
+    public void testFollow_concurrentWriters_allDurable() throws Exception {
+        final int threadCount = 8;
+        final int followsPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for(int t = 0; t < threadCount; t++) {
+                final User follower = new User("Follower", "Number" + t, null);
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        for(int i = 0; i < followsPerThread; i++) {
+                            followStore.follow(follower, new User("Followee", "Number" + i, null));
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            for(Future<Void> result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        reopen();
+
+        for(int t = 0; t < threadCount; t++) {
+            Assertions.assertEquals(followsPerThread, followStore.getFollowees(new User("Follower", "Number" + t, null)).size());
+        }
+        Assertions.assertEquals(threadCount, followStore.getFollowers(new User("Followee", "Number0", null)).size());
+    }
+
+    /**
+     * Compares the time to check whether a user follows another with the store's index against a
+     * scan of the user's followees, for a user who follows many users. Most of the checks are for
+     * users who aren't followed, as they are when showing follow buttons. Reports the times in the
+     * assertion message rather than asserting on them.
+     */
+    @Test
+    @Tag("benchmark")
+    public void testIsFollowing_latency_benchmark() throws IOException {
+        List<User> users = new ArrayList<>();
+        List<Follow> follows = new ArrayList<>();
+        for(int i = 0; i < 20_000; i++) {
+            users.add(new User("User", "Number" + i, null));
+            if(i % 4 == 0) {
+                follows.add(new Follow(user1, users.get(i)));
+            }
+        }
+
+        followStore.followAll(follows);
+        List<User> followees = followStore.getFollowees(user1);
+
+        int iterations = 200_000;
+        long sink = 0;
+
+        for(int i = 0; i < iterations; i++) {
+            sink += followStore.isFollowing(user1, users.get((i * 7) % users.size())) ? 1 : 0;
+        }
+
+        long start = System.nanoTime();
+        for(int i = 0; i < iterations; i++) {
+            sink += followStore.isFollowing(user1, users.get((i * 7) % users.size())) ? 1 : 0;
+        }
+        long indexNanos = System.nanoTime() - start;
+
+        int scanIterations = 2_000;
+        start = System.nanoTime();
+        for(int i = 0; i < scanIterations; i++) {
+            sink += followees.contains(users.get((i * 7) % users.size())) ? 1 : 0;
+        }
+        long scanNanos = System.nanoTime() - start;
+
+        Assertions.assertTrue(sink > 0, String.format("isFollowing over %d followees %.1f ns/op, List.contains %.1f ns/op",
+                followees.size(), indexNanos / (double) iterations, scanNanos / (double) scanIterations));
+    }
+
+    /**
+     * Compares the time to read a user's followees from the store with the time to read them from
+     * a plain in-memory map. Reports the times in the assertion message rather than asserting on
+     * them, so the test doesn't depend on the machine.
+     */
+    @Test
+    @Tag("benchmark")
+    public void testGetFollowees_readLatency_benchmark() throws IOException {
+        List<User> users = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            users.add(new User("User", "Number" + i, null));
+        }
+
+        List<Follow> follows = new ArrayList<>();
+        Map<User, List<User>> map = new HashMap<>();
+        for(int i = 0; i < users.size(); i++) {
+            List<User> followees = new ArrayList<>();
+            for(int j = 1; j <= 20; j++) {
+                User followee = users.get((i + j * 37) % users.size());
+                follows.add(new Follow(users.get(i), followee));
+                followees.add(followee);
+            }
+            map.put(users.get(i), followees);
+        }
+
+        followStore.followAll(follows);
+        followStore.compact();
+        reopen();
+
+        int iterations = 2_000_000;
+        long sink = 0;
+
+        // Warm up both paths before measuring
+        for(int i = 0; i < iterations; i++) {
+            sink += followStore.getFollowees(users.get(i % users.size())).size();
+            sink += map.get(users.get(i % users.size())).size();
+        }
+
+        long start = System.nanoTime();
+        for(int i = 0; i < iterations; i++) {
+            sink += followStore.getFollowees(users.get(i % users.size())).size();
+        }
+        long storeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for(int i = 0; i < iterations; i++) {
+            sink += map.get(users.get(i % users.size())).size();
+        }
+        long mapNanos = System.nanoTime() - start;
+
+        Assertions.assertEquals(4 * iterations * 20L, sink, String.format("getFollowees %.1f ns/op, HashMap.get %.1f ns/op",
+                storeNanos / (double) iterations, mapNanos / (double) iterations));
+    }
+}
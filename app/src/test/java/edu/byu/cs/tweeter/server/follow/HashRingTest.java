@@ -0,0 +1,120 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+public class HashRingTest {
+
+    private static List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            users.add(new User("First" + i, "Last" + i, null));
+        }
+        return users;
+    }
+
+    private static HashRing<String> createRing(int virtualNodes, int nodeCount) {
+        HashRing<String> ring = HashRing.empty(virtualNodes);
+        for(int i = 0; i < nodeCount; i++) {
+            ring = ring.plus("node-" + i, "node-" + i);
+        }
+        return ring;
+    }
+
+    /**
+     * Returns the most users any node has, relative to the mean.
+     */
+    private static double maxLoadRatio(HashRing<String> ring, List<User> users) {
+        Map<String, Integer> loads = new HashMap<>();
+        for(User user : users) {
+            String node = ring.get(user);
+            Integer load = loads.get(node);
+            loads.put(node, load == null ? 1 : load + 1);
+        }
+
+        int max = 0;
+        for(int load : loads.values()) {
+            max = Math.max(max, load);
+        }
+        return max / (users.size() / (double) ring.getNodes().size());
+    }
+
+    @Test
+    public void testGet_isStableAndUsesEveryNode() {
+        HashRing<String> ring = createRing(HashRing.DEFAULT_VIRTUAL_NODES, 5);
+        HashRing<String> rebuilt = createRing(HashRing.DEFAULT_VIRTUAL_NODES, 5);
+        List<User> users = createUsers(10_000);
+
+        for(User user : users) {
+            Assertions.assertEquals(ring.get(user), rebuilt.get(user));
+        }
+
+        Assertions.assertTrue(maxLoadRatio(ring, users) < 1.3);
+    }
+
+    @Test
+    public void testGet_emptyRing() {
+        HashRing<String> ring = HashRing.empty(HashRing.DEFAULT_VIRTUAL_NODES);
+
+        Assertions.assertTrue(ring.isEmpty());
+        Assertions.assertThrows(IllegalStateException.class, () -> ring.get(new User("A", "B", null)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ring.minus("node-0"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ring.plus("node-0", "a").plus("node-0", "b"));
+    }
+
+    @Test
+    public void testPlusAndMinus_moveOnlyTheChangedNodesUsers() {
+        HashRing<String> ring = createRing(HashRing.DEFAULT_VIRTUAL_NODES, 4);
+        HashRing<String> added = ring.plus("node-4", "node-4");
+        List<User> users = createUsers(20_000);
+
+        int moved = 0;
+        for(User user : users) {
+            if(!ring.get(user).equals(added.get(user))) {
+                // A user only ever moves to the new node
+                Assertions.assertEquals("node-4", added.get(user));
+                moved++;
+            }
+        }
+
+        // About 1/5 of the users move
+        Assertions.assertTrue(Math.abs(moved / (double) users.size() - 0.2) < 0.05, "Moved " + moved);
+
+        HashRing<String> removed = added.minus("node-4");
+        for(User user : users) {
+            Assertions.assertEquals(ring.get(user), removed.get(user));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testGet_loadEvennessBenchmark() {
+        List<User> users = createUsers(100_000);
+        StringBuilder report = new StringBuilder("8 nodes");
+
+        for(int virtualNodes : new int[] {1, 16, HashRing.DEFAULT_VIRTUAL_NODES}) {
+            HashRing<String> ring = createRing(virtualNodes, 8);
+            HashRing<String> added = ring.plus("node-8", "node-8");
+
+            int moved = 0;
+            for(User user : users) {
+                if(!ring.get(user).equals(added.get(user))) {
+                    moved++;
+                }
+            }
+
+            report.append(String.format("; %d virtual nodes each, busiest node %.2fx the mean, adding a ninth moves %.1f%% of users",
+                    virtualNodes, maxLoadRatio(ring, users), 100.0 * moved / users.size()));
+        }
+
+        Assertions.assertTrue(maxLoadRatio(createRing(HashRing.DEFAULT_VIRTUAL_NODES, 8), users) < 1.25, report.toString());
+    }
+}
@@ -0,0 +1,337 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import edu.byu.cs.tweeter.model.domain.Follow;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+public class ShardedFollowGraphTest {
+
+    private static final int SHARD_COUNT = 4;
+
+    private File directory;
+    private FollowStore followStore;
+    private ShardedFollowGraph shardedGraph;
+    private List<User> users;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("follows").toFile();
+        followStore = FollowStore.open(new File(directory, "single"));
+        shardedGraph = ShardedFollowGraph.open(new File(directory, "sharded"), SHARD_COUNT);
+
+        users = new ArrayList<>();
+        for(int i = 0; i < 200; i++) {
+            users.add(new User("First" + i, "Last" + i, null));
+        }
+
+        // A random graph with a few heavily followed users, loaded into both graphs
+        Random random = new Random(48);
+        List<Follow> follows = new ArrayList<>();
+        for(User follower : users) {
+            int followeeCount = random.nextInt(40);
+            for(int i = 0; i < followeeCount; i++) {
+                int followee = random.nextBoolean() ? random.nextInt(10) : random.nextInt(users.size());
+                if(users.get(followee) != follower) {
+                    follows.add(new Follow(follower, users.get(followee)));
+                }
+            }
+        }
+
+        followStore.followAll(follows);
+        shardedGraph.followAll(follows);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        followStore.close();
+        shardedGraph.close();
+        deleteRecursively(directory);
+    }
+
+    private static void deleteRecursively(File file) {
+        File [] files = file.listFiles();
+        if(files != null) {
+            for(File child : files) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private void assertSameGraph(FollowGraph expected, FollowGraph actual) {
+        for(User user : users) {
+            Assertions.assertEquals(expected.getFollowees(user), actual.getFollowees(user));
+            Assertions.assertEquals(expected.getFollowers(user), actual.getFollowers(user));
+            Assertions.assertArrayEquals(expected.isFollowing(user, users), actual.isFollowing(user, users));
+        }
+
+        Assertions.assertArrayEquals(expected.getFollowerCounts(users), actual.getFollowerCounts(users));
+        Assertions.assertEquals(new HashSet<>(expected.getUsers()), new HashSet<>(actual.getUsers()));
+        Assertions.assertEquals(expected.getUsers().size(), actual.getUsers().size());
+    }
+
+    private static Set<User> readAllPages(FollowGraph graph, User user, User viewer, int pageSize) {
+        Set<User> result = new HashSet<>();
+        User lastUser = null;
+        FollowGraph.Page page;
+
+        do {
+            page = viewer == null ? graph.getMutualFollows(user, lastUser, pageSize)
+                    : graph.getFollowersFollowedBy(user, viewer, lastUser, pageSize);
+            Assertions.assertTrue(page.getUsers().size() <= pageSize);
+
+            for(User pageUser : page.getUsers()) {
+                Assertions.assertTrue(result.add(pageUser), "Repeated " + pageUser);
+            }
+
+            if(!page.getUsers().isEmpty()) {
+                lastUser = page.getUsers().get(page.getUsers().size() - 1);
+            }
+        } while(page.getHasMorePages());
+
+        return result;
+    }
+
+    @Test
+    public void testShardOf_spreadsUsersAcrossShards() {
+        int [] counts = new int[SHARD_COUNT];
+        for(User user : users) {
+            counts[ShardedFollowGraph.shardOf(user, SHARD_COUNT)]++;
+        }
+
+        for(int count : counts) {
+            Assertions.assertTrue(count > users.size() / SHARD_COUNT / 2, Arrays.toString(counts));
+        }
+    }
+
+    @Test
+    public void testQueries_matchAnUnshardedStore() {
+        assertSameGraph(followStore, shardedGraph);
+        Assertions.assertEquals(followStore.getVersion() > 0, shardedGraph.getVersion() > 0);
+        Assertions.assertFalse(shardedGraph.isEmpty());
+    }
+
+    @Test
+    public void testFollowerCounts_matchAcrossTheParallelThreshold() {
+        List<User> manyUsers = new ArrayList<>();
+        while(manyUsers.size() < ShardedFollowGraph.PARALLEL_THRESHOLD_USERS) {
+            manyUsers.addAll(users);
+        }
+
+        Assertions.assertArrayEquals(followStore.getFollowerCounts(manyUsers), shardedGraph.getFollowerCounts(manyUsers));
+    }
+
+    @Test
+    public void testIntersections_matchAnUnshardedStoreAcrossPages() {
+        int sameShard = 0;
+        int crossShard = 0;
+
+        for(int i = 0; i < 40; i++) {
+            User user = users.get(i);
+            Assertions.assertEquals(readAllPages(followStore, user, null, 1000), readAllPages(shardedGraph, user, null, 3));
+
+            for(int j = 0; j < 20; j++) {
+                User viewer = users.get((i * 7 + j * 13) % users.size());
+                Assertions.assertEquals(readAllPages(followStore, user, viewer, 1000), readAllPages(shardedGraph, user, viewer, 3));
+
+                if(ShardedFollowGraph.shardOf(user, SHARD_COUNT) == ShardedFollowGraph.shardOf(viewer, SHARD_COUNT)) {
+                    sameShard++;
+                } else {
+                    crossShard++;
+                }
+            }
+        }
+
+        Assertions.assertTrue(sameShard > 0 && crossShard > 0);
+    }
+
+    @Test
+    public void testFollowersFollowedBy_celebrityOnAnotherShard_readsOnlyTheViewersFollowees() throws IOException {
+        User celebrity = new User("Celebrity", "Star", null);
+        User viewer = new User("Viewer", "Zero", null);
+        for(int i = 1; ShardedFollowGraph.shardOf(viewer, SHARD_COUNT) == ShardedFollowGraph.shardOf(celebrity, SHARD_COUNT); i++) {
+            viewer = new User("Viewer", "Number" + i, null);
+        }
+
+        // The viewer follows 3,000 users, more than one batch, and every seventh of them follows
+        // the celebrity, who has another 20,000 followers the viewer doesn't follow
+        List<Follow> follows = new ArrayList<>();
+        Set<User> expected = new HashSet<>();
+        for(int i = 0; i < 3000; i++) {
+            User user = new User("Followed", "Number" + i, null);
+            follows.add(new Follow(viewer, user));
+            if(i % 7 == 0) {
+                follows.add(new Follow(user, celebrity));
+                expected.add(user);
+            }
+        }
+        for(int i = 0; i < 20_000; i++) {
+            follows.add(new Follow(new User("Fan", "Number" + i, null), celebrity));
+        }
+        shardedGraph.followAll(follows);
+
+        Counter checks = MetricsRegistry.getInstance().counter("FollowerIntersection.checks");
+        long before = checks.get();
+        FollowGraph.Page page = shardedGraph.getFollowersFollowedBy(celebrity, viewer, null, 10);
+
+        Assertions.assertEquals(10, page.getUsers().size());
+        Assertions.assertTrue(page.getHasMorePages());
+        Assertions.assertTrue(checks.get() - before <= FollowerIntersection.CHUNK_SIZE * FollowerIntersection.CHUNKS_PER_BATCH);
+
+        Assertions.assertEquals(expected, readAllPages(shardedGraph, celebrity, viewer, 50));
+        Assertions.assertEquals(expected, readAllPages(shardedGraph, celebrity, viewer, 1000));
+    }
+
+    @Test
+    public void testFollowAndUnfollow_updateBothUsersShards() throws IOException {
+        User follower = users.get(150);
+        User followee = null;
+        for(User user : users) {
+            if(ShardedFollowGraph.shardOf(user, SHARD_COUNT) != ShardedFollowGraph.shardOf(follower, SHARD_COUNT)
+                    && !shardedGraph.isFollowing(follower, user)) {
+                followee = user;
+                break;
+            }
+        }
+        Assertions.assertNotNull(followee);
+
+        Assertions.assertTrue(shardedGraph.follow(follower, followee));
+        Assertions.assertFalse(shardedGraph.follow(follower, followee));
+        Assertions.assertTrue(shardedGraph.getFollowees(follower).contains(followee));
+        Assertions.assertTrue(shardedGraph.getFollowers(followee).contains(follower));
+
+        Assertions.assertTrue(shardedGraph.unfollow(follower, followee));
+        Assertions.assertFalse(shardedGraph.unfollow(follower, followee));
+        Assertions.assertFalse(shardedGraph.isFollowing(follower, followee));
+        Assertions.assertFalse(shardedGraph.getFollowers(followee).contains(follower));
+    }
+
+    @Test
+    public void testFollow_completesAFollowWrittenToOnlyOneShard() throws IOException {
+        User follower = users.get(150);
+        User followee = null;
+        for(User user : users) {
+            if(ShardedFollowGraph.shardOf(user, SHARD_COUNT) != ShardedFollowGraph.shardOf(follower, SHARD_COUNT)
+                    && !shardedGraph.isFollowing(follower, user)) {
+                followee = user;
+                break;
+            }
+        }
+        Assertions.assertNotNull(followee);
+
+        // As if the write to the followee's shard had failed
+        final User owned = follower;
+        shardedGraph.close();
+        FollowStore followerShard = FollowStore.open(
+                new File(directory, "sharded/shard-" + ShardedFollowGraph.shardOf(follower, SHARD_COUNT) + "-of-" + SHARD_COUNT),
+                FollowStore.DEFAULT_COMPACTION_THRESHOLD_BYTES, FollowStore.DEFAULT_FALSE_POSITIVE_RATE,
+                new FollowStore.Ownership() {
+                    @Override
+                    public boolean owns(User user) {
+                        return user.equals(owned);
+                    }
+                });
+        followerShard.follow(follower, followee);
+        followerShard.close();
+        shardedGraph = ShardedFollowGraph.open(new File(directory, "sharded"), SHARD_COUNT);
+
+        Assertions.assertFalse(shardedGraph.getFollowers(followee).contains(follower));
+
+        // The follower's shard already has the follow, so it isn't new, but the retry completes it
+        Assertions.assertFalse(shardedGraph.follow(follower, followee));
+        Assertions.assertTrue(shardedGraph.getFollowers(followee).contains(follower));
+    }
+
+    @Test
+    public void testOpen_recoversEveryShard() throws IOException {
+        shardedGraph.close();
+        shardedGraph = ShardedFollowGraph.open(new File(directory, "sharded"), SHARD_COUNT);
+
+        assertSameGraph(followStore, shardedGraph);
+    }
+
+    @Test
+    public void testCompact_keepsFollowersFromOtherShards() throws IOException {
+        File shardDirectory = new File(directory, "compacted");
+        FollowStore.Ownership firstShard = new FollowStore.Ownership() {
+            @Override
+            public boolean owns(User user) {
+                return ShardedFollowGraph.shardOf(user, SHARD_COUNT) == 0;
+            }
+        };
+
+        List<Follow> follows = new ArrayList<>();
+        for(User user : users) {
+            for(User followee : followStore.getFollowees(user)) {
+                follows.add(new Follow(user, followee));
+            }
+        }
+
+        FollowStore shard = FollowStore.open(shardDirectory, FollowStore.DEFAULT_COMPACTION_THRESHOLD_BYTES,
+                FollowStore.DEFAULT_FALSE_POSITIVE_RATE, firstShard);
+        shard.followAll(follows);
+
+        Map<User, List<User>> followees = new HashMap<>();
+        Map<User, List<User>> followers = new HashMap<>();
+        for(User user : users) {
+            followees.put(user, shard.getFollowees(user));
+            followers.put(user, shard.getFollowers(user));
+        }
+
+        // The segment holds followers whose own followees belong to other shards
+        shard.compact();
+        shard.close();
+        shard = FollowStore.open(shardDirectory, FollowStore.DEFAULT_COMPACTION_THRESHOLD_BYTES,
+                FollowStore.DEFAULT_FALSE_POSITIVE_RATE, firstShard);
+
+        try {
+            for(User user : users) {
+                Assertions.assertEquals(followees.get(user), shard.getFollowees(user));
+                Assertions.assertEquals(followers.get(user), shard.getFollowers(user));
+            }
+        } finally {
+            shard.close();
+        }
+    }
+
+    @Test
+    public void testRecommend_countsMatchAnUnshardedStore() throws InterruptedException {
+        FollowRecommender recommender = new FollowRecommender(4, FollowRecommender.DEFAULT_FAN_OUT_CAP);
+
+        try {
+            for(int i = 0; i < 20; i++) {
+                Map<User, Integer> expected = new HashMap<>();
+                for(FollowRecommender.Recommendation recommendation : recommender.recommend(followStore, users.get(i), 1000)) {
+                    expected.put(recommendation.getUser(), recommendation.getFollowedByCount());
+                }
+
+                Map<User, Integer> actual = new HashMap<>();
+                for(FollowRecommender.Recommendation recommendation : recommender.recommend(shardedGraph, users.get(i), 1000)) {
+                    actual.put(recommendation.getUser(), recommendation.getFollowedByCount());
+                }
+
+                Assertions.assertEquals(expected, actual);
+            }
+        } finally {
+            recommender.shutdown();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package edu.byu.cs.tweeter.server.follow;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class SortedIntersectionTest {
+
+    @Test
+    public void testIntersect_matchesSetIntersection() {
+        Random random = new Random(42);
+
+        // Similar sizes merge; very different sizes gallop
+        int [][] sizes = {{0, 10}, {10, 10}, {100, 300}, {1000, 1000}, {10, 5000}, {3, 100_000}};
+
+        for(int [] size : sizes) {
+            int [] ids1 = randomIds(random, size[0], size[1] * 4 + 10);
+            int [] ids2 = randomIds(random, size[1], size[1] * 4 + 10);
+
+            Assertions.assertArrayEquals(expected(ids1, ids2, -1), intersectAll(ids1, ids2, -1));
+            Assertions.assertArrayEquals(expected(ids2, ids1, -1), intersectAll(ids2, ids1, -1));
+        }
+    }
+
+    @Test
+    public void testIntersect_pagesAfterLastId() {
+        int [] ids1 = {1, 3, 5, 7, 9, 11, 13};
+        int [] ids2 = {2, 3, 4, 5, 9, 10, 13, 14};
+
+        int [] page = new int[2];
+        Assertions.assertEquals(2, SortedIntersection.intersect(ids1, ids2, -1, page));
+        Assertions.assertArrayEquals(new int[] {3, 5}, page);
+
+        Assertions.assertEquals(2, SortedIntersection.intersect(ids1, ids2, 5, page));
+        Assertions.assertArrayEquals(new int[] {9, 13}, page);
+
+        Assertions.assertEquals(0, SortedIntersection.intersect(ids1, ids2, 13, page));
+
+        // The last id of a page need not be in either array
+        Assertions.assertEquals(1, SortedIntersection.intersect(ids1, ids2, 10, page));
+        Assertions.assertEquals(13, page[0]);
+    }
+
+    @Test
+    public void testIntersect_streamedPages_equalWholeResult() {
+        Random random = new Random(7);
+        int [] ids1 = randomIds(random, 50_000, 200_000);
+        int [] ids2 = randomIds(random, 20_000, 200_000);
+
+        int [] expected = expected(ids1, ids2, -1);
+        int [] streamed = new int[expected.length];
+        int total = 0;
+        int after = -1;
+        int [] page = new int[100];
+
+        int count;
+        while((count = SortedIntersection.intersect(ids1, ids2, after, page)) > 0) {
+            System.arraycopy(page, 0, streamed, total, count);
+            total += count;
+            after = page[count - 1];
+        }
+
+        Assertions.assertEquals(expected.length, total);
+        Assertions.assertArrayEquals(expected, streamed);
+    }
+
+    @Test
+    public void testLowerBound() {
+        int [] ids = {2, 4, 6, 8, 10, 12, 14, 16, 18};
+
+        Assertions.assertEquals(0, SortedIntersection.lowerBound(ids, 0, 1));
+        Assertions.assertEquals(0, SortedIntersection.lowerBound(ids, 0, 2));
+        Assertions.assertEquals(3, SortedIntersection.lowerBound(ids, 0, 7));
+        Assertions.assertEquals(8, SortedIntersection.lowerBound(ids, 2, 18));
+        Assertions.assertEquals(9, SortedIntersection.lowerBound(ids, 0, 19));
+        Assertions.assertEquals(5, SortedIntersection.lowerBound(ids, 5, 3));
+    }
+
+    /**
+     * Intersects a celebrity's followers with an ordinary user's followees, one page at a time
+     * and in full, and reports how long it takes in the assertion message. The time is asserted
+     * loosely, so the test only fails if the intersection degrades to a scan of the followers.
+     */
+    @Test
+    @Tag("benchmark")
+    public void testIntersect_celebrityAndOrdinaryUser_benchmark() {
+        Random random = new Random(1);
+        int [] celebrityFollowers = randomIds(random, 5_000_000, 20_000_000);
+        int [] followees = randomIds(random, 500, 20_000_000);
+
+        int [] page = new int[20];
+        int [] all = new int[followees.length];
+        long sink = 0;
+
+        for(int i = 0; i < 200; i++) {
+            sink += SortedIntersection.intersect(celebrityFollowers, followees, -1, all);
+        }
+
+        long start = System.nanoTime();
+        int iterations = 1000;
+        for(int i = 0; i < iterations; i++) {
+            sink += SortedIntersection.intersect(celebrityFollowers, followees, -1, page);
+        }
+        long pageNanos = (System.nanoTime() - start) / iterations;
+
+        start = System.nanoTime();
+        for(int i = 0; i < iterations; i++) {
+            sink += SortedIntersection.intersect(followees, celebrityFollowers, -1, all);
+        }
+        long allNanos = (System.nanoTime() - start) / iterations;
+
+        Assertions.assertTrue(sink >= 0);
+        Assertions.assertTrue(allNanos < 5_000_000, String.format("%d x %d ids, first page %.1f us, whole intersection %.1f us",
+                celebrityFollowers.length, followees.length, pageNanos / 1000.0, allNanos / 1000.0));
+    }
+
+    private static int [] intersectAll(int [] ids1, int [] ids2, int after) {
+        int [] out = new int[Math.min(ids1.length, ids2.length)];
+        return Arrays.copyOf(out, SortedIntersection.intersect(ids1, ids2, after, out));
+    }
+
+    private static int [] expected(int [] ids1, int [] ids2, int after) {
+        TreeSet<Integer> set = new TreeSet<>();
+        for(int id : ids1) {
+            set.add(id);
+        }
+
+        TreeSet<Integer> result = new TreeSet<>();
+        for(int id : ids2) {
+            if(id > after && set.contains(id)) {
+                result.add(id);
+            }
+        }
+
+        int [] ids = new int[result.size()];
+        int i = 0;
+        for(int id : result) {
+            ids[i++] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the specified number of distinct ids below the bound, in ascending order.
+     */
+    private static int [] randomIds(Random random, int count, int bound) {
+        // Each id is chosen independently with probability count / bound, which gives about
+        // the right number of ids without the cost of a set
+        int [] ids = new int[count];
+        int n = 0;
+        for(int id = 0; id < bound && n < count; id++) {
+            if(random.nextInt(bound - id) < count - n) {
+                ids[n++] = id;
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,159 @@
+package edu.byu.cs.tweeter.server.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import edu.byu.cs.tweeter.model.domain.User;
+
+public class UserSearchIndexTest {
+
+    private final User daffy = new User("Daffy", "Duck", null);
+    private final User donald = new User("Donald", "Duck", null);
+    private final User fred = new User("Fred", "Flintstone", null);
+    private final User barney = new User("Barney", "Rubble", null);
+    private final User wilma = new User("Wilma", "Rubble", null);
+    private final User dino = new User("dino", "Saur", null);
+
+    private UserSearchIndex smallIndex() {
+        return UserSearchIndex.build(Arrays.asList(daffy, donald, fred, barney, wilma, dino),
+                new int[] {5, 50, 7, 3, 9, 1});
+    }
+
+    @Test
+    public void testSearch_matchesAnyNameIgnoringCase_mostFollowedFirst() {
+        UserSearchIndex index = smallIndex();
+
+        Assertions.assertEquals(Arrays.asList(donald, daffy, dino), index.search("d", 0, 10).getUsers());
+        Assertions.assertEquals(Arrays.asList(donald, daffy), index.search("DUCK", 0, 10).getUsers());
+        Assertions.assertEquals(Arrays.asList(wilma, barney), index.search("rub", 0, 10).getUsers());
+        Assertions.assertEquals(Arrays.asList(fred), index.search("  fredf", 0, 10).getUsers());
+        Assertions.assertTrue(index.search("x", 0, 10).getUsers().isEmpty());
+        Assertions.assertTrue(index.search("", 0, 10).getUsers().isEmpty());
+        Assertions.assertTrue(index.search(null, 0, 10).getUsers().isEmpty());
+    }
+
+    @Test
+    public void testSearch_atSign_matchesAliasesOnly() {
+        UserSearchIndex index = smallIndex();
+
+        // "@DaffyDuck" matches the alias; "Daffy" alone matches the alias and the first name
+        Assertions.assertEquals(Arrays.asList(daffy), index.search("@daffyd", 0, 10).getUsers());
+        Assertions.assertEquals(Arrays.asList(daffy), index.search("daffy", 0, 10).getUsers());
+    }
+
+    @Test
+    public void testSearch_pages() {
+        UserSearchIndex index = smallIndex();
+
+        UserSearchIndex.Result page = index.search("d", 0, 2);
+        Assertions.assertEquals(Arrays.asList(donald, daffy), page.getUsers());
+        Assertions.assertTrue(page.getHasMorePages());
+
+        page = index.search("d", 2, 2);
+        Assertions.assertEquals(Collections.singletonList(dino), page.getUsers());
+        Assertions.assertFalse(page.getHasMorePages());
+    }
+
+    @Test
+    public void testSearch_largeRange_matchesSortedScan() {
+        Random random = new Random(5);
+        List<User> users = new ArrayList<>();
+        int [] followerCounts = new int[20_000];
+
+        for(int i = 0; i < followerCounts.length; i++) {
+            users.add(randomUser(random, i));
+            followerCounts[i] = random.nextInt(1_000_000);
+        }
+
+        UserSearchIndex index = UserSearchIndex.build(users, followerCounts);
+
+        for(String query : new String[] {"a", "b", "ka", "m", "zz"}) {
+            List<Integer> matching = new ArrayList<>();
+            for(int i = 0; i < users.size(); i++) {
+                if(matches(users.get(i), query)) {
+                    matching.add(followerCounts[i]);
+                }
+            }
+            Collections.sort(matching, Collections.<Integer>reverseOrder());
+
+            List<User> found = index.search(query, 0, 25).getUsers();
+            List<Integer> foundCounts = new ArrayList<>();
+            for(User user : found) {
+                foundCounts.add(followerCounts[users.indexOf(user)]);
+            }
+
+            Assertions.assertEquals(matching.subList(0, Math.min(25, matching.size())), foundCounts);
+        }
+    }
+
+    /**
+     * Measures the latency of typeahead queries of one to three characters against a million
+     * users, the shortest queries matching the most users. The time is asserted loosely, so the
+     * test only fails if ranking degrades to a scan of the matches.
+     */
+    @Test
+    @Tag("benchmark")
+    public void testSearch_millionUsers_benchmark() {
+        Random random = new Random(9);
+        int userCount = 1_000_000;
+        List<User> users = new ArrayList<>(userCount);
+        int [] followerCounts = new int[userCount];
+
+        for(int i = 0; i < userCount; i++) {
+            users.add(randomUser(random, i));
+            followerCounts[i] = (int) (Math.pow(random.nextDouble(), 4) * 1_000_000);
+        }
+
+        UserSearchIndex index = UserSearchIndex.build(users, followerCounts);
+
+        String [] queries = new String[3000];
+        for(int i = 0; i < queries.length; i++) {
+            User user = users.get(random.nextInt(userCount));
+            queries[i] = user.getFirstName().substring(0, 1 + i % 3);
+        }
+
+        long sink = 0;
+        for(String query : queries) {
+            sink += index.search(query, 0, 10).getUsers().size();
+        }
+
+        long [] latencies = new long[queries.length];
+        for(int i = 0; i < queries.length; i++) {
+            long queryStart = System.nanoTime();
+            sink += index.search(queries[i], 0, 10).getUsers().size();
+            latencies[i] = System.nanoTime() - queryStart;
+        }
+
+        Arrays.sort(latencies);
+        long p99 = latencies[latencies.length * 99 / 100];
+
+        Assertions.assertTrue(sink > 0);
+        Assertions.assertTrue(p99 < 50_000_000L, "p99 " + p99 + " ns");
+    }
+
+    private static boolean matches(User user, String query) {
+        return user.getAlias().substring(1).toLowerCase().startsWith(query)
+                || user.getFirstName().toLowerCase().startsWith(query)
+                || user.getLastName().toLowerCase().startsWith(query);
+    }
+
+    private static User randomUser(Random random, int number) {
+        return new User(randomName(random), randomName(random) + number, null);
+    }
+
+    private static String randomName(Random random) {
+        char [] name = new char[3 + random.nextInt(6)];
+        for(int i = 0; i < name.length; i++) {
+            name[i] = (char) ('a' + random.nextInt(26));
+        }
+        name[0] = Character.toUpperCase(name[0]);
+        return new String(name);
+    }
+}
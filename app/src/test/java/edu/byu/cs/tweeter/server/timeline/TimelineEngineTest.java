@@ -0,0 +1,337 @@
+package edu.byu.cs.tweeter.server.timeline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import edu.byu.cs.tweeter.model.domain.Follow;
+import edu.byu.cs.tweeter.model.domain.Status;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.server.follow.FollowStore;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+public class TimelineEngineTest {
+
+    private final User user1 = new User("Daffy", "Duck", null);
+    private final User user2 = new User("Fred", "Flintstone", null);
+    private final User user3 = new User("Barney", "Rubble", null);
+    private final User user4 = new User("Wilma", "Rubble", null);
+
+    private File directory;
+    private FollowStore followStore;
+    private TimelineEngine engine;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("follows").toFile();
+        followStore = FollowStore.open(directory);
+        engine = new TimelineEngine(4, TimelineEngine.DEFAULT_CAPACITY, 2, TimelineEngine.DEFAULT_CELEBRITY_THRESHOLD);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        engine.shutdown();
+        followStore.close();
+
+        //noinspection ConstantConditions
+        for(File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testPost_deliveredToStoryAndFollowersFeeds() throws IOException, InterruptedException {
+        followStore.follow(user2, user1);
+        followStore.follow(user3, user1);
+        followStore.follow(user4, user1);
+        followStore.follow(user1, user2);
+
+        Status status = engine.post(followStore, user1, "Hello");
+
+        // The story is written before post returns
+        Assertions.assertEquals(Arrays.asList(status), engine.getStory(user1, null, 10).getStatuses());
+
+        // Three followers in batches of two
+        Assertions.assertTrue(engine.awaitFanOut(5000));
+        for(User follower : Arrays.asList(user2, user3, user4)) {
+            Assertions.assertEquals(Arrays.asList(status), engine.getFeed(followStore, follower, null, 10).getStatuses());
+        }
+
+        // Neither the author nor a user the author follows receives it
+        Assertions.assertTrue(engine.getFeed(followStore, user1, null, 10).getStatuses().isEmpty());
+        Assertions.assertTrue(engine.getStory(user2, null, 10).getStatuses().isEmpty());
+    }
+
+    @Test
+    public void testGetFeed_pagesNewestFirst() throws IOException, InterruptedException {
+        followStore.follow(user2, user1);
+        followStore.follow(user2, user3);
+
+        List<Status> posted = new ArrayList<>();
+        for(int i = 0; i < 5; i++) {
+            posted.add(engine.post(followStore, i % 2 == 0 ? user1 : user3, "Post " + i));
+        }
+        Assertions.assertTrue(engine.awaitFanOut(5000));
+
+        TimelineEngine.Page page = engine.getFeed(followStore, user2, null, 2);
+        Assertions.assertEquals(Arrays.asList(posted.get(4), posted.get(3)), page.getStatuses());
+        Assertions.assertTrue(page.getHasMorePages());
+
+        page = engine.getFeed(followStore, user2, posted.get(3), 2);
+        Assertions.assertEquals(Arrays.asList(posted.get(2), posted.get(1)), page.getStatuses());
+        Assertions.assertTrue(page.getHasMorePages());
+
+        page = engine.getFeed(followStore, user2, posted.get(1), 2);
+        Assertions.assertEquals(Arrays.asList(posted.get(0)), page.getStatuses());
+        Assertions.assertFalse(page.getHasMorePages());
+
+        page = engine.getStory(user3, null, 10);
+        Assertions.assertEquals(Arrays.asList(posted.get(3), posted.get(1)), page.getStatuses());
+    }
+
+    @Test
+    public void testGetFeed_mergesCelebrityStoriesIntoPushedFeed() throws IOException, InterruptedException {
+        TimelineEngine hybridEngine = new TimelineEngine(2, TimelineEngine.DEFAULT_CAPACITY, 2, 2);
+
+        try {
+            // user3 starts with one follower, so its first status is pushed
+            followStore.follow(user2, user3);
+            Status pushedBeforeCelebrity = hybridEngine.post(followStore, user3, "Pushed");
+
+            // With two followers each, user1 and user3 are celebrities
+            followStore.follow(user4, user3);
+            followStore.follow(user2, user1);
+            followStore.follow(user3, user1);
+            followStore.follow(user2, user4);
+
+            List<Status> posted = new ArrayList<>();
+            posted.add(pushedBeforeCelebrity);
+            for(int i = 0; i < 6; i++) {
+                posted.add(hybridEngine.post(followStore, i % 3 == 0 ? user1 : (i % 3 == 1 ? user3 : user4), "Post " + i));
+            }
+            Assertions.assertTrue(hybridEngine.awaitFanOut(5000));
+
+            // Only user4's statuses were delivered to user2's feed
+            List<Status> expected = new ArrayList<>(posted);
+            Collections.reverse(expected);
+
+            List<Status> read = new ArrayList<>();
+            Status lastStatus = null;
+            TimelineEngine.Page page;
+            do {
+                page = hybridEngine.getFeed(followStore, user2, lastStatus, 3);
+                read.addAll(page.getStatuses());
+                lastStatus = read.isEmpty() ? null : read.get(read.size() - 1);
+            } while(page.getHasMorePages());
+
+            // The status pushed before user3 became a celebrity is also in its story, but appears once
+            Assertions.assertEquals(expected, read);
+
+            // A new follower of a celebrity sees the celebrity's earlier statuses
+            Assertions.assertEquals(Arrays.asList(posted.get(5), posted.get(2), posted.get(0)),
+                    hybridEngine.getFeed(followStore, user4, null, 10).getStatuses());
+        } finally {
+            hybridEngine.shutdown();
+        }
+    }
+
+    @Test
+    public void testMerge_deduplicatesAndReportsMorePages() {
+        TimelineEngine.Page feed = new TimelineEngine.Page(Arrays.asList(status(9), status(6), status(4)), true);
+        TimelineEngine.Page story1 = new TimelineEngine.Page(Arrays.asList(status(8), status(6)), false);
+        TimelineEngine.Page story2 = new TimelineEngine.Page(Arrays.asList(status(7), status(5)), false);
+
+        TimelineEngine.Page merged = TimelineEngine.merge(Arrays.asList(feed, story1, story2), 4);
+        Assertions.assertEquals(ids(9, 8, 7, 6), ids(merged.getStatuses()));
+        Assertions.assertTrue(merged.getHasMorePages());
+
+        merged = TimelineEngine.merge(Arrays.asList(story1, story2), 10);
+        Assertions.assertEquals(ids(8, 7, 6, 5), ids(merged.getStatuses()));
+        Assertions.assertFalse(merged.getHasMorePages());
+    }
+
+    @Test
+    public void testTimeline_ordersLateArrivalsAndDropsOldest() {
+        Timeline timeline = new Timeline(20);
+
+        for(int id = 1; id <= 24; id += 2) {
+            Assertions.assertTrue(timeline.add(status(id)));
+        }
+        // Arrives after newer statuses, as when two fan-outs race
+        Assertions.assertTrue(timeline.add(status(20)));
+
+        Assertions.assertEquals(13, timeline.size());
+        Assertions.assertEquals(ids(23, 21, 20, 19), ids(timeline.read(Long.MAX_VALUE, 4).getStatuses()));
+        Assertions.assertEquals(ids(19, 17), ids(timeline.read(20, 2).getStatuses()));
+
+        for(int id = 25; id <= 40; id++) {
+            timeline.add(status(id));
+        }
+
+        // Full: the oldest are gone, and a status older than all that remain is refused
+        Assertions.assertEquals(20, timeline.size());
+        TimelineEngine.Page tail = timeline.read(21, 10);
+        Assertions.assertEquals(ids(20, 19), ids(tail.getStatuses()));
+        Assertions.assertFalse(tail.getHasMorePages());
+        Assertions.assertFalse(timeline.add(status(2)));
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testFanOut_userWithManyFollowers_benchmark() throws IOException, InterruptedException {
+        int followerCount = 200_000;
+        // Pushes regardless of follower count, to measure the cost of fanning out
+        TimelineEngine batchedEngine = new TimelineEngine(4, TimelineEngine.DEFAULT_CAPACITY,
+                TimelineEngine.DEFAULT_BATCH_SIZE, Integer.MAX_VALUE);
+        User celebrity = new User("Famous", "Person", null);
+
+        List<Follow> follows = new ArrayList<>(followerCount);
+        List<User> followers = new ArrayList<>(followerCount);
+        for(int i = 0; i < followerCount; i++) {
+            User follower = new User("Fan", "Number" + i, null);
+            followers.add(follower);
+            follows.add(new Follow(follower, celebrity));
+        }
+        followStore.followAll(follows);
+
+        try {
+            for(int i = 0; i < 10; i++) {
+                batchedEngine.post(followStore, celebrity, "Announcement " + i);
+            }
+            Assertions.assertTrue(batchedEngine.awaitFanOut(30_000));
+
+            Random random = new Random(5);
+            long [] latencies = new long[10_000];
+            for(int i = 0; i < latencies.length; i++) {
+                User follower = followers.get(random.nextInt(followerCount));
+                long readStart = System.nanoTime();
+                TimelineEngine.Page page = batchedEngine.getFeed(followStore, follower, null, 10);
+                latencies[i] = System.nanoTime() - readStart;
+                Assertions.assertEquals(10, page.getStatuses().size());
+            }
+
+            Arrays.sort(latencies);
+            long p99 = latencies[latencies.length * 99 / 100];
+
+            Assertions.assertTrue(p99 < 5_000_000L, "p99 " + p99 + " ns");
+        } finally {
+            batchedEngine.shutdown();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testHybridFanOut_zipfGraph_benchmark() throws IOException, InterruptedException {
+        int userCount = 20_000;
+        int followeesPerUser = 20;
+        Random random = new Random(17);
+
+        List<User> users = new ArrayList<>(userCount);
+        for(int i = 0; i < userCount; i++) {
+            users.add(new User("User", Integer.toString(i), null));
+        }
+
+        // Followees are drawn from a Zipf distribution over the users, so a few users have most
+        // of the followers, as on a real social network
+        double [] cumulative = new double[userCount];
+        double total = 0;
+        for(int i = 0; i < userCount; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+
+        List<Follow> follows = new ArrayList<>(userCount * followeesPerUser);
+        for(int i = 0; i < userCount; i++) {
+            Set<Integer> followees = new HashSet<>();
+            while(followees.size() < followeesPerUser) {
+                int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                int followee = index >= 0 ? index : -index - 1;
+                if(followee != i && followees.add(followee)) {
+                    follows.add(new Follow(users.get(i), users.get(followee)));
+                }
+            }
+        }
+        followStore.followAll(follows);
+
+        int [] authors = new int[userCount];
+        for(int i = 0; i < authors.length; i++) {
+            authors[i] = random.nextInt(userCount);
+        }
+        int [] readers = new int[5000];
+        for(int i = 0; i < readers.length; i++) {
+            readers[i] = random.nextInt(userCount);
+        }
+
+        Counter deliveries = MetricsRegistry.getInstance().counter("TimelineEngine.deliveries");
+        int [] thresholds = {Integer.MAX_VALUE, 1000, 100};
+        List<List<Status>> pushFirstPages = null;
+        long pushDelivered = 0;
+
+        for(int threshold : thresholds) {
+            TimelineEngine hybridEngine = new TimelineEngine(4, TimelineEngine.DEFAULT_CAPACITY,
+                    TimelineEngine.DEFAULT_BATCH_SIZE, threshold);
+
+            try {
+                long deliveriesBefore = deliveries.get();
+                for(int author : authors) {
+                    hybridEngine.post(followStore, users.get(author), "Status");
+                }
+                Assertions.assertTrue(hybridEngine.awaitFanOut(60_000));
+                long delivered = deliveries.get() - deliveriesBefore;
+
+                List<List<Status>> firstPages = new ArrayList<>(readers.length);
+                for(int reader : readers) {
+                    firstPages.add(hybridEngine.getFeed(followStore, users.get(reader), null, 20).getStatuses());
+                }
+
+                // Every threshold serves the same feeds; statuses are posted in the same order, so
+                // their ids match across engines. Pulling the popular authors' statuses saves
+                // deliveries.
+                if(pushFirstPages == null) {
+                    pushFirstPages = firstPages;
+                    pushDelivered = delivered;
+                } else {
+                    Assertions.assertEquals(pushFirstPages, firstPages);
+                    Assertions.assertTrue(delivered < pushDelivered, "delivered " + delivered + " of " + pushDelivered);
+                }
+            } finally {
+                hybridEngine.shutdown();
+            }
+        }
+    }
+
+    private Status status(long id) {
+        return new Status(id, user1, "Post " + id, id);
+    }
+
+    private static List<Long> ids(long... ids) {
+        List<Long> list = new ArrayList<>(ids.length);
+        for(long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    private static List<Long> ids(List<Status> statuses) {
+        List<Long> list = new ArrayList<>(statuses.size());
+        for(Status status : statuses) {
+            list.add(status.getId());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,70 @@
+package edu.byu.cs.tweeter.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImageStoreTest {
+
+    private List<String> fetchedUrls;
+    private ImageStore imageStore;
+
+    /**
+     * Create an ImageStore that holds 100 bytes and serves 40 byte images without a network.
+     */
+    @BeforeEach
+    public void setup() {
+        fetchedUrls = new ArrayList<>();
+
+        imageStore = new ImageStore(100) {
+            @Override
+            byte [] fetch(String url) throws IOException {
+                fetchedUrls.add(url);
+                return new byte[40];
+            }
+        };
+    }
+
+    @Test
+    public void testLoad_sameUrl_sharesOneCopy() throws IOException {
+        byte [] first = imageStore.load("a");
+        byte [] second = imageStore.load("a");
+
+        Assertions.assertSame(first, second);
+        Assertions.assertSame(first, imageStore.get("a"));
+        Assertions.assertEquals(1, fetchedUrls.size());
+        Assertions.assertEquals(40, imageStore.size());
+    }
+
+    @Test
+    public void testPut_existingUrl_keepsFirstCopy() {
+        byte [] first = imageStore.put("a", new byte[10]);
+        byte [] second = imageStore.put("a", new byte[10]);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(10, imageStore.size());
+    }
+
+    @Test
+    public void testLoad_overCapacity_evictsLeastRecentlyUsed() throws IOException {
+        imageStore.load("a");
+        imageStore.load("b");
+        imageStore.get("a");
+        imageStore.load("c");
+
+        Assertions.assertNotNull(imageStore.get("a"));
+        Assertions.assertNull(imageStore.get("b"));
+        Assertions.assertNotNull(imageStore.get("c"));
+        Assertions.assertEquals(80, imageStore.size());
+    }
+
+    @Test
+    public void testGet_unknownOrNullUrl_returnsNull() {
+        Assertions.assertNull(imageStore.get("a"));
+        Assertions.assertNull(imageStore.get(null));
+    }
+}
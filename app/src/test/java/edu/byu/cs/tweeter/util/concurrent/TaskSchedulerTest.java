@@ -0,0 +1,257 @@
+package edu.byu.cs.tweeter.util.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.util.ByteArrayUtils;
+
+class TaskSchedulerTest {
+
+    private TaskScheduler scheduler;
+    private List<String> events;
+
+    @BeforeEach
+    void setup() {
+        events = Collections.synchronizedList(new ArrayList<String>());
+
+        // Deliver callbacks directly on the worker thread
+        scheduler = new TaskScheduler(1, new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                runnable.run();
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testSubmit_queuedTasksStartInPriorityOrder() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+
+        // Occupy the only worker so the remaining tasks queue up
+        scheduler.submit(TaskPriority.BACKGROUND, new CancellationToken(), new RecordingTask("blocker", release, done));
+        scheduler.submit(TaskPriority.BACKGROUND, new CancellationToken(), new RecordingTask("background", null, done));
+        scheduler.submit(TaskPriority.PREFETCH, new CancellationToken(), new RecordingTask("prefetch", null, done));
+        scheduler.submit(TaskPriority.INTERACTIVE, new CancellationToken(), new RecordingTask("interactive", null, done));
+
+        release.countDown();
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(Collections.singletonList("blocker"), events.subList(0, 1));
+        Assertions.assertEquals("interactive", events.get(1));
+        Assertions.assertEquals("prefetch", events.get(2));
+        Assertions.assertEquals("background", events.get(3));
+    }
+
+    @Test
+    void testSubmit_cancelledTaskNeitherRunsNorDelivers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+
+        scheduler.submit(TaskPriority.INTERACTIVE, new CancellationToken(), new RecordingTask("blocker", release, done));
+
+        CancellationToken token = new CancellationToken();
+        scheduler.submit(TaskPriority.INTERACTIVE, token, new RecordingTask("cancelled", null, done));
+        scheduler.submit(TaskPriority.INTERACTIVE, new CancellationToken(), new RecordingTask("after", null, done));
+        token.cancel();
+
+        release.countDown();
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertFalse(events.contains("cancelled"));
+        Assertions.assertTrue(events.contains("after"));
+    }
+
+    @Test
+    void testSubmit_exceptionDeliveredToOnError() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final Exception [] received = new Exception[1];
+
+        scheduler.submit(TaskPriority.INTERACTIVE, new CancellationToken(), new TaskScheduler.Task<String>() {
+            @Override
+            public String run(CancellationToken token) throws Exception {
+                throw new IllegalStateException("boom");
+            }
+
+            @Override
+            public void onComplete(String result) {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                received[0] = exception;
+                done.countDown();
+            }
+        });
+
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(received[0] instanceof IllegalStateException);
+    }
+
+    @Test
+    void testSubmit_cancellingCurrentTokenStopsStreamRead() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final CancellationToken token = new CancellationToken();
+        final Exception [] thrown = new Exception[1];
+
+        // A stream that never ends, and cancels the task after a few reads
+        final InputStream endlessStream = new InputStream() {
+            private int reads;
+
+            @Override
+            public int read() {
+                return 0;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                if(++reads == 3) {
+                    token.cancel();
+                }
+
+                return length;
+            }
+        };
+
+        scheduler.submit(TaskPriority.INTERACTIVE, token, new TaskScheduler.Task<byte[]>() {
+            @Override
+            public byte[] run(CancellationToken token) {
+                try {
+                    Assertions.assertSame(token, CancellationToken.current());
+                    return ByteArrayUtils.bytesFromInputStream(endlessStream);
+                } catch (IOException ex) {
+                    thrown[0] = ex;
+                    return null;
+                } finally {
+                    done.countDown();
+                }
+            }
+
+            @Override
+            public void onComplete(byte[] result) {}
+
+            @Override
+            public void onError(Exception exception) {}
+        });
+
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(thrown[0] instanceof InterruptedIOException);
+        Assertions.assertNull(CancellationToken.current());
+    }
+
+    @Test
+    void testSubmit_cancellingCurrentTokenAbortsBlockedUrlRead() throws IOException, InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final CancellationToken token = new CancellationToken();
+        final Exception [] thrown = new Exception[1];
+
+        // A server that accepts the connection and never answers
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            final String url = "http://127.0.0.1:" + serverSocket.getLocalPort() + "/";
+
+            scheduler.submit(TaskPriority.INTERACTIVE, token, new TaskScheduler.Task<byte[]>() {
+                @Override
+                public byte[] run(CancellationToken token) {
+                    try {
+                        return ByteArrayUtils.bytesFromUrl(url);
+                    } catch (IOException ex) {
+                        thrown[0] = ex;
+                        return null;
+                    } finally {
+                        done.countDown();
+                    }
+                }
+
+                @Override
+                public void onComplete(byte[] result) {}
+
+                @Override
+                public void onError(Exception exception) {}
+            });
+
+            try (Socket socket = serverSocket.accept()) {
+                // Wait for the request, so the read for the response is under way
+                Assertions.assertTrue(socket.getInputStream().read() != -1);
+
+                // The disconnect runs in the background, so cancelling doesn't wait on the socket
+                token.cancel();
+
+                Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+                Assertions.assertTrue(thrown[0] instanceof InterruptedIOException);
+            }
+        }
+    }
+
+    @Test
+    void testAddListener_runsOnCancelOrImmediatelyIfAlreadyCancelled() {
+        final int [] calls = new int[1];
+        Runnable listener = new Runnable() {
+            @Override
+            public void run() {
+                calls[0]++;
+            }
+        };
+
+        CancellationToken token = new CancellationToken();
+        token.addListener(listener);
+        token.cancel();
+        token.cancel();
+        Assertions.assertEquals(1, calls[0]);
+
+        token.addListener(listener);
+        Assertions.assertEquals(2, calls[0]);
+    }
+
+    private class RecordingTask implements TaskScheduler.Task<String> {
+
+        private final String name;
+        private final CountDownLatch release;
+        private final CountDownLatch done;
+
+        RecordingTask(String name, CountDownLatch release, CountDownLatch done) {
+            this.name = name;
+            this.release = release;
+            this.done = done;
+        }
+
+        @Override
+        public String run(CancellationToken token) throws Exception {
+            if(release != null) {
+                release.await();
+            }
+
+            return name;
+        }
+
+        @Override
+        public void onComplete(String result) {
+            events.add(result);
+            done.countDown();
+        }
+
+        @Override
+        public void onError(Exception exception) {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package edu.byu.cs.tweeter.util.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+class HistogramTest {
+
+    @Test
+    void testBucketIndex_boundsContainValue() {
+        long [] values = {0, 1, 15, 16, 17, 31, 32, 1000, 123456789, Long.MAX_VALUE};
+
+        for(long value : values) {
+            int index = Histogram.bucketIndex(value);
+            Assertions.assertTrue(Histogram.bucketLowerBound(index) <= value);
+            Assertions.assertTrue(Histogram.bucketUpperBound(index) >= value);
+        }
+    }
+
+    @Test
+    void testSnapshot_emptyHistogram() {
+        HistogramSnapshot snapshot = new Histogram("empty").snapshot();
+
+        Assertions.assertEquals(0, snapshot.getCount());
+        Assertions.assertEquals(0, snapshot.getValueAtPercentile(99));
+        Assertions.assertEquals(0, snapshot.getMin());
+        Assertions.assertEquals(0, snapshot.getMax());
+    }
+
+    @Test
+    void testSnapshot_percentilesWithinRelativeError() {
+        Histogram histogram = new Histogram("latency");
+
+        for(long value = 1; value <= 10000; value++) {
+            histogram.record(value);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        Assertions.assertEquals(10000, snapshot.getCount());
+        Assertions.assertEquals(1, snapshot.getMin());
+        Assertions.assertEquals(10000, snapshot.getMax());
+        Assertions.assertEquals(5000.5, snapshot.getMean(), 0.001);
+
+        long p50 = snapshot.getValueAtPercentile(50);
+        Assertions.assertTrue(p50 >= 5000 && p50 <= 5000 * 1.0625, "p50 was " + p50);
+
+        long p99 = snapshot.getValueAtPercentile(99);
+        Assertions.assertTrue(p99 >= 9900 && p99 <= 10000, "p99 was " + p99);
+
+        Assertions.assertEquals(10000, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testRecord_concurrentWritersLoseNoCounts() throws InterruptedException {
+        final Histogram histogram = new Histogram("concurrent");
+        List<Thread> threads = new ArrayList<>();
+
+        for(int i = 0; i < 4; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for(int j = 0; j < 25000; j++) {
+                        histogram.record(j);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for(Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(100000, histogram.snapshot().getCount());
+    }
+
+    @Test
+    void testRegistry_sameNameReturnsSameMetricAndExports() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        Assertions.assertSame(registry.histogram("a"), registry.histogram("a"));
+        Assertions.assertSame(registry.counter("b"), registry.counter("b"));
+
+        registry.histogram("a").record(42);
+        registry.counter("b").add(3);
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        Assertions.assertEquals(1, snapshot.getHistogram("a").getCount());
+        Assertions.assertEquals(Long.valueOf(3), snapshot.getCounters().get("b"));
+
+        StringWriter writer = new StringWriter();
+        snapshot.writeTo(writer);
+        Assertions.assertTrue(writer.toString().contains("a count=1"));
+        Assertions.assertTrue(writer.toString().contains("b value=3"));
+    }
+}
@@ -0,0 +1,101 @@
+package edu.byu.cs.tweeter.util.tracing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class TracerTest {
+
+    private Tracer tracer;
+
+    @BeforeEach
+    void setup() {
+        tracer = new Tracer(8);
+    }
+
+    @Test
+    void testStartSpan_nestsUnderCurrentSpan() {
+        Span root = tracer.startTrace("root");
+        Span child = tracer.startSpan("child");
+        Span grandchild = tracer.startSpan("grandchild");
+
+        Assertions.assertEquals(0, root.getParentSpanId());
+        Assertions.assertEquals(root.getSpanId(), child.getParentSpanId());
+        Assertions.assertEquals(child.getSpanId(), grandchild.getParentSpanId());
+        Assertions.assertEquals(root.getTraceId(), grandchild.getTraceId());
+
+        grandchild.end();
+        Assertions.assertSame(child, tracer.getCurrentSpan());
+        child.end();
+        Assertions.assertSame(root, tracer.getCurrentSpan());
+        root.end();
+        Assertions.assertNull(tracer.getCurrentSpan());
+
+        List<Span> spans = tracer.getRecentSpans();
+        Assertions.assertEquals(3, spans.size());
+        Assertions.assertEquals("grandchild", spans.get(0).getName());
+        Assertions.assertEquals("root", spans.get(2).getName());
+        Assertions.assertTrue(root.getDurationNanos() >= child.getDurationNanos());
+    }
+
+    @Test
+    void testStartSpan_explicitParentOnAnotherThread() throws InterruptedException {
+        final Span root = tracer.startTrace("root");
+        final Span [] children = new Span[2];
+        List<Thread> threads = new ArrayList<>();
+
+        for(int i = 0; i < children.length; i++) {
+            final int index = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    children[index] = tracer.startSpan("fetch" + index, root);
+                    children[index].end();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for(Thread thread : threads) {
+            thread.join();
+        }
+
+        root.end();
+
+        for(Span child : children) {
+            Assertions.assertEquals(root.getTraceId(), child.getTraceId());
+            Assertions.assertEquals(root.getSpanId(), child.getParentSpanId());
+            Assertions.assertNotEquals(Thread.currentThread().getName(), child.getThreadName());
+        }
+    }
+
+    @Test
+    void testFlush_exportsOnlyNewSpansAndBufferIsBounded() throws Exception {
+        final List<Span> exported = new ArrayList<>();
+        tracer.setExporter(new SpanExporter() {
+            @Override
+            public void export(List<Span> spans) {
+                exported.addAll(spans);
+            }
+        });
+
+        tracer.startTrace("first").end();
+        tracer.flush();
+        Assertions.assertEquals(1, exported.size());
+
+        for(int i = 0; i < 20; i++) {
+            tracer.startTrace("span" + i).end();
+        }
+
+        tracer.flush();
+
+        // Only the 8 most recent spans survive in the buffer
+        Assertions.assertEquals(9, exported.size());
+        Assertions.assertEquals("span19", exported.get(8).getName());
+        Assertions.assertEquals(8, tracer.getRecentSpans().size());
+    }
+}
@@ -0,0 +1,70 @@
+package edu.byu.cs.tweeter.view.main.paging;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+public class AdaptivePageSizerTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testNextPageSize_initialSizeBeforeMeasurements() {
+        AdaptivePageSizer sizer = new AdaptivePageSizer(5, 50, 10, 1000, null);
+        Assertions.assertEquals(10, sizer.nextPageSize(0));
+    }
+
+    @Test
+    public void testNextPageSize_slowLinkShrinksPages() {
+        AdaptivePageSizer sizer = new AdaptivePageSizer(5, 50, 10, 1000, null);
+
+        // 10 items in 5 seconds: 500ms per item, so only 2 fit in the target, clamped to 5
+        sizer.pageLoaded(10, 5000 * MILLIS);
+        Assertions.assertEquals(5, sizer.nextPageSize(10_000 * MILLIS));
+    }
+
+    @Test
+    public void testNextPageSize_fastLinkGrowsPages() {
+        AdaptivePageSizer sizer = new AdaptivePageSizer(5, 50, 10, 1000, null);
+
+        // 10 items in 400ms: 40ms per item, so 25 fit in the target
+        sizer.pageLoaded(10, 400 * MILLIS);
+        Assertions.assertEquals(25, sizer.nextPageSize(10_000 * MILLIS));
+    }
+
+    @Test
+    public void testNextPageSize_fastScrollingGrowsPages() {
+        AdaptivePageSizer sizer = new AdaptivePageSizer(5, 50, 10, 1000, null);
+
+        // 100ms per item allows 10 items within the target
+        sizer.pageLoaded(10, 1000 * MILLIS);
+
+        // Scrolling at 20 items per second past a 1s load needs 40 items with headroom
+        long now = 0;
+        for(int position = 0; position <= 40; position += 2) {
+            sizer.scrolled(position, now);
+            now += 100 * MILLIS;
+        }
+        Assertions.assertEquals(40, sizer.nextPageSize(now));
+
+        // Once the user stops scrolling, demand no longer counts
+        Assertions.assertEquals(10, sizer.nextPageSize(now + 2000 * MILLIS));
+    }
+
+    @Test
+    public void testNextPageSize_recordsChosenSizes() {
+        Histogram histogram = MetricsRegistry.getInstance().histogram("AdaptivePageSizerTest.pageSize");
+        long before = histogram.snapshot().getCount();
+
+        AdaptivePageSizer sizer = new AdaptivePageSizer(5, 50, 10, 1000, histogram);
+        sizer.nextPageSize(0);
+        sizer.nextPageSize(0);
+
+        Assertions.assertEquals(before + 2, histogram.snapshot().getCount());
+        Assertions.assertEquals(10, histogram.snapshot().getMax());
+    }
+}
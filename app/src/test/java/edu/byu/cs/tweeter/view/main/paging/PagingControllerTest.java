@@ -0,0 +1,190 @@
+package edu.byu.cs.tweeter.view.main.paging;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.byu.cs.tweeter.util.concurrent.CancellationToken;
+import edu.byu.cs.tweeter.util.concurrent.TaskPriority;
+
+public class PagingControllerTest {
+
+    private FakePageLoader pageLoader;
+    private PagingController<Integer> controller;
+
+    @BeforeEach
+    public void setup() {
+        pageLoader = new FakePageLoader();
+        controller = new PagingController<>(pageLoader, 10, 5);
+    }
+
+    @Test
+    public void testPagedList_getSpansPages() {
+        PagedList<Integer> list = new PagedList<>();
+        list.addPage(Arrays.asList(0, 1, 2));
+        list.addPage(new ArrayList<Integer>());
+        list.addPage(Arrays.asList(3));
+        list.addPage(Arrays.asList(4, 5));
+
+        Assertions.assertEquals(6, list.size());
+        Assertions.assertEquals(3, list.getPageCount());
+        for(int i = 0; i < list.size(); i++) {
+            Assertions.assertEquals(Integer.valueOf(i), list.get(i));
+        }
+        Assertions.assertEquals(Integer.valueOf(5), list.getLast());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> list.get(6));
+    }
+
+    @Test
+    public void testLoadFirstPage_requestsOnce() {
+        controller.loadFirstPage(TaskPriority.INTERACTIVE);
+        controller.loadFirstPage(TaskPriority.INTERACTIVE);
+
+        Assertions.assertEquals(1, pageLoader.requests.size());
+        Assertions.assertNull(pageLoader.requests.get(0).cursor);
+        Assertions.assertTrue(controller.isLoading());
+    }
+
+    @Test
+    public void testOnScrolled_prefetchesWithinDistance() {
+        controller.loadFirstPage(TaskPriority.INTERACTIVE);
+        pageLoader.complete(10, true);
+
+        // Last visible position 3 is further than 5 items from the end of 10 loaded items
+        controller.onScrolled(3);
+        Assertions.assertEquals(1, pageLoader.requests.size());
+
+        controller.onScrolled(4);
+        Assertions.assertEquals(2, pageLoader.requests.size());
+        Assertions.assertEquals(Integer.valueOf(9), pageLoader.requests.get(1).cursor);
+    }
+
+    @Test
+    public void testOnScrolled_noDuplicateRequests() {
+        controller.loadFirstPage(TaskPriority.INTERACTIVE);
+        pageLoader.complete(10, true);
+
+        controller.onScrolled(9);
+        controller.onScrolled(9);
+        controller.onScrolled(9);
+        Assertions.assertEquals(2, pageLoader.requests.size());
+
+        pageLoader.complete(10, false);
+        Assertions.assertEquals(20, controller.getItems().size());
+        Assertions.assertFalse(controller.hasMorePages());
+
+        controller.onScrolled(19);
+        Assertions.assertEquals(2, pageLoader.requests.size());
+    }
+
+    @Test
+    public void testCancel_cancelsInFlightRequest() {
+        controller.loadFirstPage(TaskPriority.INTERACTIVE);
+        controller.cancel();
+
+        Assertions.assertTrue(pageLoader.requests.get(0).token.isCancelled());
+        Assertions.assertFalse(controller.isLoading());
+    }
+
+    @Test
+    public void testPageFailed_allowsRetry() {
+        controller.loadFirstPage(TaskPriority.INTERACTIVE);
+        controller.pageFailed(new Exception("Failed"));
+        Assertions.assertFalse(controller.isLoading());
+
+        controller.loadFirstPage(TaskPriority.INTERACTIVE);
+        Assertions.assertEquals(2, pageLoader.requests.size());
+    }
+
+    @Test
+    public void testSeedFirstPage_replacesFirstRequest() {
+        controller.seedFirstPage(Arrays.asList(100, 101, 102), true);
+        controller.loadFirstPage(TaskPriority.INTERACTIVE);
+
+        Assertions.assertEquals(3, controller.getItems().size());
+        Assertions.assertTrue(pageLoader.requests.isEmpty());
+
+        controller.onScrolled(2);
+        Assertions.assertEquals(1, pageLoader.requests.size());
+        Assertions.assertEquals(Integer.valueOf(102), pageLoader.requests.get(0).cursor);
+    }
+
+    @Test
+    public void testSetPageLoader_retainedControllerRebindsWithoutRequests() {
+        controller.loadFirstPage(TaskPriority.INTERACTIVE);
+        pageLoader.complete(10, true);
+        controller.onScrolled(9);
+
+        // The screen is destroyed while the second page is in flight
+        controller.setListener(null);
+        controller.setPageLoader(null);
+        controller.onScrolled(9);
+        Assertions.assertEquals(2, pageLoader.requests.size());
+
+        // The recreated screen rebinds and receives the page requested by the old one
+        FakePageLoader newPageLoader = new FakePageLoader();
+        final List<Integer> inserted = new ArrayList<>();
+        controller.setPageLoader(newPageLoader);
+        controller.setListener(new PagingController.Listener() {
+            @Override
+            public void loadingChanged(boolean isLoading) {}
+
+            @Override
+            public void itemsInserted(int positionStart, int itemCount) {
+                inserted.add(positionStart);
+                inserted.add(itemCount);
+            }
+
+            @Override
+            public void loadFailed(Exception exception) {}
+        });
+        controller.loadFirstPage(TaskPriority.INTERACTIVE);
+
+        Assertions.assertTrue(newPageLoader.requests.isEmpty());
+        Assertions.assertEquals(10, controller.getItems().size());
+        Assertions.assertTrue(controller.isLoading());
+
+        pageLoader.complete(5, false);
+        Assertions.assertEquals(Arrays.asList(10, 5), inserted);
+        Assertions.assertEquals(15, controller.getItems().size());
+        Assertions.assertTrue(newPageLoader.requests.isEmpty());
+    }
+
+    private static class Request {
+        final Integer cursor;
+        final int limit;
+        final PageLoader.Callback<Integer> callback;
+        final CancellationToken token = new CancellationToken();
+
+        Request(Integer cursor, int limit, PageLoader.Callback<Integer> callback) {
+            this.cursor = cursor;
+            this.limit = limit;
+            this.callback = callback;
+        }
+    }
+
+    private static class FakePageLoader implements PageLoader<Integer> {
+
+        private final List<Request> requests = new ArrayList<>();
+        private int nextItem;
+
+        @Override
+        public CancellationToken loadPage(Integer lastItem, int limit, TaskPriority priority, Callback<Integer> callback) {
+            Request request = new Request(lastItem, limit, callback);
+            requests.add(request);
+            return request.token;
+        }
+
+        void complete(int count, boolean hasMorePages) {
+            List<Integer> page = new ArrayList<>(count);
+            for(int i = 0; i < count; i++) {
+                page.add(nextItem++);
+            }
+            requests.get(requests.size() - 1).callback.pageLoaded(page, hasMorePages);
+        }
+    }
+}
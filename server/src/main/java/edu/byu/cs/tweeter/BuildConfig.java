@@ -0,0 +1,13 @@
+package edu.byu.cs.tweeter;
+
+/**
+ * Stands in for the class the Android build generates, which the app sources the server compiles
+ * refer to. The server is built as a release build, without the debug-only checks.
+ */
+public final class BuildConfig {
+
+    public static final boolean DEBUG = false;
+
+    private BuildConfig() {
+    }
+}
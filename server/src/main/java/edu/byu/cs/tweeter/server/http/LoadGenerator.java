@@ -0,0 +1,201 @@
+package edu.byu.cs.tweeter.server.http;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.Follow;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.net.FollowServer;
+import edu.byu.cs.tweeter.model.net.HttpServerFacade;
+import edu.byu.cs.tweeter.model.net.ServerFacade;
+import edu.byu.cs.tweeter.model.service.request.FollowerRequest;
+import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
+import edu.byu.cs.tweeter.model.service.request.LoginRequest;
+import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
+import edu.byu.cs.tweeter.model.service.response.LoginResponse;
+import edu.byu.cs.tweeter.server.follow.FollowGraph;
+import edu.byu.cs.tweeter.server.follow.ShardedFollowGraph;
+import edu.byu.cs.tweeter.util.metrics.HistogramSnapshot;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * Measures the throughput and latency of the server end to end, through the
+ * {@link HttpServerFacade}, its JSON encoding and the HTTP stack on both sides.
+ * <p>
+ * Each client logs in once and then walks the follow graph the way a user scrolling the app would:
+ * it reads a page of the current user's followees and a page of their followers, then moves to a
+ * user from one of those pages, going back to itself when it reaches a user with neither. The
+ * clients send their next request as soon as the last one is answered, so the throughput reported
+ * is the most the server sustains at that concurrency.
+ * <p>
+ * Unless given the URL of a running server, the generator starts one in its own process, on a
+ * free port, over a follow graph it fills with generated users in a temporary directory, so a run
+ * needs no network access and isn't affected by the data of earlier runs.
+ */
+public class LoadGenerator {
+
+    private static final String USERNAME = "dummyUserName";
+    private static final String PASSWORD = "dummyPassword";
+
+    private static final int PAGE_SIZE = 10;
+    private static final int GENERATED_USER_COUNT = 10000;
+    private static final int MAX_FOLLOWEES_PER_USER = 50;
+
+    /**
+     * The number of users that half of all follows go to, so the graph has a few popular users
+     * with long follower lists, as a real one does.
+     */
+    private static final int POPULAR_USER_COUNT = 100;
+
+    /**
+     * Runs the generator.
+     *
+     * @param args the number of clients, 16 by default; how many seconds to run for, 10 by
+     *             default; and the URL of the server to send requests to, or nothing or an empty
+     *             string to start one in this process.
+     * @throws IOException if the embedded server couldn't be started.
+     * @throws InterruptedException if interrupted while the clients run.
+     */
+    public static void main(String [] args) throws IOException, InterruptedException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String serverUrl = args.length > 2 ? args[2] : "";
+
+        TweeterHttpServer server = null;
+        if(serverUrl.isEmpty()) {
+            server = startEmbeddedServer();
+            serverUrl = "http://localhost:" + server.getAddress().getPort();
+        }
+
+        try {
+            run(serverUrl, clients, seconds);
+        } finally {
+            if(server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    private static TweeterHttpServer startEmbeddedServer() throws IOException {
+        File directory = Files.createTempDirectory("tweeter-load").toFile();
+        System.setProperty(ShardedFollowGraph.DATA_DIRECTORY_PROPERTY, directory.getPath());
+
+        // The server finds the graph already filled and doesn't generate one of its own
+        FollowGraph followGraph = ShardedFollowGraph.getInstance();
+        followGraph.followAll(generateFollows(new Random(50)));
+
+        TweeterHttpServer server = new TweeterHttpServer(new ServerFacade(),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                2 * Runtime.getRuntime().availableProcessors(), TweeterHttpServer.DEFAULT_QUEUE_CAPACITY);
+        server.start();
+        return server;
+    }
+
+    /**
+     * Generates the follows of the embedded server's graph, including follows of the user the
+     * clients log in as, so their walks start with somewhere to go.
+     */
+    private static List<Follow> generateFollows(Random random) {
+        List<User> users = new ArrayList<>(GENERATED_USER_COUNT + 1);
+        users.add(new User("Test", "User", null));
+        for(int i = 0; i < GENERATED_USER_COUNT; i++) {
+            users.add(new User("Load" + i, "User" + (i % 100), null));
+        }
+
+        List<Follow> follows = new ArrayList<>();
+        for(User follower : users) {
+            int followeeCount = random.nextInt(MAX_FOLLOWEES_PER_USER + 1);
+            for(int i = 0; i < followeeCount; i++) {
+                int followee = random.nextBoolean() ? random.nextInt(POPULAR_USER_COUNT) : random.nextInt(users.size());
+                if(users.get(followee) != follower) {
+                    follows.add(new Follow(follower, users.get(followee)));
+                }
+            }
+        }
+        return follows;
+    }
+
+    private static void run(final String serverUrl, int clients, int seconds) throws InterruptedException {
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final long deadline = System.nanoTime() + seconds * 1000000000L;
+        final CountDownLatch done = new CountDownLatch(clients);
+
+        long start = System.nanoTime();
+
+        for(int i = 0; i < clients; i++) {
+            final long seed = i;
+            Thread client = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        walk(new HttpServerFacade(serverUrl), new Random(seed), deadline, requests, failures);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "LoadGenerator-" + (i + 1));
+            client.setDaemon(true);
+            client.start();
+        }
+
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("LoadGenerator: %d clients against %s for %.1f s: %d requests, %.0f requests/s, %d failed%n",
+                clients, serverUrl, elapsedSeconds, requests.get(), requests.get() / elapsedSeconds, failures.get());
+
+        for(HistogramSnapshot snapshot : MetricsRegistry.getInstance().snapshot().getHistograms()) {
+            if(snapshot.getName().startsWith("HttpServerFacade.")) {
+                System.out.printf("  %-30s count=%d p50=%.2f ms p99=%.2f ms max=%.2f ms%n", snapshot.getName(),
+                        snapshot.getCount(), snapshot.getValueAtPercentile(50) / 1e6,
+                        snapshot.getValueAtPercentile(99) / 1e6, snapshot.getMax() / 1e6);
+            }
+        }
+    }
+
+    private static void walk(FollowServer serverFacade, Random random, long deadline,
+                             AtomicLong requests, AtomicLong failures) {
+        LoginResponse login = serverFacade.login(new LoginRequest(USERNAME, PASSWORD));
+        requests.incrementAndGet();
+
+        if(!login.isSuccess()) {
+            failures.incrementAndGet();
+            return;
+        }
+
+        User self = login.getUser();
+        AuthToken authToken = login.getAuthToken();
+        User current = self;
+
+        while(System.nanoTime() < deadline) {
+            FollowingResponse followees = serverFacade.getFollowees(new FollowingRequest(authToken, current, PAGE_SIZE, null));
+            FollowerResponse followers = serverFacade.getFollowers(new FollowerRequest(authToken, current, PAGE_SIZE, null));
+            requests.addAndGet(2);
+
+            List<User> next = new ArrayList<>();
+            if(followees.isSuccess()) {
+                next.addAll(followees.getFollowees());
+            } else {
+                failures.incrementAndGet();
+            }
+            if(followers.isSuccess()) {
+                next.addAll(followers.getFollowers());
+            } else {
+                failures.incrementAndGet();
+            }
+
+            current = next.isEmpty() ? self : next.get(random.nextInt(next.size()));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package edu.byu.cs.tweeter.server.http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.byu.cs.tweeter.model.net.FollowServer;
+import edu.byu.cs.tweeter.model.net.HttpServerFacade;
+import edu.byu.cs.tweeter.model.net.ServerFacade;
+import edu.byu.cs.tweeter.model.service.request.FollowerRequest;
+import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
+import edu.byu.cs.tweeter.model.service.request.LoginRequest;
+import edu.byu.cs.tweeter.util.metrics.Counter;
+import edu.byu.cs.tweeter.util.metrics.Histogram;
+import edu.byu.cs.tweeter.util.metrics.MetricsRegistry;
+
+/**
+ * Serves logins and followee and follower requests over HTTP, for the {@link HttpServerFacade}.
+ * Each request is POSTed as JSON to its path, answered by a {@link FollowServer} in this process,
+ * usually a {@link ServerFacade}, and the response written back as JSON with a 200 status,
+ * whether or not it is a successful response. Error statuses are kept for requests that never
+ * reached the facade: a malformed body gets a 400, a method other than POST a 405 and a failure
+ * inside the facade a 500.
+ * <p>
+ * Requests are handled on a fixed pool of threads with a bounded queue. When the queue is full,
+ * the thread accepting connections handles the next request itself, so it stops accepting new
+ * connections until it is done and a burst of load backs up in the kernel's accept queue rather
+ * than in memory here.
+ */
+public class TweeterHttpServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    private static final Histogram HANDLE_LATENCY =
+            MetricsRegistry.getInstance().histogram("TweeterHttpServer.handle");
+    private static final Counter BAD_REQUESTS =
+            MetricsRegistry.getInstance().counter("TweeterHttpServer.badRequests");
+    private static final Counter FAILURES =
+            MetricsRegistry.getInstance().counter("TweeterHttpServer.failures");
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    /**
+     * How long {@link #stop()} waits for requests in progress to finish.
+     */
+    private static final int STOP_DELAY_SECONDS = 1;
+
+    static {
+        // The JDK's server writes a response's headers and body separately, so with Nagle's
+        // algorithm the body waits for the client to acknowledge the headers, which a client
+        // delaying its ACKs holds back for about 40 ms. Unless set otherwise, turn it off.
+        if(System.getProperty(NO_DELAY_PROPERTY) == null) {
+            System.setProperty(NO_DELAY_PROPERTY, "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final FollowServer serverFacade;
+    private final Gson gson = new Gson();
+
+    /**
+     * Creates a server. It doesn't accept requests until it is started.
+     *
+     * @param serverFacade the facade that answers the requests.
+     * @param address the address to listen on; a port of 0 picks a free port.
+     * @param threads the number of threads that handle requests.
+     * @param queueCapacity the number of accepted requests that can wait for a thread.
+     * @throws IOException if the server couldn't listen on the address.
+     */
+    public TweeterHttpServer(FollowServer serverFacade, InetSocketAddress address, int threads,
+                             int queueCapacity) throws IOException {
+        this.serverFacade = serverFacade;
+
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), new ThreadFactory() {
+                    private final AtomicInteger nextId = new AtomicInteger(1);
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "TweeterHttpServer-" + nextId.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+
+        server.createContext(HttpServerFacade.LOGIN_PATH, new JsonHandler<LoginRequest>(LoginRequest.class) {
+            @Override
+            Object answer(LoginRequest request) {
+                return serverFacade.login(request);
+            }
+        });
+        server.createContext(HttpServerFacade.FOLLOWEES_PATH, new JsonHandler<FollowingRequest>(FollowingRequest.class) {
+            @Override
+            Object answer(FollowingRequest request) {
+                return serverFacade.getFollowees(request);
+            }
+        });
+        server.createContext(HttpServerFacade.FOLLOWERS_PATH, new JsonHandler<FollowerRequest>(FollowerRequest.class) {
+            @Override
+            Object answer(FollowerRequest request) {
+                return serverFacade.getFollowers(request);
+            }
+        });
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits briefly for those in progress to finish, and stops the
+     * threads that handle them.
+     */
+    public void stop() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the address the server listens on, with the port it picked if it was asked for
+     * port 0.
+     *
+     * @return the address.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     *
+     * @param args the port to listen on, {@value #DEFAULT_PORT} by default, and the number of
+     *             threads that handle requests, twice the number of processors by default.
+     * @throws IOException if the server couldn't listen on the port.
+     */
+    public static void main(String [] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 2 * Runtime.getRuntime().availableProcessors();
+
+        final TweeterHttpServer server = new TweeterHttpServer(new ServerFacade(),
+                new InetSocketAddress(port), threads, DEFAULT_QUEUE_CAPACITY);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                server.stop();
+            }
+        }));
+
+        server.start();
+        System.out.println("Tweeter server listening on port " + server.getAddress().getPort()
+                + " with " + threads + " threads");
+    }
+
+    /**
+     * Reads a request of one type from the JSON body of an exchange, has it answered, and writes
+     * the response back as JSON.
+     *
+     * @param <Q> the type of the requests.
+     */
+    private abstract class JsonHandler<Q> implements HttpHandler {
+
+        private final Class<Q> requestClass;
+
+        JsonHandler(Class<Q> requestClass) {
+            this.requestClass = requestClass;
+        }
+
+        /**
+         * Answers a request.
+         *
+         * @param request the request.
+         * @return the response.
+         */
+        abstract Object answer(Q request);
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            long start = System.nanoTime();
+
+            try {
+                if(!"POST".equals(exchange.getRequestMethod())) {
+                    BAD_REQUESTS.increment();
+                    exchange.getResponseHeaders().set("Allow", "POST");
+                    sendStatus(exchange, HttpURLConnection.HTTP_BAD_METHOD);
+                    return;
+                }
+
+                Q request;
+                try (Reader reader = new InputStreamReader(exchange.getRequestBody(), UTF_8)) {
+                    request = gson.fromJson(reader, requestClass);
+                } catch (JsonParseException ex) {
+                    request = null;
+                }
+
+                if(request == null) {
+                    BAD_REQUESTS.increment();
+                    sendStatus(exchange, HttpURLConnection.HTTP_BAD_REQUEST);
+                    return;
+                }
+
+                Object response;
+                try {
+                    response = answer(request);
+                } catch (RuntimeException | AssertionError ex) {
+                    FAILURES.increment();
+                    sendStatus(exchange, HttpURLConnection.HTTP_INTERNAL_ERROR);
+                    return;
+                }
+
+                byte [] body = gson.toJson(response).getBytes(UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, body.length);
+
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(body);
+                }
+            } finally {
+                exchange.close();
+                HANDLE_LATENCY.recordSince(start);
+            }
+        }
+
+        private void sendStatus(HttpExchange exchange, int status) throws IOException {
+            // A length of -1 sends the status with no body
+            exchange.sendResponseHeaders(status, -1);
+        }
+    }
+}
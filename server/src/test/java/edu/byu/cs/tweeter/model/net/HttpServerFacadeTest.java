@@ -0,0 +1,191 @@
+package edu.byu.cs.tweeter.model.net;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.byu.cs.tweeter.model.domain.AuthToken;
+import edu.byu.cs.tweeter.model.domain.User;
+import edu.byu.cs.tweeter.model.service.request.FollowerRequest;
+import edu.byu.cs.tweeter.model.service.request.FollowingRequest;
+import edu.byu.cs.tweeter.model.service.request.LoginRequest;
+import edu.byu.cs.tweeter.model.service.response.ErrorCode;
+import edu.byu.cs.tweeter.model.service.response.FollowerResponse;
+import edu.byu.cs.tweeter.model.service.response.FollowingResponse;
+import edu.byu.cs.tweeter.model.service.response.LoginResponse;
+import edu.byu.cs.tweeter.server.follow.FollowGraph;
+import edu.byu.cs.tweeter.server.follow.FollowStore;
+import edu.byu.cs.tweeter.server.http.TweeterHttpServer;
+
+public class HttpServerFacadeTest {
+
+    private File directory;
+    private FollowStore followStore;
+    private ServerFacade localFacade;
+    private TweeterHttpServer server;
+    private String serverUrl;
+    private HttpServerFacade httpFacade;
+
+    private final User user1 = new User("FirstName1", "LastName1", null);
+    private final User user2 = new User("FirstName2", "LastName2", null);
+    private final User user3 = new User("FirstName3", "LastName3", null);
+    private final User user4 = new User("FirstName4", "LastName4", null);
+
+    @BeforeEach
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("follows").toFile();
+        followStore = FollowStore.open(directory);
+        followStore.follow(user1, user2);
+        followStore.follow(user1, user3);
+        followStore.follow(user1, user4);
+        followStore.follow(user2, user1);
+        followStore.follow(user3, user1);
+
+        localFacade = new ServerFacade() {
+            @Override
+            FollowGraph getFollowGraph() {
+                return followStore;
+            }
+        };
+
+        server = new TweeterHttpServer(localFacade, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4,
+                TweeterHttpServer.DEFAULT_QUEUE_CAPACITY);
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+        httpFacade = new HttpServerFacade(serverUrl);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        server.stop();
+        followStore.close();
+        deleteRecursively(directory);
+    }
+
+    private static void deleteRecursively(File file) {
+        File [] files = file.listFiles();
+        if(files != null) {
+            for(File child : files) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private AuthToken login() {
+        LoginResponse response = httpFacade.login(new LoginRequest("dummyUserName", "dummyPassword"));
+        Assertions.assertTrue(response.isSuccess());
+        return response.getAuthToken();
+    }
+
+    private int post(String path, String method, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(serverUrl + path).openConnection();
+        connection.setRequestMethod(method);
+
+        if(body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(body.getBytes("UTF-8"));
+            }
+        }
+
+        int responseCode = connection.getResponseCode();
+        connection.disconnect();
+        return responseCode;
+    }
+
+    @Test
+    public void testLogin_opensASessionOnTheServer() {
+        LoginResponse response = httpFacade.login(new LoginRequest("dummyUserName", "dummyPassword"));
+
+        Assertions.assertTrue(response.isSuccess());
+        Assertions.assertEquals("@TestUser", response.getUser().getAlias());
+        Assertions.assertNotNull(response.getAuthToken());
+
+        // The server's session table, not the client's, holds the session
+        Assertions.assertNotNull(localFacade.getSessionTable().validate(response.getAuthToken()));
+    }
+
+    @Test
+    public void testLogin_invalidCredentials() {
+        LoginResponse response = httpFacade.login(new LoginRequest("dummyUserName", "wrongPassword"));
+
+        Assertions.assertFalse(response.isSuccess());
+        Assertions.assertEquals(ServerFacade.INVALID_CREDENTIALS_MESSAGE, response.getMessage());
+    }
+
+    @Test
+    public void testGetFollowees_matchesTheFacadeItIsServedBy() {
+        AuthToken authToken = login();
+
+        List<User> followees = new ArrayList<>();
+        User lastFollowee = null;
+        FollowingResponse response;
+        do {
+            FollowingRequest request = new FollowingRequest(authToken, user1, 2, lastFollowee);
+            response = httpFacade.getFollowees(request);
+
+            FollowingResponse expected = localFacade.getFollowees(request);
+            Assertions.assertEquals(expected, response);
+            Assertions.assertEquals(expected.getHasMorePages(), response.getHasMorePages());
+
+            followees.addAll(response.getFollowees());
+            lastFollowee = followees.get(followees.size() - 1);
+        } while(response.getHasMorePages());
+
+        Assertions.assertEquals(followStore.getFollowees(user1), followees);
+    }
+
+    @Test
+    public void testGetFollowers_matchesTheFacadeItIsServedBy() {
+        AuthToken authToken = login();
+
+        FollowerRequest request = new FollowerRequest(authToken, user1, 10, null);
+        FollowerResponse response = httpFacade.getFollowers(request);
+
+        Assertions.assertEquals(localFacade.getFollowers(request), response);
+        Assertions.assertEquals(followStore.getFollowers(user1), response.getFollowers());
+        Assertions.assertFalse(response.getHasMorePages());
+    }
+
+    @Test
+    public void testGetFollowees_invalidAuthToken() {
+        FollowingResponse response = httpFacade.getFollowees(new FollowingRequest(
+                new AuthToken("not-a-session", Long.MAX_VALUE), user1, 10, null));
+
+        Assertions.assertFalse(response.isSuccess());
+        Assertions.assertEquals(ServerFacade.INVALID_AUTH_TOKEN_MESSAGE, response.getMessage());
+        Assertions.assertEquals(ErrorCode.INVALID_AUTH_TOKEN, response.getErrorCode());
+    }
+
+    @Test
+    public void testRequests_serverUnavailable() {
+        AuthToken authToken = login();
+        server.stop();
+
+        FollowingResponse followees = httpFacade.getFollowees(new FollowingRequest(authToken, user1, 10, null));
+        FollowerResponse followers = httpFacade.getFollowers(new FollowerRequest(authToken, user1, 10, null));
+
+        Assertions.assertEquals(HttpServerFacade.SERVER_UNAVAILABLE_MESSAGE, followees.getMessage());
+        Assertions.assertEquals(HttpServerFacade.SERVER_UNAVAILABLE_MESSAGE, followers.getMessage());
+    }
+
+    @Test
+    public void testServer_rejectsMalformedRequests() throws IOException {
+        Assertions.assertEquals(HttpURLConnection.HTTP_BAD_METHOD, post(HttpServerFacade.FOLLOWEES_PATH, "GET", null));
+        Assertions.assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, post(HttpServerFacade.FOLLOWEES_PATH, "POST", "{not json"));
+        Assertions.assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, post(HttpServerFacade.FOLLOWERS_PATH, "POST", ""));
+    }
+}